@@ -0,0 +1,158 @@
+package com.wordcounter;
+
+import com.wordcounter.exception.InvalidWordException;
+import com.wordcounter.sketch.CountMinSketch;
+import com.wordcounter.sketch.Hashing;
+import com.wordcounter.sketch.HyperLogLog;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Fixed-memory {@link WordCounter} for unbounded streams. No word is ever stored:
+ * <ul>
+ *   <li>{@link #getCount(String)} comes from a Count-Min Sketch. It never undercounts, and with probability
+ *   {@code confidence} it overcounts by at most {@code epsilon * getTotalWords()}.</li>
+ *   <li>{@link #getUniqueWordCount()} comes from HyperLogLog, with a relative standard error of
+ *   {@code 1.04 / sqrt(2^precision)}.</li>
+ *   <li>{@link #getTotalWords()} is exact.</li>
+ * </ul>
+ * With the defaults (epsilon 2e-5, confidence 0.99, precision 14), memory is about 2.7 MB for the sketch
+ * and 64 KB for HyperLogLog, whatever the vocabulary size. Validation and translation work as in {@link WordCounterImpl}.
+ */
+public class ApproximateWordCounter implements WordCounter {
+
+    private final Translator translator;
+    private final CountMinSketch sketch;
+    private final HyperLogLog distinct;
+    private final LongAdder totalWords;
+    private final double epsilon;
+    private final double confidence;
+
+    public static class Builder {
+        private Translator translator = new DefaultTranslator();
+        private double epsilon = 2e-5;
+        private double confidence = 0.99;
+        private int precision = 14;
+
+        public Builder withTranslator(Translator translator) {
+            this.translator = translator;
+            return this;
+        }
+
+        public Builder withErrorBounds(double epsilon, double confidence) {
+            this.epsilon = epsilon;
+            this.confidence = confidence;
+            return this;
+        }
+
+        public Builder withHyperLogLogPrecision(int precision) {
+            this.precision = precision;
+            return this;
+        }
+
+        public ApproximateWordCounter build() {
+            return new ApproximateWordCounter(this);
+        }
+    }
+
+    private ApproximateWordCounter(Builder builder) {
+        this.translator = builder.translator;
+        this.sketch = new CountMinSketch(builder.epsilon, builder.confidence);
+        this.distinct = new HyperLogLog(builder.precision);
+        this.totalWords = new LongAdder();
+        this.epsilon = builder.epsilon;
+        this.confidence = builder.confidence;
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void addWord(String word) throws InvalidWordException {
+        WordValidator.validateWord(word);
+
+        String translatedWord = translator.translate(WordValidator.normalizeWord(word));
+        long hash = Hashing.hash64(translatedWord);
+        sketch.add(hash, 1);
+        distinct.offer(hash);
+        totalWords.increment();
+    }
+
+    @Override
+    public void addWords(List<String> words) throws InvalidWordException {
+        if (words == null) {
+            throw new InvalidWordException("Word list cannot be null", null);
+        }
+
+        for (String word : words) {
+            addWord(word);
+        }
+    }
+
+    @Override
+    public void addWords(String... words) throws InvalidWordException {
+        if (words == null) {
+            throw new InvalidWordException("Word array cannot be null", null);
+        }
+
+        addWords(Arrays.asList(words));
+    }
+
+    @Override
+    public int getCount(String word) {
+        if (word == null) {
+            return 0;
+        }
+
+        String translatedWord = translator.translate(WordValidator.normalizeWord(word));
+        return sketch.estimate(Hashing.hash64(translatedWord));
+    }
+
+    @Override
+    public void reset() {
+        sketch.clear();
+        distinct.clear();
+        totalWords.reset();
+    }
+
+    @Override
+    public int getTotalWords() {
+        return (int) totalWords.sum();
+    }
+
+
+    public int getUniqueWordCount() {
+        return (int) distinct.cardinality();
+    }
+
+
+    public boolean isEmpty() {
+        return totalWords.sum() == 0;
+    }
+
+
+    // Upper bound on how far getCount may overshoot, at the configured confidence
+    public int getMaxOvercount() {
+        return (int) Math.ceil(epsilon * totalWords.sum());
+    }
+
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+
+    public double getUniqueWordRelativeError() {
+        return distinct.getRelativeError();
+    }
+
+
+    public long getMemoryBytes() {
+        return sketch.getMemoryBytes() + distinct.getMemoryBytes();
+    }
+}
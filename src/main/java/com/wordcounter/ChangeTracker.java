@@ -0,0 +1,76 @@
+package com.wordcounter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Remembers which canonical words changed since the last {@link #poll()}, however many times each was incremented.
+ * Only words are tracked, not deltas: a poller reads the current counts, so repeated increments coalesce for free
+ * and memory is bounded by the number of distinct words changed between polls. Enabled with
+ * {@link WordCounterImpl.Builder#withChangeTracking()}.
+ */
+public final class ChangeTracker implements CountListener {
+
+    private final Set<String> changedWords = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reset = new AtomicBoolean();
+
+    /**
+     * Words changed since the previous poll, and whether the counter was reset in between.
+     * Counts read after a reset are always post-reset counts, so the words are still accurate.
+     */
+    public static final class Changes {
+        private final List<String> words;
+        private final boolean reset;
+
+        private Changes(List<String> words, boolean reset) {
+            this.words = words;
+            this.reset = reset;
+        }
+
+        public List<String> getWords() { return words; }
+        public boolean isReset() { return reset; }
+
+        public boolean isEmpty() {
+            return words.isEmpty() && !reset;
+        }
+    }
+
+    @Override
+    public void onIncrement(String canonicalWord, int delta) {
+        // Hot words are almost always already marked; a lock-free read avoids locking their bin on every increment
+        if (!changedWords.contains(canonicalWord)) {
+            changedWords.add(canonicalWord);
+        }
+    }
+
+    @Override
+    public void onReset() {
+        reset.set(true);
+    }
+
+
+    /**
+     * Takes every change recorded so far. The caller must read counts after this returns: a word is unmarked before
+     * its count is read, so an increment racing with the poll is either seen now or marks the word again.
+     */
+    public Changes poll() {
+        boolean wasReset = reset.getAndSet(false);
+        List<String> words = new ArrayList<>();
+        Iterator<String> iterator = changedWords.iterator();
+        while (iterator.hasNext()) {
+            words.add(iterator.next());
+            iterator.remove();
+        }
+        return new Changes(words, wasReset);
+    }
+
+
+    public int getPendingWordCount() {
+        return changedWords.size();
+    }
+}
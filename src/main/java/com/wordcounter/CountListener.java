@@ -0,0 +1,13 @@
+package com.wordcounter;
+
+
+/**
+ * Observer of count changes in a {@link WordCounterImpl}, called on the writing thread after the change is applied.
+ * Words are canonical. State recovered from disk at startup is not replayed to listeners.
+ */
+public interface CountListener {
+
+    void onIncrement(String canonicalWord, int delta);
+
+    void onReset();
+}
@@ -0,0 +1,511 @@
+package com.wordcounter;
+
+import com.wordcounter.tiered.ColdStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Count table behind {@link WordCounterImpl} that supports consistent point-in-time snapshots without blocking writers.
+ *
+ * Every counter packs its value and the epoch of its last write into one {@link AtomicLong}, so an increment is
+ * normally a single CAS. Taking a snapshot starts a new epoch, and the first write to each counter in that epoch
+ * saves the pre-write value; once writers still running in the old epoch have finished, those saved values form
+ * the snapshot.
+ * Reset swaps in a fresh table, so readers see either the old counts and total or the new ones, never a mix.
+ * Every write also bumps a version slot owned by the writing thread's stripe; their sum is a monotonic version
+ * that changes whenever the counts do, or a spill moves them between tiers, at the cost of one uncontended
+ * increment per write.
+ *
+ * With a {@link ColdStore} the table becomes the hot tier of two. Once its estimated size passes the memory budget,
+ * {@link #spill()} retires the counters not touched since the previous pass (a CLOCK sweep) and moves their counts to
+ * the cold store; a write to a retired counter starts a fresh one, whose count adds to the cold one. Reads that need
+ * the cold tier check a spill sequence and retry if a batch moved between tiers while they read, so a count is never
+ * seen in both tiers or in neither. Only spilled words cost disk reads; the total never leaves memory.
+ */
+class CountStore {
+
+    // In-flight writer slots per epoch parity, one cache line apart; a thread always uses the same slot
+    private static final int WRITER_STRIPES = 64;
+    private static final int STRIPE_SPACING = 16;
+    // Epoch of a counter spilled to the cold tier; writers that find it start a new counter instead
+    private static final int RETIRED = Integer.MIN_VALUE;
+    // Rough heap per hot entry: map node, counter, its AtomicLong and the key string's headers
+    private static final long ENTRY_OVERHEAD_BYTES = 120;
+
+    static final class Counter {
+        // High 32 bits: count; low 32 bits: epoch of the last write
+        private final AtomicLong state;
+        // Count as of the start of the epoch in state; only changed under the counter's monitor
+        private volatile int valueAtCut;
+        // Whether the word already had cold counts when this counter was created
+        private final boolean alsoCold;
+        // CLOCK reference bit; a racy plain field is enough to tell hot words from cold ones
+        private boolean referenced = true;
+
+        private Counter(int epoch) {
+            this(epoch, false);
+        }
+
+        private Counter(int epoch, boolean alsoCold) {
+            this.state = new AtomicLong(pack(0, epoch));
+            this.alsoCold = alsoCold;
+        }
+
+        // False if the counter was retired, in which case nothing was added
+        private boolean add(int delta, int epoch) {
+            long current = state.get();
+            if (epochOf(current) == epoch && state.compareAndSet(current, pack(countOf(current) + delta, epoch))) {
+                return true;
+            }
+            return addSlow(delta, epoch);
+        }
+
+        /**
+         * Rare paths: the first write after a cut records the pre-cut value, and a late write from the
+         * previous epoch lands on both sides of the cut so the snapshot still includes it.
+         */
+        private synchronized boolean addSlow(int delta, int epoch) {
+            while (true) {
+                long current = state.get();
+                int count = countOf(current);
+                int stateEpoch = epochOf(current);
+                if (stateEpoch == RETIRED) {
+                    return false;
+                } else if (stateEpoch == epoch) {
+                    if (state.compareAndSet(current, pack(count + delta, epoch))) {
+                        return true;
+                    }
+                } else if (stateEpoch < epoch) {
+                    valueAtCut = count;
+                    if (state.compareAndSet(current, pack(count + delta, epoch))) {
+                        return true;
+                    }
+                } else if (state.compareAndSet(current, pack(count + delta, stateEpoch))) {
+                    valueAtCut += delta;
+                    return true;
+                }
+            }
+        }
+
+        // Freezes the count for spilling; later writes fail and go to a new counter
+        private synchronized int retire() {
+            while (true) {
+                long current = state.get();
+                if (state.compareAndSet(current, pack(countOf(current), RETIRED))) {
+                    return countOf(current);
+                }
+            }
+        }
+
+        int get() {
+            return countOf(state.get());
+        }
+
+        private void touch() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+
+        private int valueAt(int cutEpoch) {
+            long current = state.get();
+            return epochOf(current) == cutEpoch ? valueAtCut : countOf(current);
+        }
+
+        private static long pack(int count, int epoch) {
+            return ((long) count << 32) | (epoch & 0xffffffffL);
+        }
+
+        private static int countOf(long state) {
+            return (int) (state >>> 32);
+        }
+
+        private static int epochOf(long state) {
+            return (int) state;
+        }
+    }
+
+    private static final class Table {
+        private final ConcurrentHashMap<String, Counter> counters;
+        private final Counter total;
+
+        private Table(int epoch) {
+            this.counters = new ConcurrentHashMap<>();
+            this.total = new Counter(epoch);
+        }
+    }
+
+    private final StringPool keyPool;
+    private final AtomicIntegerArray[] writersInEpoch;
+    private final AtomicLongArray versions;
+    private final Object snapshotMonitor;
+    private volatile int epoch;
+    private volatile Table table;
+    // Tiering; cold is null when everything stays in memory
+    private final ColdStore cold;
+    private final long memoryBudgetBytes;
+    private final int spillBatchWords;
+    private final AtomicLong hotBytes = new AtomicLong();
+    // Hot counters whose word also has cold counts, so size() does not count it twice
+    private final AtomicInteger alsoColdCounters = new AtomicInteger();
+    // Odd while a batch moves between tiers
+    private volatile long spillSequence;
+
+    CountStore(StringPool keyPool) {
+        this(keyPool, null, 0, 0);
+    }
+
+    CountStore(StringPool keyPool, ColdStore cold, long memoryBudgetBytes, int spillBatchWords) {
+        this.keyPool = keyPool;
+        this.cold = cold;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.spillBatchWords = spillBatchWords;
+        this.writersInEpoch = new AtomicIntegerArray[] {
+                new AtomicIntegerArray(WRITER_STRIPES * STRIPE_SPACING),
+                new AtomicIntegerArray(WRITER_STRIPES * STRIPE_SPACING)};
+        this.versions = new AtomicLongArray(WRITER_STRIPES * STRIPE_SPACING);
+        this.snapshotMonitor = new Object();
+        this.epoch = 0;
+        this.table = new Table(0);
+    }
+
+
+    void add(String word, int delta) {
+        int slot = writerSlot();
+        while (true) {
+            int writeEpoch = epoch;
+            AtomicIntegerArray writers = writersInEpoch[writeEpoch & 1];
+            writers.incrementAndGet(slot);
+            try {
+                if (epoch != writeEpoch) {
+                    // A snapshot started in between; register under the new epoch instead
+                    continue;
+                }
+                Table current = table;
+                Counter counter = current.counters.get(word);
+                if (counter == null) {
+                    counter = newCounter(current, word, writeEpoch);
+                }
+                if (!counter.add(delta, writeEpoch)) {
+                    // Being spilled; the spiller removes it from the map shortly
+                    Thread.yield();
+                    continue;
+                }
+                counter.touch();
+                current.total.add(delta, writeEpoch);
+                versions.incrementAndGet(slot);
+                return;
+            } finally {
+                writers.decrementAndGet(slot);
+            }
+        }
+    }
+
+
+    private Counter newCounter(Table current, String word, int writeEpoch) {
+        if (cold == null) {
+            // New keys go through the pool so the map holds the same instance as the translation cache
+            return current.counters.computeIfAbsent(keyPool.intern(word), k -> new Counter(writeEpoch));
+        }
+        // Looked up before the insert so no disk read happens under the map's bin lock
+        boolean alsoCold = cold.contains(word);
+        return current.counters.computeIfAbsent(keyPool.intern(word), k -> {
+            hotBytes.addAndGet(entryBytes(k));
+            if (alsoCold) {
+                alsoColdCounters.incrementAndGet();
+            }
+            return new Counter(writeEpoch, alsoCold);
+        });
+    }
+
+
+    int get(String word) {
+        if (cold == null) {
+            Counter counter = table.counters.get(word);
+            return counter != null ? counter.get() : 0;
+        }
+        while (true) {
+            long sequence = spillSequence;
+            if ((sequence & 1) == 0) {
+                Counter counter = table.counters.get(word);
+                if (counter != null) {
+                    counter.touch();
+                    if (!counter.alsoCold) {
+                        // Never cold before this counter, and a retired counter holds exactly what it spilled
+                        return counter.get();
+                    }
+                }
+                int count = (counter != null ? counter.get() : 0) + cold.get(word);
+                if (spillSequence == sequence) {
+                    return count;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+
+    boolean contains(String word) {
+        return table.counters.containsKey(word) || cold != null && cold.contains(word);
+    }
+
+
+    int size() {
+        if (cold == null) {
+            return table.counters.size();
+        }
+        return (int) (table.counters.size() + cold.getUniqueWordCount() - alsoColdCounters.get());
+    }
+
+
+    int total() {
+        return table.total.get();
+    }
+
+
+    void clear() {
+        if (cold == null) {
+            table = new Table(epoch);
+            touch();
+            return;
+        }
+        synchronized (snapshotMonitor) {
+            spillSequence++;
+            try {
+                table = new Table(epoch);
+                cold.clear();
+                hotBytes.set(0);
+                alsoColdCounters.set(0);
+            } finally {
+                spillSequence++;
+            }
+            touch();
+        }
+    }
+
+
+    /**
+     * Moves the least recently touched words to the cold tier until the hot table is back under three quarters of
+     * the memory budget. Does nothing unless tiered or while within budget. Snapshots wait while a spill runs.
+     *
+     * @return how many words were spilled
+     */
+    int spill() throws IOException {
+        if (cold == null || hotBytes.get() <= memoryBudgetBytes) {
+            return 0;
+        }
+        synchronized (snapshotMonitor) {
+            Table current = table;
+            long toFree = hotBytes.get() - memoryBudgetBytes / 4 * 3;
+            List<String> victims = new ArrayList<>();
+            Set<String> chosen = new HashSet<>();
+            long freed = 0;
+            // First pass clears reference bits; words not touched since then go on the second
+            for (int pass = 0; pass < 2 && freed < toFree; pass++) {
+                for (Map.Entry<String, Counter> entry : current.counters.entrySet()) {
+                    if (freed >= toFree) {
+                        break;
+                    }
+                    Counter counter = entry.getValue();
+                    if (counter.referenced) {
+                        counter.referenced = false;
+                    } else if (chosen.add(entry.getKey())) {
+                        victims.add(entry.getKey());
+                        freed += entryBytes(entry.getKey());
+                    }
+                }
+            }
+
+            Collections.sort(victims);
+            for (int from = 0; from < victims.size(); from += spillBatchWords) {
+                spillBatch(current, victims.subList(from, Math.min(victims.size(), from + spillBatchWords)));
+            }
+            return victims.size();
+        }
+    }
+
+
+    private void spillBatch(Table current, List<String> batchWords) throws IOException {
+        String[] words = new String[batchWords.size()];
+        int[] counts = new int[words.length];
+        Counter[] counters = new Counter[words.length];
+        int size = 0;
+        int newWords = 0;
+        int alsoCold = 0;
+        for (String word : batchWords) {
+            Counter counter = current.counters.get(word);
+            if (counter == null) {
+                continue;
+            }
+            words[size] = word;
+            counters[size] = counter;
+            counts[size] = counter.retire();
+            if (counter.alsoCold) {
+                alsoCold++;
+            } else {
+                newWords++;
+            }
+            size++;
+        }
+        ColdStore.Batch batch = cold.prepare(Arrays.copyOf(words, size), Arrays.copyOf(counts, size), newWords);
+
+        spillSequence++;
+        try {
+            cold.publish(batch);
+            long freed = 0;
+            for (int i = 0; i < size; i++) {
+                current.counters.remove(words[i], counters[i]);
+                freed += entryBytes(words[i]);
+            }
+            hotBytes.addAndGet(-freed);
+            alsoColdCounters.addAndGet(-alsoCold);
+        } finally {
+            spillSequence++;
+        }
+        cold.persist(batch);
+        // Counts are unchanged, but the tier sizes reported next to them are not, so version-keyed stats move on
+        touch();
+    }
+
+
+    private static long entryBytes(String word) {
+        return ENTRY_OVERHEAD_BYTES + 2L * word.length();
+    }
+
+
+    long getHotBytes() {
+        return hotBytes.get();
+    }
+
+
+    /**
+     * Moves the version on without a count changing, for state outside the table such as pending words.
+     */
+    void touch() {
+        versions.incrementAndGet(writerSlot());
+    }
+
+
+    /**
+     * Sum of the version slots. Each slot only grows and a later read sees every slot at least as high,
+     * so versions read one after another never go backwards.
+     */
+    long version() {
+        long version = 0;
+        for (int slot = 0; slot < versions.length(); slot += STRIPE_SPACING) {
+            version += versions.get(slot);
+        }
+        return version;
+    }
+
+
+    private static int writerSlot() {
+        return (int) (Thread.currentThread().getId() & (WRITER_STRIPES - 1)) * STRIPE_SPACING;
+    }
+
+
+    /**
+     * Live, non-atomic view of every counter; use {@link #snapshot()} when a consistent cut matters.
+     */
+    void forEach(BiConsumer<String, Integer> action) {
+        Table current = table;
+        if (cold == null) {
+            current.counters.forEach((word, counter) -> action.accept(word, counter.get()));
+            return;
+        }
+        cold.forEach((word, count) -> {
+            Counter counter = current.counters.get(word);
+            action.accept(word, count + (counter != null ? counter.get() : 0));
+        });
+        current.counters.forEach((word, counter) -> {
+            if (!counter.alsoCold) {
+                action.accept(word, counter.get());
+            }
+        });
+    }
+
+
+    CountsSnapshot snapshot() {
+        synchronized (snapshotMonitor) {
+            int previous = epoch;
+            int cut = previous + 1;
+            epoch = cut;
+
+            // Writers never wait on us; we wait for the few still finishing under the previous epoch.
+            // A slot seen empty stays clear of that epoch: later arrivals see the new epoch and retry.
+            AtomicIntegerArray stragglers = writersInEpoch[previous & 1];
+            for (int slot = 0; slot < stragglers.length(); slot += STRIPE_SPACING) {
+                while (stragglers.get(slot) != 0) {
+                    Thread.yield();
+                }
+            }
+
+            Table frozen = table;
+            List<String> words = new ArrayList<>(frozen.counters.size());
+            for (Map.Entry<String, Counter> entry : frozen.counters.entrySet()) {
+                if (entry.getValue().valueAt(cut) != 0) {
+                    words.add(entry.getKey());
+                }
+            }
+            Collections.sort(words);
+
+            int[] counts = new int[words.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = frozen.counters.get(words.get(i)).valueAt(cut);
+            }
+            String[] hotWords = words.toArray(new String[0]);
+            if (cold == null) {
+                return new CountsSnapshot(cut, frozen.total.valueAt(cut), hotWords, counts);
+            }
+            // Spills wait for this monitor, so the cold tier holds still while it is merged in
+            CountsSnapshot hot = new CountsSnapshot(cut, frozen.total.valueAt(cut), hotWords, counts);
+            return withColdCounts(hot, cut);
+        }
+    }
+
+
+    // Linear merge of the hot words with the cold store's ascending scan
+    private CountsSnapshot withColdCounts(CountsSnapshot hot, int cut) {
+        List<String> words = new ArrayList<>(hot.getUniqueWordCount());
+        int[][] counts = {new int[Math.max(16, hot.getUniqueWordCount())]};
+        int[] next = {0};
+        BiConsumer<String, Integer> emit = (word, count) -> {
+            if (words.size() == counts[0].length) {
+                counts[0] = Arrays.copyOf(counts[0], counts[0].length * 2);
+            }
+            counts[0][words.size()] = count;
+            words.add(word);
+        };
+        cold.forEach((word, count) -> {
+            while (next[0] < hot.getUniqueWordCount() && hot.getWord(next[0]).compareTo(word) < 0) {
+                emit.accept(hot.getWord(next[0]), hot.getCountAt(next[0]));
+                next[0]++;
+            }
+            if (next[0] < hot.getUniqueWordCount() && hot.getWord(next[0]).equals(word)) {
+                emit.accept(word, count + hot.getCountAt(next[0]));
+                next[0]++;
+            } else {
+                emit.accept(word, count);
+            }
+        });
+        for (int i = next[0]; i < hot.getUniqueWordCount(); i++) {
+            emit.accept(hot.getWord(i), hot.getCountAt(i));
+        }
+        return new CountsSnapshot(cut, hot.getTotalWords(), words.toArray(new String[0]),
+                Arrays.copyOf(counts[0], words.size()));
+    }
+}
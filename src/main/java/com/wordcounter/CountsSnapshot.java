@@ -0,0 +1,129 @@
+package com.wordcounter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Immutable point-in-time view of a {@link WordCounterImpl}: the counts and the total always agree.
+ * Words are kept sorted in parallel arrays so pages can be served by index and looked up by binary search.
+ */
+public final class CountsSnapshot {
+
+    private final long snapshotId;
+    private final long createdAtMillis;
+    private final int totalWords;
+    private final String[] words;
+    private final int[] counts;
+
+    CountsSnapshot(long snapshotId, int totalWords, String[] words, int[] counts) {
+        this.snapshotId = snapshotId;
+        this.createdAtMillis = System.currentTimeMillis();
+        this.totalWords = totalWords;
+        this.words = words;
+        this.counts = counts;
+    }
+
+
+    /**
+     * Builds a snapshot from counts gathered elsewhere, such as a partial result sent by another worker.
+     * Words are taken as canonical; non-positive counts are left out. Built snapshots have id 0.
+     */
+    public static CountsSnapshot of(Map<String, Integer> counts) {
+        TreeMap<String, Integer> sorted = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null && entry.getValue() > 0) {
+                sorted.put(entry.getKey(), entry.getValue());
+            }
+        }
+        String[] words = new String[sorted.size()];
+        int[] wordCounts = new int[sorted.size()];
+        int totalWords = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : sorted.entrySet()) {
+            words[i] = entry.getKey();
+            wordCounts[i] = entry.getValue();
+            totalWords = Math.addExact(totalWords, wordCounts[i]);
+            i++;
+        }
+        return new CountsSnapshot(0, totalWords, words, wordCounts);
+    }
+
+
+    public long getSnapshotId() {
+        return snapshotId;
+    }
+
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+
+    public int getTotalWords() {
+        return totalWords;
+    }
+
+
+    public int getUniqueWordCount() {
+        return words.length;
+    }
+
+
+    public String getWord(int index) {
+        return words[index];
+    }
+
+
+    public int getCountAt(int index) {
+        return counts[index];
+    }
+
+
+    public int getCount(String canonicalWord) {
+        int index = Arrays.binarySearch(words, canonicalWord);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new HashMap<>(words.length * 2);
+        for (int i = 0; i < words.length; i++) {
+            map.put(words[i], counts[i]);
+        }
+        return map;
+    }
+
+
+    /**
+     * Sums two snapshots in one linear pass over their sorted arrays, without hashing a single word, so reduce steps
+     * stay cheap however many partial results are combined. Merged snapshots have id 0.
+     *
+     * @throws ArithmeticException if a count or the total no longer fits in an int
+     */
+    public CountsSnapshot merge(CountsSnapshot other) {
+        String[] mergedWords = new String[words.length + other.words.length];
+        int[] mergedCounts = new int[mergedWords.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < words.length || j < other.words.length) {
+            int order = i == words.length ? 1 : j == other.words.length ? -1 : words[i].compareTo(other.words[j]);
+            if (order < 0) {
+                mergedWords[n] = words[i];
+                mergedCounts[n++] = counts[i++];
+            } else if (order > 0) {
+                mergedWords[n] = other.words[j];
+                mergedCounts[n++] = other.counts[j++];
+            } else {
+                mergedWords[n] = words[i];
+                mergedCounts[n++] = Math.addExact(counts[i++], other.counts[j++]);
+            }
+        }
+        return new CountsSnapshot(0, Math.addExact(totalWords, other.totalWords),
+                n == mergedWords.length ? mergedWords : Arrays.copyOf(mergedWords, n),
+                n == mergedCounts.length ? mergedCounts : Arrays.copyOf(mergedCounts, n));
+    }
+}
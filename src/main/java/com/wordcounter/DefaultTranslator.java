@@ -4,9 +4,25 @@ package com.wordcounter;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -17,73 +33,98 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 public class DefaultTranslator implements Translator {
 
+    // Languages probed per cache miss once a source's routing statistics are trained
+    private static final int MAX_LEARNED_PROBES = 3;
+    private static final int REMOTE_LOOKUP_THREADS = 16;
+    private static final int REMOTE_LOOKUP_QUEUE = 1024;
+    // After a failed call the service is left alone this long, doubling per failure in a row up to the max
+    private static final long FAILURE_BACKOFF_MILLIS = 5_000;
+    private static final long MAX_FAILURE_BACKOFF_MILLIS = 60_000;
+
+    // Blocking HTTP lookups get threads of their own instead of the common ForkJoinPool, which parallel streams
+    // and counter collectors share. Idle threads exit; a full queue runs the lookup on the caller
+    private static final class RemoteLookups {
+        private static final ExecutorService EXECUTOR = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            AtomicInteger threadIndex = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(REMOTE_LOOKUP_THREADS, REMOTE_LOOKUP_THREADS,
+                    30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(REMOTE_LOOKUP_QUEUE), runnable -> {
+                        Thread thread = new Thread(runnable, "word-counter-translation-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
     private final Map<String, String> translationCache;
     private final ObjectMapper objectMapper;
     private final List<String> supportedLanguages;
-    private final Map<String, String> staticTranslations; // Fallback for common words
+    private final TranslationDictionary dictionary; // Fallback for common words, may be hot-reloaded
+    private final Map<String, String> customTranslations;
+    private final StringPool stringPool;
+    // Bumped when cached or custom translations change, so memoized translations elsewhere can be dropped
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    private final LanguageRouter languageRouter;
+    private final NegativeTranslationCache negativeCache; // Untranslatable words, kept out of translationCache
+    // Circuit breaker: zero while the service answers, else when the next caller may try it again
+    private final AtomicLong serviceRetryAt = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    // Maintained on every lookup and cache write so getStats() never scans the cache
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder staticHits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder positiveEntries = new LongAdder();
+    private final LongAdder negativeEntries = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder remoteCalls = new LongAdder();
+    private final LongAdder remoteFailures = new LongAdder();
+    private final LongAdder skippedLookups = new LongAdder();
+    private final LongAdder remoteNanos = new LongAdder();
+    private final LongAccumulator maxRemoteNanos = new LongAccumulator(Math::max, 0);
 
     public DefaultTranslator() {
+        this(TranslationDictionary.builtIn());
+    }
+
+
+    public DefaultTranslator(TranslationDictionary dictionary) {
+        this(dictionary, NegativeTranslationCache.builder().build());
+    }
+
+
+    public DefaultTranslator(TranslationDictionary dictionary, NegativeTranslationCache negativeCache) {
+        this.negativeCache = negativeCache;
         this.translationCache = new ConcurrentHashMap<>();
         this.objectMapper = new ObjectMapper();
         this.supportedLanguages = Arrays.asList("es", "de", "fr", "it", "pt", "nl", "ru", "zh", "ja", "ko");
-        this.staticTranslations = new ConcurrentHashMap<>();
-        initializeStaticTranslations();
-    }
-
-
-    private void initializeStaticTranslations() {
-        // Common words in multiple languages
-        staticTranslations.put("flor", "flower");      // Spanish
-        staticTranslations.put("blume", "flower");     // German
-        staticTranslations.put("fiore", "flower");     // Italian
-        staticTranslations.put("fleur", "flower");     // French
-        staticTranslations.put("bloem", "flower");     // Dutch
-
-        staticTranslations.put("casa", "house");       // Spanish
-        staticTranslations.put("haus", "house");       // German
-        staticTranslations.put("maison", "house");     // French
-        staticTranslations.put("casa", "house");       // Italian
-        staticTranslations.put("huis", "house");       // Dutch
-
-        staticTranslations.put("agua", "water");       // Spanish
-        staticTranslations.put("wasser", "water");     // German
-        staticTranslations.put("eau", "water");        // French
-        staticTranslations.put("acqua", "water");      // Italian
-        staticTranslations.put("water", "water");      // Dutch (same)
-
-        staticTranslations.put("perro", "dog");        // Spanish
-        staticTranslations.put("hund", "dog");         // German
-        staticTranslations.put("chien", "dog");        // French
-        staticTranslations.put("cane", "dog");         // Italian
-        staticTranslations.put("hond", "dog");         // Dutch
-
-        staticTranslations.put("gato", "cat");         // Spanish
-        staticTranslations.put("katze", "cat");        // German
-        staticTranslations.put("chat", "cat");         // French
-        staticTranslations.put("gatto", "cat");        // Italian
-        staticTranslations.put("kat", "cat");          // Dutch
-
-        staticTranslations.put("libro", "book");       // Spanish
-        staticTranslations.put("buch", "book");        // German
-        staticTranslations.put("livre", "book");       // French
-        staticTranslations.put("libro", "book");       // Italian
-        staticTranslations.put("boek", "book");        // Dutch
-
-        staticTranslations.put("coche", "car");        // Spanish
-        staticTranslations.put("auto", "car");         // German
-        staticTranslations.put("voiture", "car");      // French
-        staticTranslations.put("macchina", "car");     // Italian
-        staticTranslations.put("auto", "car");         // Dutch
-
-        staticTranslations.put("mesa", "table");       // Spanish
-        staticTranslations.put("tisch", "table");      // German
-        staticTranslations.put("table", "table");      // French (same)
-        staticTranslations.put("tavolo", "table");     // Italian
-        staticTranslations.put("tafel", "table");      // Dutch
+        this.dictionary = dictionary;
+        this.customTranslations = new ConcurrentHashMap<>();
+        this.stringPool = StringPool.shared();
+        dictionary.addReloadListener(this::onDictionaryReload);
+        this.languageRouter = new LanguageRouter(supportedLanguages, MAX_LEARNED_PROBES);
     }
 
+
+
     @Override
     public String translate(String word) {
+        return translate(word, TranslationHint.NONE);
+    }
+
+
+    /**
+     * Cache hits ignore the hint; on a miss the hinted language is probed first, then the languages that have
+     * worked best for the hint's source. When the service fails the word is answered as is but not cached, so
+     * it is looked up again later instead of being remembered as untranslatable. After a failure the service is
+     * not called at all until the backoff passes; misses meanwhile get the same uncached answer.
+     */
+    @Override
+    public String translate(String word, TranslationHint hint) {
         if (word == null || word.trim().isEmpty()) {
             return word;
         }
@@ -91,39 +132,181 @@ public class DefaultTranslator implements Translator {
         String normalizedWord = word.toLowerCase().trim();
 
         // Check cache first
-        if (translationCache.containsKey(normalizedWord)) {
-            return translationCache.get(normalizedWord);
+        String cached = translationCache.get(normalizedWord);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        if (negativeCache.mightContain(normalizedWord)) {
+            negativeHits.increment();
+            return normalizedWord;
         }
+        cacheMisses.increment();
 
         // Try automatic translation
-        try {
-            String translation = translateWithService(normalizedWord);
-            if (translation != null && !translation.equals(normalizedWord)) {
-                translationCache.put(normalizedWord, translation);
-                return translation;
+        boolean serviceFailed = !tryService();
+        if (serviceFailed) {
+            skippedLookups.increment();
+        } else {
+            try {
+                String translation = translateWithService(normalizedWord, hint == null ? TranslationHint.NONE : hint);
+                onServiceAnswered();
+                if (translation != null && !translation.equals(normalizedWord)) {
+                    return cache(normalizedWord, translation);
+                }
+            } catch (Exception e) {
+                System.out.println("Translation service failed for: " + word + ", using fallback");
+                onServiceFailed();
+                serviceFailed = true;
             }
-        } catch (Exception e) {
-            System.out.println("Translation service failed for: " + word + ", using fallback");
         }
 
         // Fallback to static translations
-        String staticTranslation = staticTranslations.get(normalizedWord);
+        String staticTranslation = lookupStatic(normalizedWord);
         if (staticTranslation != null) {
-            translationCache.put(normalizedWord, staticTranslation);
-            return staticTranslation;
+            staticHits.increment();
+            return cache(normalizedWord, staticTranslation);
         }
 
         // If no translation found, return original word
-        translationCache.put(normalizedWord, normalizedWord);
-        return normalizedWord;
+        return serviceFailed ? normalizedWord : cache(normalizedWord, normalizedWord);
+    }
+
+
+    // Closed, or open with the backoff over and this caller the one chosen to try again
+    private boolean tryService() {
+        long retryAt = serviceRetryAt.get();
+        if (retryAt == 0) {
+            return true;
+        }
+        long now = currentTimeMillis();
+        return now >= retryAt && serviceRetryAt.compareAndSet(retryAt, now + backoffMillis());
+    }
+
+
+    private boolean isServiceBackingOff() {
+        long retryAt = serviceRetryAt.get();
+        return retryAt != 0 && currentTimeMillis() < retryAt;
+    }
+
+
+    private void onServiceAnswered() {
+        if (serviceRetryAt.get() != 0) {
+            consecutiveFailures.set(0);
+            serviceRetryAt.set(0);
+        }
     }
 
 
-    private String translateWithService(String word) throws Exception {
+    private void onServiceFailed() {
+        consecutiveFailures.incrementAndGet();
+        serviceRetryAt.set(currentTimeMillis() + backoffMillis());
+    }
+
+
+    private long backoffMillis() {
+        int doublings = Math.min(Math.max(consecutiveFailures.get() - 1, 0), 10);
+        return Math.min(FAILURE_BACKOFF_MILLIS << doublings, MAX_FAILURE_BACKOFF_MILLIS);
+    }
+
+
+    // Overridden in tests
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+
+    // Keys and values resolve through the shared pool, so the cache and the word counts hold one copy of each word.
+    // Words without a translation only go into the negative filter and come back as given; CountStore interns on insert
+    private String cache(String word, String translation) {
+        if (translation.equals(word)) {
+            negativeCache.add(word);
+            return word;
+        }
+        String pooledWord = stringPool.intern(word);
+        String pooledTranslation = stringPool.intern(translation);
+        recordReplaced(pooledWord, translationCache.put(pooledWord, pooledTranslation), pooledTranslation);
+        return pooledTranslation;
+    }
+
+
+    private void recordReplaced(String word, String previous, String translation) {
+        if (previous != null) {
+            countEntry(word, previous).decrement();
+        }
+        countEntry(word, translation).increment();
+    }
+
+
+    private LongAdder countEntry(String word, String translation) {
+        return translation.equals(word) ? negativeEntries : positiveEntries;
+    }
+
+
+    // Removes entries one by one so the positive and negative counts stay exact under concurrent writes
+    private void evictAll() {
+        cacheGeneration.incrementAndGet();
+        for (Map.Entry<String, String> entry : translationCache.entrySet()) {
+            if (translationCache.remove(entry.getKey(), entry.getValue())) {
+                countEntry(entry.getKey(), entry.getValue()).decrement();
+                evictions.increment();
+            }
+        }
+    }
+
+
+    private String lookupStatic(String word) {
+        String custom = customTranslations.get(word);
+        return custom != null ? custom : dictionary.get(word);
+    }
+
+
+    // Only the changed words can have stale cached results; remote results for every other word stay.
+    // Words the service could not translate are not asked again, so they take their new entry directly
+    private void onDictionaryReload(Set<String> changedWords) {
+        for (String word : changedWords) {
+            String previous = translationCache.remove(word);
+            if (previous != null) {
+                countEntry(word, previous).decrement();
+                evictions.increment();
+            }
+            String replacement = lookupStatic(word);
+            if (replacement != null && negativeCache.mightContain(word)) {
+                cache(word, replacement);
+            }
+        }
+        if (!changedWords.isEmpty()) {
+            cacheGeneration.incrementAndGet();
+        }
+    }
+
+
+    // A miss is only cached as untranslatable after every language, so when the learned languages fail the rest
+    // are probed too; otherwise a word from a source's minority language would stay untranslated for good
+    private String translateWithService(String word, TranslationHint hint) throws Exception {
+        List<String> probes = languageRouter.probeOrder(hint);
+        String translation = probe(word, hint, probes);
+        if (translation == null) {
+            translation = probe(word, hint, languageRouter.remainingLanguages(hint, probes));
+        }
+        return translation;
+    }
+
+
+    // Stops at the first failed call: the probe can no longer prove the word untranslatable
+    private String probe(String word, TranslationHint hint, List<String> languages) throws IOException {
         // Try to detect language and translate to English
-        for (String langCode : supportedLanguages) {
+        for (String langCode : languages) {
+            long start = System.nanoTime();
+            remoteCalls.increment();
             String translation = callTranslationAPI(word, langCode, "en");
-            if (translation != null && !translation.equals(word) && isValidEnglishWord(translation)) {
+            long elapsed = System.nanoTime() - start;
+            remoteNanos.add(elapsed);
+            maxRemoteNanos.accumulate(elapsed);
+
+            boolean translated = translation != null && !translation.equals(word) && isValidEnglishWord(translation);
+            languageRouter.record(hint, langCode, translated, elapsed);
+            if (translated) {
                 return translation.toLowerCase();
             }
         }
@@ -131,7 +314,8 @@ public class DefaultTranslator implements Translator {
     }
 
 
-    private String callTranslationAPI(String text, String fromLang, String toLang) {
+    // Null when the service has no confident translation; throws when it could not be asked. Overridden in tests
+    String callTranslationAPI(String text, String fromLang, String toLang) throws IOException {
         try {
             String encodedText = URLEncoder.encode(text, "UTF-8");
             String urlStr = String.format(
@@ -168,9 +352,12 @@ public class DefaultTranslator implements Translator {
                         return translatedText.trim().toLowerCase();
                     }
                 }
+            } else {
+                throw new IOException("Translation service answered " + connection.getResponseCode());
             }
         } catch (Exception e) {
-            // Silent failure, will try next language or fallback
+            remoteFailures.increment();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
         }
         return null;
     }
@@ -204,12 +391,16 @@ public class DefaultTranslator implements Translator {
         String normalizedWord = word.toLowerCase().trim();
 
         // Check if we have it in cache
-        if (translationCache.containsKey(normalizedWord)) {
-            return !translationCache.get(normalizedWord).equals(normalizedWord);
+        String cached = translationCache.get(normalizedWord);
+        if (cached != null) {
+            return !cached.equals(normalizedWord);
+        }
+        if (negativeCache.mightContain(normalizedWord)) {
+            return false;
         }
 
         // Check static translations
-        if (staticTranslations.containsKey(normalizedWord)) {
+        if (lookupStatic(normalizedWord) != null) {
             return true;
         }
 
@@ -218,25 +409,87 @@ public class DefaultTranslator implements Translator {
     }
 
 
+    @Override
+    public boolean requiresRemoteLookup(String word) {
+        if (word == null || word.trim().isEmpty()) {
+            return false;
+        }
+        // Misses are answered from memory while the service is backing off
+        return !isCached(word) && !isServiceBackingOff();
+    }
+
+
+    @Override
+    public boolean isCached(String word) {
+        if (word == null || word.trim().isEmpty()) {
+            return true;
+        }
+        String normalizedWord = word.toLowerCase().trim();
+        // Dictionary words are still offered to the service first, so only the cache and the negative filter count
+        return translationCache.get(normalizedWord) != null || negativeCache.mightContain(normalizedWord);
+    }
+
+
     public CompletableFuture<String> translateAsync(String word) {
-        return CompletableFuture.supplyAsync(() -> translate(word));
+        return CompletableFuture.supplyAsync(() -> translate(word), RemoteLookups.EXECUTOR);
     }
 
 
     public Map<String, String> translateBatch(List<String> words) {
-        Map<String, String> results = new ConcurrentHashMap<>();
-
-        words.parallelStream().forEach(word -> {
-            String translation = translate(word);
-            results.put(word, translation);
-        });
+        Map<String, Future<String>> pending = new LinkedHashMap<>();
+        for (String word : words) {
+            if (!pending.containsKey(word)) {
+                pending.put(word, RemoteLookups.EXECUTOR.submit(() -> translate(word)));
+            }
+        }
 
+        Map<String, String> results = new HashMap<>(pending.size() * 4 / 3 + 1);
+        try {
+            for (Map.Entry<String, Future<String>> entry : pending.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while translating", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Translation failed", e.getCause());
+        }
         return results;
     }
 
 
+    /**
+     * Answers cached words directly and sends only the misses, in parallel on the remote lookup threads,
+     * through the translation service.
+     */
+    @Override
+    public Map<String, String> translateAll(Collection<String> words) {
+        Map<String, String> translations = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String word : words) {
+            if (word == null || translations.containsKey(word)) {
+                continue;
+            }
+            String normalizedWord = word.toLowerCase().trim();
+            if (normalizedWord.isEmpty() || translationCache.containsKey(normalizedWord)
+                    || negativeCache.mightContain(normalizedWord)) {
+                translations.put(word, translate(word));
+            } else {
+                translations.put(word, null);
+                misses.add(word);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            translations.putAll(translateBatch(misses));
+        }
+        return translations;
+    }
+
+
     public void clearCache() {
-        translationCache.clear();
+        evictAll();
+        negativeCache.clear();
     }
 
 
@@ -247,22 +500,64 @@ public class DefaultTranslator implements Translator {
 
     public void addCustomTranslation(String foreignWord, String englishWord) {
         if (foreignWord != null && englishWord != null) {
-            staticTranslations.put(foreignWord.toLowerCase().trim(), englishWord.toLowerCase().trim());
+            String pooledForeignWord = stringPool.intern(foreignWord.toLowerCase().trim());
+            String pooledEnglishWord = stringPool.intern(englishWord.toLowerCase().trim());
+            customTranslations.put(pooledForeignWord, pooledEnglishWord);
             // Update cache if it exists
-            translationCache.put(foreignWord.toLowerCase().trim(), englishWord.toLowerCase().trim());
+            recordReplaced(pooledForeignWord, translationCache.put(pooledForeignWord, pooledEnglishWord),
+                    pooledEnglishWord);
+            cacheGeneration.incrementAndGet();
         }
     }
 
 
+    // Both parts only grow, so their sum moves on whenever either does
+    @Override
+    public long getVersion() {
+        return cacheGeneration.get() + negativeCache.getForgetCount();
+    }
+
+
+    /**
+     * Learned probe order and per-language success rates, per hint source.
+     */
+    public Map<String, Map<String, Object>> getRoutingStats() {
+        return languageRouter.describe();
+    }
+
+
+    // Lookups answered by the negative filter without calling the translation service
+    public long getNegativeCacheHits() {
+        return negativeHits.sum();
+    }
+
+
+    // Misses answered as is without calling the service, because it was backing off after a failure
+    public long getSkippedLookups() {
+        return skippedLookups.sum();
+    }
+
+
+    public NegativeTranslationCache getNegativeCache() {
+        return negativeCache;
+    }
+
+
+    /**
+     * Constant-time snapshot of the incrementally maintained counters; successful translations are
+     * cached entries whose translation differs from the word. Untranslated entries include the words held
+     * by the negative filter, approximately.
+     */
     public TranslationStats getStats() {
         int cacheSize = translationCache.size();
-        int staticSize = staticTranslations.size();
-        int successful = (int) translationCache.values().stream()
-                .filter(translation -> !translationCache.entrySet().stream()
-                        .anyMatch(entry -> entry.getKey().equals(translation)))
-                .count();
-
-        return new TranslationStats(cacheSize, staticSize, successful);
+        int staticSize = dictionary.size() + customTranslations.size();
+        long calls = remoteCalls.sum();
+
+        int untranslated = (int) (negativeEntries.sum() + negativeCache.getApproximateSize());
+        return new TranslationStats(cacheSize, staticSize, (int) positiveEntries.sum(), untranslated,
+                cacheHits.sum(), cacheMisses.sum(), staticHits.sum(), evictions.sum(), calls, remoteFailures.sum(),
+                calls > 0 ? TimeUnit.NANOSECONDS.toMillis(remoteNanos.sum() / calls) : 0,
+                TimeUnit.NANOSECONDS.toMillis(maxRemoteNanos.get()));
     }
 
 
@@ -270,15 +565,49 @@ public class DefaultTranslator implements Translator {
         private final int cacheSize;
         private final int staticTranslations;
         private final int successfulTranslations;
+        private final int untranslatedEntries;
+        private final long cacheHits;
+        private final long cacheMisses;
+        private final long staticHits;
+        private final long evictions;
+        private final long remoteCalls;
+        private final long remoteFailures;
+        private final long averageRemoteLatencyMillis;
+        private final long maxRemoteLatencyMillis;
 
         public TranslationStats(int cacheSize, int staticTranslations, int successfulTranslations) {
+            this(cacheSize, staticTranslations, successfulTranslations, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        public TranslationStats(int cacheSize, int staticTranslations, int successfulTranslations,
+                                int untranslatedEntries, long cacheHits, long cacheMisses, long staticHits,
+                                long evictions, long remoteCalls, long remoteFailures,
+                                long averageRemoteLatencyMillis, long maxRemoteLatencyMillis) {
             this.cacheSize = cacheSize;
             this.staticTranslations = staticTranslations;
             this.successfulTranslations = successfulTranslations;
+            this.untranslatedEntries = untranslatedEntries;
+            this.cacheHits = cacheHits;
+            this.cacheMisses = cacheMisses;
+            this.staticHits = staticHits;
+            this.evictions = evictions;
+            this.remoteCalls = remoteCalls;
+            this.remoteFailures = remoteFailures;
+            this.averageRemoteLatencyMillis = averageRemoteLatencyMillis;
+            this.maxRemoteLatencyMillis = maxRemoteLatencyMillis;
         }
 
         public int getCacheSize() { return cacheSize; }
         public int getStaticTranslations() { return staticTranslations; }
         public int getSuccessfulTranslations() { return successfulTranslations; }
+        public int getUntranslatedEntries() { return untranslatedEntries; }
+        public long getCacheHits() { return cacheHits; }
+        public long getCacheMisses() { return cacheMisses; }
+        public long getStaticHits() { return staticHits; }
+        public long getEvictions() { return evictions; }
+        public long getRemoteCalls() { return remoteCalls; }
+        public long getRemoteFailures() { return remoteFailures; }
+        public long getAverageRemoteLatencyMillis() { return averageRemoteLatencyMillis; }
+        public long getMaxRemoteLatencyMillis() { return maxRemoteLatencyMillis; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.wordcounter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Lets {@link WordCounterImpl} count a word before its translation is known. Words whose canonical form has not been
+ * resolved yet are counted under their normalized surface form and translated by background workers; the pending
+ * count is then moved onto the canonical word in one step, under the word's monitor so no increment is lost or
+ * counted twice. Totals include pending words and are read with an optimistic lock so a merge is never seen halfway.
+ * Resolved forms are remembered in a bounded cache keyed by translator version, so a moved version sends words
+ * through translation again and an evicted form simply becomes pending once more.
+ */
+final class DeferredCanonicalizer implements AutoCloseable {
+
+    private final BiFunction<String, TranslationHint, String> translate;
+    private final BiConsumer<String, Integer> mergeInto;
+    private final LongSupplier translatorVersion;
+    private final SurfaceFormCache resolved;
+    private final Map<String, PendingWord> pending = new ConcurrentHashMap<>();
+    private final LongAdder pendingTotal = new LongAdder();
+    private final StampedLock mergeLock = new StampedLock();
+    private final ExecutorService workers;
+
+    DeferredCanonicalizer(BiFunction<String, TranslationHint, String> translate, LongSupplier translatorVersion,
+                          BiConsumer<String, Integer> mergeInto, int workerThreads, int resolvedCapacity) {
+        this.translate = translate;
+        this.translatorVersion = translatorVersion;
+        this.mergeInto = mergeInto;
+        this.resolved = new SurfaceFormCache(resolvedCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "word-counter-canonicalizer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * The canonical form of a surface form resolved under the current translator version, or null.
+     */
+    String resolvedCanonical(String surface) {
+        return resolved.get(surface, translatorVersion.getAsLong());
+    }
+
+
+    /**
+     * Counts an unresolved surface form and queues its translation. Returns the canonical word instead when the
+     * form was resolved concurrently, in which case the caller counts it directly.
+     */
+    String addPending(String surface, TranslationHint hint) {
+        while (true) {
+            PendingWord word = pending.computeIfAbsent(surface, s -> new PendingWord(s, hint));
+            synchronized (word) {
+                if (!word.closed) {
+                    word.count++;
+                    pendingTotal.increment();
+                    if (!word.scheduled) {
+                        word.scheduled = true;
+                        workers.execute(() -> resolveInBackground(word));
+                    }
+                    return null;
+                }
+            }
+            // Merged or discarded between lookup and lock; a merged form is resolved by now unless it was evicted
+            String canonical = resolvedCanonical(surface);
+            if (canonical != null) {
+                return canonical;
+            }
+            pending.remove(surface, word);
+        }
+    }
+
+
+    /**
+     * Moves any pending count for the surface form onto the canonical word and remembers the translation, made
+     * under {@code version}. A form with nothing pending is not remembered, so reads never fill the cache.
+     */
+    void resolve(String surface, String canonical, long version) {
+        PendingWord word = pending.get(surface);
+        if (word == null) {
+            return;
+        }
+
+        synchronized (word) {
+            if (!word.closed) {
+                long stamp = mergeLock.writeLock();
+                try {
+                    mergeInto.accept(canonical, word.count);
+                    pendingTotal.add(-word.count);
+                } finally {
+                    mergeLock.unlockWrite(stamp);
+                }
+                word.closed = true;
+            }
+            // Published before the monitor is released, so writers that find the word closed can count canonically
+            resolved.put(surface, canonical, version);
+        }
+        pending.remove(surface, word);
+    }
+
+
+    private void resolveInBackground(PendingWord word) {
+        try {
+            // Read before translating, so an invalidation during the translation leaves the entry already stale
+            long version = translatorVersion.getAsLong();
+            resolve(word.surface, translate.apply(word.surface, word.hint), version);
+        } catch (RuntimeException e) {
+            // The count stays visible under the surface form and the next occurrence schedules another attempt
+            System.out.println("Deferred translation of " + word.surface + " failed: " + e.getMessage());
+            synchronized (word) {
+                word.scheduled = false;
+            }
+        }
+    }
+
+
+    /**
+     * Count still held under the surface form, zero once it has been merged.
+     */
+    int getPendingCount(String surface) {
+        PendingWord word = pending.get(surface);
+        if (word == null) {
+            return 0;
+        }
+        synchronized (word) {
+            return word.closed ? 0 : word.count;
+        }
+    }
+
+
+    int getPendingWordCount() {
+        return pending.size();
+    }
+
+
+    // Canonical plus pending total, never observed between the two halves of a merge
+    int total(IntSupplier canonicalTotal) {
+        long stamp = mergeLock.tryOptimisticRead();
+        int total = canonicalTotal.getAsInt() + (int) pendingTotal.sum();
+        if (mergeLock.validate(stamp)) {
+            return total;
+        }
+        stamp = mergeLock.readLock();
+        try {
+            return canonicalTotal.getAsInt() + (int) pendingTotal.sum();
+        } finally {
+            mergeLock.unlockRead(stamp);
+        }
+    }
+
+
+    /**
+     * Resolves every pending word on the calling thread, so canonical counts and snapshots cover all input so far.
+     */
+    void drain() {
+        for (PendingWord word : pending.values()) {
+            long version = translatorVersion.getAsLong();
+            resolve(word.surface, translate.apply(word.surface, word.hint), version);
+        }
+    }
+
+
+    // Drops pending counts; used by reset. Resolved forms stay, they do not depend on counts
+    void clear() {
+        for (PendingWord word : pending.values()) {
+            synchronized (word) {
+                if (!word.closed) {
+                    word.closed = true;
+                    pendingTotal.add(-word.count);
+                }
+            }
+            pending.remove(word.surface, word);
+        }
+    }
+
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    private static final class PendingWord {
+        private final String surface;
+        private final TranslationHint hint;
+        private int count;
+        private boolean scheduled;
+        private boolean closed;
+
+        private PendingWord(String surface, TranslationHint hint) {
+            this.surface = surface;
+            this.hint = hint;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.wordcounter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Learns, per source (client or namespace), which languages the translation service actually translates from,
+ * and orders the probes of a cache miss accordingly. Once a source has enough history only its best few
+ * languages are probed first, except for an occasional full probe that keeps the other languages' statistics fresh;
+ * the rest are still probed before a word is given up on.
+ * Statistics are halved periodically so a source whose traffic changes language is relearned quickly.
+ */
+final class LanguageRouter {
+
+    private static final String DEFAULT_SOURCE = "";
+    private static final int MAX_SOURCES = 1024;
+    // Probes recorded for a source before its order is trusted enough to drop languages
+    private static final int MIN_SAMPLES = 32;
+    private static final int DECAY_WINDOW = 1024;
+    private static final int EXPLORE_EVERY = 16;
+
+    private final List<String> languages;
+    private final int maxProbes;
+    private final Map<String, SourceStats> sources = new ConcurrentHashMap<>();
+
+    LanguageRouter(List<String> languages, int maxProbes) {
+        this.languages = Collections.unmodifiableList(new ArrayList<>(languages));
+        this.maxProbes = maxProbes;
+    }
+
+
+    /**
+     * Languages to probe for one cache miss, best first; a supported hinted language always comes first.
+     */
+    List<String> probeOrder(TranslationHint hint) {
+        SourceStats stats = statsFor(hint.getSource());
+        String hinted = hint.getLanguage();
+        int hintedIndex = hinted == null ? -1 : languages.indexOf(hinted);
+
+        Integer[] order = stats.rankedLanguages();
+        boolean limited = stats.isTrained() && stats.misses.incrementAndGet() % EXPLORE_EVERY != 0;
+        // The hinted language is probed on top of the learned ones
+        int probes = (limited ? Math.min(maxProbes, order.length) : order.length) + (hintedIndex >= 0 ? 1 : 0);
+
+        List<String> result = new ArrayList<>(probes);
+        if (hintedIndex >= 0) {
+            result.add(hinted);
+        }
+        for (int i = 0; i < order.length && result.size() < probes; i++) {
+            if (order[i] != hintedIndex) {
+                result.add(languages.get(order[i]));
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Languages a probe order left out, best first.
+     */
+    List<String> remainingLanguages(TranslationHint hint, List<String> probed) {
+        Integer[] order = statsFor(hint.getSource()).rankedLanguages();
+        List<String> remaining = new ArrayList<>(Math.max(0, order.length - probed.size()));
+        for (Integer index : order) {
+            String language = languages.get(index);
+            if (!probed.contains(language)) {
+                remaining.add(language);
+            }
+        }
+        return remaining;
+    }
+
+
+    void record(TranslationHint hint, String language, boolean translated, long elapsedNanos) {
+        int index = languages.indexOf(language);
+        if (index >= 0) {
+            statsFor(hint.getSource()).record(index, translated, elapsedNanos);
+        }
+    }
+
+
+    /**
+     * Current order and success rate per language for every known source, for monitoring.
+     */
+    Map<String, Map<String, Object>> describe() {
+        Map<String, Map<String, Object>> description = new LinkedHashMap<>();
+        for (Map.Entry<String, SourceStats> entry : sources.entrySet()) {
+            description.put(entry.getKey().isEmpty() ? "default" : entry.getKey(), entry.getValue().describe());
+        }
+        return description;
+    }
+
+
+    private SourceStats statsFor(String source) {
+        String key = source == null ? DEFAULT_SOURCE : source;
+        SourceStats stats = sources.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        // Past the cap, unknown sources share the default statistics rather than growing the map without bound
+        if (sources.size() >= MAX_SOURCES) {
+            return sources.computeIfAbsent(DEFAULT_SOURCE, k -> new SourceStats());
+        }
+        return sources.computeIfAbsent(key, k -> new SourceStats());
+    }
+
+
+    private final class SourceStats {
+        private final double[] attempts = new double[languages.size()];
+        private final double[] successes = new double[languages.size()];
+        private final double[] nanos = new double[languages.size()];
+        private final AtomicLong misses = new AtomicLong();
+        private volatile double recorded;
+        private volatile Integer[] ranked = initialOrder();
+
+        private Integer[] initialOrder() {
+            Integer[] order = new Integer[languages.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            return order;
+        }
+
+        private Integer[] rankedLanguages() {
+            return ranked;
+        }
+
+        private boolean isTrained() {
+            return recorded >= MIN_SAMPLES;
+        }
+
+        // Probes are remote calls taking milliseconds, so a monitor here never contends meaningfully
+        private synchronized void record(int index, boolean translated, long elapsedNanos) {
+            attempts[index]++;
+            nanos[index] += elapsedNanos;
+            if (translated) {
+                successes[index]++;
+            }
+            if (++recorded >= DECAY_WINDOW) {
+                for (int i = 0; i < attempts.length; i++) {
+                    attempts[i] /= 2;
+                    successes[i] /= 2;
+                    nanos[i] /= 2;
+                }
+                recorded /= 2;
+            }
+            rerank();
+        }
+
+        // Highest smoothed success rate first; among equals the faster language, then the configured order
+        private void rerank() {
+            double[] score = new double[attempts.length];
+            double[] latency = new double[attempts.length];
+            for (int i = 0; i < attempts.length; i++) {
+                score[i] = (successes[i] + 1) / (attempts[i] + 2);
+                latency[i] = attempts[i] > 0 ? nanos[i] / attempts[i] : 0;
+            }
+            Integer[] order = initialOrder();
+            Arrays.sort(order, (a, b) -> score[a] != score[b]
+                    ? Double.compare(score[b], score[a])
+                    : Double.compare(latency[a], latency[b]));
+            ranked = order;
+        }
+
+        private synchronized Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            for (Integer index : ranked) {
+                Map<String, Object> language = new LinkedHashMap<>();
+                language.put("attempts", Math.round(attempts[index]));
+                language.put("successRate", attempts[index] > 0 ? successes[index] / attempts[index] : 0.0);
+                language.put("averageLatencyMillis", attempts[index] > 0 ? Math.round(nanos[index] / attempts[index] / 1e6) : 0);
+                description.put(languages.get(index), language);
+            }
+            return description;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.wordcounter;
+
+import com.wordcounter.sketch.BloomFilter;
+import com.wordcounter.sketch.Hashing;
+
+
+/**
+ * Remembers words that have no translation without storing them, in a pair of Bloom filter generations.
+ * New words go into the current generation; once it holds its expected number of words, or is older than half the
+ * maximum age, it becomes the previous generation and the old previous one is dropped. Capacity therefore scales with
+ * the input, memory stays bounded, and with aging enabled a word is retried at most {@code maxAgeMillis} after it was
+ * last recorded. Each generation is sized for half the target false-positive rate, so lookups stay within the target.
+ * A false positive only means a translatable word is left untranslated.
+ */
+public class NegativeTranslationCache {
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long maxAgeMillis;
+    private volatile Generation current;
+    private volatile Generation previous;
+    // Bumped whenever words are forgotten, which makes them eligible for translation again
+    private volatile long forgetCount;
+
+    public static class Builder {
+        private long expectedInsertions = 200_000;
+        private double falsePositiveRate = 0.001;
+        private long maxAgeMillis;
+
+        // Words per generation; two generations are kept
+        public Builder withExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+            return this;
+        }
+
+        public Builder withFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
+        // Zero or less keeps words until capacity pushes them out
+        public Builder withMaxAgeMillis(long maxAgeMillis) {
+            this.maxAgeMillis = maxAgeMillis;
+            return this;
+        }
+
+        public NegativeTranslationCache build() {
+            return new NegativeTranslationCache(this);
+        }
+    }
+
+    private NegativeTranslationCache(Builder builder) {
+        this.expectedInsertions = builder.expectedInsertions;
+        this.falsePositiveRate = builder.falsePositiveRate;
+        this.maxAgeMillis = builder.maxAgeMillis;
+        this.current = newGeneration();
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    public void add(String word) {
+        Generation generation = currentGeneration();
+        generation.filter.put(Hashing.hash64(word));
+        if (generation.filter.getApproximateInsertions() >= expectedInsertions) {
+            rotate(generation, false);
+        }
+    }
+
+
+    public boolean mightContain(String word) {
+        long hash = Hashing.hash64(word);
+        if (currentGeneration().filter.mightContain(hash)) {
+            return true;
+        }
+        Generation older = previous;
+        return older != null && older.filter.mightContain(hash);
+    }
+
+
+    public synchronized void clear() {
+        previous = null;
+        current = newGeneration();
+        forgetCount++;
+    }
+
+
+    /**
+     * How many times words have been dropped by rotation or clearing; a change means some may be retried.
+     */
+    public long getForgetCount() {
+        return forgetCount;
+    }
+
+
+    /**
+     * Words held across both generations, approximately.
+     */
+    public long getApproximateSize() {
+        Generation older = previous;
+        return current.filter.getApproximateInsertions() + (older != null ? older.filter.getApproximateInsertions() : 0);
+    }
+
+
+    /**
+     * Probability that a word never added is reported present, at the current fill of both generations.
+     */
+    public double getCurrentFalsePositiveRate() {
+        Generation older = previous;
+        double currentRate = current.filter.getCurrentFalsePositiveRate();
+        double olderRate = older != null ? older.filter.getCurrentFalsePositiveRate() : 0;
+        return 1 - (1 - currentRate) * (1 - olderRate);
+    }
+
+
+    public double getTargetFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+
+    public long getMemoryBytes() {
+        Generation older = previous;
+        return current.filter.getMemoryBytes() + (older != null ? older.filter.getMemoryBytes() : 0);
+    }
+
+
+    private Generation currentGeneration() {
+        Generation generation = current;
+        if (maxAgeMillis > 0) {
+            long age = System.currentTimeMillis() - generation.createdAtMillis;
+            if (age >= maxAgeMillis / 2) {
+                // After a long idle period the current generation is already too old to survive as the previous one
+                rotate(generation, age >= maxAgeMillis);
+                generation = current;
+            }
+        }
+        return generation;
+    }
+
+
+    // Only the thread that still sees the full generation as current rotates it
+    private synchronized void rotate(Generation full, boolean expired) {
+        if (current != full) {
+            return;
+        }
+        if (previous != null || expired) {
+            forgetCount++;
+        }
+        previous = expired ? null : full;
+        current = newGeneration();
+    }
+
+
+    private Generation newGeneration() {
+        return new Generation(new BloomFilter(expectedInsertions, falsePositiveRate / 2), System.currentTimeMillis());
+    }
+
+
+    private static final class Generation {
+        private final BloomFilter filter;
+        private final long createdAtMillis;
+
+        private Generation(BloomFilter filter, long createdAtMillis) {
+            this.filter = filter;
+            this.createdAtMillis = createdAtMillis;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.wordcounter;
+
+import com.wordcounter.exception.InvalidWordException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+
+/**
+ * Concurrent collector behind {@link WordCounterImpl#collector()}. Every stream thread tallies words into its own
+ * map, so accumulating touches no shared state; a tally is flushed to the counter once it holds enough distinct
+ * words, and the rest when the stream finishes. Each flush validates and canonicalizes every distinct word once and
+ * adds it with its whole count, instead of once per occurrence.
+ */
+final class ParallelWordCollector implements Collector<String, ParallelWordCollector.Tallies, WordCounterImpl> {
+
+    // Distinct words a thread holds before flushing; bounds memory per thread and keeps bulk translation batches sane
+    static final int FLUSH_THRESHOLD = 4096;
+
+    private static final Set<Characteristics> CHARACTERISTICS = Collections.unmodifiableSet(
+            EnumSet.of(Characteristics.CONCURRENT, Characteristics.UNORDERED));
+
+    private final WordCounterImpl target;
+
+    ParallelWordCollector(WordCounterImpl target) {
+        this.target = target;
+    }
+
+
+    /**
+     * The per-thread tallies of one collection. With a concurrent collector the stream creates a single container
+     * and calls the accumulator from every thread, so the container hands each thread its own map.
+     */
+    static final class Tallies {
+        private final WordCounterImpl target;
+        private final ThreadLocal<Map<String, int[]>> local;
+        private final ConcurrentLinkedQueue<Map<String, int[]>> all = new ConcurrentLinkedQueue<>();
+        private final LongAdder skippedWords = new LongAdder();
+
+        private Tallies(WordCounterImpl target) {
+            this.target = target;
+            this.local = ThreadLocal.withInitial(() -> {
+                Map<String, int[]> tally = new HashMap<>();
+                all.add(tally);
+                return tally;
+            });
+        }
+
+        private void accept(String word) {
+            if (word == null) {
+                skippedWords.increment();
+                return;
+            }
+            Map<String, int[]> tally = local.get();
+            int[] count = tally.get(word);
+            if (count == null) {
+                tally.put(word, new int[] {1});
+                if (tally.size() >= FLUSH_THRESHOLD) {
+                    flush(tally);
+                }
+            } else {
+                count[0]++;
+            }
+        }
+
+        private void flush(Map<String, int[]> tally) {
+            List<String> validWords = new ArrayList<>(tally.size());
+            for (Map.Entry<String, int[]> entry : tally.entrySet()) {
+                try {
+                    WordValidator.validateWord(entry.getKey());
+                    validWords.add(entry.getKey());
+                } catch (InvalidWordException e) {
+                    skippedWords.add(entry.getValue()[0]);
+                }
+            }
+            Map<String, String> canonicalWords = target.canonicalizeAll(validWords);
+            for (Map.Entry<String, String> entry : canonicalWords.entrySet()) {
+                target.addCanonicalWord(entry.getValue(), tally.get(entry.getKey())[0]);
+            }
+            tally.clear();
+        }
+
+        // Called once the stream is done with every thread, so no map is still being written
+        private void flushAll() {
+            for (Map<String, int[]> tally : all) {
+                flush(tally);
+            }
+            all.clear();
+            if (skippedWords.sum() > 0) {
+                System.out.println("Word collector skipped " + skippedWords.sum() + " invalid words");
+            }
+        }
+    }
+
+
+    @Override
+    public Supplier<Tallies> supplier() {
+        return () -> new Tallies(target);
+    }
+
+
+    @Override
+    public BiConsumer<Tallies, String> accumulator() {
+        return Tallies::accept;
+    }
+
+
+    // Only used by non-concurrent reductions; both containers count into the same target
+    @Override
+    public BinaryOperator<Tallies> combiner() {
+        return (left, right) -> {
+            right.flushAll();
+            return left;
+        };
+    }
+
+
+    @Override
+    public Function<Tallies, WordCounterImpl> finisher() {
+        return tallies -> {
+            tallies.flushAll();
+            return target;
+        };
+    }
+
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return CHARACTERISTICS;
+    }
+}
@@ -0,0 +1,81 @@
+package com.wordcounter;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+
+/**
+ * Concurrent interning pool for canonical words, so count keys and translation cache entries share one instance.
+ * Entries are weak: a word disappears from the pool once no counter or cache references it any more.
+ * Striped by hash so concurrent interning of different words rarely contends.
+ */
+public final class StringPool {
+
+    private static final StringPool SHARED = new StringPool(64);
+
+    private final WeakHashMap<String, WeakReference<String>>[] segments;
+    private final int shift;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StringPool(int concurrency) {
+        int segmentCount = 2;
+        while (segmentCount < concurrency) {
+            segmentCount <<= 1;
+        }
+        this.segments = new WeakHashMap[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new WeakHashMap<>();
+        }
+        this.shift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+
+    /**
+     * The pool used by {@link WordCounterImpl} and {@link DefaultTranslator}.
+     */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+
+    /**
+     * Returns the pooled instance equal to {@code value}, pooling {@code value} itself if there is none.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        WeakHashMap<String, WeakReference<String>> segment = segmentFor(value);
+        synchronized (segment) {
+            WeakReference<String> reference = segment.get(value);
+            String pooled = reference != null ? reference.get() : null;
+            if (pooled == null) {
+                segment.put(value, new WeakReference<>(value));
+                pooled = value;
+            }
+            return pooled;
+        }
+    }
+
+
+    /**
+     * Number of live pooled strings; cleared entries are purged as a side effect.
+     */
+    public int size() {
+        int size = 0;
+        for (WeakHashMap<String, WeakReference<String>> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+
+    private WeakHashMap<String, WeakReference<String>> segmentFor(String value) {
+        int hash = value.hashCode();
+        // Top bits of a multiplicative hash, independent of the low bits WeakHashMap uses for its buckets
+        return segments[(hash * 0x9E3779B9) >>> shift];
+    }
+}
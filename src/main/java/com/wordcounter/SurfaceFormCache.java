@@ -0,0 +1,168 @@
+package com.wordcounter;
+
+
+/**
+ * Direct-mapped cache from a word exactly as a caller gave it to the key it is counted under, probed in place with
+ * characters so a known word is counted without creating a String. Hashes follow {@link String#hashCode()} over the
+ * UTF-16 form, so a String and any view of the same characters land in the same slot. Each slot holds one entry and
+ * a colliding word replaces it; entries made under an older translator version are treated as misses.
+ */
+final class SurfaceFormCache {
+
+    // Decoding scratch per thread; grows to the longest word seen, so steady-state ingestion allocates nothing
+    private static final ThreadLocal<char[]> CHAR_BUFFERS = ThreadLocal.withInitial(() -> new char[64]);
+    private static final ThreadLocal<byte[]> BYTE_BUFFERS = ThreadLocal.withInitial(() -> new byte[64]);
+
+    private static final class Entry {
+        private final String surface;
+        private final String canonical;
+        private final long translatorVersion;
+
+        private Entry(String surface, String canonical, long translatorVersion) {
+            this.surface = surface;
+            this.canonical = canonical;
+            this.translatorVersion = translatorVersion;
+        }
+    }
+
+    // Read and written without locking: entries are immutable, so a racing reader sees a whole entry or an older one
+    private final Entry[] slots;
+    private final int mask;
+
+    SurfaceFormCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Entry[size];
+        this.mask = size - 1;
+    }
+
+
+    /**
+     * The canonical word cached for these characters under the given translator version, or null.
+     */
+    String get(CharSequence word, long translatorVersion) {
+        int length = word.length();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + word.charAt(i);
+        }
+        Entry entry = slots[index(hash)];
+        if (entry == null || entry.translatorVersion != translatorVersion || entry.surface.length() != length) {
+            return null;
+        }
+        String surface = entry.surface;
+        for (int i = 0; i < length; i++) {
+            if (surface.charAt(i) != word.charAt(i)) {
+                return null;
+            }
+        }
+        return entry.canonical;
+    }
+
+
+    String get(char[] chars, int offset, int length, long translatorVersion) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        Entry entry = slots[index(hash)];
+        if (entry == null || entry.translatorVersion != translatorVersion || entry.surface.length() != length) {
+            return null;
+        }
+        String surface = entry.surface;
+        for (int i = 0; i < length; i++) {
+            if (surface.charAt(i) != chars[offset + i]) {
+                return null;
+            }
+        }
+        return entry.canonical;
+    }
+
+
+    void put(String surface, String canonical, long translatorVersion) {
+        slots[index(surface.hashCode())] = new Entry(surface, canonical, translatorVersion);
+    }
+
+
+    private int index(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+
+    /**
+     * Decodes UTF-8 into UTF-16 units, which never outnumber the bytes.
+     *
+     * @return the number of chars written, or -1 if the bytes are not well-formed UTF-8
+     */
+    static int decodeUtf8(byte[] bytes, int offset, int length, char[] out) {
+        int end = offset + length;
+        int i = offset;
+        int n = 0;
+        while (i < end) {
+            int b = bytes[i++];
+            if (b >= 0) {
+                out[n++] = (char) b;
+                continue;
+            }
+            int codePoint;
+            int continuation;
+            int minimum;
+            if ((b & 0xE0) == 0xC0) {
+                codePoint = b & 0x1F;
+                continuation = 1;
+                minimum = 0x80;
+            } else if ((b & 0xF0) == 0xE0) {
+                codePoint = b & 0x0F;
+                continuation = 2;
+                minimum = 0x800;
+            } else if ((b & 0xF8) == 0xF0) {
+                codePoint = b & 0x07;
+                continuation = 3;
+                minimum = 0x10000;
+            } else {
+                return -1;
+            }
+            if (end - i < continuation) {
+                return -1;
+            }
+            for (int k = 0; k < continuation; k++) {
+                int c = bytes[i++];
+                if ((c & 0xC0) != 0x80) {
+                    return -1;
+                }
+                codePoint = (codePoint << 6) | (c & 0x3F);
+            }
+            // Overlong forms, surrogates and values past Unicode are all malformed
+            if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT
+                    || codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                return -1;
+            }
+            if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                out[n++] = Character.highSurrogate(codePoint);
+                out[n++] = Character.lowSurrogate(codePoint);
+            } else {
+                out[n++] = (char) codePoint;
+            }
+        }
+        return n;
+    }
+
+
+    static char[] charBuffer(int capacity) {
+        char[] buffer = CHAR_BUFFERS.get();
+        if (buffer.length < capacity) {
+            buffer = new char[Math.max(capacity, buffer.length * 2)];
+            CHAR_BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+
+
+    static byte[] byteBuffer(int capacity) {
+        byte[] buffer = BYTE_BUFFERS.get();
+        if (buffer.length < capacity) {
+            buffer = new byte[Math.max(capacity, buffer.length * 2)];
+            BYTE_BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+}
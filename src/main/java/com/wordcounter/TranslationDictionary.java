@@ -0,0 +1,246 @@
+package com.wordcounter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+
+/**
+ * Fallback word-to-English dictionary read from a tab-separated file ({@code foreign<TAB>english} per line,
+ * {@code #} starts a comment). When backed by a file it is polled for changes; a changed file is parsed into a
+ * new immutable map on the watcher thread and swapped in with one volatile write, so lookups never wait.
+ * A file that fails to parse leaves the previous dictionary in place, and is not read again until it changes.
+ * Reload listeners are told which words changed, so caches built on the dictionary only drop those.
+ */
+public class TranslationDictionary implements AutoCloseable {
+
+    private static final String BUILT_IN_RESOURCE = "/translations.tsv";
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+    // Rough bytes per line, used to presize the map and avoid rehashing large dictionaries
+    private static final int ESTIMATED_LINE_BYTES = 16;
+
+    private final Path file;
+    private final ScheduledExecutorService watcher;
+    private volatile Map<String, String> entries;
+    private volatile long version;
+    private final List<Consumer<Set<String>>> reloadListeners = new CopyOnWriteArrayList<>();
+    private long loadedModifiedMillis;
+    private long loadedSize;
+
+    public static class Builder {
+        private Path file;
+        private long reloadIntervalMillis = 5000;
+
+        // Without a file the built-in dictionary shipped with the application is used
+        public Builder withFile(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        // Zero or less disables the background watcher, reloadIfChanged() can still be called directly
+        public Builder withReloadIntervalMillis(long reloadIntervalMillis) {
+            this.reloadIntervalMillis = reloadIntervalMillis;
+            return this;
+        }
+
+        public TranslationDictionary build() {
+            return new TranslationDictionary(this);
+        }
+    }
+
+    private TranslationDictionary(Builder builder) {
+        this.file = builder.file;
+        if (file == null) {
+            this.entries = loadBuiltIn();
+            this.watcher = null;
+            return;
+        }
+
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load translation dictionary " + file, e);
+        }
+
+        if (builder.reloadIntervalMillis > 0) {
+            this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-dictionary-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadQuietly,
+                    builder.reloadIntervalMillis, builder.reloadIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.watcher = null;
+        }
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    public static TranslationDictionary builtIn() {
+        return builder().build();
+    }
+
+
+    public String get(String word) {
+        return entries.get(word);
+    }
+
+
+    public boolean contains(String word) {
+        return entries.containsKey(word);
+    }
+
+
+    public int size() {
+        return entries.size();
+    }
+
+
+    // Incremented on every reload so callers can drop anything derived from older entries
+    public long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Calls {@code listener} after every reload with the words that were added, removed or translated differently.
+     * Runs on the reloading thread, before the reload returns.
+     */
+    public void addReloadListener(Consumer<Set<String>> listener) {
+        reloadListeners.add(listener);
+    }
+
+
+    /**
+     * Reloads if the file's size or modification time changed since the last load.
+     *
+     * @return whether a new dictionary was swapped in
+     */
+    public synchronized boolean reloadIfChanged() throws IOException {
+        if (file == null) {
+            return false;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attributes.lastModifiedTime().toMillis() == loadedModifiedMillis && attributes.size() == loadedSize) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+
+    private synchronized void reload() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        // Recorded before parsing, so a broken file is reported once rather than on every poll
+        loadedModifiedMillis = attributes.lastModifiedTime().toMillis();
+        loadedSize = attributes.size();
+        Map<String, String> loaded;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            loaded = parse(reader, attributes.size());
+        }
+
+        Map<String, String> previous = entries;
+        entries = loaded;
+        version++;
+        System.out.println("Loaded " + loaded.size() + " translations from " + file);
+        if (previous != null && !reloadListeners.isEmpty()) {
+            Set<String> changed = changedWords(previous, loaded);
+            for (Consumer<Set<String>> listener : reloadListeners) {
+                listener.accept(changed);
+            }
+        }
+    }
+
+
+    private static Set<String> changedWords(Map<String, String> previous, Map<String, String> loaded) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : loaded.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String word : previous.keySet()) {
+            if (!loaded.containsKey(word)) {
+                changed.add(word);
+            }
+        }
+        return changed;
+    }
+
+
+    private void reloadQuietly() {
+        try {
+            reloadIfChanged();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Keeping previous translation dictionary, reload of " + file + " failed: " + e.getMessage());
+        }
+    }
+
+
+    private static Map<String, String> loadBuiltIn() {
+        try (InputStream in = TranslationDictionary.class.getResourceAsStream(BUILT_IN_RESOURCE)) {
+            if (in == null) {
+                return Collections.emptyMap();
+            }
+            return parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load built-in translation dictionary", e);
+        }
+    }
+
+
+    private static Map<String, String> parse(BufferedReader reader, long sizeHint) throws IOException {
+        int expectedEntries = (int) Math.min(Integer.MAX_VALUE / 2, sizeHint / ESTIMATED_LINE_BYTES);
+        Map<String, String> parsed = new HashMap<>(Math.max(16, expectedEntries * 4 / 3 + 1));
+        StringPool pool = StringPool.shared();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab <= 0 || tab == line.length() - 1) {
+                throw new IOException("Expected <word><TAB><translation> on line " + lineNumber + ": " + line);
+            }
+            // Translations repeat heavily (many words map to "house"), so they are pooled; later lines win
+            String word = WordValidator.normalizeWord(line.substring(0, tab));
+            String translation = pool.intern(WordValidator.normalizeWord(line.substring(tab + 1)));
+            parsed.put(word, translation);
+        }
+        return Collections.unmodifiableMap(parsed);
+    }
+
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.wordcounter;
+
+
+/**
+ * Optional routing information for a translation: who is asking (a client id or namespace, so the translator
+ * can learn that source's languages) and which language the caller believes the word is in. Both may be null.
+ */
+public final class TranslationHint {
+
+    public static final TranslationHint NONE = new TranslationHint(null, null);
+
+    private final String source;
+    private final String language;
+
+    private TranslationHint(String source, String language) {
+        this.source = source;
+        this.language = language;
+    }
+
+
+    public static TranslationHint of(String source, String language) {
+        if (source == null && language == null) {
+            return NONE;
+        }
+        return new TranslationHint(source, language == null ? null : language.trim().toLowerCase());
+    }
+
+
+    public static TranslationHint language(String language) {
+        return of(null, language);
+    }
+
+
+    public String getSource() {
+        return source;
+    }
+
+
+    public String getLanguage() {
+        return language;
+    }
+}
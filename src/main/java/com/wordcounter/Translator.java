@@ -1,8 +1,57 @@
 package com.wordcounter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface Translator {
 
 
     String translate(String word);
 
+    /**
+     * Translates with optional routing information; translators that cannot use hints ignore them.
+     */
+    default String translate(String word, TranslationHint hint) {
+        return translate(word);
+    }
+
     boolean isTranslationAvailable(String word);
-}
\ No newline at end of file
+
+    /**
+     * Whether translating the word now would go to a translation service rather than be answered from memory.
+     * Cheap, and used to price requests before running them; translators without a remote service say no.
+     */
+    default boolean requiresRemoteLookup(String word) {
+        return false;
+    }
+
+    /**
+     * Whether the word's translation is held in memory. Unlike {@link #requiresRemoteLookup(String)} this stays
+     * false for a word answered as is because the translation service is backing off.
+     */
+    default boolean isCached(String word) {
+        return !requiresRemoteLookup(word);
+    }
+
+    /**
+     * Moves on whenever translations given earlier may no longer hold, such as after a dictionary reload, so callers
+     * that memoize translations know to drop them. Constant for translators whose answers never change.
+     */
+    default long getVersion() {
+        return 0;
+    }
+
+    /**
+     * Translates each distinct word once. Null words are skipped.
+     */
+    default Map<String, String> translateAll(Collection<String> words) {
+        Map<String, String> translations = new HashMap<>();
+        for (String word : words) {
+            if (word != null && !translations.containsKey(word)) {
+                translations.put(word, translate(word));
+            }
+        }
+        return translations;
+    }
+}
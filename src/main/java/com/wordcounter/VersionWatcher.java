@@ -0,0 +1,176 @@
+package com.wordcounter;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Completes a future once a version moves past the one its waiter has seen, so long-poll reads hold no thread while
+ * they wait. The version is sampled every {@code pollMillis} instead of being signalled, which keeps writers free of
+ * any notification cost; a waiter hears about a change at most one poll interval late.
+ */
+public class VersionWatcher implements AutoCloseable {
+
+    // Timed-out waiters are only unlinked when the version moves, or by a purge at least this often
+    private static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private final LongSupplier version;
+    private final int maxWaiters;
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ScheduledExecutorService poller;
+    private long lastSeenVersion;
+    private long lastPurgeMillis;
+
+    private static final class Waiter {
+        private final long after;
+        private final CompletableFuture<Long> future;
+
+        private Waiter(long after, CompletableFuture<Long> future) {
+            this.after = after;
+            this.future = future;
+        }
+    }
+
+    public static class Builder {
+        private LongSupplier version;
+        private long pollMillis = 20;
+        private int maxWaiters = 10_000;
+
+        public Builder withVersion(LongSupplier version) {
+            this.version = version;
+            return this;
+        }
+
+        // Zero or less disables the background poller, poll() can still be called directly
+        public Builder withPollMillis(long pollMillis) {
+            this.pollMillis = pollMillis;
+            return this;
+        }
+
+        public Builder withMaxWaiters(int maxWaiters) {
+            this.maxWaiters = maxWaiters;
+            return this;
+        }
+
+        public VersionWatcher build() {
+            if (version == null) {
+                throw new IllegalArgumentException("A version source is required");
+            }
+            return new VersionWatcher(this);
+        }
+    }
+
+    private VersionWatcher(Builder builder) {
+        this.version = builder.version;
+        this.maxWaiters = builder.maxWaiters;
+        this.lastSeenVersion = version.getAsLong();
+        if (builder.pollMillis > 0) {
+            this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-version-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(this::pollQuietly, builder.pollMillis, builder.pollMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.poller = null;
+        }
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    public long getVersion() {
+        return version.getAsLong();
+    }
+
+
+    /**
+     * Completes with the new version once it is greater than {@code after}; at once if it already is.
+     * Cancel the future to stop waiting.
+     *
+     * @throws IllegalStateException if the maximum number of waiters is already waiting
+     */
+    public CompletableFuture<Long> awaitVersionAfter(long after) {
+        long current = version.getAsLong();
+        if (current > after) {
+            return CompletableFuture.completedFuture(current);
+        }
+        if (waiting.incrementAndGet() > maxWaiters) {
+            waiting.decrementAndGet();
+            throw new IllegalStateException("Too many waiting reads: " + maxWaiters);
+        }
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> waiting.decrementAndGet());
+        waiters.add(new Waiter(after, future));
+        // A change just before the add may already have been polled past
+        current = version.getAsLong();
+        if (current > after) {
+            future.complete(current);
+        }
+        return future;
+    }
+
+
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+
+    /**
+     * Completes every waiter the current version has passed. Called by the background poller when enabled.
+     */
+    public synchronized void poll() {
+        long current = version.getAsLong();
+        long now = System.currentTimeMillis();
+        boolean moved = current != lastSeenVersion;
+        if (!moved && now - lastPurgeMillis < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastSeenVersion = current;
+        lastPurgeMillis = now;
+
+        Iterator<Waiter> iterator = waiters.iterator();
+        while (iterator.hasNext()) {
+            Waiter waiter = iterator.next();
+            if (waiter.future.isDone()) {
+                iterator.remove();
+            } else if (current > waiter.after) {
+                iterator.remove();
+                waiter.future.complete(current);
+            }
+        }
+    }
+
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            System.out.println("Version watcher poll failed: " + e.getMessage());
+        }
+    }
+
+
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        for (Waiter waiter : waiters) {
+            waiter.future.cancel(false);
+        }
+        waiters.clear();
+    }
+}
@@ -0,0 +1,286 @@
+package com.wordcounter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Counts canonical words over recent time instead of since the last reset.
+ * Time is cut into fixed buckets and every word keeps a ring of the last {@code bucketCount} of them,
+ * so memory is vocabulary size times bucket count and a windowed lookup touches at most {@code bucketCount} slots
+ * regardless of how many words were ingested. Attach it to a {@link WordCounterImpl} as a {@link CountListener}.
+ * Words that fall silent keep their ring until {@link #purgeExpired()} runs, on a timer when a purge interval is set.
+ */
+public class WindowedWordCounter implements CountListener, AutoCloseable {
+
+    private static final String TOTAL_KEY = "";
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, BucketRing> rings;
+    private final ScheduledExecutorService purger;
+
+    /**
+     * Per-word ring: slot {@code b % bucketCount} holds bucket {@code b} for every b in (head - bucketCount, head].
+     */
+    private static final class BucketRing {
+        private final AtomicIntegerArray counts;
+        private volatile long head;
+
+        private BucketRing(int bucketCount, long head) {
+            this.counts = new AtomicIntegerArray(bucketCount);
+            this.head = head;
+        }
+
+        private void add(long bucket, int delta, int bucketCount) {
+            long current = head;
+            if (bucket > current) {
+                synchronized (this) {
+                    current = head;
+                    if (bucket > current) {
+                        // Zero the slots being reused before publishing the new head
+                        long firstStale = Math.max(current + 1, bucket - bucketCount + 1);
+                        for (long b = firstStale; b <= bucket; b++) {
+                            counts.set((int) (b % bucketCount), 0);
+                        }
+                        head = bucket;
+                    }
+                }
+            } else if (bucket <= current - bucketCount) {
+                // Too old to fit in the ring any more
+                return;
+            }
+            counts.addAndGet((int) (bucket % bucketCount), delta);
+        }
+
+        private int sum(long fromBucket, long toBucket, int bucketCount) {
+            long current = head;
+            long from = Math.max(fromBucket, current - bucketCount + 1);
+            long to = Math.min(toBucket, current);
+            int sum = 0;
+            for (long b = from; b <= to; b++) {
+                sum += counts.get((int) (b % bucketCount));
+            }
+            return sum;
+        }
+    }
+
+    public static class Builder {
+        private long bucketMillis = 60_000;
+        private int bucketCount = 60;
+        private LongSupplier clock = System::currentTimeMillis;
+        private long purgeIntervalMillis;
+
+        public Builder withBucketMillis(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+            return this;
+        }
+
+        public Builder withBucketCount(int bucketCount) {
+            this.bucketCount = bucketCount;
+            return this;
+        }
+
+        public Builder withClock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        // Zero or less disables the background purge, purgeExpired() can still be called directly
+        public Builder withPurgeIntervalMillis(long purgeIntervalMillis) {
+            this.purgeIntervalMillis = purgeIntervalMillis;
+            return this;
+        }
+
+        public WindowedWordCounter build() {
+            if (bucketMillis <= 0 || bucketCount <= 0) {
+                throw new IllegalArgumentException("Bucket duration and count must be positive");
+            }
+            return new WindowedWordCounter(this);
+        }
+    }
+
+    private WindowedWordCounter(Builder builder) {
+        this.bucketMillis = builder.bucketMillis;
+        this.bucketCount = builder.bucketCount;
+        this.clock = builder.clock;
+        this.rings = new ConcurrentHashMap<>();
+
+        if (builder.purgeIntervalMillis > 0) {
+            this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-window-purge");
+                thread.setDaemon(true);
+                return thread;
+            });
+            purger.scheduleWithFixedDelay(this::purgeExpired,
+                    builder.purgeIntervalMillis, builder.purgeIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.purger = null;
+        }
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void onIncrement(String canonicalWord, int delta) {
+        long bucket = currentBucket();
+        ring(canonicalWord, bucket).add(bucket, delta, bucketCount);
+        ring(TOTAL_KEY, bucket).add(bucket, delta, bucketCount);
+    }
+
+    @Override
+    public void onReset() {
+        rings.clear();
+    }
+
+
+    /**
+     * Sliding window: occurrences in the last {@code windowMillis}, rounded up to whole buckets.
+     */
+    public int getCount(String canonicalWord, long windowMillis) {
+        int buckets = bucketsFor(windowMillis);
+        BucketRing ring = rings.get(canonicalWord);
+        if (ring == null) {
+            return 0;
+        }
+        long now = currentBucket();
+        return ring.sum(now - buckets + 1, now, bucketCount);
+    }
+
+
+    /**
+     * Tumbling window: occurrences in the epoch-aligned window of length {@code windowMillis}
+     * that is {@code windowsAgo} windows before the current one (0 is the window in progress).
+     */
+    public int getTumblingCount(String canonicalWord, long windowMillis, int windowsAgo) {
+        long[] range = tumblingRange(windowMillis, windowsAgo);
+        BucketRing ring = rings.get(canonicalWord);
+        if (ring == null) {
+            return 0;
+        }
+        return ring.sum(range[0], range[1], bucketCount);
+    }
+
+
+    public int getTotal(long windowMillis) {
+        return getCount(TOTAL_KEY, windowMillis);
+    }
+
+
+    /**
+     * Most frequent words in the sliding window, highest first. Scans the vocabulary once with a bounded heap,
+     * dropping fully expired words on the way.
+     */
+    public List<WordCount> getTopWords(int k, long windowMillis) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+
+        long now = currentBucket();
+        long from = now - bucketsFor(windowMillis) + 1;
+        PriorityQueue<WordCount> heap = new PriorityQueue<>(k + 1, Comparator.comparingInt(WordCount::getCount));
+
+        for (Map.Entry<String, BucketRing> entry : rings.entrySet()) {
+            if (TOTAL_KEY.equals(entry.getKey())) {
+                continue;
+            }
+            if (entry.getValue().head < now - bucketCount + 1) {
+                rings.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            int count = entry.getValue().sum(from, now, bucketCount);
+            if (count > 0 && (heap.size() < k || count > heap.peek().getCount())) {
+                heap.offer(new WordCount(entry.getKey(), count));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<WordCount> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingInt(WordCount::getCount).reversed());
+        return top;
+    }
+
+
+    /**
+     * Drops words with nothing left in their ring so memory tracks the active vocabulary.
+     *
+     * @return number of words dropped
+     */
+    public int purgeExpired() {
+        long oldestRetained = currentBucket() - bucketCount + 1;
+        int purged = 0;
+        for (Map.Entry<String, BucketRing> entry : rings.entrySet()) {
+            if (entry.getValue().head < oldestRetained && rings.remove(entry.getKey(), entry.getValue())) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+
+    public int getTrackedWordCount() {
+        return rings.size();
+    }
+
+
+    public long getRetentionMillis() {
+        return bucketMillis * bucketCount;
+    }
+
+
+    private BucketRing ring(String key, long bucket) {
+        BucketRing ring = rings.get(key);
+        return ring != null ? ring : rings.computeIfAbsent(key, k -> new BucketRing(bucketCount, bucket));
+    }
+
+
+    private long currentBucket() {
+        return clock.getAsLong() / bucketMillis;
+    }
+
+
+    private int bucketsFor(long windowMillis) {
+        if (windowMillis <= 0 || windowMillis > getRetentionMillis()) {
+            throw new IllegalArgumentException(
+                    "Window must be between 1 and " + getRetentionMillis() + " ms: " + windowMillis);
+        }
+        return (int) ((windowMillis + bucketMillis - 1) / bucketMillis);
+    }
+
+
+    private long[] tumblingRange(long windowMillis, int windowsAgo) {
+        int buckets = bucketsFor(windowMillis);
+        if (windowMillis % bucketMillis != 0) {
+            throw new IllegalArgumentException("Tumbling window must be a multiple of " + bucketMillis + " ms");
+        }
+        if (windowsAgo < 0) {
+            throw new IllegalArgumentException("windowsAgo cannot be negative");
+        }
+        long start = (currentBucket() / buckets - windowsAgo) * buckets;
+        return new long[] {start, start + buckets - 1};
+    }
+
+
+    @Override
+    public void close() {
+        if (purger != null) {
+            purger.shutdown();
+        }
+    }
+}
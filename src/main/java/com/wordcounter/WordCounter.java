@@ -1,18 +1,108 @@
 package com.wordcounter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import com.wordcounter.exception.InvalidWordException;
 
 public interface WordCounter {
 
     void addWord(String word) throws InvalidWordException;
 
+    /**
+     * Adds a word, passing routing information on to the translator. Counters that cannot use it ignore the hint.
+     */
+    default void addWord(String word, TranslationHint hint) throws InvalidWordException {
+        addWord(word);
+    }
+
+    /**
+     * Adds a word given as characters, such as a token in a parse buffer. Counters may count words they have seen
+     * before without creating a String; this default creates one.
+     */
+    default void addWord(CharSequence word) throws InvalidWordException {
+        addWord(word != null ? word.toString() : null);
+    }
+
+    default void addWord(char[] chars, int offset, int length) throws InvalidWordException {
+        addWord(new String(chars, offset, length));
+    }
+
+    /**
+     * Adds a word given as UTF-8 bytes. Malformed bytes make the word invalid.
+     */
+    default void addUtf8Word(byte[] bytes, int offset, int length) throws InvalidWordException {
+        addWord(new String(bytes, offset, length, StandardCharsets.UTF_8));
+    }
+
+    // Reads the bytes between position and limit without moving the position
+    default void addUtf8Word(ByteBuffer bytes) throws InvalidWordException {
+        addWord(StandardCharsets.UTF_8.decode(bytes.duplicate()).toString());
+    }
+
     void addWords(List<String> words) throws InvalidWordException;
 
+    default void addWords(List<String> words, TranslationHint hint) throws InvalidWordException {
+        addWords(words);
+    }
+
     void addWords(String... words) throws InvalidWordException;
 
     int getCount(String word);
 
+    default int getCount(String word, TranslationHint hint) {
+        return getCount(word);
+    }
+
+    /**
+     * Counts for many words at once, keyed by the words as given and in their first-seen order.
+     * Duplicates are answered once and null words are skipped.
+     */
+    default Map<String, Integer> getCounts(Collection<String> words) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        if (words == null) {
+            return counts;
+        }
+        for (String word : words) {
+            if (word != null && !counts.containsKey(word)) {
+                counts.put(word, getCount(word));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Whether phrases are counted; the phrase queries below throw {@link UnsupportedOperationException} otherwise.
+     */
+    default boolean supportsPhrases() {
+        return false;
+    }
+
+    /**
+     * Occurrences of a phrase of consecutive words, as seen within batches passed to {@link #addWords(List)}.
+     */
+    default int getPhraseCount(List<String> words) {
+        throw new UnsupportedOperationException("Phrase counting is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * The most frequent phrases of {@code length} words, most frequent first, each as its words joined by spaces.
+     */
+    default List<WordCount> getTopPhrases(int length, int limit) {
+        throw new UnsupportedOperationException("Phrase counting is not supported by " + getClass().getSimpleName());
+    }
+
     void reset();
 
     int getTotalWords();
-}
\ No newline at end of file
+
+    /**
+     * Stamp that only grows and changes whenever the counts, or the statistics reported with them, change;
+     * for conditional and long-poll reads. -1 when the implementation does not track one.
+     */
+    default long getVersion() {
+        return -1;
+    }
+}
@@ -2,35 +2,209 @@ package com.wordcounter;
 
 
 import com.wordcounter.exception.InvalidWordException;
+import com.wordcounter.exception.WordLimitExceededException;
+import com.wordcounter.persistence.CountJournal;
+import com.wordcounter.persistence.DurabilityConfig;
+import com.wordcounter.persistence.WriteAheadLog;
+import com.wordcounter.phrase.PhraseCounter;
+import com.wordcounter.stemming.CachingStemmer;
+import com.wordcounter.stemming.Stemmer;
+import com.wordcounter.stemming.StemmingTranslator;
+import com.wordcounter.tiered.ColdStore;
+import com.wordcounter.tiered.TieredStorageConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
 import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
 
 
-public class WordCounterImpl implements WordCounter {
+public class WordCounterImpl implements WordCounter, AutoCloseable {
 
-    private final ConcurrentHashMap<String, AtomicInteger> wordCounts;
+    private static final int DEFAULT_STEM_CACHE_SIZE = 100_000;
+    private static final int DEFAULT_SURFACE_FORM_CACHE_SIZE = 65_536;
+    // Surface forms whose deferred translation is remembered; evicted forms are counted pending again
+    private static final int RESOLVED_FORMS_CAPACITY = 65_536;
+
+    private final CountStore wordCounts;
     private final Translator translator;
-    private final AtomicInteger totalWords;
+    private final CountJournal journal;
+    private final int maxUniqueWords;
+    private final CountListener[] listeners;
+    private final ChangeTracker changeTracker;
+    private final DeferredCanonicalizer deferred;
+    private final PhraseCounter phrases;
+    private final ColdStore coldStore;
+    private final ScheduledExecutorService spiller;
+    private final SurfaceFormCache surfaceForms;
 
     public static class Builder {
         private Translator translator = new DefaultTranslator();
+        private DurabilityConfig durabilityConfig;
+        private TieredStorageConfig tieredStorageConfig;
+        private int maxUniqueWords;
+        private Stemmer stemmer;
+        private int deferredTranslationThreads;
+        private int maxPhraseLength;
+        private int surfaceFormCacheSize = DEFAULT_SURFACE_FORM_CACHE_SIZE;
+        private boolean changeTracking;
+        private final List<CountListener> listeners = new ArrayList<>();
 
         public Builder withTranslator(Translator translator) {
             this.translator = translator;
             return this;
         }
 
+        public Builder withDurability(DurabilityConfig durabilityConfig) {
+            this.durabilityConfig = durabilityConfig;
+            return this;
+        }
+
+        /**
+         * Keeps recently touched words in memory and spills the rest to sorted runs on disk once the memory budget
+         * is exceeded. Cold words cost a disk read to look up; snapshots and exports still hold every word.
+         */
+        public Builder withTieredStorage(TieredStorageConfig tieredStorageConfig) {
+            this.tieredStorageConfig = tieredStorageConfig;
+            return this;
+        }
+
+        // Soft cap on distinct canonical words, zero means unbounded
+        public Builder withMaxUniqueWords(int maxUniqueWords) {
+            this.maxUniqueWords = maxUniqueWords;
+            return this;
+        }
+
+        // Counts inflected forms under one stem; results are memoized per surface form unless already cached
+        public Builder withStemmer(Stemmer stemmer) {
+            this.stemmer = stemmer instanceof CachingStemmer || stemmer == null
+                    ? stemmer : new CachingStemmer(stemmer, DEFAULT_STEM_CACHE_SIZE);
+            return this;
+        }
+
+        /**
+         * Counts words whose translation is not known yet under their normalized form and translates them on this many
+         * background threads, so addWord never waits for the translation service. Zero (the default) translates inline.
+         */
+        public Builder withDeferredTranslation(int workerThreads) {
+            this.deferredTranslationThreads = workerThreads;
+            return this;
+        }
+
+        /**
+         * Also counts phrases of 2 up to {@code maxPhraseLength} consecutive words within each addWords batch.
+         * Phrase counts are kept in memory only. Zero (the default) disables phrase counting.
+         */
+        public Builder withPhraseCounting(int maxPhraseLength) {
+            this.maxPhraseLength = maxPhraseLength;
+            return this;
+        }
+
+        /**
+         * Slots remembering which canonical word a token, exactly as given, is counted under, so the character and
+         * byte overloads of addWord skip validation, normalization and translation for tokens seen before.
+         * Zero disables it.
+         */
+        public Builder withSurfaceFormCache(int entries) {
+            this.surfaceFormCacheSize = entries;
+            return this;
+        }
+
+        // Records which words changed so pollers such as the change feed read only those; see getChangeTracker()
+        public Builder withChangeTracking() {
+            this.changeTracking = true;
+            return this;
+        }
+
+        public Builder withListener(CountListener listener) {
+            this.listeners.add(listener);
+            return this;
+        }
+
+        // Switches to the fixed-memory sketch-based counter, keeping the translator chosen so far
+        public ApproximateWordCounter.Builder approximate() {
+            return ApproximateWordCounter.builder().withTranslator(effectiveTranslator());
+        }
+
         public WordCounterImpl build() {
-            return new WordCounterImpl(translator);
+            if (deferredTranslationThreads > 0 && durabilityConfig != null) {
+                // Pending counts live only in memory until merged, which would break the journal's guarantees
+                throw new IllegalArgumentException("Deferred translation cannot be combined with durability");
+            }
+            if (tieredStorageConfig != null && durabilityConfig != null) {
+                // Checkpoints copy every count into one map, which the memory budget exists to avoid
+                throw new IllegalArgumentException("Tiered storage cannot be combined with durability");
+            }
+            if (deferredTranslationThreads > 0 && maxPhraseLength > 0) {
+                // A phrase needs the canonical form of every word at the moment it is counted
+                throw new IllegalArgumentException("Deferred translation cannot be combined with phrase counting");
+            }
+            ChangeTracker changeTracker = changeTracking ? new ChangeTracker() : null;
+            List<CountListener> allListeners = new ArrayList<>(listeners);
+            if (changeTracker != null) {
+                allListeners.add(changeTracker);
+            }
+            return new WordCounterImpl(effectiveTranslator(), durabilityConfig, tieredStorageConfig, maxUniqueWords,
+                    allListeners.toArray(new CountListener[0]), changeTracker, deferredTranslationThreads,
+                    maxPhraseLength, surfaceFormCacheSize);
+        }
+
+        private Translator effectiveTranslator() {
+            return stemmer != null ? new StemmingTranslator(translator, stemmer) : translator;
         }
     }
 
-    private WordCounterImpl(Translator translator) {
-        this.wordCounts = new ConcurrentHashMap<>();
+    private WordCounterImpl(Translator translator, DurabilityConfig durabilityConfig,
+                            TieredStorageConfig tieredStorageConfig, int maxUniqueWords, CountListener[] listeners,
+                            ChangeTracker changeTracker, int deferredTranslationThreads, int maxPhraseLength,
+                            int surfaceFormCacheSize) {
+        this.coldStore = tieredStorageConfig != null ? openColdStore(tieredStorageConfig) : null;
+        this.wordCounts = coldStore != null
+                ? new CountStore(StringPool.shared(), coldStore, tieredStorageConfig.getMemoryBudgetBytes(),
+                        tieredStorageConfig.getSpillBatchWords())
+                : new CountStore(StringPool.shared());
         this.translator = translator;
-        this.totalWords = new AtomicInteger(0);
+        this.maxUniqueWords = maxUniqueWords;
+        this.listeners = listeners;
+        this.changeTracker = changeTracker;
+        this.journal = durabilityConfig != null ? openJournal(durabilityConfig) : null;
+        this.deferred = deferredTranslationThreads > 0
+                ? new DeferredCanonicalizer(this::translate, translator::getVersion, this::addCanonicalWord,
+                        deferredTranslationThreads, RESOLVED_FORMS_CAPACITY)
+                : null;
+        this.phrases = maxPhraseLength > 0 ? new PhraseCounter(maxPhraseLength) : null;
+        this.surfaceForms = surfaceFormCacheSize > 0 ? new SurfaceFormCache(surfaceFormCacheSize) : null;
+        if (coldStore != null && tieredStorageConfig.getSpillIntervalMillis() > 0) {
+            this.spiller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-spiller");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = tieredStorageConfig.getSpillIntervalMillis();
+            spiller.scheduleWithFixedDelay(this::spillQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.spiller = null;
+        }
+    }
+
+
+    private static ColdStore openColdStore(TieredStorageConfig config) {
+        try {
+            return ColdStore.open(config.getDirectory(), config.getMaxRuns());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open cold storage in " + config.getDirectory(), e);
+        }
     }
 
 
@@ -38,27 +212,237 @@ public class WordCounterImpl implements WordCounter {
         return new Builder();
     }
 
+
+    private CountJournal openJournal(DurabilityConfig durabilityConfig) {
+        try {
+            return CountJournal.open(durabilityConfig, new WriteAheadLog.RecordHandler() {
+                @Override
+                public void onIncrement(String word, int delta) {
+                    increment(word, delta);
+                }
+
+                @Override
+                public void onReset() {
+                    clearCounts();
+                }
+            }, this::copyCounts);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover word counts from " + durabilityConfig.getDirectory(), e);
+        }
+    }
+
     @Override
     public void addWord(String word) throws InvalidWordException {
+        addWord(word, TranslationHint.NONE);
+    }
+
+    @Override
+    public void addWord(String word, TranslationHint hint) throws InvalidWordException {
         WordValidator.validateWord(word);
 
+        if (deferred == null) {
+            addCanonicalWord(canonicalize(word, hint), 1);
+            return;
+        }
+
         String normalizedWord = WordValidator.normalizeWord(word);
-        String translatedWord = translator.translate(normalizedWord);
+        String canonicalWord = deferred.resolvedCanonical(normalizedWord);
+        if (canonicalWord == null) {
+            canonicalWord = deferred.addPending(normalizedWord, hint);
+        }
+        if (canonicalWord != null) {
+            addCanonicalWord(canonicalWord, 1);
+        } else {
+            // Pending words already show in the total, so readers must see a new version
+            wordCounts.touch();
+        }
+    }
+
 
-        // Thread-safe increment using computeIfAbsent and AtomicInteger
-        wordCounts.computeIfAbsent(translatedWord, k -> new AtomicInteger(0))
-                .incrementAndGet();
-        totalWords.incrementAndGet();
+    /**
+     * Counts a token without creating a String when the same token was counted recently and its translation still
+     * holds; only a token's first sighting allocates. Validated and translated exactly like {@link #addWord(String)}.
+     */
+    @Override
+    public void addWord(CharSequence word) throws InvalidWordException {
+        if (word != null && surfaceForms != null) {
+            String canonicalWord = surfaceForms.get(word, translator.getVersion());
+            if (canonicalWord != null) {
+                addCanonicalWord(canonicalWord, 1);
+                return;
+            }
+        }
+        addSurfaceForm(word != null ? word.toString() : null);
+    }
+
+
+    @Override
+    public void addWord(char[] chars, int offset, int length) throws InvalidWordException {
+        if (offset < 0 || length < 0 || offset > chars.length - length) {
+            throw new IndexOutOfBoundsException("Slice " + offset + "+" + length + " of " + chars.length + " chars");
+        }
+        if (surfaceForms != null) {
+            String canonicalWord = surfaceForms.get(chars, offset, length, translator.getVersion());
+            if (canonicalWord != null) {
+                addCanonicalWord(canonicalWord, 1);
+                return;
+            }
+        }
+        addSurfaceForm(new String(chars, offset, length));
+    }
+
+
+    /**
+     * Counts a UTF-8 token, decoding it into per-thread scratch space, so known tokens allocate nothing.
+     * Malformed bytes make the word invalid.
+     */
+    @Override
+    public void addUtf8Word(byte[] bytes, int offset, int length) throws InvalidWordException {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException("Slice " + offset + "+" + length + " of " + bytes.length + " bytes");
+        }
+        char[] chars = SurfaceFormCache.charBuffer(length);
+        int charLength = SurfaceFormCache.decodeUtf8(bytes, offset, length, chars);
+        if (charLength < 0) {
+            addWord(new String(bytes, offset, length, StandardCharsets.UTF_8));
+            return;
+        }
+        addWord(chars, 0, charLength);
+    }
+
+
+    @Override
+    public void addUtf8Word(ByteBuffer bytes) throws InvalidWordException {
+        int position = bytes.position();
+        int length = bytes.remaining();
+        if (bytes.hasArray()) {
+            addUtf8Word(bytes.array(), bytes.arrayOffset() + position, length);
+            return;
+        }
+        byte[] copy = SurfaceFormCache.byteBuffer(length);
+        for (int i = 0; i < length; i++) {
+            copy[i] = bytes.get(position + i);
+        }
+        addUtf8Word(copy, 0, length);
+    }
+
+
+    // First sighting of a token: counted through the normal path, then remembered once its canonical form is known
+    private void addSurfaceForm(String word) throws InvalidWordException {
+        if (surfaceForms == null || word == null) {
+            addWord(word);
+            return;
+        }
+        WordValidator.validateWord(word);
+        // Read before translating, so an invalidation during the translation leaves the entry already stale
+        long translatorVersion = translator.getVersion();
+        String canonicalWord = deferred == null
+                ? canonicalize(word)
+                : deferred.resolvedCanonical(WordValidator.normalizeWord(word));
+        if (canonicalWord == null) {
+            // Pending translation; counted as pending and remembered once resolved
+            addWord(word);
+            return;
+        }
+        surfaceForms.put(word, canonicalWord, translatorVersion);
+        addCanonicalWord(canonicalWord, 1);
+    }
+
+
+    /**
+     * Normalizes, stems (when configured) and translates a word to the key it is counted under. Does not validate.
+     */
+    public String canonicalize(String word) {
+        return canonicalize(word, TranslationHint.NONE);
+    }
+
+
+    public String canonicalize(String word, TranslationHint hint) {
+        return translate(WordValidator.normalizeWord(word), hint);
+    }
+
+
+    private String translate(String normalizedWord, TranslationHint hint) {
+        if (hint == null || hint == TranslationHint.NONE) {
+            return translator.translate(normalizedWord);
+        }
+        return translator.translate(normalizedWord, hint);
+    }
+
+
+    /**
+     * Counts an already canonical word, skipping validation and translation.
+     * Used when another node has canonicalized the word before forwarding it here.
+     */
+    public void addCanonicalWord(String canonicalWord, int delta) {
+        checkCapacity(canonicalWord);
+
+        if (journal == null) {
+            increment(canonicalWord, delta);
+        } else {
+            journal.beginWrite();
+            try {
+                increment(canonicalWord, delta);
+                journal.logIncrement(canonicalWord, delta);
+            } finally {
+                journal.endWrite();
+            }
+        }
+
+        for (CountListener listener : listeners) {
+            listener.onIncrement(canonicalWord, delta);
+        }
+    }
+
+
+    private void checkCapacity(String canonicalWord) {
+        // Checked before the insert, so concurrent writers may overshoot by a few entries
+        if (maxUniqueWords > 0 && wordCounts.size() >= maxUniqueWords && !wordCounts.contains(canonicalWord)) {
+            throw new WordLimitExceededException(
+                    "Word counter is full: " + maxUniqueWords + " unique words", maxUniqueWords);
+        }
+    }
+
+
+    public int getCanonicalCount(String canonicalWord) {
+        return wordCounts.get(canonicalWord);
+    }
+
+
+    private void increment(String translatedWord, int delta) {
+        // Lock-free; the word's count and the total move together as far as snapshots can tell
+        wordCounts.add(translatedWord, delta);
     }
 
     @Override
     public void addWords(List<String> words) throws InvalidWordException {
+        addWords(words, TranslationHint.NONE);
+    }
+
+    @Override
+    public void addWords(List<String> words, TranslationHint hint) throws InvalidWordException {
         if (words == null) {
             throw new InvalidWordException("Word list cannot be null", null);
         }
 
-        for (String word : words) {
-            addWord(word);
+        if (phrases == null) {
+            for (String word : words) {
+                addWord(word, hint);
+            }
+            return;
+        }
+
+        List<String> canonicalWords = new ArrayList<>(words.size());
+        try {
+            for (String word : words) {
+                WordValidator.validateWord(word);
+                String canonicalWord = canonicalize(word, hint);
+                addCanonicalWord(canonicalWord, 1);
+                canonicalWords.add(canonicalWord);
+            }
+        } finally {
+            // Like the word counts, phrases cover the batch up to the first invalid word
+            phrases.addSequence(canonicalWords);
         }
     }
 
@@ -73,26 +457,154 @@ public class WordCounterImpl implements WordCounter {
 
     @Override
     public int getCount(String word) {
+        return getCount(word, TranslationHint.NONE);
+    }
+
+    @Override
+    public int getCount(String word, TranslationHint hint) {
         if (word == null) {
             return 0;
         }
 
+        if (deferred == null) {
+            return getCanonicalCount(canonicalize(word, hint));
+        }
         String normalizedWord = WordValidator.normalizeWord(word);
-        String translatedWord = translator.translate(normalizedWord);
+        long translatorVersion = translator.getVersion();
+        String canonicalWord = deferred.resolvedCanonical(normalizedWord);
+        if (canonicalWord == null) {
+            canonicalWord = translate(normalizedWord, hint);
+        }
+        return getCanonicalCount(mergePending(normalizedWord, canonicalWord, translatorVersion))
+                + deferred.getPendingCount(normalizedWord);
+    }
 
-        AtomicInteger count = wordCounts.get(translatedWord);
-        return count != null ? count.get() : 0;
+
+    // Folds a pending surface form into its canonical word before it is read; a full counter leaves it pending
+    private String mergePending(String normalizedWord, String canonicalWord, long translatorVersion) {
+        try {
+            deferred.resolve(normalizedWord, canonicalWord, translatorVersion);
+        } catch (WordLimitExceededException e) {
+            System.out.println("Keeping " + normalizedWord + " pending: " + e.getMessage());
+        }
+        return canonicalWord;
+    }
+
+
+    @Override
+    public Map<String, Integer> getCounts(Collection<String> words) {
+        long translatorVersion = translator.getVersion();
+        Map<String, String> canonicalWords = canonicalizeAll(words);
+        Map<String, Integer> counts = new LinkedHashMap<>(canonicalWords.size() * 4 / 3 + 1);
+        for (Map.Entry<String, String> entry : canonicalWords.entrySet()) {
+            if (deferred == null) {
+                counts.put(entry.getKey(), wordCounts.get(entry.getValue()));
+                continue;
+            }
+            String normalizedWord = WordValidator.normalizeWord(entry.getKey());
+            mergePending(normalizedWord, entry.getValue(), translatorVersion);
+            counts.put(entry.getKey(), wordCounts.get(entry.getValue()) + deferred.getPendingCount(normalizedWord));
+        }
+        return counts;
+    }
+
+
+    /**
+     * Canonicalizes many words with one normalization per distinct word and one bulk translation per distinct
+     * normalized form. Keyed by the words as given, in first-seen order; null words are skipped.
+     */
+    public Map<String, String> canonicalizeAll(Collection<String> words) {
+        Map<String, String> normalizedWords = new LinkedHashMap<>();
+        if (words == null) {
+            return normalizedWords;
+        }
+        for (String word : words) {
+            if (word != null && !normalizedWords.containsKey(word)) {
+                normalizedWords.put(word, WordValidator.normalizeWord(word));
+            }
+        }
+
+        Map<String, String> translations = translator.translateAll(new HashSet<>(normalizedWords.values()));
+        for (Map.Entry<String, String> entry : normalizedWords.entrySet()) {
+            String translation = translations.get(entry.getValue());
+            entry.setValue(translation != null ? translation : translator.translate(entry.getValue()));
+        }
+        return normalizedWords;
+    }
+
+    @Override
+    public boolean supportsPhrases() {
+        return phrases != null;
+    }
+
+    @Override
+    public int getPhraseCount(List<String> words) {
+        PhraseCounter phraseCounter = requirePhrases();
+        List<String> canonicalWords = new ArrayList<>(words.size());
+        for (String word : words) {
+            canonicalWords.add(canonicalize(word));
+        }
+        return phraseCounter.getCount(canonicalWords);
+    }
+
+    @Override
+    public List<WordCount> getTopPhrases(int length, int limit) {
+        return requirePhrases().getTopPhrases(length, limit);
+    }
+
+
+    /**
+     * The phrase counting stage, or null when it is not enabled.
+     */
+    public PhraseCounter getPhraseCounter() {
+        return phrases;
+    }
+
+
+    private PhraseCounter requirePhrases() {
+        if (phrases == null) {
+            throw new UnsupportedOperationException("Phrase counting is not enabled");
+        }
+        return phrases;
     }
 
     @Override
     public void reset() {
+        if (journal != null) {
+            journal.reset(this::clearCounts);
+        } else {
+            clearCounts();
+        }
+
+        for (CountListener listener : listeners) {
+            listener.onReset();
+        }
+    }
+
+
+    private void clearCounts() {
+        if (deferred != null) {
+            deferred.clear();
+        }
+        if (phrases != null) {
+            phrases.reset();
+        }
+        // Swaps in an empty table, so no reader sees cleared counts with a stale total
         wordCounts.clear();
-        totalWords.set(0);
     }
 
     @Override
     public int getTotalWords() {
-        return totalWords.get();
+        return deferred != null ? deferred.total(wordCounts::total) : wordCounts.total();
+    }
+
+
+    /**
+     * Sum of per-thread write stamps: one uncontended increment per write, read by summing a few dozen slots.
+     */
+    @Override
+    public long getVersion() {
+        return wordCounts.version();
     }
 
 
@@ -102,6 +614,204 @@ public class WordCounterImpl implements WordCounter {
 
 
     public boolean isEmpty() {
-        return totalWords.get() == 0;
+        return getTotalWords() == 0;
+    }
+
+
+    /**
+     * Distinct surface forms counted but not yet translated; always zero without deferred translation.
+     */
+    public int getPendingWordCount() {
+        return deferred != null ? deferred.getPendingWordCount() : 0;
+    }
+
+
+    /**
+     * Translates every pending word on the calling thread, so that canonical counts, snapshots and exports
+     * cover everything added so far. A no-op without deferred translation.
+     */
+    public void drainPending() {
+        if (deferred != null) {
+            deferred.drain();
+        }
+    }
+
+
+    /**
+     * Words changed since the tracker was last polled, or null unless built with change tracking.
+     */
+    public ChangeTracker getChangeTracker() {
+        return changeTracker;
+    }
+
+
+    /**
+     * Spills the least recently touched words to disk if the in-memory counts are over budget. Called by the
+     * background spiller when enabled; a no-op without tiered storage.
+     *
+     * @return how many words were spilled
+     */
+    public int spillColdWords() {
+        try {
+            return wordCounts.spill();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill word counts", e);
+        }
+    }
+
+
+    private void spillQuietly() {
+        try {
+            spillColdWords();
+        } catch (RuntimeException e) {
+            System.out.println("Spilling cold words failed: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Disk tier of the counts, or null unless built with tiered storage.
+     */
+    public ColdStore getColdStore() {
+        return coldStore;
+    }
+
+
+    // Estimated heap held by the in-memory tier; only tracked with tiered storage
+    public long getHotMemoryBytes() {
+        return wordCounts.getHotBytes();
+    }
+
+
+    public boolean isDurable() {
+        return journal != null;
+    }
+
+
+    /**
+     * Forces buffered log records to disk without waiting for the next group commit.
+     */
+    public void flush() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to flush word count journal", e);
+        }
+    }
+
+
+    /**
+     * Writes a snapshot now and drops the log segments it covers.
+     */
+    public void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.checkpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write word count snapshot", e);
+        }
+    }
+
+
+    /**
+     * Copy of every canonical word and its count. Not atomic with respect to concurrent writers;
+     * callers that already exclude writers (checkpoints, spills) use it because it skips sorting.
+     */
+    public Map<String, Integer> copyCounts() {
+        Map<String, Integer> copy = new HashMap<>(wordCounts.size() * 2);
+        wordCounts.forEach(copy::put);
+        return copy;
+    }
+
+
+    /**
+     * Consistent point-in-time view: counts and total reflect exactly the same set of increments.
+     * Writers are never blocked; the caller waits only for increments already in progress.
+     * With deferred translation only merged words are included; callers call {@link #drainPending()} first.
+     */
+    public CountsSnapshot snapshot() {
+        return wordCounts.snapshot();
+    }
+
+
+    /**
+     * Adds every count in the snapshot to this counter. Its words are taken as canonical, so the snapshot should come
+     * from a counter with the same translation and stemming; each word goes through the journal and listeners once
+     * with its whole count. Stops at the first word that does not fit within the unique word limit.
+     */
+    public void merge(CountsSnapshot snapshot) {
+        for (int i = 0; i < snapshot.getUniqueWordCount(); i++) {
+            addCanonicalWord(snapshot.getWord(i), snapshot.getCountAt(i));
+        }
+    }
+
+
+    /**
+     * Adds the other counter's canonical word counts to this one, draining its pending words first. Phrase counts
+     * are not merged.
+     *
+     * @throws IllegalArgumentException if the other counter is this one or cannot list its counts
+     */
+    public void merge(WordCounter other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a word counter into itself");
+        }
+        if (!(other instanceof WordCounterImpl)) {
+            throw new IllegalArgumentException("Cannot list the counts of " + other.getClass().getSimpleName());
+        }
+        WordCounterImpl source = (WordCounterImpl) other;
+        source.drainPending();
+        merge(source.snapshot());
+    }
+
+
+    /**
+     * Collector that counts a stream of words into this counter, for example
+     * {@code words.parallelStream().collect(counter.collector())}. It is concurrent: stream threads tally into their
+     * own maps and flush each distinct word with its whole count. Invalid and null words are skipped instead of
+     * failing the stream.
+     */
+    public Collector<String, ?, WordCounterImpl> collector() {
+        return new ParallelWordCollector(this);
+    }
+
+
+    /**
+     * Stops deferred translation workers and the spiller, deletes cold runs, flushes pending log records and writes a
+     * final snapshot.
+     */
+    @Override
+    public void close() {
+        if (deferred != null) {
+            deferred.close();
+        }
+        if (spiller != null) {
+            // Not interrupted: an interrupt would close the run file being written under it
+            spiller.shutdown();
+            try {
+                // A spill still running would otherwise write a run after the store deleted its files
+                if (!spiller.awaitTermination(30, TimeUnit.SECONDS)) {
+                    System.out.println("Spiller did not finish within 30 seconds, closing cold runs anyway");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (coldStore != null) {
+            coldStore.close();
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close word count journal", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,27 @@
 package com.wordcounter;
 import com.wordcounter.exception.InvalidWordException;
-import java.util.regex.Pattern;
+import java.text.Normalizer;
+import java.util.Locale;
 
 
+/**
+ * Accepts words made of Unicode letters (plus combining marks after the first letter) and normalizes them
+ * to NFC with locale-independent case folding. Pure ASCII input, the common case, is decided with a
+ * lookup table and never touches the Unicode machinery.
+ */
 public class WordValidator {
 
-    private static final Pattern ALPHABETIC_PATTERN = Pattern.compile("^[a-zA-Z]+$");
+    // Longest word accepted, in UTF-16 chars before normalization
+    public static final int MAX_WORD_LENGTH = 1024;
+
+    private static final boolean[] ASCII_LETTER = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            ASCII_LETTER[c] = true;
+            ASCII_LETTER[Character.toUpperCase(c)] = true;
+        }
+    }
 
 
     public static void validateWord(String word) throws InvalidWordException {
@@ -14,7 +30,13 @@ public class WordValidator {
         }
 
         String trimmedWord = word.trim();
-        if (!ALPHABETIC_PATTERN.matcher(trimmedWord).matches()) {
+        if (trimmedWord.length() > MAX_WORD_LENGTH) {
+            throw new InvalidWordException(
+                    "Word is longer than " + MAX_WORD_LENGTH + " characters",
+                    trimmedWord.substring(0, 32)
+            );
+        }
+        if (!isWord(trimmedWord)) {
             throw new InvalidWordException(
                     "Word contains non-alphabetic characters: " + trimmedWord,
                     trimmedWord
@@ -27,6 +49,88 @@ public class WordValidator {
         if (word == null) {
             return null;
         }
-        return word.trim().toLowerCase();
+        String trimmedWord = word.trim();
+        if (isAscii(trimmedWord)) {
+            return toLowerAscii(trimmedWord);
+        }
+
+        // Upper then lower in the root locale approximates full case folding (ß -> ss, ς -> σ, ﬁ -> fi) the same way
+        // on every server; unlike true folding it also merges dotless ı into i. Casing can denormalize, so NFC last
+        String composed = Normalizer.normalize(trimmedWord, Normalizer.Form.NFC);
+        String folded = composed.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        return Normalizer.normalize(folded, Normalizer.Form.NFC);
+    }
+
+
+    private static boolean isWord(String word) {
+        int length = word.length();
+        for (int i = 0; i < length; i++) {
+            char c = word.charAt(i);
+            if (c >= 128) {
+                return isUnicodeWord(word);
+            }
+            if (!ASCII_LETTER[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean isUnicodeWord(String word) {
+        int i = 0;
+        while (i < word.length()) {
+            int codePoint = word.codePointAt(i);
+            if (!Character.isLetter(codePoint) && (i == 0 || !isCombiningMark(codePoint))) {
+                return false;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return true;
+    }
+
+
+    // Decomposed accents and the vowel signs of scripts such as Devanagari
+    private static boolean isCombiningMark(int codePoint) {
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+
+    private static boolean isAscii(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    // Returns the same instance when there is nothing to lower, which is most input
+    private static String toLowerAscii(String word) {
+        int length = word.length();
+        int firstUpper = 0;
+        while (firstUpper < length && !isAsciiUpper(word.charAt(firstUpper))) {
+            firstUpper++;
+        }
+        if (firstUpper == length) {
+            return word;
+        }
+
+        char[] chars = word.toCharArray();
+        for (int i = firstUpper; i < length; i++) {
+            if (isAsciiUpper(chars[i])) {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+
+    private static boolean isAsciiUpper(char c) {
+        return c >= 'A' && c <= 'Z';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package com.wordcounter.admission;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Token bucket per client, kept as a single "theoretical arrival time" per client (GCRA), so admitting a request is
+ * one compare-and-set and never blocks. A request is admitted while the client's bucket is not in debt, and is then
+ * charged in full: a batch larger than the burst is let through on a full bucket and the client waits off the debt.
+ * Clients whose buckets have refilled hold no state worth keeping and are evicted once the table is full; if it is
+ * still full, new clients share one overflow bucket, so memory stays bounded whatever the number of client ids.
+ */
+public class ClientRateLimiter {
+
+    static final String OVERFLOW_CLIENT = "*";
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public static class Builder {
+        private double tokensPerSecond = 2000;
+        private long burstTokens = 20_000;
+        private int maxClients = 100_000;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        public Builder withTokensPerSecond(double tokensPerSecond) {
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        // Tokens a client that has been idle long enough can spend at once
+        public Builder withBurstTokens(long burstTokens) {
+            this.burstTokens = burstTokens;
+            return this;
+        }
+
+        public Builder withMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+            return this;
+        }
+
+        public Builder withNanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public ClientRateLimiter build() {
+            if (tokensPerSecond <= 0 || burstTokens <= 0 || maxClients <= 0) {
+                throw new IllegalArgumentException("Rate, burst and client limit must be positive");
+            }
+            return new ClientRateLimiter(this);
+        }
+    }
+
+    private ClientRateLimiter(Builder builder) {
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / builder.tokensPerSecond));
+        this.burstNanos = saturatedMultiply(builder.burstTokens, nanosPerToken);
+        this.maxClients = builder.maxClients;
+        this.nanoClock = builder.nanoClock;
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * Charges {@code tokens} to the client if its bucket is not in debt.
+     *
+     * @return zero if admitted, otherwise roughly how many nanoseconds until the client would be admitted
+     */
+    public long tryAcquire(String clientId, long tokens) {
+        AtomicLong bucket = bucketFor(clientId);
+        long cost = saturatedMultiply(Math.max(0, tokens), nanosPerToken);
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long arrival = bucket.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long debt = start - now;
+            // Only the part of the cost that fits in the burst decides admission; the rest becomes debt
+            long admittedWithin = burstNanos - Math.min(cost, burstNanos);
+            if (debt > admittedWithin) {
+                return Math.max(1, debt - admittedWithin);
+            }
+            if (bucket.compareAndSet(arrival, saturatedAdd(start, cost))) {
+                return 0;
+            }
+        }
+    }
+
+
+    /**
+     * How long until the client could be charged {@code tokens}, without charging it or starting to track it;
+     * lets a caller turn away a client in debt before doing any work to price its request.
+     *
+     * @return zero if a request of that size would be admitted now
+     */
+    public long peek(String clientId, long tokens) {
+        AtomicLong bucket = buckets.get(clientId);
+        if (bucket == null && buckets.size() >= maxClients) {
+            bucket = buckets.get(OVERFLOW_CLIENT);
+        }
+        if (bucket == null) {
+            return 0;
+        }
+        long cost = saturatedMultiply(Math.max(0, tokens), nanosPerToken);
+        long debt = bucket.get() - nanoClock.getAsLong();
+        long admittedWithin = burstNanos - Math.min(cost, burstNanos);
+        return debt > admittedWithin ? Math.max(1, debt - admittedWithin) : 0;
+    }
+
+
+    /**
+     * Gives back tokens charged for a request that was turned away later, such as by a concurrency limit.
+     */
+    public void refund(String clientId, long tokens) {
+        AtomicLong bucket = buckets.get(clientId);
+        if (bucket == null) {
+            bucket = buckets.get(OVERFLOW_CLIENT);
+        }
+        if (bucket != null) {
+            bucket.addAndGet(-saturatedMultiply(Math.max(0, tokens), nanosPerToken));
+        }
+    }
+
+
+    public int getTrackedClientCount() {
+        return buckets.size();
+    }
+
+
+    private AtomicLong bucketFor(String clientId) {
+        AtomicLong bucket = buckets.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            evictRefilled();
+            if (buckets.size() >= maxClients) {
+                return buckets.computeIfAbsent(OVERFLOW_CLIENT, key -> new AtomicLong(nanoClock.getAsLong()));
+            }
+        }
+        // Starts full: an arrival time of now means no debt
+        return buckets.computeIfAbsent(clientId, key -> new AtomicLong(nanoClock.getAsLong()));
+    }
+
+
+    // A bucket that has refilled is indistinguishable from a new one, so dropping it loses nothing
+    private void evictRefilled() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = nanoClock.getAsLong();
+            Iterator<Map.Entry<String, AtomicLong>> iterator = buckets.entrySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getValue().get() - now <= 0) {
+                    iterator.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+
+    private static long saturatedMultiply(long a, long b) {
+        // Both are non-negative; anything this large means "never within the burst" anyway
+        return b != 0 && a > Long.MAX_VALUE / 4 / b ? Long.MAX_VALUE / 4 : a * b;
+    }
+
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE / 2 : sum;
+    }
+}
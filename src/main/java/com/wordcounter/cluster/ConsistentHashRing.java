@@ -0,0 +1,53 @@
+package com.wordcounter.cluster;
+
+import com.wordcounter.sketch.Hashing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Immutable consistent-hash ring. Each node is placed at several virtual points so keys spread evenly
+ * and adding or removing a node only moves roughly 1/N of the keys.
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring;
+    private final List<String> nodes;
+
+    public ConsistentHashRing(List<String> nodes, int virtualNodesPerNode) {
+        if (nodes == null || nodes.isEmpty()) {
+            throw new IllegalArgumentException("Node list cannot be null or empty");
+        }
+        if (virtualNodesPerNode <= 0) {
+            throw new IllegalArgumentException("Virtual node count must be positive");
+        }
+
+        this.ring = new TreeMap<>();
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodesPerNode; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+
+    public String ownerOf(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+
+    static long hash(String key) {
+        return Hashing.hash64(key);
+    }
+}
@@ -0,0 +1,68 @@
+package com.wordcounter.cluster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * One replica incarnation's own G-Counter slots for the words it touched since it last reached a peer.
+ * Merging is an element-wise max, so deltas may be re-sent, reordered or duplicated safely.
+ * During a full state transfer the sender also relays other incarnations' slots, and marks its last delta complete.
+ */
+public class GossipDelta {
+
+    private String node;
+    private long incarnation;
+    private long epoch;
+    private int totalWords;
+    private Map<String, Integer> counts;
+    // Node that sent the delta, when it relays another incarnation's slot; null means the slot's own node
+    private String sender;
+    private boolean complete;
+    // Slots, as node#incarnation, folded into their node's current incarnation and to be dropped
+    private List<String> retired;
+
+    public GossipDelta() {
+        this.counts = new HashMap<>();
+        this.retired = new ArrayList<>();
+    }
+
+    public GossipDelta(String node, long epoch, int totalWords, Map<String, Integer> counts) {
+        this(node, 0, epoch, totalWords, counts);
+    }
+
+    public GossipDelta(String node, long incarnation, long epoch, int totalWords, Map<String, Integer> counts) {
+        this.node = node;
+        this.incarnation = incarnation;
+        this.epoch = epoch;
+        this.totalWords = totalWords;
+        this.counts = counts;
+    }
+
+    public String getNode() { return node; }
+    public void setNode(String node) { this.node = node; }
+
+    public long getIncarnation() { return incarnation; }
+    public void setIncarnation(long incarnation) { this.incarnation = incarnation; }
+
+    public long getEpoch() { return epoch; }
+    public void setEpoch(long epoch) { this.epoch = epoch; }
+
+    public int getTotalWords() { return totalWords; }
+    public void setTotalWords(int totalWords) { this.totalWords = totalWords; }
+
+    public Map<String, Integer> getCounts() { return counts; }
+    public void setCounts(Map<String, Integer> counts) { this.counts = counts; }
+
+    public String getSender() { return sender; }
+    public void setSender(String sender) { this.sender = sender; }
+
+    // Last delta of a full state transfer: the receiver now has every slot the sender knew of
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+
+    public List<String> getRetired() { return retired; }
+    public void setRetired(List<String> retired) { this.retired = retired; }
+}
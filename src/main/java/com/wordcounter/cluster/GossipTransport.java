@@ -0,0 +1,10 @@
+package com.wordcounter.cluster;
+
+
+public interface GossipTransport {
+
+    /**
+     * @return the epoch the peer is in after applying the delta
+     */
+    long send(String peer, GossipDelta delta);
+}
@@ -0,0 +1,87 @@
+package com.wordcounter.cluster;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+
+/**
+ * {@link NodeClient} and {@link GossipTransport} speaking to the internal endpoints of another word counter service instance.
+ * Nodes are identified by their base URL, e.g. {@code http://localhost:8081}.
+ */
+public class HttpNodeClient implements NodeClient, GossipTransport {
+
+    private static final String INTERNAL_PATH = "/api/wordcounter/internal";
+
+    private final ObjectMapper objectMapper;
+    private final int timeoutMillis;
+
+    public HttpNodeClient(int timeoutMillis) {
+        this.objectMapper = new ObjectMapper();
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void addCounts(String node, Map<String, Integer> deltas) {
+        call(node, "POST", "/increments", Collections.singletonMap("counts", deltas));
+    }
+
+    @Override
+    public Map<String, Integer> getCounts(String node, Collection<String> canonicalWords) {
+        JsonNode response = call(node, "POST", "/counts", Collections.singletonMap("words", canonicalWords));
+        return objectMapper.convertValue(response.get("counts"), new TypeReference<Map<String, Integer>>() { });
+    }
+
+    @Override
+    public int getTotalWords(String node) {
+        return call(node, "GET", "/total", null).get("totalWords").asInt();
+    }
+
+    @Override
+    public void reset(String node) {
+        call(node, "POST", "/reset", null);
+    }
+
+    @Override
+    public long send(String peer, GossipDelta delta) {
+        return call(peer, "POST", "/gossip", delta).path("epoch").asLong(delta.getEpoch());
+    }
+
+
+    private JsonNode call(String node, String method, String path, Object body) {
+        try {
+            URL url = new URL(node + INTERNAL_PATH + path);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    objectMapper.writeValue(out, body);
+                }
+            }
+
+            int status = connection.getResponseCode();
+            if (status != 200) {
+                throw new IllegalStateException("Node " + node + " answered " + status + " for " + path);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return objectMapper.readTree(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Node " + node + " unreachable: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.wordcounter.cluster;
+
+import java.util.Collection;
+import java.util.Map;
+
+
+/**
+ * Transport used by {@link PartitionedWordCounter} to reach the node owning a partition.
+ * All words passed here are already canonical.
+ */
+public interface NodeClient {
+
+    void addCounts(String node, Map<String, Integer> deltas);
+
+    Map<String, Integer> getCounts(String node, Collection<String> canonicalWords);
+
+    int getTotalWords(String node);
+
+    void reset(String node);
+}
@@ -0,0 +1,404 @@
+package com.wordcounter.cluster;
+
+import com.wordcounter.TranslationHint;
+import com.wordcounter.WordCounter;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.WordValidator;
+import com.wordcounter.exception.InvalidWordException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * {@link WordCounter} for a cluster of service instances. Each canonical word is owned by exactly one node,
+ * chosen on a {@link ConsistentHashRing}; words are validated and translated on the node that receives them,
+ * then counted locally or forwarded to their owner, one request per owner and batch.
+ * With a forward flush interval, single adds for another owner are buffered and sent together once the buffer
+ * holds a batch or the interval passes; reads on this node include what it still holds.
+ */
+public class PartitionedWordCounter implements WordCounter, AutoCloseable {
+
+    private final WordCounterImpl local;
+    private final String self;
+    private final ConsistentHashRing ring;
+    private final NodeClient client;
+    private final int maxBatchSize;
+    private final ExecutorService fanout;
+    private final Map<String, ForwardBuffer> forwardBuffers;
+    private final ScheduledExecutorService flusher;
+
+    // Single adds not yet sent to one owner
+    private static final class ForwardBuffer {
+        private Map<String, Integer> deltas = new HashMap<>();
+        private int total;
+
+        private synchronized int add(String canonicalWord) {
+            deltas.merge(canonicalWord, 1, Integer::sum);
+            total++;
+            return deltas.size();
+        }
+
+        private synchronized Map<String, Integer> take() {
+            Map<String, Integer> taken = deltas;
+            deltas = new HashMap<>();
+            total = 0;
+            return taken;
+        }
+
+        // A failed send goes back in, to be retried with the next flush
+        private synchronized void restore(Map<String, Integer> failed) {
+            failed.forEach((word, delta) -> {
+                deltas.merge(word, delta, Integer::sum);
+                total += delta;
+            });
+        }
+
+        private synchronized int pending(String canonicalWord) {
+            return deltas.getOrDefault(canonicalWord, 0);
+        }
+
+        private synchronized int total() {
+            return total;
+        }
+    }
+
+    public static class Builder {
+        private WordCounterImpl local;
+        private String self;
+        private List<String> nodes;
+        private int virtualNodes = 128;
+        private NodeClient client;
+        private int maxBatchSize = 1000;
+        private long forwardFlushMillis;
+
+        public Builder withLocalCounter(WordCounterImpl local) {
+            this.local = local;
+            return this;
+        }
+
+        public Builder withSelf(String self) {
+            this.self = self;
+            return this;
+        }
+
+        public Builder withNodes(List<String> nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+            return this;
+        }
+
+        public Builder withNodeClient(NodeClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public Builder withMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        // Zero or less forwards every single add at once, in its own request
+        public Builder withForwardFlushMillis(long forwardFlushMillis) {
+            this.forwardFlushMillis = forwardFlushMillis;
+            return this;
+        }
+
+        public PartitionedWordCounter build() {
+            if (local == null || self == null || client == null) {
+                throw new IllegalArgumentException("Local counter, self node and node client are required");
+            }
+            if (nodes == null || !nodes.contains(self)) {
+                throw new IllegalArgumentException("Node list must contain self node: " + self);
+            }
+            return new PartitionedWordCounter(this);
+        }
+    }
+
+    private PartitionedWordCounter(Builder builder) {
+        this.local = builder.local;
+        this.self = builder.self;
+        this.ring = new ConsistentHashRing(builder.nodes, builder.virtualNodes);
+        this.client = builder.client;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.fanout = Executors.newFixedThreadPool(Math.max(1, builder.nodes.size() - 1), runnable -> {
+            Thread thread = new Thread(runnable, "word-counter-fanout");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.forwardBuffers = new HashMap<>();
+        if (builder.forwardFlushMillis > 0) {
+            for (String node : ring.getNodes()) {
+                if (!self.equals(node)) {
+                    forwardBuffers.put(node, new ForwardBuffer());
+                }
+            }
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-forward-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush,
+                    builder.forwardFlushMillis, builder.forwardFlushMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void addWord(String word) throws InvalidWordException {
+        addWord(word, TranslationHint.NONE);
+    }
+
+    @Override
+    public void addWord(String word, TranslationHint hint) throws InvalidWordException {
+        WordValidator.validateWord(word);
+
+        String canonicalWord = local.canonicalize(word, hint);
+        String owner = ring.ownerOf(canonicalWord);
+        if (self.equals(owner)) {
+            local.addCanonicalWord(canonicalWord, 1);
+            return;
+        }
+
+        ForwardBuffer buffer = forwardBuffers.get(owner);
+        if (buffer == null) {
+            client.addCounts(owner, Collections.singletonMap(canonicalWord, 1));
+        } else if (buffer.add(canonicalWord) >= maxBatchSize) {
+            fanout.execute(() -> send(owner, buffer));
+        }
+    }
+
+    @Override
+    public void addWords(List<String> words) throws InvalidWordException {
+        addWords(words, TranslationHint.NONE);
+    }
+
+    @Override
+    public void addWords(List<String> words, TranslationHint hint) throws InvalidWordException {
+        if (words == null) {
+            throw new InvalidWordException("Word list cannot be null", null);
+        }
+
+        // Validate the whole batch before anything is forwarded
+        for (String word : words) {
+            WordValidator.validateWord(word);
+        }
+
+        Map<String, Map<String, Integer>> deltasByOwner = new HashMap<>();
+        for (String word : words) {
+            String canonicalWord = local.canonicalize(word, hint);
+            deltasByOwner.computeIfAbsent(ring.ownerOf(canonicalWord), k -> new HashMap<>())
+                    .merge(canonicalWord, 1, Integer::sum);
+        }
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Integer>> entry : deltasByOwner.entrySet()) {
+            String owner = entry.getKey();
+            if (self.equals(owner)) {
+                entry.getValue().forEach(local::addCanonicalWord);
+                continue;
+            }
+            for (Map<String, Integer> chunk : chunks(entry.getValue())) {
+                pending.add(CompletableFuture.runAsync(() -> client.addCounts(owner, chunk), fanout));
+            }
+        }
+        await(pending);
+    }
+
+    @Override
+    public void addWords(String... words) throws InvalidWordException {
+        if (words == null) {
+            throw new InvalidWordException("Word array cannot be null", null);
+        }
+
+        addWords(Arrays.asList(words));
+    }
+
+    @Override
+    public int getCount(String word) {
+        return getCount(word, TranslationHint.NONE);
+    }
+
+    @Override
+    public int getCount(String word, TranslationHint hint) {
+        if (word == null) {
+            return 0;
+        }
+
+        String canonicalWord = local.canonicalize(word, hint);
+        String owner = ring.ownerOf(canonicalWord);
+        if (self.equals(owner)) {
+            return local.getCanonicalCount(canonicalWord);
+        }
+
+        Integer count = client.getCounts(owner, Collections.singletonList(canonicalWord)).get(canonicalWord);
+        return (count != null ? count : 0) + pending(owner, canonicalWord);
+    }
+
+    @Override
+    public Map<String, Integer> getCounts(Collection<String> words) {
+        Map<String, String> canonicalWords = local.canonicalizeAll(words);
+
+        Map<String, Set<String>> wordsByOwner = new HashMap<>();
+        for (String canonicalWord : canonicalWords.values()) {
+            wordsByOwner.computeIfAbsent(ring.ownerOf(canonicalWord), k -> new HashSet<>()).add(canonicalWord);
+        }
+
+        Map<String, Integer> canonicalCounts = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : wordsByOwner.entrySet()) {
+            String owner = entry.getKey();
+            if (self.equals(owner)) {
+                entry.getValue().forEach(word -> canonicalCounts.put(word, local.getCanonicalCount(word)));
+                continue;
+            }
+            List<String> ownedWords = new ArrayList<>(entry.getValue());
+            for (int from = 0; from < ownedWords.size(); from += maxBatchSize) {
+                List<String> chunk = ownedWords.subList(from, Math.min(ownedWords.size(), from + maxBatchSize));
+                pending.add(CompletableFuture.runAsync(
+                        () -> canonicalCounts.putAll(client.getCounts(owner, chunk)), fanout));
+            }
+        }
+        await(pending);
+
+        Map<String, Integer> counts = new LinkedHashMap<>(canonicalWords.size() * 4 / 3 + 1);
+        canonicalWords.forEach((word, canonicalWord) -> counts.put(word, canonicalCounts.getOrDefault(canonicalWord, 0)
+                + pending(ring.ownerOf(canonicalWord), canonicalWord)));
+        return counts;
+    }
+
+    @Override
+    public void reset() {
+        for (ForwardBuffer buffer : forwardBuffers.values()) {
+            buffer.take();
+        }
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (String node : ring.getNodes()) {
+            if (!self.equals(node)) {
+                pending.add(CompletableFuture.runAsync(() -> client.reset(node), fanout));
+            }
+        }
+        local.reset();
+        await(pending);
+    }
+
+    @Override
+    public int getTotalWords() {
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        for (String node : ring.getNodes()) {
+            if (!self.equals(node)) {
+                pending.add(CompletableFuture.supplyAsync(() -> client.getTotalWords(node), fanout));
+            }
+        }
+
+        int total = local.getTotalWords();
+        for (ForwardBuffer buffer : forwardBuffers.values()) {
+            total += buffer.total();
+        }
+        for (CompletableFuture<Integer> future : pending) {
+            total += future.join();
+        }
+        return total;
+    }
+
+
+    /**
+     * Sends every buffered single add to its owner now. Runs on a timer when a forward flush interval is set.
+     */
+    public void flush() {
+        for (Map.Entry<String, ForwardBuffer> entry : forwardBuffers.entrySet()) {
+            send(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+    private void send(String owner, ForwardBuffer buffer) {
+        Map<String, Integer> deltas = buffer.take();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            client.addCounts(owner, deltas);
+        } catch (RuntimeException e) {
+            buffer.restore(deltas);
+            System.out.println("Forwarding to " + owner + " failed, will retry: " + e.getMessage());
+        }
+    }
+
+
+    private int pending(String owner, String canonicalWord) {
+        ForwardBuffer buffer = forwardBuffers.get(owner);
+        return buffer != null ? buffer.pending(canonicalWord) : 0;
+    }
+
+
+    public String ownerOf(String word) {
+        return ring.ownerOf(local.canonicalize(word));
+    }
+
+
+    public List<String> getNodes() {
+        return ring.getNodes();
+    }
+
+
+    public String getSelf() {
+        return self;
+    }
+
+
+    private List<Map<String, Integer>> chunks(Map<String, Integer> deltas) {
+        List<Map<String, Integer>> chunks = new ArrayList<>();
+        Map<String, Integer> current = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+            current.put(entry.getKey(), entry.getValue());
+            if (current.size() >= maxBatchSize) {
+                chunks.add(current);
+                current = new HashMap<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+
+    private static void await(List<? extends CompletableFuture<?>> pending) {
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+        fanout.shutdown();
+    }
+}
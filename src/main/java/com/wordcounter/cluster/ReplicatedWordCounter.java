@@ -0,0 +1,666 @@
+package com.wordcounter.cluster;
+
+import com.wordcounter.TranslationHint;
+import com.wordcounter.WordCounter;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.WordValidator;
+import com.wordcounter.exception.InvalidWordException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * {@link WordCounter} that keeps a G-Counter per canonical word, replicated to every peer.
+ * This node's own slot is the local {@link WordCounterImpl}; peers' slots are kept alongside it and
+ * filled by periodic delta gossip. Writes and reads never leave the node, and all replicas converge
+ * once gossip quiesces.
+ *
+ * Slots are keyed by node and incarnation, a random id drawn at every start, so a node that restarts with empty
+ * counts grows a new slot instead of hiding under the maximum of its old one. A peer that shows an incarnation or
+ * epoch we have not seen gets every slot we know of in full, so the restarted node learns its old slot back.
+ * Once it has heard every peer's full state, it folds its old slots into the current one and gossips them as
+ * retired, so peers drop them. With a state file and a durable local counter, the epoch and incarnation survive
+ * restarts instead.
+ *
+ * {@link #reset()} starts a new epoch: replicas drop every slot from older epochs when they learn of it.
+ * Increments not yet delivered to every peer are carried into an epoch learned from a peer, since the reset
+ * cannot have seen them.
+ */
+public class ReplicatedWordCounter implements WordCounter, AutoCloseable {
+
+    private final WordCounterImpl local;
+    private final String self;
+    private final List<String> peers;
+    private final GossipTransport transport;
+    private final int maxDeltaSize;
+    private final ConcurrentHashMap<String, ReplicaSlot> replicas;
+    // Increments since the last round took them, and increments taken but not yet delivered to every peer
+    private final ConcurrentHashMap<String, Integer> dirty;
+    private final ConcurrentHashMap<String, Integer> undelivered;
+    private final Map<String, Set<String>> unsent;
+    private final Map<String, Long> announcedEpoch;
+    // Peers owed every slot we know of, peers whose full state we have, and slots folded into a newer incarnation
+    private final Set<String> fullSyncWanted;
+    private final Set<String> fullySyncedFrom;
+    private final Set<String> retired;
+    // Adds share it; an epoch switch or taking the dirty map holds it alone, so no increment straddles them
+    private final ReadWriteLock epochLock;
+    private final ScheduledExecutorService scheduler;
+    private final Object gossipLock;
+    private final Path stateFile;
+    private final long incarnation;
+    private volatile long epoch;
+
+    private static class ReplicaSlot {
+        private final String node;
+        private final long incarnation;
+        private final ConcurrentHashMap<String, Integer> counts = new ConcurrentHashMap<>();
+        private final AtomicInteger totalWords = new AtomicInteger();
+
+        private ReplicaSlot(String node, long incarnation) {
+            this.node = node;
+            this.incarnation = incarnation;
+        }
+    }
+
+    public static class Builder {
+        private WordCounterImpl local;
+        private String self;
+        private List<String> peers = new ArrayList<>();
+        private GossipTransport transport;
+        private long gossipIntervalMillis = 1000;
+        private int maxDeltaSize = 5000;
+        private Path stateFile;
+
+        public Builder withLocalCounter(WordCounterImpl local) {
+            this.local = local;
+            return this;
+        }
+
+        public Builder withSelf(String self) {
+            this.self = self;
+            return this;
+        }
+
+        // Other replicas; self is ignored if present
+        public Builder withPeers(List<String> peers) {
+            this.peers = peers;
+            return this;
+        }
+
+        public Builder withTransport(GossipTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        // Zero or less disables the background gossip thread, rounds are then driven by gossipNow()
+        public Builder withGossipIntervalMillis(long gossipIntervalMillis) {
+            this.gossipIntervalMillis = gossipIntervalMillis;
+            return this;
+        }
+
+        public Builder withMaxDeltaSize(int maxDeltaSize) {
+            this.maxDeltaSize = maxDeltaSize;
+            return this;
+        }
+
+        // Keeps the epoch, and the incarnation when the local counter is durable, across restarts
+        public Builder withStateFile(Path stateFile) {
+            this.stateFile = stateFile;
+            return this;
+        }
+
+        public ReplicatedWordCounter build() {
+            if (local == null || self == null || transport == null || peers == null) {
+                throw new IllegalArgumentException("Local counter, self node, peers and transport are required");
+            }
+            return new ReplicatedWordCounter(this);
+        }
+    }
+
+    private ReplicatedWordCounter(Builder builder) {
+        this.local = builder.local;
+        this.self = builder.self;
+        this.transport = builder.transport;
+        this.maxDeltaSize = builder.maxDeltaSize;
+        this.replicas = new ConcurrentHashMap<>();
+        this.dirty = new ConcurrentHashMap<>();
+        this.undelivered = new ConcurrentHashMap<>();
+        this.unsent = new HashMap<>();
+        this.announcedEpoch = new ConcurrentHashMap<>();
+        this.gossipLock = new Object();
+        this.fullSyncWanted = ConcurrentHashMap.newKeySet();
+        this.fullySyncedFrom = ConcurrentHashMap.newKeySet();
+        this.retired = ConcurrentHashMap.newKeySet();
+        this.epochLock = new ReentrantReadWriteLock();
+
+        List<String> otherNodes = new ArrayList<>();
+        for (String peer : builder.peers) {
+            if (!peer.equals(self) && !otherNodes.contains(peer)) {
+                otherNodes.add(peer);
+                unsent.put(peer, ConcurrentHashMap.newKeySet());
+            }
+        }
+        this.peers = otherNodes;
+
+        this.stateFile = builder.stateFile;
+        Properties state = loadState(stateFile);
+        this.epoch = Long.parseLong(state.getProperty("epoch", "0"));
+        // Recovered counts continue the old slot; counts that start over need a slot of their own
+        this.incarnation = local.isDurable() && state.containsKey("incarnation")
+                ? Long.parseLong(state.getProperty("incarnation"))
+                : new SecureRandom().nextLong();
+        saveState();
+
+        // Anything recovered from disk has never been gossiped in this process
+        this.dirty.putAll(local.copyCounts());
+
+        if (builder.gossipIntervalMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-gossip");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::gossipNow,
+                    builder.gossipIntervalMillis, builder.gossipIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void addWord(String word) throws InvalidWordException {
+        addWord(word, TranslationHint.NONE);
+    }
+
+    @Override
+    public void addWord(String word, TranslationHint hint) throws InvalidWordException {
+        WordValidator.validateWord(word);
+
+        String canonicalWord = local.canonicalize(word, hint);
+        epochLock.readLock().lock();
+        try {
+            local.addCanonicalWord(canonicalWord, 1);
+            dirty.merge(canonicalWord, 1, Integer::sum);
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addWords(List<String> words) throws InvalidWordException {
+        addWords(words, TranslationHint.NONE);
+    }
+
+    @Override
+    public void addWords(List<String> words, TranslationHint hint) throws InvalidWordException {
+        if (words == null) {
+            throw new InvalidWordException("Word list cannot be null", null);
+        }
+
+        for (String word : words) {
+            addWord(word, hint);
+        }
+    }
+
+    @Override
+    public void addWords(String... words) throws InvalidWordException {
+        if (words == null) {
+            throw new InvalidWordException("Word array cannot be null", null);
+        }
+
+        addWords(Arrays.asList(words));
+    }
+
+    @Override
+    public int getCount(String word) {
+        return getCount(word, TranslationHint.NONE);
+    }
+
+    @Override
+    public int getCount(String word, TranslationHint hint) {
+        if (word == null) {
+            return 0;
+        }
+
+        return countOf(local.canonicalize(word, hint));
+    }
+
+    @Override
+    public Map<String, Integer> getCounts(Collection<String> words) {
+        Map<String, String> canonicalWords = local.canonicalizeAll(words);
+        Map<String, Integer> counts = new LinkedHashMap<>(canonicalWords.size() * 4 / 3 + 1);
+        for (Map.Entry<String, String> entry : canonicalWords.entrySet()) {
+            counts.put(entry.getKey(), countOf(entry.getValue()));
+        }
+        return counts;
+    }
+
+
+    private int countOf(String canonicalWord) {
+        int count = local.getCanonicalCount(canonicalWord);
+        for (ReplicaSlot slot : replicas.values()) {
+            Integer replicaCount = slot.counts.get(canonicalWord);
+            if (replicaCount != null) {
+                count += replicaCount;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void reset() {
+        adoptEpoch(epoch + 1, false);
+    }
+
+    @Override
+    public int getTotalWords() {
+        int total = local.getTotalWords();
+        for (ReplicaSlot slot : replicas.values()) {
+            total += slot.totalWords.get();
+        }
+        return total;
+    }
+
+
+    /**
+     * Applies a peer's delta. Slots only ever grow within an epoch, so this is an element-wise max.
+     * Deltas from an older epoch are dropped; the returned epoch tells their sender to catch up, and the
+     * sender gets our full state next round, as it does when its own incarnation is new to us.
+     *
+     * @return this replica's epoch after the merge
+     */
+    public long merge(GossipDelta delta) {
+        String node = delta.getNode();
+        if (node == null) {
+            return epoch;
+        }
+        String sender = delta.getSender() != null ? delta.getSender() : node;
+
+        synchronized (this) {
+            if (delta.getEpoch() < epoch) {
+                wantFullSync(sender);
+                return epoch;
+            }
+            if (delta.getEpoch() > epoch) {
+                adoptEpoch(delta.getEpoch(), true);
+            }
+
+            String slotKey = slotKey(node, delta.getIncarnation());
+            // Our own current slot is the local counter; an old incarnation of ours is kept like any other slot
+            if (delta.getIncarnation() != incarnation || !node.equals(self)) {
+                if (!retired.contains(slotKey)) {
+                    ReplicaSlot slot = replicas.get(slotKey);
+                    if (slot == null) {
+                        slot = new ReplicaSlot(node, delta.getIncarnation());
+                        replicas.put(slotKey, slot);
+                        if (node.equals(sender)) {
+                            wantFullSync(sender);
+                        }
+                    }
+                    ReplicaSlot target = slot;
+                    if (delta.getCounts() != null) {
+                        delta.getCounts().forEach((word, count) -> target.counts.merge(word, count, Math::max));
+                    }
+                    target.totalWords.accumulateAndGet(delta.getTotalWords(), Math::max);
+                }
+            }
+
+            if (delta.getRetired() != null) {
+                for (String retiredSlot : delta.getRetired()) {
+                    if (!retiredSlot.equals(slotKey(self, incarnation))) {
+                        retired.add(retiredSlot);
+                        replicas.remove(retiredSlot);
+                    }
+                }
+            }
+            if (delta.isComplete()) {
+                fullySyncedFrom.add(sender);
+            }
+            absorbOldIncarnations();
+            return epoch;
+        }
+    }
+
+
+    private void wantFullSync(String peer) {
+        if (unsent.containsKey(peer)) {
+            fullSyncWanted.add(peer);
+        }
+    }
+
+
+    /**
+     * Must hold this replica's monitor. Once every peer has sent its full state, no peer can hold more of an
+     * old incarnation of ours than we do, so those slots move into our current slot and are retired.
+     */
+    private void absorbOldIncarnations() {
+        if (!fullySyncedFrom.containsAll(peers)) {
+            return;
+        }
+
+        epochLock.writeLock().lock();
+        try {
+            Iterator<Map.Entry<String, ReplicaSlot>> iterator = replicas.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, ReplicaSlot> entry = iterator.next();
+                if (!entry.getValue().node.equals(self)) {
+                    continue;
+                }
+                entry.getValue().counts.forEach((word, count) -> {
+                    local.addCanonicalWord(word, count);
+                    dirty.merge(word, count, Integer::sum);
+                });
+                retired.add(entry.getKey());
+                iterator.remove();
+            }
+        } finally {
+            epochLock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Runs one gossip round: sends every peer the current value of this node's slot for each word
+     * touched since that peer was last reached, or every known slot to a peer owed a full sync.
+     * Undelivered words are retried next round.
+     * Holds only the gossip lock, never this replica's monitor, so peers gossiping back cannot deadlock with us.
+     */
+    public void gossipNow() {
+        synchronized (gossipLock) {
+            sendRound();
+        }
+    }
+
+
+    private void sendRound() {
+        List<String> touched = new ArrayList<>();
+        long roundEpoch;
+        // Held alone so neither an epoch change nor an add sees an increment in neither map
+        epochLock.writeLock().lock();
+        try {
+            Iterator<Map.Entry<String, Integer>> iterator = dirty.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Integer> entry = iterator.next();
+                touched.add(entry.getKey());
+                undelivered.merge(entry.getKey(), entry.getValue(), Integer::sum);
+                iterator.remove();
+            }
+            roundEpoch = epoch;
+        } finally {
+            epochLock.writeLock().unlock();
+        }
+
+        for (String peer : peers) {
+            if (fullSyncWanted.remove(peer)) {
+                try {
+                    if (!sendFullState(peer, roundEpoch)) {
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    fullSyncWanted.add(peer);
+                    System.out.println("Full sync to " + peer + " failed, will retry: " + e.getMessage());
+                }
+            }
+
+            Set<String> pending = unsent.get(peer);
+            pending.addAll(touched);
+            if (pending.isEmpty() && Long.valueOf(roundEpoch).equals(announcedEpoch.get(peer))) {
+                continue;
+            }
+
+            try {
+                List<List<String>> chunks = chunks(pending);
+                if (chunks.isEmpty()) {
+                    // Nothing touched, but the peer has not heard about our epoch yet
+                    chunks.add(new ArrayList<>());
+                }
+                for (List<String> chunk : chunks) {
+                    Map<String, Integer> counts = new HashMap<>(chunk.size() * 2);
+                    for (String word : chunk) {
+                        counts.put(word, local.getCanonicalCount(word));
+                    }
+                    GossipDelta delta = new GossipDelta(self, incarnation, roundEpoch, local.getTotalWords(), counts);
+                    if (!deliver(peer, delta, roundEpoch)) {
+                        return;
+                    }
+                    pending.removeAll(chunk);
+                }
+                announcedEpoch.put(peer, roundEpoch);
+            } catch (RuntimeException e) {
+                System.out.println("Gossip to " + peer + " failed, will retry: " + e.getMessage());
+            }
+        }
+
+        // Increments of a word are delivered once no peer is still owed it
+        undelivered.keySet().removeIf(word -> {
+            for (Set<String> pending : unsent.values()) {
+                if (pending.contains(word)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+
+    /**
+     * Sends this node's slot and every replica slot in full, the last delta marked complete.
+     *
+     * @return false if the peer is in a newer epoch, which this node has now adopted
+     */
+    private boolean sendFullState(String peer, long roundEpoch) {
+        List<GossipDelta> deltas = new ArrayList<>();
+        addSlotDeltas(deltas, self, incarnation, local.copyCounts(), local.getTotalWords(), roundEpoch);
+        for (ReplicaSlot slot : replicas.values()) {
+            addSlotDeltas(deltas, slot.node, slot.incarnation, slot.counts, slot.totalWords.get(), roundEpoch);
+        }
+        deltas.get(deltas.size() - 1).setComplete(true);
+
+        for (GossipDelta delta : deltas) {
+            delta.setSender(self);
+            if (!deliver(peer, delta, roundEpoch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private void addSlotDeltas(List<GossipDelta> deltas, String node, long slotIncarnation,
+                               Map<String, Integer> counts, int totalWords, long roundEpoch) {
+        List<List<String>> chunks = chunks(counts.keySet());
+        if (chunks.isEmpty()) {
+            chunks.add(new ArrayList<>());
+        }
+        for (List<String> chunk : chunks) {
+            Map<String, Integer> chunkCounts = new HashMap<>(chunk.size() * 2);
+            for (String word : chunk) {
+                Integer count = counts.get(word);
+                if (count != null) {
+                    chunkCounts.put(word, count);
+                }
+            }
+            deltas.add(new GossipDelta(node, slotIncarnation, roundEpoch, totalWords, chunkCounts));
+        }
+    }
+
+
+    /**
+     * @return false if the peer dropped the delta for a newer epoch, which this node has now adopted
+     */
+    private boolean deliver(String peer, GossipDelta delta, long roundEpoch) {
+        delta.setRetired(new ArrayList<>(retired));
+        long peerEpoch = transport.send(peer, delta);
+        if (peerEpoch > roundEpoch) {
+            // Catch up, and resend what the peer missed in the new epoch
+            synchronized (this) {
+                if (peerEpoch > epoch) {
+                    adoptEpoch(peerEpoch, true);
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+
+    // Slots that still hold counts from other nodes or from older incarnations of this node
+    public int getReplicaSlotCount() {
+        return replicas.size();
+    }
+
+
+    public String getSelf() {
+        return self;
+    }
+
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+
+    public long getIncarnation() {
+        return incarnation;
+    }
+
+
+    /**
+     * Must hold this replica's monitor. With {@code carryUndelivered}, increments no peer has seen in full yet
+     * are counted again in the new epoch; a local reset drops everything.
+     */
+    private void adoptEpoch(long newEpoch, boolean carryUndelivered) {
+        epochLock.writeLock().lock();
+        try {
+            switchEpoch(newEpoch, carryUndelivered);
+        } finally {
+            epochLock.writeLock().unlock();
+        }
+        saveState();
+    }
+
+
+    private void switchEpoch(long newEpoch, boolean carryUndelivered) {
+        Map<String, Integer> carried = new HashMap<>();
+        if (carryUndelivered) {
+            undelivered.forEach((word, delta) -> carried.merge(word, delta, Integer::sum));
+            dirty.forEach((word, delta) -> carried.merge(word, delta, Integer::sum));
+            carried.replaceAll((word, delta) -> Math.min(delta, local.getCanonicalCount(word)));
+        }
+
+        epoch = newEpoch;
+        local.reset();
+        replicas.clear();
+        retired.clear();
+        fullySyncedFrom.clear();
+        dirty.clear();
+        undelivered.clear();
+        for (Set<String> pending : unsent.values()) {
+            pending.clear();
+        }
+        for (Map.Entry<String, Integer> entry : carried.entrySet()) {
+            if (entry.getValue() > 0) {
+                local.addCanonicalWord(entry.getKey(), entry.getValue());
+                dirty.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+
+    private static Properties loadState(Path stateFile) {
+        Properties state = new Properties();
+        if (stateFile != null && Files.exists(stateFile)) {
+            try (InputStream in = Files.newInputStream(stateFile)) {
+                state.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Ignoring unreadable replication state " + stateFile + ": " + e.getMessage());
+            }
+        }
+        return state;
+    }
+
+
+    private void saveState() {
+        if (stateFile == null) {
+            return;
+        }
+        Properties state = new Properties();
+        state.setProperty("epoch", Long.toString(epoch));
+        state.setProperty("incarnation", Long.toString(incarnation));
+        try {
+            if (stateFile.getParent() != null) {
+                Files.createDirectories(stateFile.getParent());
+            }
+            Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                state.store(out, "Replication state");
+            }
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Failed to save replication state " + stateFile + ": " + e.getMessage());
+        }
+    }
+
+
+    private static String slotKey(String node, long slotIncarnation) {
+        return node + "#" + slotIncarnation;
+    }
+
+
+    private List<List<String>> chunks(Set<String> words) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (String word : words) {
+            current.add(word);
+            if (current.size() >= maxDeltaSize) {
+                chunks.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.wordcounter.exception;
+
+public class WordLimitExceededException extends RuntimeException {
+
+    private final int limit;
+
+
+    public WordLimitExceededException(String message, int limit) {
+        super(message);
+        this.limit = limit;
+    }
+
+
+    public int getLimit() {
+        return limit;
+    }
+}
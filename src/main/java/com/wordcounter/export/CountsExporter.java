@@ -0,0 +1,146 @@
+package com.wordcounter.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.wordcounter.CountsSnapshot;
+import com.wordcounter.persistence.WordCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+
+/**
+ * Writes a range of a {@link CountsSnapshot} to a stream, one entry at a time, so exports never build
+ * the whole document in memory.
+ */
+public final class CountsExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public enum Format {
+        JSON("application/json"),
+        CSV("text/csv"),
+        // [magic "WCEX"][version][snapshot id][total words][offset][entries] then per entry [word byte count][utf-8 word][count]
+        BINARY("application/octet-stream");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown export format: " + name);
+            }
+        }
+    }
+
+    private static final int BINARY_MAGIC = 0x57434558; // "WCEX"
+    private static final int BINARY_VERSION = 2;
+
+    private CountsExporter() {
+    }
+
+
+    /**
+     * Writes entries {@code [offset, offset + limit)} in word order; a limit of zero or less means through the end.
+     */
+    public static void write(CountsSnapshot snapshot, int offset, int limit, Format format, OutputStream out)
+            throws IOException {
+        int from = Math.min(Math.max(offset, 0), snapshot.getUniqueWordCount());
+        int to = endOf(snapshot, from, limit);
+
+        switch (format) {
+            case JSON:
+                writeJson(snapshot, from, to, out);
+                break;
+            case CSV:
+                writeCsv(snapshot, from, to, out);
+                break;
+            case BINARY:
+                writeBinary(snapshot, from, to, out);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+    }
+
+
+    public static int endOf(CountsSnapshot snapshot, int offset, int limit) {
+        int size = snapshot.getUniqueWordCount();
+        return limit > 0 ? (int) Math.min(size, (long) offset + limit) : size;
+    }
+
+
+    private static void writeJson(CountsSnapshot snapshot, int from, int to, OutputStream out) throws IOException {
+        JsonGenerator json = JSON_FACTORY.createGenerator(new BufferedOutputStream(out, BUFFER_SIZE), JsonEncoding.UTF8);
+        json.writeStartObject();
+        json.writeNumberField("snapshotId", snapshot.getSnapshotId());
+        json.writeNumberField("totalWords", snapshot.getTotalWords());
+        json.writeNumberField("uniqueWords", snapshot.getUniqueWordCount());
+        json.writeNumberField("offset", from);
+        json.writeArrayFieldStart("counts");
+        for (int i = from; i < to; i++) {
+            json.writeStartObject();
+            json.writeStringField("word", snapshot.getWord(i));
+            json.writeNumberField("count", snapshot.getCountAt(i));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+
+    private static void writeCsv(CountsSnapshot snapshot, int from, int to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write("word,count\n");
+        for (int i = from; i < to; i++) {
+            writer.write(csvField(snapshot.getWord(i)));
+            writer.write(',');
+            writer.write(Integer.toString(snapshot.getCountAt(i)));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+
+    private static void writeBinary(CountsSnapshot snapshot, int from, int to, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        data.writeInt(BINARY_MAGIC);
+        data.writeInt(BINARY_VERSION);
+        data.writeLong(snapshot.getSnapshotId());
+        data.writeInt(snapshot.getTotalWords());
+        data.writeInt(from);
+        data.writeInt(to - from);
+        for (int i = from; i < to; i++) {
+            WordCodec.writeWord(data, snapshot.getWord(i));
+            data.writeInt(snapshot.getCountAt(i));
+        }
+        data.flush();
+    }
+}
@@ -0,0 +1,562 @@
+package com.wordcounter.feed;
+
+import com.wordcounter.ChangeTracker;
+import com.wordcounter.CountsSnapshot;
+import com.wordcounter.WordCount;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.WordValidator;
+import com.wordcounter.exception.InvalidWordException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Pushes coalesced count changes to subscribers at a fixed cadence, so dashboards stop polling.
+ * Every tick polls the counter's {@link ChangeTracker} once, reads the current counts of the words that changed and
+ * gives each subscriber at most one event covering its watched words, its top-K ranking and the total.
+ * A subscriber costs its watched words plus its last ranking. One that is slow to take events gets newer events
+ * merged into the one still waiting, and it is dropped once a single send has been stuck longer than the maximum lag.
+ */
+public class ChangeFeed implements AutoCloseable {
+
+    private static final Comparator<WordCount> RANKING = Comparator.comparingInt(WordCount::getCount).reversed()
+            .thenComparing(WordCount::getWord);
+
+    private final WordCounterImpl counter;
+    private final ChangeTracker tracker;
+    private final long heartbeatMillis;
+    private final long maxLagMillis;
+    private final int maxSubscribers;
+    private final int maxWatchedWords;
+    private final int maxTopWords;
+    private final LongSupplier clock;
+    private final Executor senders;
+    private final ExecutorService ownedSenders;
+    private final ScheduledExecutorService ticker;
+    private final CopyOnWriteArrayList<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private final LongAdder deliveredEvents = new LongAdder();
+    private final LongAdder conflatedEvents = new LongAdder();
+    private final LongAdder droppedSubscribers = new LongAdder();
+    private volatile boolean closed;
+
+    // Only touched while ticking
+    private long sequence;
+    private List<WordCount> leaderboard = Collections.emptyList();
+    private boolean leaderboardValid;
+
+    public static class Builder {
+        private WordCounterImpl counter;
+        private long intervalMillis = 1000;
+        private long heartbeatMillis = 15_000;
+        private long maxLagMillis = 30_000;
+        private int maxSubscribers = 256;
+        private int maxWatchedWords = 1000;
+        private int maxTopWords = 100;
+        private Executor sendExecutor;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        // Must be built with change tracking
+        public Builder withCounter(WordCounterImpl counter) {
+            this.counter = counter;
+            return this;
+        }
+
+        // Zero or less disables the background ticker, tick() can still be called directly
+        public Builder withIntervalMillis(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+            return this;
+        }
+
+        public Builder withHeartbeatMillis(long heartbeatMillis) {
+            this.heartbeatMillis = heartbeatMillis;
+            return this;
+        }
+
+        // How long one send may block before the subscriber is dropped; zero or less never drops
+        public Builder withMaxLagMillis(long maxLagMillis) {
+            this.maxLagMillis = maxLagMillis;
+            return this;
+        }
+
+        public Builder withMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+            return this;
+        }
+
+        public Builder withMaxWatchedWords(int maxWatchedWords) {
+            this.maxWatchedWords = maxWatchedWords;
+            return this;
+        }
+
+        public Builder withMaxTopWords(int maxTopWords) {
+            this.maxTopWords = maxTopWords;
+            return this;
+        }
+
+        // Runs sends; by default a pool that grows to at most one thread per subscriber
+        public Builder withSendExecutor(Executor sendExecutor) {
+            this.sendExecutor = sendExecutor;
+            return this;
+        }
+
+        public Builder withClock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public ChangeFeed build() {
+            if (counter == null || counter.getChangeTracker() == null) {
+                throw new IllegalArgumentException("A word counter built with change tracking is required");
+            }
+            if (maxSubscribers <= 0 || maxWatchedWords < 0 || maxTopWords < 0) {
+                throw new IllegalArgumentException("Subscriber limits must not be negative");
+            }
+            return new ChangeFeed(this);
+        }
+    }
+
+    private ChangeFeed(Builder builder) {
+        this.counter = builder.counter;
+        this.tracker = builder.counter.getChangeTracker();
+        this.heartbeatMillis = builder.heartbeatMillis;
+        this.maxLagMillis = builder.maxLagMillis;
+        this.maxSubscribers = builder.maxSubscribers;
+        this.maxWatchedWords = builder.maxWatchedWords;
+        this.maxTopWords = builder.maxTopWords;
+        this.clock = builder.clock;
+
+        if (builder.sendExecutor != null) {
+            this.senders = builder.sendExecutor;
+            this.ownedSenders = null;
+        } else {
+            // Each subscriber has at most one send in flight, so a blocked connection ties up only its own thread
+            this.ownedSenders = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "word-counter-feed-sender");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.senders = ownedSenders;
+        }
+
+        if (builder.intervalMillis > 0) {
+            this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-change-feed");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleWithFixedDelay(this::tickQuietly,
+                    builder.intervalMillis, builder.intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.ticker = null;
+        }
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * Starts pushing changes to {@code sink}. Watched words are canonicalized like counted words, and events are keyed
+     * by the canonical form. The first event, on the next tick, is a snapshot of everything subscribed to.
+     *
+     * @throws IllegalArgumentException if a word is invalid or the subscription asks for more than the limits allow
+     * @throws IllegalStateException if the feed already has its maximum number of subscribers or is closed
+     */
+    public Subscription subscribe(Collection<String> words, int topWords, FeedSink sink) {
+        if (words.size() > maxWatchedWords) {
+            throw new IllegalArgumentException("At most " + maxWatchedWords + " words can be watched per subscription");
+        }
+        if (topWords < 0 || topWords > maxTopWords) {
+            throw new IllegalArgumentException("Top words must be between 0 and " + maxTopWords);
+        }
+        if (words.isEmpty() && topWords == 0) {
+            throw new IllegalArgumentException("Watch at least one word or ask for the top words");
+        }
+
+        Map<String, Integer> watched = new LinkedHashMap<>();
+        for (String word : words) {
+            try {
+                WordValidator.validateWord(word);
+            } catch (InvalidWordException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+            watched.put(counter.canonicalize(word), 0);
+        }
+
+        Subscription subscription = new Subscription(sink, watched, topWords, clock.getAsLong());
+        synchronized (subscribers) {
+            if (closed) {
+                throw new IllegalStateException("Change feed is closed");
+            }
+            if (subscribers.size() >= maxSubscribers) {
+                throw new IllegalStateException("Change feed is full: " + maxSubscribers + " subscribers");
+            }
+            subscribers.add(subscription);
+        }
+        return subscription;
+    }
+
+
+    /**
+     * Publishes everything that changed since the previous tick. Called by the background ticker when enabled.
+     */
+    public synchronized void tick() {
+        ChangeTracker.Changes changes = tracker.poll();
+        if (subscribers.isEmpty()) {
+            // Nobody to tell; a later top-K subscriber gets a ranking rebuilt from a snapshot
+            leaderboardValid = false;
+            return;
+        }
+
+        long now = clock.getAsLong();
+        sequence++;
+        int totalWords = counter.getTotalWords();
+        List<WordCount> top = updateLeaderboard(changes);
+        Set<String> changedWords = new HashSet<>(changes.getWords());
+
+        for (Subscription subscription : subscribers) {
+            if (isStuck(subscription, now)) {
+                drop(subscription);
+                continue;
+            }
+            FeedEvent event = subscription.nextEvent(sequence, changes.isReset(), changedWords, top, totalWords, now);
+            schedule(subscription, event, now);
+        }
+    }
+
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            System.out.println("Change feed tick failed: " + e.getMessage());
+        }
+    }
+
+
+    private List<WordCount> updateLeaderboard(ChangeTracker.Changes changes) {
+        boolean wanted = false;
+        for (Subscription subscription : subscribers) {
+            wanted |= subscription.topWords > 0;
+        }
+        if (!wanted || maxTopWords == 0) {
+            leaderboardValid = false;
+            leaderboard = Collections.emptyList();
+            return leaderboard;
+        }
+
+        Map<String, Integer> candidates;
+        if (!leaderboardValid) {
+            counter.drainPending();
+            CountsSnapshot snapshot = counter.snapshot();
+            candidates = new HashMap<>(snapshot.getUniqueWordCount() * 2);
+            for (int i = 0; i < snapshot.getUniqueWordCount(); i++) {
+                candidates.put(snapshot.getWord(i), snapshot.getCountAt(i));
+            }
+            leaderboardValid = true;
+        } else if (!changes.isEmpty()) {
+            // Between resets counts only grow, so a word can enter the ranking only by changing
+            candidates = new HashMap<>();
+            for (WordCount ranked : leaderboard) {
+                candidates.put(ranked.getWord(), counter.getCanonicalCount(ranked.getWord()));
+            }
+            for (String word : changes.getWords()) {
+                candidates.put(word, counter.getCanonicalCount(word));
+            }
+        } else {
+            return leaderboard;
+        }
+
+        leaderboard = selectTop(candidates, maxTopWords);
+        return leaderboard;
+    }
+
+
+    private static List<WordCount> selectTop(Map<String, Integer> counts, int limit) {
+        PriorityQueue<WordCount> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            heap.offer(new WordCount(entry.getKey(), entry.getValue()));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<WordCount> top = new ArrayList<>(heap);
+        top.sort(RANKING);
+        return Collections.unmodifiableList(top);
+    }
+
+
+    private static boolean sameRanking(List<WordCount> a, List<WordCount> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).getCount() != b.get(i).getCount() || !a.get(i).getWord().equals(b.get(i).getWord())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private boolean isStuck(Subscription subscription, long now) {
+        synchronized (subscription) {
+            return maxLagMillis > 0 && subscription.sending && now - subscription.sendStartedMillis > maxLagMillis;
+        }
+    }
+
+
+    // Queues the event, or a heartbeat if there is none and the connection has been quiet, unless a send is running
+    private void schedule(Subscription subscription, FeedEvent event, long now) {
+        synchronized (subscription) {
+            if (subscription.closed) {
+                return;
+            }
+            if (event != null) {
+                if (subscription.pending == null) {
+                    subscription.pending = event;
+                } else {
+                    subscription.pending = subscription.pending.merge(event);
+                    conflatedEvents.increment();
+                }
+            } else if (!subscription.sending && heartbeatMillis > 0
+                    && now - subscription.lastSentMillis >= heartbeatMillis) {
+                subscription.heartbeatDue = true;
+            } else {
+                return;
+            }
+            if (subscription.sending) {
+                return;
+            }
+            subscription.sending = true;
+            subscription.sendStartedMillis = now;
+        }
+
+        try {
+            senders.execute(() -> drain(subscription));
+        } catch (RejectedExecutionException e) {
+            drop(subscription);
+        }
+    }
+
+
+    private void drain(Subscription subscription) {
+        while (true) {
+            FeedEvent event;
+            boolean heartbeat;
+            synchronized (subscription) {
+                event = subscription.pending;
+                heartbeat = subscription.heartbeatDue;
+                subscription.pending = null;
+                subscription.heartbeatDue = false;
+                if (subscription.closed || event == null && !heartbeat) {
+                    subscription.sending = false;
+                    return;
+                }
+                subscription.sendStartedMillis = clock.getAsLong();
+            }
+
+            try {
+                if (event != null) {
+                    subscription.sink.send(event);
+                    deliveredEvents.increment();
+                } else {
+                    subscription.sink.heartbeat();
+                }
+            } catch (Exception e) {
+                drop(subscription);
+                return;
+            }
+
+            synchronized (subscription) {
+                subscription.lastSentMillis = clock.getAsLong();
+            }
+        }
+    }
+
+
+    private void drop(Subscription subscription) {
+        if (subscription.remove()) {
+            droppedSubscribers.increment();
+            subscription.sink.close();
+        }
+    }
+
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+
+    public long getDeliveredEvents() {
+        return deliveredEvents.sum();
+    }
+
+
+    // Events merged into one still waiting for a slow subscriber
+    public long getConflatedEvents() {
+        return conflatedEvents.sum();
+    }
+
+
+    // Subscribers removed by the feed because they were too slow or their connection failed
+    public long getDroppedSubscribers() {
+        return droppedSubscribers.sum();
+    }
+
+
+    /**
+     * Stops ticking and closes every subscription's sink.
+     */
+    @Override
+    public void close() {
+        synchronized (subscribers) {
+            closed = true;
+        }
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        for (Subscription subscription : subscribers) {
+            if (subscription.remove()) {
+                subscription.sink.close();
+            }
+        }
+        if (ownedSenders != null) {
+            ownedSenders.shutdownNow();
+        }
+    }
+
+
+    /**
+     * One subscriber's watched words and delivery state. Closing it unsubscribes without closing the sink.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final FeedSink sink;
+        private final int topWords;
+        private final Set<String> watchedWords;
+
+        // Canonical word -> count in the latest event; only touched while ticking
+        private final Map<String, Integer> lastCounts;
+        private List<WordCount> lastTop = Collections.emptyList();
+        private int lastTotalWords = -1;
+        private boolean started;
+
+        // Guarded by this
+        private FeedEvent pending;
+        private boolean heartbeatDue;
+        private boolean sending;
+        private long sendStartedMillis;
+        private long lastSentMillis;
+        private boolean closed;
+
+        private Subscription(FeedSink sink, Map<String, Integer> watched, int topWords, long now) {
+            this.sink = sink;
+            this.topWords = topWords;
+            this.lastCounts = watched;
+            this.watchedWords = Collections.unmodifiableSet(new HashSet<>(watched.keySet()));
+            this.lastSentMillis = now;
+        }
+
+        public Set<String> getWatchedWords() {
+            return watchedWords;
+        }
+
+        public int getTopWords() {
+            return topWords;
+        }
+
+        private FeedEvent nextEvent(long sequence, boolean reset, Set<String> changedWords, List<WordCount> top,
+                                    int totalWords, long now) {
+            boolean snapshot = !started;
+            started = true;
+
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            Map<String, Integer> deltas = new LinkedHashMap<>();
+            if (snapshot || reset || lastCounts.size() <= changedWords.size()) {
+                for (String word : lastCounts.keySet()) {
+                    if (snapshot || reset || changedWords.contains(word)) {
+                        collect(word, snapshot, counts, deltas);
+                    }
+                }
+            } else {
+                for (String word : changedWords) {
+                    if (lastCounts.containsKey(word)) {
+                        collect(word, false, counts, deltas);
+                    }
+                }
+            }
+
+            List<WordCount> changedTop = null;
+            if (topWords > 0) {
+                List<WordCount> ranking = top.subList(0, Math.min(topWords, top.size()));
+                if (snapshot || !sameRanking(ranking, lastTop)) {
+                    changedTop = Collections.unmodifiableList(new ArrayList<>(ranking));
+                    lastTop = changedTop;
+                }
+            }
+
+            boolean totalChanged = totalWords != lastTotalWords;
+            lastTotalWords = totalWords;
+            if (!snapshot && !reset && counts.isEmpty() && changedTop == null && !totalChanged) {
+                return null;
+            }
+            return new FeedEvent(sequence, now, reset, snapshot, totalWords, counts, deltas, changedTop, 0);
+        }
+
+        private void collect(String word, boolean snapshot, Map<String, Integer> counts, Map<String, Integer> deltas) {
+            int count = counter.getCanonicalCount(word);
+            int delta = count - lastCounts.get(word);
+            if (snapshot || delta != 0) {
+                counts.put(word, count);
+                lastCounts.put(word, count);
+                if (!snapshot) {
+                    deltas.put(word, delta);
+                }
+            }
+        }
+
+        private boolean remove() {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                closed = true;
+                pending = null;
+            }
+            subscribers.remove(this);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            remove();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.wordcounter.feed;
+
+import com.wordcounter.WordCount;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * What changed for one subscriber since its previous event: current counts and deltas of the watched words that
+ * changed, the top words when their ranking changed (null otherwise) and the total. Events a slow subscriber has not
+ * received yet are merged into one, so {@link #getConflatedEvents()} can be above zero.
+ */
+public final class FeedEvent {
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final boolean reset;
+    private final boolean snapshot;
+    private final int totalWords;
+    private final Map<String, Integer> counts;
+    private final Map<String, Integer> deltas;
+    private final List<WordCount> top;
+    private final int conflatedEvents;
+
+    FeedEvent(long sequence, long timestampMillis, boolean reset, boolean snapshot, int totalWords,
+              Map<String, Integer> counts, Map<String, Integer> deltas, List<WordCount> top, int conflatedEvents) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.reset = reset;
+        this.snapshot = snapshot;
+        this.totalWords = totalWords;
+        this.counts = counts;
+        this.deltas = deltas;
+        this.top = top;
+        this.conflatedEvents = conflatedEvents;
+    }
+
+
+    /**
+     * This event as if {@code newer} had been folded into it: newer counts, total and ranking win, deltas add up.
+     * A newer reset discards everything before it.
+     */
+    FeedEvent merge(FeedEvent newer) {
+        if (newer.reset) {
+            return new FeedEvent(newer.sequence, newer.timestampMillis, true, newer.snapshot, newer.totalWords,
+                    newer.counts, newer.deltas, newer.top, conflatedEvents + newer.conflatedEvents + 1);
+        }
+
+        Map<String, Integer> mergedCounts = new LinkedHashMap<>(counts);
+        mergedCounts.putAll(newer.counts);
+        Map<String, Integer> mergedDeltas = new LinkedHashMap<>(deltas);
+        for (Map.Entry<String, Integer> entry : newer.deltas.entrySet()) {
+            mergedDeltas.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        return new FeedEvent(newer.sequence, newer.timestampMillis, reset, snapshot || newer.snapshot,
+                newer.totalWords, mergedCounts, mergedDeltas, newer.top != null ? newer.top : top,
+                conflatedEvents + newer.conflatedEvents + 1);
+    }
+
+
+    public long getSequence() { return sequence; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public boolean isReset() { return reset; }
+    // The first event of a subscription carries every watched word and the full ranking
+    public boolean isSnapshot() { return snapshot; }
+    public int getTotalWords() { return totalWords; }
+    public Map<String, Integer> getCounts() { return Collections.unmodifiableMap(counts); }
+    public Map<String, Integer> getDeltas() { return Collections.unmodifiableMap(deltas); }
+    public List<WordCount> getTop() { return top; }
+    public int getConflatedEvents() { return conflatedEvents; }
+}
@@ -0,0 +1,19 @@
+package com.wordcounter.feed;
+
+import java.io.IOException;
+
+
+/**
+ * Where a subscription's events go, such as an SSE connection. Calls for one subscription never overlap,
+ * and they are made on a feed sender thread, never on the thread counting words.
+ */
+public interface FeedSink {
+
+    void send(FeedEvent event) throws IOException;
+
+    // Sent when nothing changed for a while, so dead connections are noticed
+    void heartbeat() throws IOException;
+
+    // The feed dropped the subscription: the subscriber was too slow, a send failed or the feed shut down
+    void close();
+}
@@ -0,0 +1,272 @@
+package com.wordcounter.index;
+
+import com.wordcounter.CountListener;
+import com.wordcounter.CountsSnapshot;
+import com.wordcounter.WordCount;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+
+/**
+ * Prefix and fuzzy lookups over the counted vocabulary.
+ *
+ * The index is an immutable copy of a {@link CountsSnapshot}: words sorted in one array plus cumulative counts.
+ * That array is walked as an implicit trie, where every trie node is the range of words sharing a prefix and its
+ * children are found by binary search. So a prefix sum costs two binary searches and a fuzzy query only visits
+ * nodes a Levenshtein automaton can still accept. Attach it as a {@link CountListener} so it knows when the counts
+ * changed; it is rebuilt from a fresh snapshot on demand, at most once per refresh interval.
+ */
+public class WordIndex implements CountListener {
+
+    public static final int MAX_EDIT_DISTANCE = 2;
+
+    private final long minRefreshMillis;
+    private final Object refreshMonitor;
+    private volatile boolean dirty;
+    private volatile Index current;
+
+    private static final class Index {
+        private final long snapshotId;
+        private final long builtAtMillis;
+        private final String[] words;
+        private final int[] counts;
+        // cumulativeCounts[i] is the sum of counts[0..i)
+        private final long[] cumulativeCounts;
+
+        private Index(CountsSnapshot snapshot) {
+            int size = snapshot.getUniqueWordCount();
+            this.snapshotId = snapshot.getSnapshotId();
+            this.builtAtMillis = System.currentTimeMillis();
+            this.words = new String[size];
+            this.counts = new int[size];
+            this.cumulativeCounts = new long[size + 1];
+            for (int i = 0; i < size; i++) {
+                words[i] = snapshot.getWord(i);
+                counts[i] = snapshot.getCountAt(i);
+                cumulativeCounts[i + 1] = cumulativeCounts[i] + counts[i];
+            }
+        }
+    }
+
+    public static class Builder {
+        private long minRefreshMillis = 1000;
+
+        public Builder withMinRefreshMillis(long minRefreshMillis) {
+            this.minRefreshMillis = minRefreshMillis;
+            return this;
+        }
+
+        public WordIndex build() {
+            return new WordIndex(this);
+        }
+    }
+
+    private WordIndex(Builder builder) {
+        this.minRefreshMillis = builder.minRefreshMillis;
+        this.refreshMonitor = new Object();
+        this.dirty = true;
+        this.current = null;
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void onIncrement(String canonicalWord, int delta) {
+        // Read before write keeps the hot path from dirtying a shared cache line on every increment
+        if (!dirty) {
+            dirty = true;
+        }
+    }
+
+    @Override
+    public void onReset() {
+        dirty = true;
+    }
+
+
+    /**
+     * Rebuilds from {@code snapshots} if counts changed and the last build is older than the refresh interval.
+     * Concurrent callers do not rebuild twice; queries keep using the previous index meanwhile.
+     */
+    public void refreshIfStale(Supplier<CountsSnapshot> snapshots) {
+        Index index = current;
+        if (index != null && (!dirty || System.currentTimeMillis() - index.builtAtMillis < minRefreshMillis)) {
+            return;
+        }
+        synchronized (refreshMonitor) {
+            index = current;
+            if (index != null && (!dirty || System.currentTimeMillis() - index.builtAtMillis < minRefreshMillis)) {
+                return;
+            }
+            rebuild(snapshots.get());
+        }
+    }
+
+
+    public void rebuild(CountsSnapshot snapshot) {
+        // Cleared first so increments racing with the snapshot mark the new index stale again
+        dirty = false;
+        current = new Index(snapshot);
+    }
+
+
+    public long getSnapshotId() {
+        Index index = current;
+        return index != null ? index.snapshotId : 0;
+    }
+
+
+    public long getBuiltAtMillis() {
+        Index index = current;
+        return index != null ? index.builtAtMillis : 0;
+    }
+
+
+    public int getIndexedWordCount() {
+        Index index = current;
+        return index != null ? index.words.length : 0;
+    }
+
+
+    /**
+     * Sum of counts of every word starting with {@code prefix}.
+     */
+    public long getPrefixCount(String prefix) {
+        Index index = current;
+        if (index == null) {
+            return 0;
+        }
+        int[] range = prefixRange(index, prefix);
+        return index.cumulativeCounts[range[1]] - index.cumulativeCounts[range[0]];
+    }
+
+
+    public int getPrefixMatchCount(String prefix) {
+        Index index = current;
+        if (index == null) {
+            return 0;
+        }
+        int[] range = prefixRange(index, prefix);
+        return range[1] - range[0];
+    }
+
+
+    /**
+     * Words starting with {@code prefix} in lexical order, at most {@code limit} of them.
+     */
+    public List<WordCount> getPrefixMatches(String prefix, int limit) {
+        Index index = current;
+        if (index == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int[] range = prefixRange(index, prefix);
+        int end = Math.min(range[1], range[0] + limit);
+        List<WordCount> matches = new ArrayList<>(end - range[0]);
+        for (int i = range[0]; i < end; i++) {
+            matches.add(new WordCount(index.words[i], index.counts[i]));
+        }
+        return matches;
+    }
+
+
+    /**
+     * Words within {@code maxDistance} edits (insert, delete, substitute) of {@code word}, most frequent first.
+     */
+    public List<WordCount> getFuzzyMatches(String word, int maxDistance, int limit) {
+        if (maxDistance < 0 || maxDistance > MAX_EDIT_DISTANCE) {
+            throw new IllegalArgumentException("Edit distance must be between 0 and " + MAX_EDIT_DISTANCE);
+        }
+        Index index = current;
+        if (index == null || limit <= 0 || index.words.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int[] firstRow = new int[word.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        List<WordCount> matches = new ArrayList<>();
+        collectFuzzy(index, word, maxDistance, 0, index.words.length, 0, firstRow, matches);
+
+        matches.sort(Comparator.comparingInt(WordCount::getCount).reversed().thenComparing(WordCount::getWord));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+
+    /**
+     * Visits the trie node made of words[from, to), which all share their first {@code depth} characters;
+     * {@code row} holds the edit distances between that shared prefix and every prefix of the query.
+     */
+    private static void collectFuzzy(Index index, String query, int maxDistance, int from, int to, int depth,
+                                     int[] row, List<WordCount> matches) {
+        int child = from;
+        // The shortest word sorts first; if it is exactly the shared prefix it ends at this node
+        if (index.words[child].length() == depth) {
+            if (row[query.length()] <= maxDistance) {
+                matches.add(new WordCount(index.words[child], index.counts[child]));
+            }
+            child++;
+        }
+
+        while (child < to) {
+            char c = index.words[child].charAt(depth);
+            int childEnd = firstAtOrAbove(index.words, child, to, depth, (char) (c + 1), c == Character.MAX_VALUE);
+
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            int best = next[0];
+            for (int i = 1; i < row.length; i++) {
+                int substitute = row[i - 1] + (query.charAt(i - 1) == c ? 0 : 1);
+                next[i] = Math.min(substitute, Math.min(row[i] + 1, next[i - 1] + 1));
+                best = Math.min(best, next[i]);
+            }
+            if (best <= maxDistance) {
+                collectFuzzy(index, query, maxDistance, child, childEnd, depth + 1, next, matches);
+            }
+            child = childEnd;
+        }
+    }
+
+
+    private static int[] prefixRange(Index index, String prefix) {
+        int from = 0;
+        int to = index.words.length;
+        for (int depth = 0; depth < prefix.length() && from < to; depth++) {
+            char c = prefix.charAt(depth);
+            // Words that end before this depth sort ahead of every child
+            from = firstAtOrAbove(index.words, from, to, depth, c, false);
+            to = firstAtOrAbove(index.words, from, to, depth, (char) (c + 1), c == Character.MAX_VALUE);
+        }
+        return new int[] {from, to};
+    }
+
+
+    /**
+     * First index in words[from, to) whose character at {@code depth} is at least {@code c}; the range must
+     * share its first {@code depth} characters. With {@code pastEnd} every word compares below, returning {@code to}.
+     */
+    private static int firstAtOrAbove(String[] words, int from, int to, int depth, char c, boolean pastEnd) {
+        if (pastEnd) {
+            return to;
+        }
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String word = words[mid];
+            if (word.length() <= depth || word.charAt(depth) < c) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,365 @@
+package com.wordcounter.microservice;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wordcounter.Translator;
+import com.wordcounter.WordValidator;
+import com.wordcounter.admission.ClientRateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Admission control in front of the word endpoints. Every request is priced before it runs and charged to its
+ * client's token bucket ({@code X-Client-Id}, else the remote address). A request that does not fit is answered with
+ * 429 at once instead of waiting on a Tomcat thread. Each word costs one token, and each distinct word the translator
+ * would have to look up remotely costs {@code missCost} more. Requests with such misses also need one of a fixed
+ * number of translation slots, so clients that rotate ids still cannot tie up every thread in translation calls.
+ * A client already in debt is rejected before its POST body is read.
+ */
+public class AdmissionControlFilter implements Filter {
+
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private final ClientRateLimiter rateLimiter;
+    private final Translator translator;
+    private final int missCost;
+    private final int maxTranslatingRequests;
+    private final int maxBodyBytes;
+    private final AtomicInteger translatingRequests = new AtomicInteger();
+    private final LongAdder admittedRequests = new LongAdder();
+    private final LongAdder rateLimitedRequests = new LongAdder();
+    private final LongAdder translationLimitedRequests = new LongAdder();
+
+    /**
+     * Tokens a request is charged, and how many of its distinct words would need the translation service.
+     */
+    static final class Price {
+        private final long words;
+        private final long misses;
+
+        Price(long words, long misses) {
+            this.words = words;
+            this.misses = misses;
+        }
+
+        long tokens(int missCost) {
+            return Math.max(1, words) + misses * missCost;
+        }
+
+        long getWords() { return words; }
+        long getMisses() { return misses; }
+    }
+
+
+    public AdmissionControlFilter(ClientRateLimiter rateLimiter, Translator translator, int missCost,
+                                  int maxTranslatingRequests, int maxBodyBytes) {
+        this.rateLimiter = rateLimiter;
+        this.translator = translator;
+        this.missCost = missCost;
+        this.maxTranslatingRequests = maxTranslatingRequests;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        String clientId = clientId(httpRequest);
+        ServletRequest forwarded = request;
+        Price price;
+        if ("POST".equals(httpRequest.getMethod())) {
+            // A client that could not afford even a one-word request is turned away before its body is buffered
+            long debtNanos = rateLimiter.peek(clientId, 1);
+            if (debtNanos > 0) {
+                rejectRateLimited(httpResponse, clientId, debtNanos);
+                return;
+            }
+            byte[] body = readBody(httpRequest);
+            if (body == null) {
+                reject(httpResponse, HttpStatus.PAYLOAD_TOO_LARGE, "Request body exceeds " + maxBodyBytes + " bytes", 0);
+                return;
+            }
+            forwarded = new CachedBodyRequest(httpRequest, body);
+            price = priceBody(body);
+        } else {
+            price = pricePath(httpRequest.getRequestURI());
+        }
+
+        long tokens = price.tokens(missCost);
+        long waitNanos = rateLimiter.tryAcquire(clientId, tokens);
+        if (waitNanos > 0) {
+            rejectRateLimited(httpResponse, clientId, waitNanos);
+            return;
+        }
+
+        boolean translating = price.misses > 0;
+        if (translating && !tryEnterTranslation()) {
+            rateLimiter.refund(clientId, tokens);
+            translationLimitedRequests.increment();
+            reject(httpResponse, HttpStatus.TOO_MANY_REQUESTS, "Too many requests waiting on translation", 1);
+            return;
+        }
+
+        admittedRequests.increment();
+        try {
+            chain.doFilter(forwarded, response);
+        } finally {
+            if (translating) {
+                translatingRequests.decrementAndGet();
+            }
+        }
+    }
+
+
+    private boolean tryEnterTranslation() {
+        while (true) {
+            int current = translatingRequests.get();
+            if (current >= maxTranslatingRequests) {
+                return false;
+            }
+            if (translatingRequests.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+
+    private static String clientId(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.trim().isEmpty() ? clientId.trim() : request.getRemoteAddr();
+    }
+
+
+    // Null when the body is larger than allowed
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        int contentLength = request.getContentLength();
+        if (contentLength > maxBodyBytes) {
+            return null;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(Math.max(contentLength, 256));
+        byte[] buffer = new byte[8192];
+        try (InputStream in = request.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > maxBodyBytes) {
+                    return null;
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return body.toByteArray();
+    }
+
+
+    /**
+     * Counts the strings under a {@code "word"} field or in a {@code "words"} array without building the request.
+     * A malformed body is priced by what was read before the error; the controller reports the error itself.
+     */
+    Price priceBody(byte[] body) {
+        long words = 0;
+        Set<String> misses = new HashSet<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            String field = null;
+            int arrayDepth = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case FIELD_NAME:
+                        field = parser.getCurrentName();
+                        break;
+                    case START_ARRAY:
+                        arrayDepth++;
+                        break;
+                    case END_ARRAY:
+                        arrayDepth--;
+                        break;
+                    case VALUE_STRING:
+                        if ("word".equals(field) && arrayDepth == 0 || "words".equals(field) && arrayDepth == 1) {
+                            words++;
+                            recordMiss(parser.getText(), misses);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            // Priced by what was parsed
+        }
+        return new Price(words, misses.size());
+    }
+
+
+    // GET .../words/{word}/count canonicalizes the word; everything else costs one token
+    Price pricePath(String path) {
+        String suffix = "/count";
+        int wordsIndex = path.lastIndexOf("/words/");
+        if (wordsIndex < 0 || !path.endsWith(suffix) || path.length() - suffix.length() <= wordsIndex + 7) {
+            return new Price(1, 0);
+        }
+        String word = decode(path.substring(wordsIndex + 7, path.length() - suffix.length()));
+        Set<String> misses = new HashSet<>();
+        recordMiss(word, misses);
+        return new Price(1, misses.size());
+    }
+
+
+    private void recordMiss(String word, Set<String> misses) {
+        String normalizedWord = WordValidator.normalizeWord(word);
+        if (normalizedWord != null && !normalizedWord.isEmpty() && !misses.contains(normalizedWord)
+                && translator.requiresRemoteLookup(normalizedWord)) {
+            misses.add(normalizedWord);
+        }
+    }
+
+
+    private static String decode(String pathSegment) {
+        try {
+            return URLDecoder.decode(pathSegment, "UTF-8");
+        } catch (IOException | IllegalArgumentException e) {
+            return pathSegment;
+        }
+    }
+
+
+    private void rejectRateLimited(HttpServletResponse response, String clientId, long waitNanos) throws IOException {
+        rateLimitedRequests.increment();
+        reject(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for client " + clientId,
+                TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message,
+                               long retryAfterSeconds) throws IOException {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        if (retryAfterSeconds > 0) {
+            errorResponse.put("retryAfterSeconds", retryAfterSeconds);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        }
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JSON_MAPPER.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+
+    public long getAdmittedRequests() {
+        return admittedRequests.sum();
+    }
+
+
+    public long getRateLimitedRequests() {
+        return rateLimitedRequests.sum();
+    }
+
+
+    // Turned away because every translation slot was taken, not because of the client's own rate
+    public long getTranslationLimitedRequests() {
+        return translationLimitedRequests.sum();
+    }
+
+
+    public int getTranslatingRequests() {
+        return translatingRequests.get();
+    }
+
+
+    public int getTrackedClientCount() {
+        return rateLimiter.getTrackedClientCount();
+    }
+
+
+    /**
+     * Replays a body already read for pricing to the rest of the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Body is already buffered");
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.wordcounter.microservice;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Actuator endpoint ({@code /actuator/admission}) with how many word requests were admitted or turned away,
+ * and how many translation slots are in use.
+ */
+@Component
+@Endpoint(id = "admission")
+public class AdmissionStatsEndpoint {
+
+    private final AdmissionControlFilter admissionControlFilter;
+
+
+    public AdmissionStatsEndpoint(AdmissionControlFilter admissionControlFilter) {
+        this.admissionControlFilter = admissionControlFilter;
+    }
+
+
+    @ReadOperation
+    public Map<String, Object> admissionStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("admittedRequests", admissionControlFilter.getAdmittedRequests());
+        response.put("rateLimitedRequests", admissionControlFilter.getRateLimitedRequests());
+        response.put("translationLimitedRequests", admissionControlFilter.getTranslationLimitedRequests());
+        response.put("translatingRequests", admissionControlFilter.getTranslatingRequests());
+        response.put("trackedClients", admissionControlFilter.getTrackedClientCount());
+        return response;
+    }
+}
@@ -0,0 +1,135 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.WordCount;
+import com.wordcounter.feed.ChangeFeed;
+import com.wordcounter.feed.FeedEvent;
+import com.wordcounter.feed.FeedSink;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Server-sent events with coalesced count changes of this node, replacing per-second polling of counts and stats.
+ * Subscribe with {@code ?words=a,b} for watched words and/or {@code ?top=10} for the ranking; a {@code counts}
+ * event arrives at most once per {@code wordcounter.feed.interval-ms}, and only when something changed.
+ */
+@RestController
+@RequestMapping("/api/wordcounter/feed")
+@CrossOrigin(origins = "*")
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+
+
+    public ChangeFeedController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam(value = "words", required = false) List<String> words,
+                                                @RequestParam(value = "top", defaultValue = "0") int top) {
+        // No timeout: heartbeats find dead connections, and the feed drops subscribers that stop reading
+        SseEmitter emitter = new SseEmitter(0L);
+        try {
+            ChangeFeed.Subscription subscription = changeFeed.subscribe(
+                    words != null ? words : Collections.<String>emptyList(), top, new EmitterSink(emitter));
+            emitter.onCompletion(subscription::close);
+            emitter.onTimeout(subscription::close);
+            emitter.onError(e -> subscription.close());
+            return ResponseEntity.ok(emitter);
+        } catch (IllegalArgumentException e) {
+            return error(emitter, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(emitter, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("subscribers", changeFeed.getSubscriberCount());
+        response.put("deliveredEvents", changeFeed.getDeliveredEvents());
+        response.put("conflatedEvents", changeFeed.getConflatedEvents());
+        response.put("droppedSubscribers", changeFeed.getDroppedSubscribers());
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+
+    private static Map<String, Object> toBody(FeedEvent event) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("sequence", event.getSequence());
+        body.put("timestamp", event.getTimestampMillis());
+        body.put("reset", event.isReset());
+        body.put("snapshot", event.isSnapshot());
+        body.put("totalWords", event.getTotalWords());
+        body.put("counts", event.getCounts());
+        body.put("deltas", event.getDeltas());
+        body.put("conflated", event.getConflatedEvents());
+        if (event.getTop() != null) {
+            List<Map<String, Object>> top = new ArrayList<>(event.getTop().size());
+            for (WordCount wordCount : event.getTop()) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("word", wordCount.getWord());
+                entry.put("count", wordCount.getCount());
+                top.add(entry);
+            }
+            body.put("top", top);
+        }
+        return body;
+    }
+
+
+    // Errors go out as a single event so the client sees them on the same stream it asked for
+    private static ResponseEntity<SseEmitter> error(SseEmitter emitter, HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        try {
+            emitter.send(SseEmitter.event().name("error").data(errorResponse, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status).body(emitter);
+    }
+
+
+    private static final class EmitterSink implements FeedSink {
+        private final SseEmitter emitter;
+
+        private EmitterSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(FeedEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name("counts")
+                    .id(Long.toString(event.getSequence()))
+                    .data(toBody(event), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.wordcounter.microservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wordcounter.CountsSnapshot;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.export.CountsExporter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Bulk export of this node's counts from a consistent snapshot, as JSON, CSV or binary.
+ * Without a limit the whole snapshot is streamed; with one, pass the returned snapshot id back
+ * to keep paging through the same point-in-time view. A snapshot is only retained while it has pages left,
+ * and is released once its last page has been streamed.
+ */
+@RestController
+@RequestMapping("/api/wordcounter/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final int MAX_RETAINED_SNAPSHOTS = 4;
+    private static final long SNAPSHOT_TTL_MILLIS = 5 * 60 * 1000;
+    private static final ObjectMapper ERROR_MAPPER = new ObjectMapper();
+
+    private final WordCounterImpl localWordCounter;
+    private final LinkedHashMap<Long, CountsSnapshot> recentSnapshots;
+
+
+    public ExportController(WordCounterImpl localWordCounter) {
+        this.localWordCounter = localWordCounter;
+        this.recentSnapshots = new LinkedHashMap<>();
+    }
+
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "json") String format,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "0") int limit,
+            @RequestParam(value = "snapshotId", required = false) Long snapshotId) {
+        CountsExporter.Format exportFormat;
+        try {
+            exportFormat = CountsExporter.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (offset < 0) {
+            return error(HttpStatus.BAD_REQUEST, "Offset cannot be negative");
+        }
+
+        CountsSnapshot snapshot = snapshotId != null ? findSnapshot(snapshotId) : takeSnapshot();
+        if (snapshot == null) {
+            return error(HttpStatus.GONE, "Snapshot " + snapshotId + " has expired, start the export again");
+        }
+
+        int from = Math.min(offset, snapshot.getUniqueWordCount());
+        int to = CountsExporter.endOf(snapshot, from, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header("X-Snapshot-Id", Long.toString(snapshot.getSnapshotId()))
+                .header("X-Total-Words", Integer.toString(snapshot.getTotalWords()))
+                .header("X-Unique-Words", Integer.toString(snapshot.getUniqueWordCount()));
+        if (to < snapshot.getUniqueWordCount()) {
+            response.header("X-Next-Offset", Integer.toString(to));
+            retain(snapshot);
+            return response.body(out -> CountsExporter.write(snapshot, from, to - from, exportFormat, out));
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                CountsExporter.write(snapshot, from, to - from, exportFormat, out);
+            } finally {
+                release(snapshot.getSnapshotId());
+            }
+        };
+        return response.body(body);
+    }
+
+
+    private CountsSnapshot takeSnapshot() {
+        localWordCounter.drainPending();
+        return localWordCounter.snapshot();
+    }
+
+
+    private synchronized void retain(CountsSnapshot snapshot) {
+        long now = System.currentTimeMillis();
+        recentSnapshots.values().removeIf(retained -> now - retained.getCreatedAtMillis() > SNAPSHOT_TTL_MILLIS);
+        recentSnapshots.put(snapshot.getSnapshotId(), snapshot);
+        while (recentSnapshots.size() > MAX_RETAINED_SNAPSHOTS) {
+            Iterator<Long> oldest = recentSnapshots.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+
+    private synchronized void release(long snapshotId) {
+        recentSnapshots.remove(snapshotId);
+    }
+
+
+    // Snapshots currently held for paging clients
+    synchronized int getRetainedSnapshotCount() {
+        return recentSnapshots.size();
+    }
+
+
+    private synchronized CountsSnapshot findSnapshot(long snapshotId) {
+        CountsSnapshot snapshot = recentSnapshots.get(snapshotId);
+        if (snapshot != null && System.currentTimeMillis() - snapshot.getCreatedAtMillis() > SNAPSHOT_TTL_MILLIS) {
+            recentSnapshots.remove(snapshotId);
+            return null;
+        }
+        return snapshot;
+    }
+
+
+    // Streaming endpoints must return a streaming body even for errors
+    private static ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> ERROR_MAPPER.writeValue(out, errorResponse));
+    }
+}
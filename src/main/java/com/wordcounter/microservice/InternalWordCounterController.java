@@ -0,0 +1,110 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.WordCounter;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.cluster.GossipDelta;
+import com.wordcounter.cluster.ReplicatedWordCounter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Node-to-node endpoints used in partitioned and replicated modes. They act on this instance's own
+ * partition or replica and expect words that the calling node has already validated and canonicalized.
+ */
+@RestController
+@RequestMapping("/api/wordcounter/internal")
+public class InternalWordCounterController {
+
+    private final WordCounterImpl localWordCounter;
+    private final WordCounter wordCounter;
+
+
+    public InternalWordCounterController(WordCounterImpl localWordCounter, WordCounter wordCounter) {
+        this.localWordCounter = localWordCounter;
+        this.wordCounter = wordCounter;
+    }
+
+
+    @PostMapping("/increments")
+    public ResponseEntity<Map<String, Object>> addCounts(@RequestBody Map<String, Map<String, Integer>> request) {
+        Map<String, Integer> counts = request.get("counts");
+        if (counts == null) {
+            return error(HttpStatus.BAD_REQUEST, "Counts cannot be null");
+        }
+
+        counts.forEach(localWordCounter::addCanonicalWord);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("wordsAdded", counts.size());
+        return ResponseEntity.ok(response);
+    }
+
+
+    @PostMapping("/counts")
+    public ResponseEntity<Map<String, Object>> getCounts(@RequestBody Map<String, List<String>> request) {
+        List<String> words = request.get("words");
+        if (words == null) {
+            return error(HttpStatus.BAD_REQUEST, "Word list cannot be null");
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            counts.put(word, localWordCounter.getCanonicalCount(word));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("counts", counts);
+        return ResponseEntity.ok(response);
+    }
+
+
+    @GetMapping("/total")
+    public ResponseEntity<Map<String, Object>> getTotal() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("totalWords", localWordCounter.getTotalWords());
+        return ResponseEntity.ok(response);
+    }
+
+
+    @PostMapping("/reset")
+    public ResponseEntity<Map<String, Object>> reset() {
+        localWordCounter.reset();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+
+    @PostMapping("/gossip")
+    public ResponseEntity<Map<String, Object>> gossip(@RequestBody GossipDelta delta) {
+        if (!(wordCounter instanceof ReplicatedWordCounter)) {
+            return error(HttpStatus.CONFLICT, "Replication is not enabled on this node");
+        }
+
+        ReplicatedWordCounter replica = (ReplicatedWordCounter) wordCounter;
+        long epoch = replica.merge(delta);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("epoch", epoch);
+        return ResponseEntity.ok(response);
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
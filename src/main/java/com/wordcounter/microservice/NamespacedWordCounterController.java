@@ -0,0 +1,183 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.TranslationHint;
+import com.wordcounter.exception.InvalidWordException;
+import com.wordcounter.exception.WordLimitExceededException;
+import com.wordcounter.namespace.NamespaceRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@RestController
+@RequestMapping("/api/wordcounter/namespaces")
+@CrossOrigin(origins = "*")
+public class NamespacedWordCounterController {
+
+    private final NamespaceRegistry registry;
+
+
+    public NamespacedWordCounterController(NamespaceRegistry registry) {
+        this.registry = registry;
+    }
+
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listNamespaces() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("resident", registry.getResidentNamespaces());
+        return ResponseEntity.ok(response);
+    }
+
+
+    @PostMapping("/{namespace}/words")
+    public ResponseEntity<Map<String, Object>> addWord(@PathVariable String namespace,
+                                                       @RequestBody Map<String, String> request,
+                                                       @RequestParam(value = "lang", required = false) String language) {
+        try {
+            String word = request.get("word");
+            int totalWords = registry.execute(namespace, counter -> {
+                counter.addWord(word, TranslationHint.of(namespace, language));
+                return counter.getTotalWords();
+            });
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Word added successfully");
+            response.put("namespace", namespace);
+            response.put("word", word);
+            response.put("totalWords", totalWords);
+
+            return ResponseEntity.ok(response);
+        } catch (InvalidWordException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("invalidWord", e.getInvalidWord());
+
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            return handleFailure(e);
+        }
+    }
+
+
+    @PostMapping("/{namespace}/words/batch")
+    public ResponseEntity<Map<String, Object>> addWords(@PathVariable String namespace,
+                                                        @RequestBody Map<String, List<String>> request,
+                                                        @RequestParam(value = "lang", required = false) String language) {
+        try {
+            List<String> words = request.get("words");
+            if (words == null || words.isEmpty()) {
+                return error(HttpStatus.BAD_REQUEST, "Word list cannot be null or empty");
+            }
+
+            int totalWords = registry.execute(namespace, counter -> {
+                counter.addWords(words, TranslationHint.of(namespace, language));
+                return counter.getTotalWords();
+            });
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", words.size() + " words added successfully");
+            response.put("namespace", namespace);
+            response.put("wordsAdded", words.size());
+            response.put("totalWords", totalWords);
+
+            return ResponseEntity.ok(response);
+        } catch (InvalidWordException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("invalidWord", e.getInvalidWord());
+
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            return handleFailure(e);
+        }
+    }
+
+
+    @GetMapping("/{namespace}/words/{word}/count")
+    public ResponseEntity<Map<String, Object>> getWordCount(@PathVariable String namespace,
+                                                            @PathVariable String word,
+                                                            @RequestParam(value = "lang", required = false) String language) {
+        try {
+            int count = registry.execute(namespace, counter -> counter.getCount(word, TranslationHint.of(namespace, language)));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("namespace", namespace);
+            response.put("word", word);
+            response.put("count", count);
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return handleFailure(e);
+        }
+    }
+
+
+    @GetMapping("/{namespace}/stats")
+    public ResponseEntity<Map<String, Object>> getStats(@PathVariable String namespace) {
+        try {
+            Map<String, Object> response = registry.execute(namespace, counter -> {
+                Map<String, Object> stats = new HashMap<>();
+                stats.put("totalWords", counter.getTotalWords());
+                stats.put("uniqueWords", counter.getUniqueWordCount());
+                stats.put("isEmpty", counter.isEmpty());
+                return stats;
+            });
+            response.put("namespace", namespace);
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return handleFailure(e);
+        }
+    }
+
+
+    @PostMapping("/{namespace}/reset")
+    public ResponseEntity<Map<String, Object>> reset(@PathVariable String namespace) {
+        try {
+            registry.execute(namespace, counter -> {
+                counter.reset();
+                return null;
+            });
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Namespace " + namespace + " reset successfully");
+            response.put("totalWords", 0);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return handleFailure(e);
+        }
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> handleFailure(Exception e) {
+        if (e instanceof IllegalArgumentException) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (e instanceof WordLimitExceededException) {
+            return error(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        }
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error: " + e.getMessage());
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,90 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.WordCount;
+import com.wordcounter.WordCounter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Bigram and trigram frequencies, available when {@code wordcounter.phrases.max-length} enables phrase counting.
+ * Phrases are counted within each batch posted to {@code /api/wordcounter/words/batch}.
+ */
+@RestController
+@RequestMapping("/api/wordcounter/phrases")
+@CrossOrigin(origins = "*")
+public class PhraseController {
+
+    private final WordCounter wordCounter;
+
+
+    public PhraseController(WordCounter wordCounter) {
+        this.wordCounter = wordCounter;
+    }
+
+
+    @GetMapping("/count")
+    public ResponseEntity<Map<String, Object>> getPhraseCount(@RequestParam("phrase") String phrase) {
+        if (!wordCounter.supportsPhrases()) {
+            return error(HttpStatus.NOT_IMPLEMENTED, "Phrase counting is not enabled");
+        }
+        try {
+            List<String> words = Arrays.asList(phrase.trim().split("\\s+"));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("phrase", phrase);
+            response.put("count", wordCounter.getPhraseCount(words));
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving phrase count: " + e.getMessage());
+        }
+    }
+
+
+    @GetMapping("/top")
+    public ResponseEntity<Map<String, Object>> getTopPhrases(@RequestParam(value = "length", defaultValue = "2") int length,
+                                                             @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (!wordCounter.supportsPhrases()) {
+            return error(HttpStatus.NOT_IMPLEMENTED, "Phrase counting is not enabled");
+        }
+        try {
+            List<Map<String, Object>> phrases = new ArrayList<>();
+            for (WordCount phrase : wordCounter.getTopPhrases(length, limit)) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("phrase", phrase.getWord());
+                entry.put("count", phrase.getCount());
+                phrases.add(entry);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("length", length);
+            response.put("phrases", phrases);
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving top phrases: " + e.getMessage());
+        }
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,71 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.DefaultTranslator;
+import com.wordcounter.Translator;
+import com.wordcounter.stemming.StemmingTranslator;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Actuator endpoint ({@code /actuator/translation}) exposing the translator's cache and remote-call counters,
+ * and the language order it has learned per client or namespace. Cheap to read, so it is safe to scrape frequently.
+ */
+@Component
+@Endpoint(id = "translation")
+public class TranslationStatsEndpoint {
+
+    private final Translator translator;
+
+
+    public TranslationStatsEndpoint(Translator translator) {
+        this.translator = translator;
+    }
+
+
+    @ReadOperation
+    public Map<String, Object> translationStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        DefaultTranslator defaultTranslator = unwrap(translator);
+        if (defaultTranslator == null) {
+            response.put("available", false);
+            response.put("translator", translator.getClass().getSimpleName());
+            return response;
+        }
+
+        DefaultTranslator.TranslationStats stats = defaultTranslator.getStats();
+        response.put("available", true);
+        response.put("cacheSize", stats.getCacheSize());
+        response.put("staticTranslations", stats.getStaticTranslations());
+        response.put("successfulTranslations", stats.getSuccessfulTranslations());
+        response.put("untranslatedEntries", stats.getUntranslatedEntries());
+        response.put("cacheHits", stats.getCacheHits());
+        response.put("cacheMisses", stats.getCacheMisses());
+        response.put("staticHits", stats.getStaticHits());
+        response.put("evictions", stats.getEvictions());
+        response.put("remoteCalls", stats.getRemoteCalls());
+        response.put("remoteFailures", stats.getRemoteFailures());
+        response.put("averageRemoteLatencyMillis", stats.getAverageRemoteLatencyMillis());
+        response.put("maxRemoteLatencyMillis", stats.getMaxRemoteLatencyMillis());
+        response.put("skippedRemoteLookups", defaultTranslator.getSkippedLookups());
+        response.put("negativeCacheHits", defaultTranslator.getNegativeCacheHits());
+        response.put("negativeCacheWords", defaultTranslator.getNegativeCache().getApproximateSize());
+        response.put("negativeCacheFalsePositiveRate", defaultTranslator.getNegativeCache().getCurrentFalsePositiveRate());
+        response.put("negativeCacheTargetFalsePositiveRate", defaultTranslator.getNegativeCache().getTargetFalsePositiveRate());
+        response.put("negativeCacheMemoryBytes", defaultTranslator.getNegativeCache().getMemoryBytes());
+        response.put("routing", defaultTranslator.getRoutingStats());
+        return response;
+    }
+
+
+    private static DefaultTranslator unwrap(Translator translator) {
+        if (translator instanceof StemmingTranslator) {
+            translator = ((StemmingTranslator) translator).getDelegate();
+        }
+        return translator instanceof DefaultTranslator ? (DefaultTranslator) translator : null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.warmup.TranslationWarmup;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Actuator endpoint ({@code /actuator/warmup}) reporting the progress of the translation warmup.
+ * A POST warms every planned word again, for example right after the translation cache was cleared.
+ */
+@Component
+@Endpoint(id = "warmup")
+public class TranslationWarmupEndpoint {
+
+    private final TranslationWarmup warmup;
+
+
+    public TranslationWarmupEndpoint(TranslationWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+
+    @ReadOperation
+    public Map<String, Object> warmupProgress() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("started", warmup.isStarted());
+        response.put("round", warmup.getRound());
+        response.put("plannedWords", warmup.getPlannedWordCount());
+        response.put("roundWords", warmup.getRoundWordCount());
+        response.put("alreadyWarm", warmup.getAlreadyWarmCount());
+        response.put("translated", warmup.getTranslatedCount());
+        response.put("failed", warmup.getFailedCount());
+        response.put("remaining", warmup.getRemainingCount());
+        response.put("warmFraction", warmup.getWarmFraction());
+        response.put("roundStartedMillis", warmup.getRoundStartedMillis());
+        return response;
+    }
+
+
+    @WriteOperation
+    public Map<String, Object> rewarm() {
+        warmup.rewarm();
+        return warmupProgress();
+    }
+}
@@ -0,0 +1,45 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.warmup.TranslationWarmup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Out of service until a warmup round has first reached the configured warm fraction, so a new instance only takes
+ * traffic once its common words are translated. Gives up waiting after the configured time, so a slow or failing
+ * translation service cannot keep the instance out of rotation. Included in the readiness group.
+ */
+@Component
+public class TranslationWarmupHealthIndicator implements HealthIndicator {
+
+    private final TranslationWarmup warmup;
+    private final long createdAtMillis = System.currentTimeMillis();
+
+    @Value("${wordcounter.warmup.ready-fraction:0.9}")
+    private double readyFraction;
+
+    @Value("${wordcounter.warmup.ready-max-wait-ms:120000}")
+    private long readyMaxWaitMillis;
+
+
+    public TranslationWarmupHealthIndicator(TranslationWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+
+    @Override
+    public Health health() {
+        boolean warm = !warmup.isStarted() || warmup.isWarm(readyFraction);
+        boolean gaveUp = !warm && System.currentTimeMillis() - createdAtMillis >= readyMaxWaitMillis;
+        Health.Builder builder = warm || gaveUp ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("warmFraction", warmup.getWarmFraction())
+                .withDetail("readyFraction", readyFraction)
+                .withDetail("remaining", warmup.getRemainingCount())
+                .withDetail("waitedTooLong", gaveUp)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.WindowedWordCounter;
+import com.wordcounter.WordCount;
+import com.wordcounter.WordCounterImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Time-windowed counts for words counted on this node.
+ */
+@RestController
+@RequestMapping("/api/wordcounter/windows")
+@CrossOrigin(origins = "*")
+public class WindowedWordCounterController {
+
+    private final WordCounterImpl localWordCounter;
+    private final WindowedWordCounter windowedWordCounter;
+    private final boolean enabled;
+
+
+    public WindowedWordCounterController(WordCounterImpl localWordCounter, WindowedWordCounter windowedWordCounter,
+                                         @Value("${wordcounter.windows.enabled:false}") boolean enabled) {
+        this.localWordCounter = localWordCounter;
+        this.windowedWordCounter = windowedWordCounter;
+        this.enabled = enabled;
+    }
+
+
+    @GetMapping("/words/{word}/count")
+    public ResponseEntity<Map<String, Object>> getWordCount(@PathVariable String word,
+                                                            @RequestParam("seconds") long seconds,
+                                                            @RequestParam(value = "mode", defaultValue = "sliding") String mode,
+                                                            @RequestParam(value = "windowsAgo", defaultValue = "0") int windowsAgo) {
+        if (!enabled) {
+            return error(HttpStatus.NOT_IMPLEMENTED, "Windowed counting is not enabled");
+        }
+        try {
+            String canonicalWord = localWordCounter.canonicalize(word);
+            long windowMillis = seconds * 1000;
+
+            int count;
+            if ("sliding".equals(mode)) {
+                count = windowedWordCounter.getCount(canonicalWord, windowMillis);
+            } else if ("tumbling".equals(mode)) {
+                count = windowedWordCounter.getTumblingCount(canonicalWord, windowMillis, windowsAgo);
+            } else {
+                return error(HttpStatus.BAD_REQUEST, "Unknown window mode: " + mode);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("word", word);
+            response.put("count", count);
+            response.put("seconds", seconds);
+            response.put("mode", mode);
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving windowed count: " + e.getMessage());
+        }
+    }
+
+
+    @GetMapping("/top")
+    public ResponseEntity<Map<String, Object>> getTopWords(@RequestParam("seconds") long seconds,
+                                                           @RequestParam(value = "k", defaultValue = "10") int k) {
+        if (!enabled) {
+            return error(HttpStatus.NOT_IMPLEMENTED, "Windowed counting is not enabled");
+        }
+        try {
+            long windowMillis = seconds * 1000;
+            List<Map<String, Object>> top = new ArrayList<>();
+            for (WordCount wordCount : windowedWordCounter.getTopWords(k, windowMillis)) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("word", wordCount.getWord());
+                entry.put("count", wordCount.getCount());
+                top.add(entry);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("top", top);
+            response.put("totalWords", windowedWordCounter.getTotal(windowMillis));
+            response.put("seconds", seconds);
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving top words: " + e.getMessage());
+        }
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,466 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.ApproximateWordCounter;
+import com.wordcounter.DefaultTranslator;
+import com.wordcounter.NegativeTranslationCache;
+import com.wordcounter.TranslationDictionary;
+import com.wordcounter.Translator;
+import com.wordcounter.VersionWatcher;
+import com.wordcounter.WindowedWordCounter;
+import com.wordcounter.WordCounter;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.admission.ClientRateLimiter;
+import com.wordcounter.cluster.HttpNodeClient;
+import com.wordcounter.cluster.PartitionedWordCounter;
+import com.wordcounter.cluster.ReplicatedWordCounter;
+import com.wordcounter.feed.ChangeFeed;
+import com.wordcounter.index.WordIndex;
+import com.wordcounter.namespace.NamespaceRegistry;
+import com.wordcounter.persistence.DurabilityConfig;
+import com.wordcounter.tiered.TieredStorageConfig;
+import com.wordcounter.warmup.TranslationWarmup;
+import com.wordcounter.stemming.CachingStemmer;
+import com.wordcounter.stemming.PorterStemmer;
+import com.wordcounter.stemming.StemmingTranslator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+
+@Configuration
+public class WordCounterConfiguration {
+
+    @Value("${wordcounter.persistence.enabled:false}")
+    private boolean persistenceEnabled;
+
+    @Value("${wordcounter.persistence.directory:data}")
+    private String persistenceDirectory;
+
+    @Value("${wordcounter.persistence.fsync-interval-ms:50}")
+    private long fsyncIntervalMillis;
+
+    @Value("${wordcounter.persistence.fsync-batch-size:4096}")
+    private int fsyncBatchSize;
+
+    @Value("${wordcounter.persistence.snapshot-interval-ms:60000}")
+    private long snapshotIntervalMillis;
+
+    @Value("${wordcounter.tiered.enabled:false}")
+    private boolean tieredEnabled;
+
+    @Value("${wordcounter.tiered.directory:data/cold}")
+    private String tieredDirectory;
+
+    @Value("${wordcounter.tiered.memory-budget-mb:512}")
+    private long tieredMemoryBudgetMb;
+
+    @Value("${wordcounter.tiered.spill-interval-ms:1000}")
+    private long tieredSpillIntervalMillis;
+
+    @Value("${wordcounter.tiered.max-runs:8}")
+    private int tieredMaxRuns;
+
+    @Value("${wordcounter.translation.dictionary-file:}")
+    private String dictionaryFile;
+
+    @Value("${wordcounter.translation.dictionary-reload-ms:5000}")
+    private long dictionaryReloadMillis;
+
+    @Value("${wordcounter.translation.deferred-workers:0}")
+    private int deferredTranslationWorkers;
+
+    @Value("${wordcounter.translation.negative-cache.words-per-generation:200000}")
+    private long negativeCacheWordsPerGeneration;
+
+    @Value("${wordcounter.translation.negative-cache.false-positive-rate:0.001}")
+    private double negativeCacheFalsePositiveRate;
+
+    @Value("${wordcounter.translation.negative-cache.max-age-ms:0}")
+    private long negativeCacheMaxAgeMillis;
+
+    @Value("${wordcounter.phrases.max-length:0}")
+    private int maxPhraseLength;
+
+    @Value("${wordcounter.feed.interval-ms:1000}")
+    private long feedIntervalMillis;
+
+    @Value("${wordcounter.feed.heartbeat-ms:15000}")
+    private long feedHeartbeatMillis;
+
+    @Value("${wordcounter.feed.max-lag-ms:30000}")
+    private long feedMaxLagMillis;
+
+    @Value("${wordcounter.feed.max-subscribers:256}")
+    private int feedMaxSubscribers;
+
+    @Value("${wordcounter.feed.max-watched-words:1000}")
+    private int feedMaxWatchedWords;
+
+    @Value("${wordcounter.feed.max-top-words:100}")
+    private int feedMaxTopWords;
+
+    @Value("${wordcounter.admission.enabled:true}")
+    private boolean admissionEnabled;
+
+    @Value("${wordcounter.admission.tokens-per-second:10000}")
+    private double admissionTokensPerSecond;
+
+    @Value("${wordcounter.admission.burst-tokens:100000}")
+    private long admissionBurstTokens;
+
+    @Value("${wordcounter.admission.miss-cost:10}")
+    private int admissionMissCost;
+
+    @Value("${wordcounter.admission.max-translating-requests:64}")
+    private int maxTranslatingRequests;
+
+    @Value("${wordcounter.admission.max-clients:100000}")
+    private int admissionMaxClients;
+
+    @Value("${wordcounter.admission.max-body-bytes:16777216}")
+    private int admissionMaxBodyBytes;
+
+    @Value("${wordcounter.long-poll.check-interval-ms:20}")
+    private long longPollCheckMillis;
+
+    @Value("${wordcounter.long-poll.max-waiting:10000}")
+    private int longPollMaxWaiting;
+
+    @Value("${wordcounter.stemming.enabled:false}")
+    private boolean stemmingEnabled;
+
+    @Value("${wordcounter.stemming.cache-size:100000}")
+    private int stemmingCacheSize;
+
+    @Value("${wordcounter.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${wordcounter.cluster.self:http://localhost:${server.port:8080}}")
+    private String clusterSelf;
+
+    @Value("${wordcounter.cluster.nodes:}")
+    private String clusterNodes;
+
+    @Value("${wordcounter.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${wordcounter.cluster.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${wordcounter.cluster.forward-flush-ms:20}")
+    private long forwardFlushMillis;
+
+    @Value("${wordcounter.cluster.timeout-ms:2000}")
+    private int clusterTimeoutMillis;
+
+    @Value("${wordcounter.replication.enabled:false}")
+    private boolean replicationEnabled;
+
+    @Value("${wordcounter.replication.peers:}")
+    private String replicationPeers;
+
+    @Value("${wordcounter.replication.gossip-interval-ms:1000}")
+    private long gossipIntervalMillis;
+
+    @Value("${wordcounter.approximate.enabled:false}")
+    private boolean approximateEnabled;
+
+    @Value("${wordcounter.approximate.epsilon:0.00002}")
+    private double approximateEpsilon;
+
+    @Value("${wordcounter.approximate.confidence:0.99}")
+    private double approximateConfidence;
+
+    @Value("${wordcounter.approximate.hll-precision:14}")
+    private int hyperLogLogPrecision;
+
+    @Value("${wordcounter.windows.enabled:false}")
+    private boolean windowsEnabled;
+
+    @Value("${wordcounter.windows.purge-interval-ms:60000}")
+    private long windowPurgeMillis;
+
+    @Value("${wordcounter.windows.bucket-ms:10000}")
+    private long windowBucketMillis;
+
+    @Value("${wordcounter.windows.bucket-count:360}")
+    private int windowBucketCount;
+
+    @Value("${wordcounter.index.refresh-ms:1000}")
+    private long indexRefreshMillis;
+
+    @Value("${wordcounter.namespaces.spill-directory:data/namespaces}")
+    private String namespaceSpillDirectory;
+
+    @Value("${wordcounter.namespaces.max-unique-words:1000000}")
+    private int maxUniqueWordsPerNamespace;
+
+    @Value("${wordcounter.namespaces.idle-eviction-ms:600000}")
+    private long namespaceIdleEvictionMillis;
+
+    @Value("${wordcounter.warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    @Value("${wordcounter.warmup.vocabulary-file:}")
+    private String warmupVocabularyFile;
+
+    @Value("${wordcounter.warmup.top-words:1000}")
+    private int warmupTopWords;
+
+    @Value("${wordcounter.warmup.words-per-second:50}")
+    private double warmupWordsPerSecond;
+
+    @Value("${wordcounter.warmup.concurrency:4}")
+    private int warmupConcurrency;
+
+    @Value("${wordcounter.warmup.min-rewarm-ms:60000}")
+    private long warmupMinRewarmMillis;
+
+    @Value("${wordcounter.warmup.retry-ms:10000}")
+    private long warmupRetryMillis;
+
+
+    @Bean(destroyMethod = "close")
+    public TranslationDictionary translationDictionary() {
+        TranslationDictionary.Builder builder = TranslationDictionary.builder()
+                .withReloadIntervalMillis(dictionaryReloadMillis);
+        if (!dictionaryFile.trim().isEmpty()) {
+            builder.withFile(Paths.get(dictionaryFile.trim()));
+        }
+        return builder.build();
+    }
+
+
+    // Shared by every counter so all of them use one translation cache (and one stem cache)
+    @Bean
+    public Translator translator(TranslationDictionary translationDictionary) {
+        NegativeTranslationCache negativeCache = NegativeTranslationCache.builder()
+                .withExpectedInsertions(negativeCacheWordsPerGeneration)
+                .withFalsePositiveRate(negativeCacheFalsePositiveRate)
+                .withMaxAgeMillis(negativeCacheMaxAgeMillis)
+                .build();
+        Translator translator = new DefaultTranslator(translationDictionary, negativeCache);
+        if (stemmingEnabled) {
+            translator = new StemmingTranslator(translator, new CachingStemmer(new PorterStemmer(), stemmingCacheSize));
+        }
+        return translator;
+    }
+
+
+    // Only fed, and only purged, when enabled: every tracked word costs a ring of bucket-count ints
+    @Bean(destroyMethod = "close")
+    public WindowedWordCounter windowedWordCounter() {
+        return WindowedWordCounter.builder()
+                .withBucketMillis(windowBucketMillis)
+                .withBucketCount(windowBucketCount)
+                .withPurgeIntervalMillis(windowsEnabled ? windowPurgeMillis : 0)
+                .build();
+    }
+
+
+    @Bean
+    public WordIndex wordIndex() {
+        return WordIndex.builder()
+                .withMinRefreshMillis(indexRefreshMillis)
+                .build();
+    }
+
+
+    // Counts owned by this instance; also served to peers through the internal endpoints
+    @Bean(destroyMethod = "close")
+    public WordCounterImpl localWordCounter(Translator translator, WindowedWordCounter windowedWordCounter,
+                                            WordIndex wordIndex) {
+        WordCounterImpl.Builder builder = WordCounterImpl.builder()
+                .withTranslator(translator)
+                .withListener(wordIndex)
+                .withChangeTracking();
+        if (windowsEnabled) {
+            builder.withListener(windowedWordCounter);
+        }
+
+        // The builder would reject these too; naming the properties makes the startup failure actionable
+        if (deferredTranslationWorkers > 0 && (maxPhraseLength > 0 || persistenceEnabled)) {
+            throw new IllegalStateException("wordcounter.translation.deferred-workers cannot be combined with "
+                    + "wordcounter.phrases.max-length or wordcounter.persistence.enabled");
+        }
+        if (tieredEnabled && persistenceEnabled) {
+            throw new IllegalStateException(
+                    "wordcounter.tiered.enabled cannot be combined with wordcounter.persistence.enabled");
+        }
+
+        if (maxPhraseLength > 0) {
+            builder.withPhraseCounting(maxPhraseLength);
+        }
+        if (deferredTranslationWorkers > 0) {
+            builder.withDeferredTranslation(deferredTranslationWorkers);
+        }
+        if (persistenceEnabled) {
+            builder.withDurability(DurabilityConfig.builder()
+                    .withDirectory(Paths.get(persistenceDirectory))
+                    .withFsyncIntervalMillis(fsyncIntervalMillis)
+                    .withFsyncBatchSize(fsyncBatchSize)
+                    .withSnapshotIntervalMillis(snapshotIntervalMillis)
+                    .build());
+        }
+        if (tieredEnabled) {
+            builder.withTieredStorage(TieredStorageConfig.builder()
+                    .withDirectory(Paths.get(tieredDirectory))
+                    .withMemoryBudgetBytes(tieredMemoryBudgetMb * 1024 * 1024)
+                    .withSpillIntervalMillis(tieredSpillIntervalMillis)
+                    .withMaxRuns(tieredMaxRuns)
+                    .build());
+        }
+
+        return builder.build();
+    }
+
+
+    @Bean(destroyMethod = "close")
+    public ChangeFeed changeFeed(WordCounterImpl localWordCounter) {
+        return ChangeFeed.builder()
+                .withCounter(localWordCounter)
+                .withIntervalMillis(feedIntervalMillis)
+                .withHeartbeatMillis(feedHeartbeatMillis)
+                .withMaxLagMillis(feedMaxLagMillis)
+                .withMaxSubscribers(feedMaxSubscribers)
+                .withMaxWatchedWords(feedMaxWatchedWords)
+                .withMaxTopWords(feedMaxTopWords)
+                .build();
+    }
+
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(Translator translator) {
+        ClientRateLimiter rateLimiter = ClientRateLimiter.builder()
+                .withTokensPerSecond(admissionTokensPerSecond)
+                .withBurstTokens(admissionBurstTokens)
+                .withMaxClients(admissionMaxClients)
+                .build();
+        return new AdmissionControlFilter(rateLimiter, translator, admissionMissCost, maxTranslatingRequests,
+                admissionMaxBodyBytes);
+    }
+
+
+    // Only the endpoints that count or look up words are priced; stats, feeds and exports pass untouched
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlRegistration(AdmissionControlFilter filter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/wordcounter/words", "/api/wordcounter/words/*",
+                "/api/wordcounter/namespaces/*");
+        registration.setEnabled(admissionEnabled);
+        return registration;
+    }
+
+
+    // What clients talk to: the local counter, a partitioned view over the cluster, a gossiping replica or a sketch
+    @Bean
+    @Primary
+    public WordCounter wordCounter(WordCounterImpl localWordCounter, Translator translator) {
+        if ((clusterEnabled ? 1 : 0) + (replicationEnabled ? 1 : 0) + (approximateEnabled ? 1 : 0) > 1) {
+            throw new IllegalStateException("Only one of partitioned, replicated and approximate modes can be enabled");
+        }
+
+        if (approximateEnabled) {
+            return ApproximateWordCounter.builder()
+                    .withTranslator(translator)
+                    .withErrorBounds(approximateEpsilon, approximateConfidence)
+                    .withHyperLogLogPrecision(hyperLogLogPrecision)
+                    .build();
+        }
+
+        if (clusterEnabled) {
+            return PartitionedWordCounter.builder()
+                    .withLocalCounter(localWordCounter)
+                    .withSelf(clusterSelf)
+                    .withNodes(splitNodes(clusterNodes))
+                    .withVirtualNodes(virtualNodes)
+                    .withMaxBatchSize(maxBatchSize)
+                    .withForwardFlushMillis(forwardFlushMillis)
+                    .withNodeClient(new HttpNodeClient(clusterTimeoutMillis))
+                    .build();
+        }
+
+        if (replicationEnabled) {
+            ReplicatedWordCounter.Builder builder = ReplicatedWordCounter.builder()
+                    .withLocalCounter(localWordCounter)
+                    .withSelf(clusterSelf)
+                    .withPeers(splitNodes(replicationPeers))
+                    .withGossipIntervalMillis(gossipIntervalMillis)
+                    .withTransport(new HttpNodeClient(clusterTimeoutMillis));
+            if (persistenceEnabled) {
+                builder.withStateFile(Paths.get(persistenceDirectory, "replication.properties"));
+            }
+            return builder.build();
+        }
+
+        return localWordCounter;
+    }
+
+
+    // Wakes long-poll reads of /words/{word}/count and /stats once the counts move
+    @Bean(destroyMethod = "close")
+    public VersionWatcher versionWatcher(WordCounter wordCounter) {
+        return VersionWatcher.builder()
+                .withVersion(wordCounter::getVersion)
+                .withPollMillis(longPollCheckMillis)
+                .withMaxWaiters(longPollMaxWaiting)
+                .build();
+    }
+
+
+    @Bean(destroyMethod = "close")
+    public NamespaceRegistry namespaceRegistry(Translator translator) {
+        return NamespaceRegistry.builder()
+                .withTranslator(translator)
+                .withSpillDirectory(Paths.get(namespaceSpillDirectory))
+                .withMaxUniqueWordsPerNamespace(maxUniqueWordsPerNamespace)
+                .withIdleEvictionMillis(namespaceIdleEvictionMillis)
+                .build();
+    }
+
+
+    // Started after the local counts are recovered, so their top words can be warmed as well
+    @Bean(destroyMethod = "close")
+    public TranslationWarmup translationWarmup(Translator translator, WordCounterImpl localWordCounter) {
+        TranslationWarmup warmup = TranslationWarmup.builder()
+                .withTranslator(translator)
+                .withWordsPerSecond(warmupWordsPerSecond)
+                .withConcurrency(warmupConcurrency)
+                .withMinRewarmMillis(warmupMinRewarmMillis)
+                .withRetryMillis(warmupRetryMillis)
+                .build();
+        if (!warmupEnabled) {
+            return warmup;
+        }
+        if (!warmupVocabularyFile.trim().isEmpty()) {
+            try {
+                int added = warmup.addVocabulary(Paths.get(warmupVocabularyFile.trim()));
+                System.out.println("Warming translations of " + added + " vocabulary words");
+            } catch (IOException e) {
+                System.out.println("Could not read warmup vocabulary " + warmupVocabularyFile + ": " + e.getMessage());
+            }
+        }
+        if (warmupTopWords > 0) {
+            localWordCounter.drainPending();
+            warmup.addTopWords(localWordCounter.snapshot(), warmupTopWords);
+        }
+        warmup.start();
+        return warmup;
+    }
+
+
+    private static List<String> splitNodes(String nodes) {
+        return Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
@@ -1,15 +1,30 @@
 package com.wordcounter.microservice;
 
+import com.wordcounter.ApproximateWordCounter;
+import com.wordcounter.TranslationHint;
+import com.wordcounter.VersionWatcher;
 import com.wordcounter.WordCounter;
 import com.wordcounter.WordCounterImpl;
+import com.wordcounter.cluster.PartitionedWordCounter;
+import com.wordcounter.cluster.ReplicatedWordCounter;
 import com.wordcounter.exception.InvalidWordException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 @RestController
@@ -17,19 +32,31 @@ import java.util.HashMap;
 @CrossOrigin(origins = "*")
 public class WordCounterController {
 
+    // Identifies the caller so the translator can learn which languages its words are in
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final int MAX_BULK_COUNT_WORDS = 100_000;
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    // Counter version a response reflects, to pass back as waitForVersion
+    private static final String VERSION_HEADER = "X-Counts-Version";
+    private static final long MAX_WAIT_MILLIS = 60_000;
+
     private final WordCounter wordCounter;
+    private final VersionWatcher versionWatcher;
 
 
-    public WordCounterController() {
-        this.wordCounter = WordCounterImpl.builder().build();
+    public WordCounterController(WordCounter wordCounter, VersionWatcher versionWatcher) {
+        this.wordCounter = wordCounter;
+        this.versionWatcher = versionWatcher;
     }
 
 
     @PostMapping("/words")
-    public ResponseEntity<Map<String, Object>> addWord(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, Object>> addWord(@RequestBody Map<String, String> request,
+                                                       @RequestParam(value = "lang", required = false) String language,
+                                                       @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
         try {
             String word = request.get("word");
-            wordCounter.addWord(word);
+            wordCounter.addWord(word, TranslationHint.of(clientId, language));
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -56,7 +83,9 @@ public class WordCounterController {
 
 
     @PostMapping("/words/batch")
-    public ResponseEntity<Map<String, Object>> addWords(@RequestBody Map<String, List<String>> request) {
+    public ResponseEntity<Map<String, Object>> addWords(@RequestBody Map<String, List<String>> request,
+                                                        @RequestParam(value = "lang", required = false) String language,
+                                                        @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
         try {
             List<String> words = request.get("words");
             if (words == null || words.isEmpty()) {
@@ -67,7 +96,7 @@ public class WordCounterController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
-            wordCounter.addWords(words);
+            wordCounter.addWords(words, TranslationHint.of(clientId, language));
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -93,51 +122,308 @@ public class WordCounterController {
     }
 
 
+    /**
+     * The ETag is derived from the count alone, which is all the body depends on; a matching
+     * {@code If-None-Match} is answered with 304 and no body.
+     */
     @GetMapping("/words/{word}/count")
-    public ResponseEntity<Map<String, Object>> getWordCount(@PathVariable String word) {
+    public ResponseEntity<Map<String, Object>> getWordCount(@PathVariable String word,
+                                                            @RequestParam(value = "lang", required = false) String language,
+                                                            @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId,
+                                                            WebRequest webRequest) {
         try {
-            int count = wordCounter.getCount(word);
+            long version = wordCounter.getVersion();
+            int count = wordCounter.getCount(word, TranslationHint.of(clientId, language));
+            if (webRequest.checkNotModified(wordCountEtag(count))) {
+                return null;
+            }
+            return wordCountResponse(word, count, version);
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving word count: " + e.getMessage());
+        }
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("word", word);
-            response.put("count", count);
-            response.put("success", true);
 
-            return ResponseEntity.ok(response);
+    /**
+     * Long-poll read: answers once the counter's version is past {@code waitForVersion} and, when the request carries
+     * {@code If-None-Match}, the word's count differs from that ETag; 304 if neither happens within the timeout.
+     * No thread is held while waiting.
+     */
+    @GetMapping(value = "/words/{word}/count", params = "waitForVersion")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> awaitWordCount(
+            @PathVariable String word,
+            @RequestParam("waitForVersion") long waitForVersion,
+            @RequestParam(value = "timeoutMs", defaultValue = "30000") long timeoutMillis,
+            @RequestParam(value = "lang", required = false) String language,
+            @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = new DeferredResult<>(clampWait(timeoutMillis));
+        if (wordCounter.getVersion() < 0) {
+            result.setResult(error(HttpStatus.NOT_IMPLEMENTED, "Versions are not tracked in this mode"));
+            return result;
+        }
+
+        TranslationHint hint = TranslationHint.of(clientId, language);
+        AtomicReference<CompletableFuture<Long>> waiting = new AtomicReference<>();
+        result.onTimeout(() -> {
+            cancel(waiting.get());
+            result.setResult(notModified(ifNoneMatch));
+        });
+        awaitWordChange(word, hint, ifNoneMatch, waitForVersion, result, waiting);
+        return result;
+    }
+
+
+    private void awaitWordChange(String word, TranslationHint hint, String ifNoneMatch, long afterVersion,
+                                 DeferredResult<ResponseEntity<Map<String, Object>>> result,
+                                 AtomicReference<CompletableFuture<Long>> waiting) {
+        CompletableFuture<Long> change;
+        try {
+            change = versionWatcher.awaitVersionAfter(afterVersion);
+        } catch (IllegalStateException e) {
+            result.setResult(error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+            return;
+        }
+        waiting.set(change);
+
+        change.thenAccept(version -> {
+            if (result.isSetOrExpired()) {
+                return;
+            }
+            try {
+                int count = wordCounter.getCount(word, hint);
+                if (ifNoneMatch != null && etagMatches(ifNoneMatch, wordCountEtag(count))) {
+                    // Something else changed; keep waiting for this word
+                    awaitWordChange(word, hint, ifNoneMatch, version, result, waiting);
+                } else {
+                    result.setResult(wordCountResponse(word, count, version));
+                }
+            } catch (Exception e) {
+                result.setResult(error(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error retrieving word count: " + e.getMessage()));
+            }
+        });
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> wordCountResponse(String word, int count, long version) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("word", word);
+        response.put("count", count);
+        response.put("success", true);
+
+        return ResponseEntity.ok()
+                .eTag(wordCountEtag(count))
+                .header(VERSION_HEADER, Long.toString(version))
+                .body(response);
+    }
+
+
+    private static String wordCountEtag(int count) {
+        return "\"c" + count + "\"";
+    }
+
+
+    /**
+     * Counts for many words in one request. Words are translated in bulk and the counts are written
+     * to the response as they are serialized, so large lists are never held as one response object.
+     */
+    @PostMapping("/words/counts")
+    public ResponseEntity<StreamingResponseBody> getWordCounts(@RequestBody Map<String, List<String>> request) {
+        List<String> words = request.get("words");
+        if (words == null || words.isEmpty() || words.size() > MAX_BULK_COUNT_WORDS) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Word list must contain between 1 and " + MAX_BULK_COUNT_WORDS + " words");
+
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> JSON_MAPPER.writeValue(out, errorResponse));
+        }
+
+        Map<String, Integer> counts;
+        try {
+            counts = wordCounter.getCounts(words);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
-            errorResponse.put("error", "Error retrieving word count: " + e.getMessage());
+            errorResponse.put("error", "Error retrieving word counts: " + e.getMessage());
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> JSON_MAPPER.writeValue(out, errorResponse));
         }
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = JSON_MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                json.writeStartObject();
+                json.writeBooleanField("success", true);
+                json.writeNumberField("requested", words.size());
+                json.writeNumberField("distinctWords", counts.size());
+                json.writeObjectFieldStart("counts");
+                for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                    json.writeNumberField(entry.getKey(), entry.getValue());
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
 
+    /**
+     * With a tracked version the ETag is the version, checked before any statistics are gathered;
+     * otherwise it is a hash of the statistics, which still saves serializing and sending them.
+     */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getStats() {
+    public ResponseEntity<Map<String, Object>> getStats(WebRequest webRequest) {
         try {
-            Map<String, Object> response = new HashMap<>();
-            response.put("totalWords", wordCounter.getTotalWords());
-            response.put("success", true);
-
-            if (wordCounter instanceof WordCounterImpl) {
-                WordCounterImpl impl = (WordCounterImpl) wordCounter;
-                response.put("uniqueWords", impl.getUniqueWordCount());
-                response.put("isEmpty", impl.isEmpty());
+            long version = wordCounter.getVersion();
+            if (version >= 0 && webRequest.checkNotModified(versionEtag(version))) {
+                return null;
             }
 
-            return ResponseEntity.ok(response);
+            Map<String, Object> response = buildStats(version);
+            String etag = version >= 0 ? versionEtag(version) : "\"h" + Integer.toHexString(response.hashCode()) + "\"";
+            if (version < 0 && webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(etag).body(response);
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("error", "Error retrieving statistics: " + e.getMessage());
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving statistics: " + e.getMessage());
+        }
+    }
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+
+    /**
+     * Long-poll read: answers once the counter's version is past {@code waitForVersion}, or with 304 after the timeout.
+     */
+    @GetMapping(value = "/stats", params = "waitForVersion")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> awaitStats(
+            @RequestParam("waitForVersion") long waitForVersion,
+            @RequestParam(value = "timeoutMs", defaultValue = "30000") long timeoutMillis) {
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = new DeferredResult<>(clampWait(timeoutMillis));
+        if (wordCounter.getVersion() < 0) {
+            result.setResult(error(HttpStatus.NOT_IMPLEMENTED, "Versions are not tracked in this mode"));
+            return result;
+        }
+
+        CompletableFuture<Long> change;
+        try {
+            change = versionWatcher.awaitVersionAfter(waitForVersion);
+        } catch (IllegalStateException e) {
+            result.setResult(error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+            return result;
+        }
+        result.onTimeout(() -> {
+            cancel(change);
+            result.setResult(notModified(versionEtag(wordCounter.getVersion())));
+        });
+        change.thenAccept(version -> {
+            try {
+                result.setResult(ResponseEntity.ok().eTag(versionEtag(version)).body(buildStats(version)));
+            } catch (Exception e) {
+                result.setResult(error(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error retrieving statistics: " + e.getMessage()));
+            }
+        });
+        return result;
+    }
+
+
+    private Map<String, Object> buildStats(long version) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalWords", wordCounter.getTotalWords());
+        response.put("success", true);
+
+        if (wordCounter instanceof WordCounterImpl) {
+            WordCounterImpl impl = (WordCounterImpl) wordCounter;
+            response.put("uniqueWords", impl.getUniqueWordCount());
+            response.put("isEmpty", impl.isEmpty());
+            response.put("durable", impl.isDurable());
+            response.put("pendingWords", impl.getPendingWordCount());
+            if (impl.getColdStore() != null) {
+                response.put("hotMemoryBytes", impl.getHotMemoryBytes());
+                response.put("coldWords", impl.getColdStore().getUniqueWordCount());
+                response.put("coldRuns", impl.getColdStore().getRunCount());
+                response.put("coldDiskBytes", impl.getColdStore().getDiskBytes());
+            }
+        } else if (wordCounter instanceof ApproximateWordCounter) {
+            ApproximateWordCounter approximate = (ApproximateWordCounter) wordCounter;
+            response.put("uniqueWords", approximate.getUniqueWordCount());
+            response.put("isEmpty", approximate.isEmpty());
+            response.put("approximate", true);
+            response.put("maxOvercount", approximate.getMaxOvercount());
+            response.put("confidence", approximate.getConfidence());
+            response.put("uniqueWordsRelativeError", approximate.getUniqueWordRelativeError());
+        } else if (wordCounter instanceof PartitionedWordCounter) {
+            PartitionedWordCounter partitioned = (PartitionedWordCounter) wordCounter;
+            response.put("node", partitioned.getSelf());
+            response.put("nodes", partitioned.getNodes());
+        } else if (wordCounter instanceof ReplicatedWordCounter) {
+            ReplicatedWordCounter replica = (ReplicatedWordCounter) wordCounter;
+            response.put("node", replica.getSelf());
+            response.put("peers", replica.getPeers());
+            response.put("epoch", replica.getEpoch());
+        }
+
+        if (version >= 0) {
+            response.put("version", version);
+        }
+        return response;
+    }
+
+
+    private static String versionEtag(long version) {
+        return "\"v" + version + "\"";
+    }
+
+
+    private static long clampWait(long timeoutMillis) {
+        return Math.max(1, Math.min(timeoutMillis, MAX_WAIT_MILLIS));
+    }
+
+
+    private static void cancel(CompletableFuture<Long> waiting) {
+        if (waiting != null) {
+            waiting.cancel(false);
         }
     }
 
 
+    private static ResponseEntity<Map<String, Object>> notModified(String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.build();
+    }
+
+
+    // Matches any entity tag in the header, ignoring weakness, as If-None-Match requires
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+
+
     @PostMapping("/reset")
     public ResponseEntity<Map<String, Object>> reset() {
         try {
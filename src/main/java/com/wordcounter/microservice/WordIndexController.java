@@ -0,0 +1,100 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.WordCount;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.WordValidator;
+import com.wordcounter.index.WordIndex;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Prefix and fuzzy queries over canonical words counted on this node.
+ * Results come from an index rebuilt at most once per {@code wordcounter.index.refresh-ms}, so they may lag slightly.
+ */
+@RestController
+@RequestMapping("/api/wordcounter/index")
+@CrossOrigin(origins = "*")
+public class WordIndexController {
+
+    private final WordCounterImpl localWordCounter;
+    private final WordIndex wordIndex;
+
+
+    public WordIndexController(WordCounterImpl localWordCounter, WordIndex wordIndex) {
+        this.localWordCounter = localWordCounter;
+        this.wordIndex = wordIndex;
+    }
+
+
+    @GetMapping("/prefix/{prefix}")
+    public ResponseEntity<Map<String, Object>> getPrefixCounts(@PathVariable String prefix,
+                                                               @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        try {
+            wordIndex.refreshIfStale(localWordCounter::snapshot);
+            String normalizedPrefix = WordValidator.normalizeWord(prefix);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("prefix", normalizedPrefix);
+            response.put("totalCount", wordIndex.getPrefixCount(normalizedPrefix));
+            response.put("matchingWords", wordIndex.getPrefixMatchCount(normalizedPrefix));
+            response.put("words", toEntries(wordIndex.getPrefixMatches(normalizedPrefix, limit)));
+            response.put("indexedAt", wordIndex.getBuiltAtMillis());
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error querying prefix: " + e.getMessage());
+        }
+    }
+
+
+    @GetMapping("/fuzzy/{word}")
+    public ResponseEntity<Map<String, Object>> getFuzzyCounts(@PathVariable String word,
+                                                              @RequestParam(value = "distance", defaultValue = "1") int distance,
+                                                              @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        try {
+            wordIndex.refreshIfStale(localWordCounter::snapshot);
+            String normalizedWord = WordValidator.normalizeWord(word);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("word", normalizedWord);
+            response.put("distance", distance);
+            response.put("words", toEntries(wordIndex.getFuzzyMatches(normalizedWord, distance, limit)));
+            response.put("indexedAt", wordIndex.getBuiltAtMillis());
+            response.put("success", true);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error querying similar words: " + e.getMessage());
+        }
+    }
+
+
+    private static List<Map<String, Object>> toEntries(List<WordCount> wordCounts) {
+        List<Map<String, Object>> entries = new ArrayList<>(wordCounts.size());
+        for (WordCount wordCount : wordCounts) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("word", wordCount.getWord());
+            entry.put("count", wordCount.getCount());
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,247 @@
+package com.wordcounter.namespace;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import com.wordcounter.persistence.CountSnapshot;
+import com.wordcounter.persistence.WriteAheadLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+
+/**
+ * Independent word counters keyed by namespace, all sharing one {@link Translator} and therefore one translation cache.
+ * Namespaces are created on first use, capped at a configurable number of unique words, and spilled to disk
+ * after sitting idle; the next access transparently loads them back.
+ */
+public class NamespaceRegistry implements AutoCloseable {
+
+    private static final Pattern NAMESPACE_PATTERN = Pattern.compile("^[a-zA-Z0-9_-]{1,64}$");
+
+    public interface NamespaceOperation<T> {
+
+        T apply(WordCounterImpl counter) throws InvalidWordException;
+    }
+
+    private static class Namespace {
+        private final WordCounterImpl counter;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+        private boolean evicted;
+
+        private Namespace(WordCounterImpl counter) {
+            this.counter = counter;
+        }
+    }
+
+    private final Translator translator;
+    private final Path spillDirectory;
+    private final int maxUniqueWordsPerNamespace;
+    private final long idleEvictionMillis;
+    private final ConcurrentHashMap<String, Namespace> resident;
+    private final ScheduledExecutorService evictor;
+
+    public static class Builder {
+        private Translator translator;
+        private Path spillDirectory = Paths.get("data", "namespaces");
+        private int maxUniqueWordsPerNamespace;
+        private long idleEvictionMillis = 10 * 60 * 1000;
+
+        public Builder withTranslator(Translator translator) {
+            this.translator = translator;
+            return this;
+        }
+
+        public Builder withSpillDirectory(Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        public Builder withMaxUniqueWordsPerNamespace(int maxUniqueWordsPerNamespace) {
+            this.maxUniqueWordsPerNamespace = maxUniqueWordsPerNamespace;
+            return this;
+        }
+
+        // Zero or less disables the background evictor, evictIdle() can still be called directly
+        public Builder withIdleEvictionMillis(long idleEvictionMillis) {
+            this.idleEvictionMillis = idleEvictionMillis;
+            return this;
+        }
+
+        public NamespaceRegistry build() {
+            if (translator == null || spillDirectory == null) {
+                throw new IllegalArgumentException("Translator and spill directory are required");
+            }
+            return new NamespaceRegistry(this);
+        }
+    }
+
+    private NamespaceRegistry(Builder builder) {
+        this.translator = builder.translator;
+        this.spillDirectory = builder.spillDirectory;
+        this.maxUniqueWordsPerNamespace = builder.maxUniqueWordsPerNamespace;
+        this.idleEvictionMillis = builder.idleEvictionMillis;
+        this.resident = new ConcurrentHashMap<>();
+
+        if (idleEvictionMillis > 0) {
+            this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "word-counter-namespace-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1000, idleEvictionMillis / 4);
+            evictor.scheduleWithFixedDelay(() -> evictIdle(idleEvictionMillis), period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.evictor = null;
+        }
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * Runs {@code operation} against the namespace's counter, loading or creating it first.
+     * The namespace cannot be evicted while the operation runs.
+     */
+    public <T> T execute(String namespace, NamespaceOperation<T> operation) throws InvalidWordException {
+        validateNamespace(namespace);
+
+        while (true) {
+            Namespace handle = resident.computeIfAbsent(namespace, this::load);
+            handle.lock.readLock().lock();
+            try {
+                if (handle.evicted) {
+                    // Lost a race with the evictor, the spill file is complete by now
+                    continue;
+                }
+                handle.lastAccessMillis = System.currentTimeMillis();
+                return operation.apply(handle.counter);
+            } finally {
+                handle.lock.readLock().unlock();
+            }
+        }
+    }
+
+
+    public List<String> getResidentNamespaces() {
+        List<String> names = new ArrayList<>(resident.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+
+    public int getResidentCount() {
+        return resident.size();
+    }
+
+
+    /**
+     * Spills every namespace untouched for at least {@code idleMillis} to disk and drops it from memory.
+     *
+     * @return number of namespaces evicted
+     */
+    public int evictIdle(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        for (Map.Entry<String, Namespace> entry : resident.entrySet()) {
+            Namespace handle = entry.getValue();
+            if (handle.lastAccessMillis <= cutoff && evict(entry.getKey(), handle)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+
+    private boolean evict(String namespace, Namespace handle) {
+        // Skip namespaces in use rather than wait for them
+        if (!handle.lock.writeLock().tryLock()) {
+            return false;
+        }
+        try {
+            if (handle.evicted) {
+                return false;
+            }
+            Path directory = spillDirectory.resolve(namespace);
+            if (!handle.counter.isEmpty()) {
+                Files.createDirectories(directory);
+                // Atomically replaces the spill this namespace was loaded from
+                CountSnapshot.write(directory, -1, handle.counter.copyCounts());
+            } else {
+                // A namespace reset since it was loaded must not bring its old spill back
+                CountSnapshot.delete(directory);
+            }
+            handle.evicted = true;
+            resident.remove(namespace, handle);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Failed to spill namespace " + namespace + ", keeping it in memory: " + e.getMessage());
+            return false;
+        } finally {
+            handle.lock.writeLock().unlock();
+        }
+    }
+
+
+    private Namespace load(String namespace) {
+        WordCounterImpl counter = WordCounterImpl.builder()
+                .withTranslator(translator)
+                .withMaxUniqueWords(maxUniqueWordsPerNamespace)
+                .build();
+
+        Path directory = spillDirectory.resolve(namespace);
+        try {
+            CountSnapshot.read(directory, new WriteAheadLog.RecordHandler() {
+                @Override
+                public void onIncrement(String word, int delta) {
+                    counter.addCanonicalWord(word, delta);
+                }
+
+                @Override
+                public void onReset() {
+                    counter.reset();
+                }
+            });
+            // The spill stays until the next one replaces it, so a crash in between loses only newer counts
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load namespace " + namespace, e);
+        }
+        return new Namespace(counter);
+    }
+
+
+    private static void validateNamespace(String namespace) {
+        if (namespace == null || !NAMESPACE_PATTERN.matcher(namespace).matches()) {
+            throw new IllegalArgumentException("Invalid namespace: " + namespace);
+        }
+    }
+
+
+    /**
+     * Spills every resident namespace so counts survive a restart.
+     */
+    @Override
+    public void close() {
+        if (evictor != null) {
+            evictor.shutdown();
+        }
+        evictIdle(-1);
+    }
+}
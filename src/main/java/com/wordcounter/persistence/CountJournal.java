@@ -0,0 +1,169 @@
+package com.wordcounter.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+
+/**
+ * Durability layer for a count table: recovery on open, write-ahead logging of increments,
+ * a background group-commit flusher and periodic snapshots that let old log segments be dropped.
+ *
+ * Writers hold the shared side of {@code checkpointLock} while they update memory and append to the log;
+ * a checkpoint takes the exclusive side only long enough to seal the segment and copy the table,
+ * so the snapshot and the remaining segments never overlap.
+ */
+public class CountJournal implements Closeable {
+
+    private final DurabilityConfig config;
+    private final WriteAheadLog log;
+    private final Supplier<Map<String, Integer>> stateCopier;
+    private final ReentrantReadWriteLock checkpointLock;
+    private final ScheduledExecutorService scheduler;
+    private final Object checkpointMonitor;
+    private final AtomicBoolean closed;
+
+    private CountJournal(DurabilityConfig config, long nextSegmentId, Supplier<Map<String, Integer>> stateCopier)
+            throws IOException {
+        this.config = config;
+        this.log = new WriteAheadLog(config.getDirectory(), nextSegmentId,
+                config.getBufferSize(), config.getFsyncBatchSize());
+        this.stateCopier = stateCopier;
+        this.checkpointLock = new ReentrantReadWriteLock();
+        this.checkpointMonitor = new Object();
+        this.closed = new AtomicBoolean(false);
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "word-counter-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Separate threads so a slow snapshot never delays group commits
+        scheduler.scheduleWithFixedDelay(this::syncQuietly,
+                config.getFsyncIntervalMillis(), config.getFsyncIntervalMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly,
+                config.getSnapshotIntervalMillis(), config.getSnapshotIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Restores the latest snapshot and replays newer log segments into {@code recovery}, then opens a fresh segment.
+     *
+     * @param recovery receives the recovered state
+     * @param stateCopier produces a copy of the live table for checkpoints
+     */
+    public static CountJournal open(DurabilityConfig config, WriteAheadLog.RecordHandler recovery,
+                                    Supplier<Map<String, Integer>> stateCopier) throws IOException {
+        Files.createDirectories(config.getDirectory());
+
+        long coveredSegment = CountSnapshot.read(config.getDirectory(), recovery);
+        long lastSegment = WriteAheadLog.replay(config.getDirectory(), coveredSegment, recovery);
+
+        // Never append to a segment that may end in a torn record
+        return new CountJournal(config, lastSegment + 1, stateCopier);
+    }
+
+
+    public void beginWrite() {
+        checkpointLock.readLock().lock();
+    }
+
+
+    public void endWrite() {
+        checkpointLock.readLock().unlock();
+    }
+
+
+    /**
+     * Must be called between {@link #beginWrite()} and {@link #endWrite()}.
+     */
+    public void logIncrement(String word, int delta) {
+        try {
+            log.appendIncrement(word, delta);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to append to write-ahead log", e);
+        }
+    }
+
+
+    /**
+     * Runs {@code clearAction} and logs a reset with no concurrent writers, so replay sees the same cut.
+     */
+    public void reset(Runnable clearAction) {
+        checkpointLock.writeLock().lock();
+        try {
+            clearAction.run();
+            log.appendReset();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to append to write-ahead log", e);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+
+    public void checkpoint() throws IOException {
+        synchronized (checkpointMonitor) {
+            long sealedSegment;
+            Map<String, Integer> state;
+
+            checkpointLock.writeLock().lock();
+            try {
+                sealedSegment = log.rotate();
+                state = stateCopier.get();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+
+            // Slow part runs without blocking writers
+            CountSnapshot.write(config.getDirectory(), sealedSegment, state);
+            log.deleteSegmentsUpTo(sealedSegment);
+        }
+    }
+
+
+    public void sync() throws IOException {
+        log.sync();
+    }
+
+
+    private void syncQuietly() {
+        try {
+            log.sync();
+        } catch (IOException e) {
+            System.out.println("Write-ahead log sync failed: " + e.getMessage());
+        }
+    }
+
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            System.out.println("Snapshot failed, keeping write-ahead log: " + e.getMessage());
+        }
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(config.getSnapshotIntervalMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+        log.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.wordcounter.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+
+/**
+ * Compact on-disk image of the count table.
+ * Records the last write-ahead log segment it covers so recovery only replays newer segments.
+ */
+public final class CountSnapshot {
+
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final String TEMP_FILE = "snapshot.tmp";
+    private static final int MAGIC = 0x57434E54; // "WCNT"
+    // Version 1 wrote words with writeUTF, which cannot hold words over 65535 bytes; still readable
+    private static final int VERSION = 2;
+    private static final int UTF_VERSION = 1;
+
+    private CountSnapshot() {
+    }
+
+
+    public static void write(Path directory, long coveredSegmentId, Map<String, Integer> counts) throws IOException {
+        Path temp = directory.resolve(TEMP_FILE);
+        CRC32 crc = new CRC32();
+
+        try (OutputStream raw = Files.newOutputStream(temp);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(raw, 64 * 1024), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(coveredSegmentId);
+            out.writeInt(counts.size());
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                WordCodec.writeWord(out, entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+            out.flush();
+            // Trailer is not part of the checksum
+            new DataOutputStream(raw).writeLong(crc.getValue());
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Loads the snapshot into {@code handler} as increments.
+     *
+     * @return the last segment id covered by the snapshot, or -1 when there is no snapshot
+     */
+    public static long read(Path directory, WriteAheadLog.RecordHandler handler) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return -1;
+        }
+
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != VERSION && version != UTF_VERSION) {
+                throw new IOException("Unrecognized snapshot format: " + file);
+            }
+            long coveredSegmentId = in.readLong();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String word = version == UTF_VERSION ? in.readUTF() : WordCodec.readWord(in);
+                handler.onIncrement(word, in.readInt());
+            }
+
+            long expected = crc.getValue();
+            if (new DataInputStream(raw).readLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return coveredSegmentId;
+        }
+    }
+
+
+    public static void delete(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+    }
+}
@@ -0,0 +1,78 @@
+package com.wordcounter.persistence;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+public class DurabilityConfig {
+
+    private final Path directory;
+    private final long fsyncIntervalMillis;
+    private final int fsyncBatchSize;
+    private final long snapshotIntervalMillis;
+    private final int bufferSize;
+
+    public static class Builder {
+        private Path directory = Paths.get("data");
+        private long fsyncIntervalMillis = 50;
+        private int fsyncBatchSize = 4096;
+        private long snapshotIntervalMillis = 60_000;
+        private int bufferSize = 64 * 1024;
+
+        public Builder withDirectory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        // Upper bound on how long an acknowledged increment may sit in memory before fsync
+        public Builder withFsyncIntervalMillis(long fsyncIntervalMillis) {
+            this.fsyncIntervalMillis = fsyncIntervalMillis;
+            return this;
+        }
+
+        // Records appended before the writing thread forces a group commit itself
+        public Builder withFsyncBatchSize(int fsyncBatchSize) {
+            this.fsyncBatchSize = fsyncBatchSize;
+            return this;
+        }
+
+        public Builder withSnapshotIntervalMillis(long snapshotIntervalMillis) {
+            this.snapshotIntervalMillis = snapshotIntervalMillis;
+            return this;
+        }
+
+        public Builder withBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public DurabilityConfig build() {
+            if (directory == null) {
+                throw new IllegalArgumentException("Durability directory cannot be null");
+            }
+            if (fsyncIntervalMillis <= 0 || fsyncBatchSize <= 0 || snapshotIntervalMillis <= 0 || bufferSize <= 0) {
+                throw new IllegalArgumentException("Durability intervals and sizes must be positive");
+            }
+            return new DurabilityConfig(this);
+        }
+    }
+
+    private DurabilityConfig(Builder builder) {
+        this.directory = builder.directory;
+        this.fsyncIntervalMillis = builder.fsyncIntervalMillis;
+        this.fsyncBatchSize = builder.fsyncBatchSize;
+        this.snapshotIntervalMillis = builder.snapshotIntervalMillis;
+        this.bufferSize = builder.bufferSize;
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Path getDirectory() { return directory; }
+    public long getFsyncIntervalMillis() { return fsyncIntervalMillis; }
+    public int getFsyncBatchSize() { return fsyncBatchSize; }
+    public long getSnapshotIntervalMillis() { return snapshotIntervalMillis; }
+    public int getBufferSize() { return bufferSize; }
+}
@@ -0,0 +1,35 @@
+package com.wordcounter.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Writes a word as its UTF-8 byte count followed by the bytes. Unlike {@link DataOutput#writeUTF(String)}
+ * the length is an int, so words of any length round-trip.
+ */
+public final class WordCodec {
+
+    private WordCodec() {
+    }
+
+
+    public static void writeWord(DataOutput out, String word) throws IOException {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+    public static String readWord(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > WriteAheadLog.MAX_WORD_BYTES) {
+            throw new IOException("Corrupt word length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
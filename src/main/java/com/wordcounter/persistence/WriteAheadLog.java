@@ -0,0 +1,275 @@
+package com.wordcounter.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+
+/**
+ * Append-only log of count increments, split into numbered segments.
+ * Appends go to an in-memory buffer and are made durable in groups: either when
+ * {@link #sync()} is called by the background flusher or once the configured
+ * batch size is reached, so the cost of fsync is shared by many records.
+ *
+ * Record layout: [int payloadLength][int crc32][byte type][int delta][utf-8 word]
+ */
+public class WriteAheadLog implements Closeable {
+
+    static final byte RECORD_INCREMENT = 1;
+    static final byte RECORD_RESET = 2;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+    private static final int FIXED_PAYLOAD_SIZE = 5;
+    // Longer words are refused on append, so a larger length on replay can only be a torn or garbage header
+    static final int MAX_WORD_BYTES = 1 << 20;
+
+    public interface RecordHandler {
+
+        void onIncrement(String word, int delta);
+
+        void onReset();
+    }
+
+    private final Path directory;
+    private final int fsyncBatchSize;
+    private final ByteBuffer buffer;
+    private final CRC32 crc;
+    private FileChannel channel;
+    private long segmentId;
+    private int unsyncedRecords;
+
+    public WriteAheadLog(Path directory, long segmentId, int bufferSize, int fsyncBatchSize) throws IOException {
+        this.directory = directory;
+        this.fsyncBatchSize = fsyncBatchSize;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.crc = new CRC32();
+        this.segmentId = segmentId;
+        this.channel = openSegment(segmentId);
+    }
+
+
+    public synchronized void appendIncrement(String word, int delta) throws IOException {
+        append(RECORD_INCREMENT, word, delta);
+    }
+
+
+    public synchronized void appendReset() throws IOException {
+        append(RECORD_RESET, "", 0);
+    }
+
+
+    private void append(byte type, String word, int delta) throws IOException {
+        byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+        if (wordBytes.length > MAX_WORD_BYTES) {
+            throw new IOException("Word of " + wordBytes.length + " bytes exceeds the write-ahead log limit");
+        }
+        int payloadLength = FIXED_PAYLOAD_SIZE + wordBytes.length;
+        int recordLength = HEADER_SIZE + payloadLength;
+
+        crc.reset();
+        crc.update(type);
+        crc.update(delta >>> 24);
+        crc.update(delta >>> 16);
+        crc.update(delta >>> 8);
+        crc.update(delta);
+        crc.update(wordBytes, 0, wordBytes.length);
+
+        ByteBuffer target = buffer;
+        if (recordLength > buffer.capacity()) {
+            // Oversized record, bypass the shared buffer
+            drainBuffer();
+            target = ByteBuffer.allocate(recordLength);
+        } else if (buffer.remaining() < recordLength) {
+            drainBuffer();
+        }
+
+        target.putInt(payloadLength)
+                .putInt((int) crc.getValue())
+                .put(type)
+                .putInt(delta)
+                .put(wordBytes);
+
+        if (target != buffer) {
+            target.flip();
+            writeFully(target);
+        }
+
+        if (++unsyncedRecords >= fsyncBatchSize) {
+            sync();
+        }
+    }
+
+
+    /**
+     * Group commit: writes everything buffered so far and forces it to disk.
+     */
+    public synchronized void sync() throws IOException {
+        if (unsyncedRecords == 0 && buffer.position() == 0) {
+            return;
+        }
+        drainBuffer();
+        channel.force(false);
+        unsyncedRecords = 0;
+    }
+
+
+    /**
+     * Seals the current segment and starts a new one.
+     *
+     * @return id of the sealed segment; every record appended before this call lives in it or earlier
+     */
+    public synchronized long rotate() throws IOException {
+        sync();
+        channel.close();
+        long sealed = segmentId;
+        segmentId++;
+        channel = openSegment(segmentId);
+        return sealed;
+    }
+
+
+    public synchronized void deleteSegmentsUpTo(long lastSegmentId) throws IOException {
+        for (long id : listSegmentIds(directory)) {
+            if (id <= lastSegmentId) {
+                Files.deleteIfExists(segmentPath(directory, id));
+            }
+        }
+    }
+
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            sync();
+            channel.close();
+        }
+    }
+
+
+    private void drainBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+
+    private FileChannel openSegment(long id) throws IOException {
+        return FileChannel.open(segmentPath(directory, id),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+
+    static Path segmentPath(Path directory, long id) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+
+    static List<Long> listSegmentIds(Path directory) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                String digits = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    ids.add(Long.parseLong(digits));
+                } catch (NumberFormatException e) {
+                    // Not one of ours, ignore
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+
+    /**
+     * Replays every segment newer than {@code afterSegmentId} in order.
+     * A torn or corrupt record ends replay of its segment, since nothing after it was acknowledged as durable.
+     *
+     * @return highest segment id seen, or {@code afterSegmentId} if there were none
+     */
+    static long replay(Path directory, long afterSegmentId, RecordHandler handler) throws IOException {
+        long lastSegment = afterSegmentId;
+        for (long id : listSegmentIds(directory)) {
+            lastSegment = Math.max(lastSegment, id);
+            if (id > afterSegmentId) {
+                replaySegment(segmentPath(directory, id), handler);
+            }
+        }
+        return lastSegment;
+    }
+
+
+    private static void replaySegment(Path segment, RecordHandler handler) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 64 * 1024))) {
+            while (true) {
+                int payloadLength;
+                try {
+                    payloadLength = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+
+                byte[] payload;
+                int expectedCrc;
+                try {
+                    expectedCrc = in.readInt();
+                    if (payloadLength < FIXED_PAYLOAD_SIZE || payloadLength > FIXED_PAYLOAD_SIZE + MAX_WORD_BYTES) {
+                        throw new EOFException();
+                    }
+                    payload = new byte[payloadLength];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    System.out.println("Truncated write-ahead log record in " + segment + ", ignoring tail");
+                    return;
+                }
+
+                crc.reset();
+                crc.update(payload, 0, payload.length);
+                if ((int) crc.getValue() != expectedCrc) {
+                    System.out.println("Corrupt write-ahead log record in " + segment + ", ignoring tail");
+                    return;
+                }
+
+                ByteBuffer record = ByteBuffer.wrap(payload);
+                byte type = record.get();
+                int delta = record.getInt();
+                if (type == RECORD_INCREMENT) {
+                    String word = new String(payload, FIXED_PAYLOAD_SIZE,
+                            payloadLength - FIXED_PAYLOAD_SIZE, StandardCharsets.UTF_8);
+                    handler.onIncrement(word, delta);
+                } else if (type == RECORD_RESET) {
+                    handler.onReset();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.wordcounter.phrase;
+
+import com.wordcounter.sketch.Hashing;
+
+
+/**
+ * Open-addressing hash table from non-zero {@code long} keys to {@code int} counts, with linear probing and no
+ * per-entry objects: twelve bytes per slot. Not thread-safe; {@link PhraseCounter} guards each table with a lock.
+ */
+final class LongCountTable {
+
+    interface EntryVisitor {
+        void visit(long key, int count);
+    }
+
+    private static final float MAX_LOAD = 0.7f;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+    private int mask;
+
+    LongCountTable(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+        this.keys = new long[capacity];
+        this.counts = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+
+    void add(long key, int delta) {
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            counts[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size > keys.length * MAX_LOAD) {
+            grow();
+        }
+    }
+
+
+    int get(long key) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+
+    int size() {
+        return size;
+    }
+
+
+    long getMemoryBytes() {
+        return keys.length * 12L;
+    }
+
+
+    void forEach(EntryVisitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.visit(keys[i], counts[i]);
+            }
+        }
+    }
+
+
+    // The slot holding the key, or the empty slot where it would go
+    private int slotOf(long key) {
+        int slot = (int) Hashing.mix64(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
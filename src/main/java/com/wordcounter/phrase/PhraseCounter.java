@@ -0,0 +1,238 @@
+package com.wordcounter.phrase;
+
+import com.wordcounter.WordCount;
+import com.wordcounter.sketch.Hashing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Counts bigrams and, optionally, trigrams of canonical words. Words get dense int ids and a phrase is the tuple
+ * of its ids packed into one {@code long} (two 32-bit ids, or three 21-bit ids), counted in striped primitive hash
+ * tables. A phrase costs about 17 bytes instead of the hundred or so of a String-keyed map entry.
+ * Trigrams involving a word whose id does not fit in 21 bits (after two million distinct words) are not counted.
+ * Ids are only meaningful within one generation of tables; a reset starts a new generation, ids included.
+ */
+public class PhraseCounter {
+
+    public static final int MIN_PHRASE_LENGTH = 2;
+    public static final int MAX_PHRASE_LENGTH = 3;
+
+    private static final int TRIGRAM_ID_BITS = 21;
+    private static final int MAX_TRIGRAM_ID = (1 << TRIGRAM_ID_BITS) - 1;
+    private static final int SEGMENTS = 64;
+    private static final int SEGMENT_SHIFT = 64 - Integer.numberOfTrailingZeros(SEGMENTS);
+
+    private final int maxLength;
+    private volatile Generation generation;
+    private final LongAdder skippedTrigrams = new LongAdder();
+
+    private static final class Generation {
+        private final WordIdDictionary dictionary = new WordIdDictionary();
+        private final LongCountTable[] bigrams = newSegments();
+        private final LongCountTable[] trigrams;
+
+        private Generation(boolean countTrigrams) {
+            this.trigrams = countTrigrams ? newSegments() : null;
+        }
+    }
+
+    public PhraseCounter(int maxLength) {
+        if (maxLength < MIN_PHRASE_LENGTH || maxLength > MAX_PHRASE_LENGTH) {
+            throw new IllegalArgumentException("Phrase length must be between " + MIN_PHRASE_LENGTH
+                    + " and " + MAX_PHRASE_LENGTH + ": " + maxLength);
+        }
+        this.maxLength = maxLength;
+        this.generation = new Generation(maxLength >= 3);
+    }
+
+
+    /**
+     * Counts every phrase in a run of consecutive canonical words.
+     */
+    public void addSequence(List<String> canonicalWords) {
+        int length = canonicalWords.size();
+        if (length < MIN_PHRASE_LENGTH) {
+            return;
+        }
+
+        Generation current = generation;
+        int[] ids = new int[length];
+        for (int i = 0; i < length; i++) {
+            ids[i] = current.dictionary.idOf(canonicalWords.get(i));
+        }
+        for (int i = 0; i + 1 < length; i++) {
+            add(current.bigrams, bigramKey(ids[i], ids[i + 1]));
+            if (current.trigrams != null && i + 2 < length) {
+                if (ids[i] > MAX_TRIGRAM_ID || ids[i + 1] > MAX_TRIGRAM_ID || ids[i + 2] > MAX_TRIGRAM_ID) {
+                    skippedTrigrams.increment();
+                } else {
+                    add(current.trigrams, trigramKey(ids[i], ids[i + 1], ids[i + 2]));
+                }
+            }
+        }
+    }
+
+
+    public int getCount(List<String> canonicalWords) {
+        Generation current = generation;
+        LongCountTable[] tables = tablesFor(current, canonicalWords.size());
+        int[] ids = new int[canonicalWords.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = current.dictionary.lookup(canonicalWords.get(i));
+            if (ids[i] == WordIdDictionary.NO_ID || ids.length == 3 && ids[i] > MAX_TRIGRAM_ID) {
+                return 0;
+            }
+        }
+
+        long key = ids.length == 2 ? bigramKey(ids[0], ids[1]) : trigramKey(ids[0], ids[1], ids[2]);
+        LongCountTable table = segmentFor(tables, key);
+        synchronized (table) {
+            return table.get(key);
+        }
+    }
+
+
+    /**
+     * The most frequent phrases of the given length, most frequent first, each as its words joined by spaces.
+     */
+    public List<WordCount> getTopPhrases(int length, int limit) {
+        Generation current = generation;
+        LongCountTable[] tables = tablesFor(current, length);
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Min-heap of the best entries so far, as {count, key} pairs
+        PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1, Comparator.comparingLong(entry -> entry[0]));
+        for (LongCountTable table : tables) {
+            synchronized (table) {
+                table.forEach((key, count) -> {
+                    if (top.size() < limit || count > top.peek()[0]) {
+                        top.add(new long[]{count, key});
+                        if (top.size() > limit) {
+                            top.poll();
+                        }
+                    }
+                });
+            }
+        }
+
+        List<WordCount> phrases = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            long[] entry = top.poll();
+            phrases.add(new WordCount(decode(current.dictionary, entry[1], length), (int) entry[0]));
+        }
+        Collections.reverse(phrases);
+        return phrases;
+    }
+
+
+    // Distinct phrases of the given length
+    public int getPhraseCount(int length) {
+        int count = 0;
+        for (LongCountTable table : tablesFor(generation, length)) {
+            synchronized (table) {
+                count += table.size();
+            }
+        }
+        return count;
+    }
+
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+
+    public long getSkippedTrigrams() {
+        return skippedTrigrams.sum();
+    }
+
+
+    public long getMemoryBytes() {
+        Generation current = generation;
+        long bytes = current.dictionary.getMemoryBytes() + memoryOf(current.bigrams);
+        return current.trigrams != null ? bytes + memoryOf(current.trigrams) : bytes;
+    }
+
+
+    /**
+     * Drops all phrase counts and word ids by starting a new generation. Phrases being added concurrently finish in
+     * the old one and are dropped with it, so their ids never mix with the new ones.
+     */
+    public void reset() {
+        generation = new Generation(maxLength >= 3);
+    }
+
+
+    private LongCountTable[] tablesFor(Generation current, int length) {
+        if (length == 2) {
+            return current.bigrams;
+        }
+        if (length == 3 && current.trigrams != null) {
+            return current.trigrams;
+        }
+        throw new IllegalArgumentException("Phrases of " + length + " words are not counted; lengths "
+                + MIN_PHRASE_LENGTH + " to " + maxLength + " are");
+    }
+
+
+    private static void add(LongCountTable[] tables, long key) {
+        LongCountTable table = segmentFor(tables, key);
+        synchronized (table) {
+            table.add(key, 1);
+        }
+    }
+
+
+    private static LongCountTable segmentFor(LongCountTable[] tables, long key) {
+        return tables[(int) (Hashing.mix64(key) >>> SEGMENT_SHIFT)];
+    }
+
+
+    private static String decode(WordIdDictionary dictionary, long key, int length) {
+        if (length == 2) {
+            return dictionary.wordOf((int) (key >>> 32)) + " " + dictionary.wordOf((int) key);
+        }
+        return dictionary.wordOf((int) (key >>> (2 * TRIGRAM_ID_BITS)))
+                + " " + dictionary.wordOf((int) (key >>> TRIGRAM_ID_BITS) & MAX_TRIGRAM_ID)
+                + " " + dictionary.wordOf((int) key & MAX_TRIGRAM_ID);
+    }
+
+
+    // Ids start at 1, so a packed key is never 0, the table's empty marker
+    private static long bigramKey(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+
+    private static long trigramKey(int first, int second, int third) {
+        return ((long) first << (2 * TRIGRAM_ID_BITS)) | ((long) second << TRIGRAM_ID_BITS) | third;
+    }
+
+
+    private static LongCountTable[] newSegments() {
+        LongCountTable[] tables = new LongCountTable[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            tables[i] = new LongCountTable(64);
+        }
+        return tables;
+    }
+
+
+    private static long memoryOf(LongCountTable[] tables) {
+        long bytes = 0;
+        for (LongCountTable table : tables) {
+            synchronized (table) {
+                bytes += table.getMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,64 @@
+package com.wordcounter.phrase;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Assigns dense int ids, starting at 1, to canonical words so phrases can be keyed by primitive tuples.
+ * Lookups of known words are lock-free; only the first sighting of a word takes the monitor.
+ */
+class WordIdDictionary {
+
+    static final int NO_ID = 0;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] words = new String[1024];
+    private int nextId = 1;
+
+    int idOf(String word) {
+        Integer id = ids.get(word);
+        return id != null ? id : assign(word);
+    }
+
+
+    // NO_ID for words never seen in a phrase
+    int lookup(String word) {
+        Integer id = ids.get(word);
+        return id != null ? id : NO_ID;
+    }
+
+
+    String wordOf(int id) {
+        String[] current = words;
+        return id > 0 && id < current.length ? current[id] : null;
+    }
+
+
+    int size() {
+        return ids.size();
+    }
+
+
+    long getMemoryBytes() {
+        // Map entry plus boxed id, and one array slot per word; the word strings are shared with the word counts
+        return ids.size() * 64L + words.length * 4L;
+    }
+
+
+    private synchronized int assign(String word) {
+        Integer existing = ids.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int id = nextId++;
+        if (id >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        // Stored before the id is published through the map, so anyone holding the id can resolve it
+        words[id] = word;
+        ids.put(word, id);
+        return id;
+    }
+}
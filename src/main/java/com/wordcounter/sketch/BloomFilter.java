@@ -0,0 +1,104 @@
+package com.wordcounter.sketch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Concurrent Bloom filter over precomputed 64-bit hashes. Sized for {@code expectedInsertions} at the given
+ * false-positive rate: {@code m = -n ln p / (ln 2)^2} bits and {@code k = (m / n) ln 2} probes. Bits are set with
+ * compare-and-set on an {@link AtomicLongArray}, so inserts and lookups never lock.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final LongAdder insertions = new LongAdder();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = 64L * wordCount;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+
+    /**
+     * Adds a hash. Returns whether any bit changed, i.e. whether the value was certainly not present before.
+     */
+    public boolean put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean changed = false;
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = index(h1, h2, i);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+        if (changed) {
+            insertions.increment();
+        }
+        return changed;
+    }
+
+
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = index(h1, h2, i);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Distinct values added so far, undercounting only values that collided completely with earlier ones.
+     */
+    public long getApproximateInsertions() {
+        return insertions.sum();
+    }
+
+
+    /**
+     * False-positive rate at the current fill, {@code (1 - e^(-kn/m))^k}.
+     */
+    public double getCurrentFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions.sum() / bitCount), hashFunctions);
+    }
+
+
+    public long getBitCount() { return bitCount; }
+    public int getHashFunctions() { return hashFunctions; }
+
+    public long getMemoryBytes() {
+        return bitCount / 8;
+    }
+
+
+    // Kirsch-Mitzenmacher double hashing, as in CountMinSketch
+    private long index(int h1, int h2, int probe) {
+        long combined = h1 + (long) probe * h2;
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+}
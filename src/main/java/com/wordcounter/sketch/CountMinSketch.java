@@ -0,0 +1,76 @@
+package com.wordcounter.sketch;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+/**
+ * Concurrent Count-Min Sketch. With width {@code ceil(e / epsilon)} and depth {@code ceil(ln(1 / (1 - confidence)))},
+ * an estimate never undercounts and overcounts by more than {@code epsilon * totalCount}
+ * with probability at least {@code confidence}. Rows are lock-free {@link AtomicIntegerArray}s.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicIntegerArray[] rows;
+
+    public CountMinSketch(double epsilon, double confidence) {
+        if (epsilon <= 0 || epsilon >= 1) {
+            throw new IllegalArgumentException("Epsilon must be in (0, 1): " + epsilon);
+        }
+        if (confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("Confidence must be in (0, 1): " + confidence);
+        }
+
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / (1 - confidence)));
+        this.rows = new AtomicIntegerArray[depth];
+        for (int i = 0; i < depth; i++) {
+            rows[i] = new AtomicIntegerArray(width);
+        }
+    }
+
+
+    public void add(long hash, int delta) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < depth; i++) {
+            rows[i].addAndGet(index(h1, h2, i), delta);
+        }
+    }
+
+
+    public int estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, rows[i].get(index(h1, h2, i)));
+        }
+        return min;
+    }
+
+
+    public void clear() {
+        for (AtomicIntegerArray row : rows) {
+            for (int i = 0; i < width; i++) {
+                row.set(i, 0);
+            }
+        }
+    }
+
+
+    public int getWidth() { return width; }
+    public int getDepth() { return depth; }
+
+    public long getMemoryBytes() {
+        return 4L * width * depth;
+    }
+
+
+    // Kirsch-Mitzenmacher double hashing: row i uses h1 + i * h2
+    private int index(int h1, int h2, int row) {
+        int combined = h1 + row * h2;
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+}
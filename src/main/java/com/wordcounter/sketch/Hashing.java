@@ -0,0 +1,32 @@
+package com.wordcounter.sketch;
+
+
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+
+    /**
+     * 64-bit hash over UTF-16 code units: FNV-1a mixing followed by the murmur3 finalizer.
+     * Allocation free, so it can run on every add.
+     */
+    public static long hash64(CharSequence text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix64(h);
+    }
+
+
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
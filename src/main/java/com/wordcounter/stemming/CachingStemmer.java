@@ -0,0 +1,63 @@
+package com.wordcounter.stemming;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Memoizes another {@link Stemmer} so each distinct surface form is stemmed once.
+ * Memory is bounded by keeping two generations: when the current one fills up it becomes the previous one
+ * and the older generation is dropped, so words still in use survive by being copied forward on access.
+ */
+public class CachingStemmer implements Stemmer {
+
+    private final Stemmer delegate;
+    private final int generationSize;
+    private volatile ConcurrentHashMap<String, String> current;
+    private volatile ConcurrentHashMap<String, String> previous;
+
+    public CachingStemmer(Stemmer delegate, int maxEntries) {
+        if (delegate == null || maxEntries < 2) {
+            throw new IllegalArgumentException("A stemmer and a cache of at least 2 entries are required");
+        }
+        this.delegate = delegate;
+        this.generationSize = maxEntries / 2;
+        this.current = new ConcurrentHashMap<>();
+        this.previous = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String stem(String word) {
+        if (word == null) {
+            return null;
+        }
+
+        ConcurrentHashMap<String, String> generation = current;
+        String stem = generation.get(word);
+        if (stem != null) {
+            return stem;
+        }
+
+        stem = previous.get(word);
+        if (stem == null) {
+            stem = delegate.stem(word);
+        }
+        generation.put(word, stem);
+        if (generation.size() >= generationSize) {
+            rotate(generation);
+        }
+        return stem;
+    }
+
+
+    private synchronized void rotate(ConcurrentHashMap<String, String> full) {
+        if (current == full) {
+            previous = full;
+            current = new ConcurrentHashMap<>();
+        }
+    }
+
+
+    public int getCacheSize() {
+        return current.size() + previous.size();
+    }
+}
@@ -0,0 +1,11 @@
+package com.wordcounter.stemming;
+
+
+/**
+ * Reduces an inflected word to a stem or lemma so related forms are counted together.
+ * Input is already normalized; implementations must be thread-safe.
+ */
+public interface Stemmer {
+
+    String stem(String word);
+}
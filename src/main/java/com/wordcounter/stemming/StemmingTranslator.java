@@ -0,0 +1,76 @@
+package com.wordcounter.stemming;
+
+import com.wordcounter.TranslationHint;
+import com.wordcounter.Translator;
+
+
+/**
+ * Puts a {@link Stemmer} in front of another {@link Translator}, so inflected forms share one count
+ * and one translation cache entry.
+ * Surface forms the translator already knows (a dictionary entry such as "voiture") are translated as they are,
+ * everything else by its stem. Translations are stemmed too, so "casa" and "houses" end up under the same key.
+ */
+public class StemmingTranslator implements Translator {
+
+    private final Translator delegate;
+    private final Stemmer stemmer;
+
+    public StemmingTranslator(Translator delegate, Stemmer stemmer) {
+        this.delegate = delegate;
+        this.stemmer = stemmer;
+    }
+
+    @Override
+    public String translate(String word) {
+        return translate(word, TranslationHint.NONE);
+    }
+
+    @Override
+    public String translate(String word, TranslationHint hint) {
+        if (word == null || word.isEmpty()) {
+            return word;
+        }
+
+        String source = delegate.isTranslationAvailable(word) ? word : stemmer.stem(word);
+        String translation = hint == TranslationHint.NONE ? delegate.translate(source) : delegate.translate(source, hint);
+        // Stemming is not idempotent ("hous" -> "hou"), so only stem what the translator actually changed
+        return translation == null || translation.equals(source) ? source : stemmer.stem(translation);
+    }
+
+    @Override
+    public boolean isTranslationAvailable(String word) {
+        return delegate.isTranslationAvailable(word) || delegate.isTranslationAvailable(stemmer.stem(word));
+    }
+
+    @Override
+    public boolean requiresRemoteLookup(String word) {
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+        return delegate.requiresRemoteLookup(delegate.isTranslationAvailable(word) ? word : stemmer.stem(word));
+    }
+
+    @Override
+    public boolean isCached(String word) {
+        if (word == null || word.isEmpty()) {
+            return true;
+        }
+        return delegate.isCached(delegate.isTranslationAvailable(word) ? word : stemmer.stem(word));
+    }
+
+    // Stems never change, so only the delegate's translations can go stale
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+
+    public Translator getDelegate() {
+        return delegate;
+    }
+
+
+    public Stemmer getStemmer() {
+        return stemmer;
+    }
+}
@@ -0,0 +1,373 @@
+package com.wordcounter.tiered;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Disk tier for counts spilled out of memory, kept as a log-structured set of immutable sorted runs. A spilled batch
+ * becomes readable at once as an in-memory run and is then written to its own file; a word's count is the sum over
+ * all runs, so spilling a word again never rewrites older runs. Once there are more than {@code maxRuns} runs, runs
+ * of similar size are merged, which sums duplicate words and bounds how many files a lookup may touch. Merging only
+ * similar sizes (size-tiered) rewrites a word about once per tier instead of on every compaction.
+ * The directory is scratch space: leftover runs are deleted on open and every run is deleted on close.
+ */
+public class ColdStore implements AutoCloseable {
+
+    private static final String RUN_PREFIX = "run-";
+    private static final String RUN_SUFFIX = ".dat";
+    // Runs up to this many times the size of the smallest run in a tier are merged with it
+    private static final int TIER_SIZE_RATIO = 4;
+
+    private final Path directory;
+    private final int maxRuns;
+    // Newest first; replaced, never modified, so readers iterate without locking
+    private volatile List<SortedRun> runs = Collections.emptyList();
+    private volatile long uniqueWords;
+    private volatile long spilledWords;
+    private volatile long compactions;
+    private long nextRunId;
+
+    /**
+     * Counts spilled together, readable as soon as they are published and written to disk afterwards.
+     */
+    public static final class Batch {
+        private final SortedRun run;
+        private final int newWords;
+
+        private Batch(SortedRun run, int newWords) {
+            this.run = run;
+            this.newWords = newWords;
+        }
+
+        public int size() {
+            return run.size();
+        }
+    }
+
+    private ColdStore(Path directory, int maxRuns) {
+        this.directory = directory;
+        this.maxRuns = maxRuns;
+    }
+
+
+    public static ColdStore open(Path directory, int maxRuns) throws IOException {
+        if (maxRuns < 1) {
+            throw new IllegalArgumentException("At least one run must be allowed: " + maxRuns);
+        }
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, RUN_PREFIX + "*" + RUN_SUFFIX)) {
+            for (Path file : stale) {
+                Files.delete(file);
+            }
+        }
+        return new ColdStore(directory, maxRuns);
+    }
+
+
+    /**
+     * The word's count over every run, zero if it was never spilled.
+     */
+    public int get(String word) {
+        while (true) {
+            List<SortedRun> current = runs;
+            int count = sum(current, word);
+            if (count >= 0) {
+                return count;
+            }
+            // A compaction or clear closed a run we were reading; retry against what replaced it
+            if (runs == current) {
+                throw new IllegalStateException("Cold run closed while still in use");
+            }
+        }
+    }
+
+
+    public boolean contains(String word) {
+        return get(word) != 0;
+    }
+
+
+    // -1 if any run was closed under us
+    private static int sum(List<SortedRun> current, String word) {
+        int count = 0;
+        try {
+            for (SortedRun run : current) {
+                int runCount = run.get(word);
+                if (runCount < 0) {
+                    return -1;
+                }
+                count += runCount;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read cold counts for " + word, e);
+        }
+        return count;
+    }
+
+
+    /**
+     * Builds a batch from words sorted ascending and without duplicates. Not yet visible to reads.
+     *
+     * @param newWords how many of the words are not in any run yet, as known to the caller
+     */
+    public Batch prepare(String[] words, int[] counts, int newWords) {
+        return new Batch(SortedRun.inMemory(words, counts), newWords);
+    }
+
+
+    /**
+     * Makes a prepared batch visible to reads. Cheap: nothing is written until {@link #persist}.
+     */
+    public synchronized void publish(Batch batch) {
+        List<SortedRun> updated = new ArrayList<>(runs.size() + 1);
+        updated.add(batch.run);
+        updated.addAll(runs);
+        runs = Collections.unmodifiableList(updated);
+        uniqueWords += batch.newWords;
+        spilledWords += batch.size();
+    }
+
+
+    /**
+     * Writes a published batch to its own run file, then compacts if there are too many runs.
+     */
+    public synchronized void persist(Batch batch) throws IOException {
+        int index = runs.indexOf(batch.run);
+        if (index < 0) {
+            // Cleared, or merged while still in memory, since it was published
+            return;
+        }
+        Path file = directory.resolve(String.format("%s%08d%s", RUN_PREFIX, nextRunId++, RUN_SUFFIX));
+        SortedRun written;
+        try (SortedRun.Cursor cursor = batch.run.cursor()) {
+            written = SortedRun.write(file, cursor, batch.size());
+        }
+        List<SortedRun> updated = new ArrayList<>(runs);
+        updated.set(index, written);
+        runs = Collections.unmodifiableList(updated);
+
+        while (runs.size() > maxRuns) {
+            merge(smallestTier(runs));
+        }
+    }
+
+
+    /**
+     * Merges every run into one. Reads keep going against the old runs until the merged one replaces them.
+     */
+    public synchronized void compact() throws IOException {
+        if (runs.size() >= 2) {
+            merge(runs);
+        }
+    }
+
+
+    // The smallest runs that are within TIER_SIZE_RATIO of each other, or the two smallest if no sizes are similar
+    private static List<SortedRun> smallestTier(List<SortedRun> current) {
+        List<SortedRun> bySize = new ArrayList<>(current);
+        bySize.sort(Comparator.comparingInt(SortedRun::size));
+        for (int start = 0; start + 1 < bySize.size(); start++) {
+            long limit = (long) Math.max(1, bySize.get(start).size()) * TIER_SIZE_RATIO;
+            int end = start + 1;
+            while (end < bySize.size() && bySize.get(end).size() <= limit) {
+                end++;
+            }
+            if (end - start >= 2) {
+                return bySize.subList(start, end);
+            }
+        }
+        return bySize.subList(0, 2);
+    }
+
+
+    // Replaces the selected runs with one merged run; the others are left as they are
+    private void merge(List<SortedRun> selected) throws IOException {
+        List<SortedRun> current = runs;
+        long expectedSize = 0;
+        for (SortedRun run : selected) {
+            expectedSize += run.size();
+        }
+
+        Path file = directory.resolve(String.format("%s%08d%s", RUN_PREFIX, nextRunId++, RUN_SUFFIX));
+        SortedRun merged;
+        try (MergingCursor cursor = new MergingCursor(selected)) {
+            merged = SortedRun.write(file, cursor, (int) Math.min(Integer.MAX_VALUE, expectedSize));
+        }
+        List<SortedRun> updated = new ArrayList<>(current.size() - selected.size() + 1);
+        updated.add(merged);
+        for (SortedRun run : current) {
+            if (!selected.contains(run)) {
+                updated.add(run);
+            }
+        }
+        runs = Collections.unmodifiableList(updated);
+        if (updated.size() == 1) {
+            uniqueWords = merged.size();
+        }
+        compactions++;
+        for (SortedRun run : selected) {
+            run.delete();
+        }
+    }
+
+
+    /**
+     * Visits every spilled word once, in ascending order, with its summed count.
+     */
+    public synchronized void forEach(BiConsumer<String, Integer> action) {
+        try (MergingCursor cursor = new MergingCursor(runs)) {
+            while (cursor.next()) {
+                if (cursor.count() != 0) {
+                    action.accept(cursor.word(), cursor.count());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan cold counts", e);
+        }
+    }
+
+
+    public synchronized void clear() {
+        List<SortedRun> current = runs;
+        runs = Collections.emptyList();
+        uniqueWords = 0;
+        for (SortedRun run : current) {
+            try {
+                run.delete();
+            } catch (IOException e) {
+                System.out.println("Failed to delete cold run: " + e.getMessage());
+            }
+        }
+    }
+
+
+    public long getUniqueWordCount() {
+        return uniqueWords;
+    }
+
+
+    public int getRunCount() {
+        return runs.size();
+    }
+
+
+    // Words moved here so far, counting a word again each time it is spilled
+    public long getSpilledWords() {
+        return spilledWords;
+    }
+
+
+    public long getCompactions() {
+        return compactions;
+    }
+
+
+    public long getDiskBytes() {
+        long bytes = 0;
+        for (SortedRun run : runs) {
+            bytes += run.getFileBytes();
+        }
+        return bytes;
+    }
+
+
+    // Bloom filters and sparse indexes kept in memory for the runs on disk
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (SortedRun run : runs) {
+            bytes += run.getMemoryBytes();
+        }
+        return bytes;
+    }
+
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+
+    /**
+     * K-way merge of runs that sums the counts of a word found in several.
+     */
+    private static final class MergingCursor implements SortedRun.Cursor {
+        private final List<SortedRun.Cursor> cursors = new ArrayList<>();
+        private final PriorityQueue<SortedRun.Cursor> heads =
+                new PriorityQueue<>((a, b) -> a.word().compareTo(b.word()));
+        private String word;
+        private int count;
+
+        private MergingCursor(List<SortedRun> runs) throws IOException {
+            try {
+                for (SortedRun run : runs) {
+                    SortedRun.Cursor cursor = run.cursor();
+                    cursors.add(cursor);
+                    if (cursor.next()) {
+                        heads.add(cursor);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            SortedRun.Cursor head = heads.poll();
+            if (head == null) {
+                return false;
+            }
+            word = head.word();
+            count = head.count();
+            advance(head);
+            while (!heads.isEmpty() && heads.peek().word().equals(word)) {
+                SortedRun.Cursor same = heads.poll();
+                count += same.count();
+                advance(same);
+            }
+            return true;
+        }
+
+        private void advance(SortedRun.Cursor cursor) throws IOException {
+            if (cursor.next()) {
+                heads.add(cursor);
+            }
+        }
+
+        @Override
+        public String word() {
+            return word;
+        }
+
+        @Override
+        public int count() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (SortedRun.Cursor cursor : cursors) {
+                try {
+                    cursor.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.wordcounter.tiered;
+
+import com.wordcounter.persistence.WordCodec;
+import com.wordcounter.sketch.BloomFilter;
+import com.wordcounter.sketch.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Immutable sorted run of word counts. Before it is written a run is only held in memory, so spilled counts can be
+ * read the moment they leave the hot table; once written, only a Bloom filter and every {@code INDEX_INTERVAL}th
+ * word stay in memory, and a lookup reads one index block from disk. Runs are additive: a word's count is the sum
+ * over every run that holds it.
+ */
+final class SortedRun {
+
+    private static final int MAGIC = 0x57435255; // "WCRU"
+    private static final int VERSION = 2;
+    static final int INDEX_INTERVAL = 64;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final int size;
+    private final BloomFilter filter;
+    // In memory until written
+    private final String[] words;
+    private final int[] counts;
+    // On disk once written
+    private final Path file;
+    private final String[] indexWords;
+    private final long[] indexOffsets;
+    private final long fileBytes;
+    private RandomAccessFile reader;
+
+    private SortedRun(String[] words, int[] counts, BloomFilter filter) {
+        this.size = words.length;
+        this.filter = filter;
+        this.words = words;
+        this.counts = counts;
+        this.file = null;
+        this.indexWords = null;
+        this.indexOffsets = null;
+        this.fileBytes = 0;
+    }
+
+    private SortedRun(int size, BloomFilter filter, Path file, String[] indexWords, long[] indexOffsets)
+            throws IOException {
+        this.size = size;
+        this.filter = filter;
+        this.words = null;
+        this.counts = null;
+        this.file = file;
+        this.indexWords = indexWords;
+        this.indexOffsets = indexOffsets;
+        this.fileBytes = Files.size(file);
+        this.reader = new RandomAccessFile(file.toFile(), "r");
+    }
+
+
+    /**
+     * In-memory run over words sorted ascending and without duplicates.
+     */
+    static SortedRun inMemory(String[] words, int[] counts) {
+        BloomFilter filter = newFilter(words.length);
+        for (String word : words) {
+            filter.put(Hashing.hash64(word));
+        }
+        return new SortedRun(words, counts, filter);
+    }
+
+
+    /**
+     * Writes a run from a cursor over ascending, distinct words. Entries with a count of zero are dropped.
+     */
+    static SortedRun write(Path file, Cursor cursor, int expectedSize) throws IOException {
+        BloomFilter filter = newFilter(expectedSize);
+        List<String> indexWords = new ArrayList<>();
+        List<Long> indexOffsets = new ArrayList<>();
+        int size = 0;
+
+        try (CountingOutputStream counting = new CountingOutputStream(Files.newOutputStream(file));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(counting, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(0);
+            while (cursor.next()) {
+                if (cursor.count() == 0) {
+                    continue;
+                }
+                if (size % INDEX_INTERVAL == 0) {
+                    out.flush();
+                    indexWords.add(cursor.word());
+                    indexOffsets.add(counting.written);
+                }
+                WordCodec.writeWord(out, cursor.word());
+                out.writeInt(cursor.count());
+                filter.put(Hashing.hash64(cursor.word()));
+                size++;
+            }
+        }
+        try (RandomAccessFile header = new RandomAccessFile(file.toFile(), "rw")) {
+            header.seek(8);
+            header.writeInt(size);
+        }
+
+        long[] offsets = new long[indexOffsets.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = indexOffsets.get(i);
+        }
+        return new SortedRun(size, filter, file, indexWords.toArray(new String[0]), offsets);
+    }
+
+
+    private static BloomFilter newFilter(int expectedSize) {
+        return new BloomFilter(Math.max(1, expectedSize), BLOOM_FALSE_POSITIVE_RATE);
+    }
+
+
+    int size() {
+        return size;
+    }
+
+
+    long getFileBytes() {
+        return fileBytes;
+    }
+
+
+    long getMemoryBytes() {
+        return filter.getMemoryBytes() + (indexWords != null ? indexWords.length * 64L : 0);
+    }
+
+
+    /**
+     * The word's count in this run, zero if absent, or -1 if the run was closed by a compaction in the meantime.
+     */
+    int get(String word) throws IOException {
+        if (!filter.mightContain(Hashing.hash64(word))) {
+            return 0;
+        }
+        if (words != null) {
+            int index = Arrays.binarySearch(words, word);
+            return index >= 0 ? counts[index] : 0;
+        }
+
+        int block = Arrays.binarySearch(indexWords, word);
+        if (block < 0) {
+            block = -block - 2;
+            if (block < 0) {
+                return 0;
+            }
+        }
+        long start = indexOffsets[block];
+        long end = block + 1 < indexOffsets.length ? indexOffsets[block + 1] : fileBytes;
+        byte[] bytes = new byte[(int) (end - start)];
+        synchronized (this) {
+            if (reader == null) {
+                return -1;
+            }
+            reader.seek(start);
+            reader.readFully(bytes);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        for (int i = 0; i < INDEX_INTERVAL && in.available() > 0; i++) {
+            int order = WordCodec.readWord(in).compareTo(word);
+            int count = in.readInt();
+            if (order == 0) {
+                return count;
+            }
+            if (order > 0) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+
+    Cursor cursor() throws IOException {
+        if (words != null) {
+            return new ArrayCursor(words, counts, words.length);
+        }
+        return new FileCursor(file, size);
+    }
+
+
+    synchronized void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+
+    void delete() throws IOException {
+        close();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+
+    /**
+     * Forward-only iteration in ascending word order.
+     */
+    interface Cursor extends AutoCloseable {
+        boolean next() throws IOException;
+        String word();
+        int count();
+
+        @Override
+        void close() throws IOException;
+    }
+
+
+    static final class ArrayCursor implements Cursor {
+        private final String[] words;
+        private final int[] counts;
+        private final int length;
+        private int index = -1;
+
+        ArrayCursor(String[] words, int[] counts, int length) {
+            this.words = words;
+            this.counts = counts;
+            this.length = length;
+        }
+
+        @Override
+        public boolean next() {
+            return ++index < length;
+        }
+
+        @Override
+        public String word() {
+            return words[index];
+        }
+
+        @Override
+        public int count() {
+            return counts[index];
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+
+    // Reads through its own stream, so scans neither block nor are broken by point lookups or a later close
+    private static final class FileCursor implements Cursor {
+        private final DataInputStream in;
+        private final int size;
+        private int read;
+        private String word;
+        private int count;
+
+        private FileCursor(Path file, int size) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+            this.size = size;
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                in.close();
+                throw new IOException("Unrecognized run format: " + file);
+            }
+            in.readInt();
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (read == size) {
+                return false;
+            }
+            try {
+                word = WordCodec.readWord(in);
+                count = in.readInt();
+            } catch (EOFException e) {
+                throw new IOException("Truncated run after " + read + " of " + size + " entries", e);
+            }
+            read++;
+            return true;
+        }
+
+        @Override
+        public String word() {
+            return word;
+        }
+
+        @Override
+        public int count() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long written;
+
+        private CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.wordcounter.tiered;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+public class TieredStorageConfig {
+
+    private final Path directory;
+    private final long memoryBudgetBytes;
+    private final long spillIntervalMillis;
+    private final int maxRuns;
+    private final int spillBatchWords;
+
+    public static class Builder {
+        private Path directory = Paths.get("data", "cold");
+        private long memoryBudgetBytes = 512L * 1024 * 1024;
+        private long spillIntervalMillis = 1000;
+        private int maxRuns = 8;
+        private int spillBatchWords = 65_536;
+
+        public Builder withDirectory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        // Estimated heap the in-memory counts may use before the least recently touched words are spilled
+        public Builder withMemoryBudgetBytes(long memoryBudgetBytes) {
+            this.memoryBudgetBytes = memoryBudgetBytes;
+            return this;
+        }
+
+        // Zero or less disables the background spiller, spillColdWords() can still be called directly
+        public Builder withSpillIntervalMillis(long spillIntervalMillis) {
+            this.spillIntervalMillis = spillIntervalMillis;
+            return this;
+        }
+
+        // Runs on disk before they are compacted into one; each run can cost a lookup one read
+        public Builder withMaxRuns(int maxRuns) {
+            this.maxRuns = maxRuns;
+            return this;
+        }
+
+        // Words per spilled run; reads of cold words wait while a run is swapped in, so keep it moderate
+        public Builder withSpillBatchWords(int spillBatchWords) {
+            this.spillBatchWords = spillBatchWords;
+            return this;
+        }
+
+        public TieredStorageConfig build() {
+            if (directory == null) {
+                throw new IllegalArgumentException("Cold storage directory cannot be null");
+            }
+            if (memoryBudgetBytes <= 0 || maxRuns <= 0 || spillBatchWords <= 0) {
+                throw new IllegalArgumentException("Memory budget, run limit and batch size must be positive");
+            }
+            return new TieredStorageConfig(this);
+        }
+    }
+
+    private TieredStorageConfig(Builder builder) {
+        this.directory = builder.directory;
+        this.memoryBudgetBytes = builder.memoryBudgetBytes;
+        this.spillIntervalMillis = builder.spillIntervalMillis;
+        this.maxRuns = builder.maxRuns;
+        this.spillBatchWords = builder.spillBatchWords;
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Path getDirectory() { return directory; }
+    public long getMemoryBudgetBytes() { return memoryBudgetBytes; }
+    public long getSpillIntervalMillis() { return spillIntervalMillis; }
+    public int getMaxRuns() { return maxRuns; }
+    public int getSpillBatchWords() { return spillBatchWords; }
+}
@@ -0,0 +1,422 @@
+package com.wordcounter.warmup;
+
+import com.wordcounter.CountsSnapshot;
+import com.wordcounter.Translator;
+import com.wordcounter.WordValidator;
+import com.wordcounter.admission.ClientRateLimiter;
+import com.wordcounter.exception.InvalidWordException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Resolves the translations of expected words in the background, so the first users of a common word after a deploy
+ * or a cache clear do not pay for the remote lookup. Words come from a vocabulary file and from the most counted
+ * words, are translated most important first by a few worker threads, and only words the translator would have to
+ * look up remotely use the rate limit. When the translator's version moves, such as after a cache clear or a
+ * dictionary reload, the planned words are warmed again, at most once per {@code minRewarmMillis}. A word is only
+ * warm once the translator no longer needs a remote lookup for it; words whose lookup failed are retried once the
+ * queue is empty, at most once per {@code retryMillis}, and do not count towards the warm fraction meanwhile.
+ */
+public class TranslationWarmup implements AutoCloseable {
+
+    private static final String RATE_LIMIT_CLIENT = "warmup";
+    // Words listed without a weight come before weighted ones, in file order
+    private static final long UNWEIGHTED = Long.MAX_VALUE;
+
+    private final Translator translator;
+    private final ClientRateLimiter rateLimiter;
+    private final int concurrency;
+    private final long minRewarmMillis;
+    private final long retryMillis;
+    private final PriorityBlockingQueue<Item> queue = new PriorityBlockingQueue<>();
+    private final ConcurrentLinkedQueue<Item> retries = new ConcurrentLinkedQueue<>();
+    private final List<Item> planned = new ArrayList<>();
+    private final Set<String> plannedWords = new HashSet<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private ExecutorService workers;
+    private volatile boolean closed;
+    private volatile long lastVersion;
+    private volatile long roundStartedMillis;
+    private volatile long lastRetryMillis;
+
+    // Progress of the current round
+    private final AtomicInteger rounds = new AtomicInteger();
+    private final AtomicInteger roundTotal = new AtomicInteger();
+    private final AtomicInteger alreadyWarm = new AtomicInteger();
+    private final AtomicInteger translated = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean reachedWarm;
+
+    private static final class Item implements Comparable<Item> {
+        private final String word;
+        private final long weight;
+        private final long sequence;
+
+        private Item(String word, long weight, long sequence) {
+            this.word = word;
+            this.weight = weight;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            int byWeight = Long.compare(other.weight, weight);
+            return byWeight != 0 ? byWeight : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public static class Builder {
+        private Translator translator;
+        private double wordsPerSecond = 50;
+        private int concurrency = 4;
+        private long minRewarmMillis = 60_000;
+        private long retryMillis = 10_000;
+
+        public Builder withTranslator(Translator translator) {
+            this.translator = translator;
+            return this;
+        }
+
+        // Remote lookups per second across all workers; words the translator can answer from memory are free
+        public Builder withWordsPerSecond(double wordsPerSecond) {
+            this.wordsPerSecond = wordsPerSecond;
+            return this;
+        }
+
+        // Worker threads, i.e. remote lookups in flight at once
+        public Builder withConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        // Zero or less disables warming again when the translator's version moves, rewarm() can still be called
+        public Builder withMinRewarmMillis(long minRewarmMillis) {
+            this.minRewarmMillis = minRewarmMillis;
+            return this;
+        }
+
+        // Pause between retries of words whose remote lookup failed
+        public Builder withRetryMillis(long retryMillis) {
+            this.retryMillis = retryMillis;
+            return this;
+        }
+
+        public TranslationWarmup build() {
+            if (translator == null) {
+                throw new IllegalArgumentException("A translator is required");
+            }
+            if (wordsPerSecond <= 0 || concurrency <= 0) {
+                throw new IllegalArgumentException("Rate and concurrency must be positive");
+            }
+            return new TranslationWarmup(this);
+        }
+    }
+
+    private TranslationWarmup(Builder builder) {
+        this.translator = builder.translator;
+        this.rateLimiter = ClientRateLimiter.builder()
+                .withTokensPerSecond(builder.wordsPerSecond)
+                .withBurstTokens((long) Math.max(1, builder.wordsPerSecond))
+                .build();
+        this.concurrency = builder.concurrency;
+        this.minRewarmMillis = builder.minRewarmMillis;
+        this.retryMillis = builder.retryMillis;
+        this.lastVersion = translator.getVersion();
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * Plans one word. Invalid and already planned words are ignored; higher weights are warmed first.
+     *
+     * @return whether the word was added
+     */
+    public boolean add(String word, long weight) {
+        try {
+            WordValidator.validateWord(word);
+        } catch (InvalidWordException e) {
+            return false;
+        }
+        String normalizedWord = WordValidator.normalizeWord(word);
+        Item item = new Item(normalizedWord, weight, sequence.getAndIncrement());
+        synchronized (planned) {
+            if (!plannedWords.add(normalizedWord)) {
+                return false;
+            }
+            planned.add(item);
+            roundTotal.incrementAndGet();
+            queue.add(item);
+        }
+        return true;
+    }
+
+
+    /**
+     * Plans the words of a vocabulary file, one per line, most important first. A line may give a weight after the
+     * word, separated by a tab, comma or space; weighted words rank by weight after the unweighted ones.
+     * Blank lines and lines starting with {@code #} are skipped.
+     *
+     * @return how many words were added
+     */
+    public int addVocabulary(Path file) throws IOException {
+        int added = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("[\t, ]+", 2);
+                long weight = UNWEIGHTED;
+                if (fields.length > 1) {
+                    try {
+                        weight = Long.parseLong(fields[1].trim());
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                }
+                if (add(fields[0], weight)) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+
+    /**
+     * Plans the {@code limit} most counted words of a snapshot, weighted by their counts. These are canonical words,
+     * so this mainly warms words that translate to themselves; foreign words come from a vocabulary file.
+     *
+     * @return how many words were added
+     */
+    public int addTopWords(CountsSnapshot snapshot, int limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        // Min-heap of the best indexes so far
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                (a, b) -> Integer.compare(snapshot.getCountAt(a), snapshot.getCountAt(b)));
+        for (int i = 0; i < snapshot.getUniqueWordCount(); i++) {
+            top.add(i);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        int added = 0;
+        for (int index : top) {
+            if (add(snapshot.getWord(index), snapshot.getCountAt(index))) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+
+    /**
+     * Starts the workers; words can still be added afterwards.
+     */
+    public synchronized void start() {
+        if (workers != null || closed) {
+            return;
+        }
+        roundStartedMillis = System.currentTimeMillis();
+        lastRetryMillis = roundStartedMillis;
+        rounds.set(1);
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "word-counter-warmup-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(this::work);
+        }
+    }
+
+
+    /**
+     * Warms every planned word again, for example after the translation cache was cleared.
+     */
+    public void rewarm() {
+        synchronized (planned) {
+            queue.clear();
+            retries.clear();
+            roundTotal.set(planned.size());
+            alreadyWarm.set(0);
+            translated.set(0);
+            failed.set(0);
+            roundStartedMillis = System.currentTimeMillis();
+            rounds.incrementAndGet();
+            queue.addAll(planned);
+        }
+    }
+
+
+    private void work() {
+        while (!closed) {
+            Item item;
+            try {
+                item = queue.poll(250, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (item == null) {
+                retryFailed();
+                rewarmIfTranslatorChanged();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            try {
+                warm(item);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+
+    private void warm(Item item) throws InterruptedException {
+        if (translator.isCached(item.word)) {
+            alreadyWarm.incrementAndGet();
+            return;
+        }
+        long waitNanos;
+        while ((waitNanos = rateLimiter.tryAcquire(RATE_LIMIT_CLIENT, 1)) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        boolean warmed;
+        try {
+            translator.translate(item.word);
+            // A failed or skipped lookup is answered with the word itself but not cached, so it still needs one
+            warmed = translator.isCached(item.word);
+        } catch (RuntimeException e) {
+            warmed = false;
+        }
+        if (warmed) {
+            translated.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+            retries.add(item);
+        }
+    }
+
+
+    // Only checked while idle, so retries never hold back words not yet attempted
+    private void retryFailed() {
+        if (retries.isEmpty() || System.currentTimeMillis() - lastRetryMillis < retryMillis) {
+            return;
+        }
+        synchronized (planned) {
+            long now = System.currentTimeMillis();
+            if (now - lastRetryMillis < retryMillis) {
+                return;
+            }
+            lastRetryMillis = now;
+            Item item;
+            while ((item = retries.poll()) != null) {
+                failed.decrementAndGet();
+                queue.add(item);
+            }
+        }
+    }
+
+
+    // Only checked while idle, so the warmup's own cache writes never restart a round in progress
+    private void rewarmIfTranslatorChanged() {
+        if (minRewarmMillis <= 0) {
+            return;
+        }
+        long version = translator.getVersion();
+        if (version == lastVersion || System.currentTimeMillis() - roundStartedMillis < minRewarmMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (version != lastVersion) {
+                lastVersion = version;
+                System.out.println("Translations changed, warming " + getPlannedWordCount() + " words again");
+                rewarm();
+            }
+        }
+    }
+
+
+    /**
+     * Share of the current round's words already warm or translated, 1 when nothing is planned. Words waiting for a
+     * retry are not included.
+     */
+    public double getWarmFraction() {
+        int total = roundTotal.get();
+        if (total == 0) {
+            return 1;
+        }
+        return Math.min(1, (alreadyWarm.get() + translated.get()) / (double) total);
+    }
+
+
+    /**
+     * Whether a round has reached the fraction. Stays true afterwards, so later rounds never flap readiness.
+     */
+    public boolean isWarm(double fraction) {
+        if (!reachedWarm && getWarmFraction() >= fraction) {
+            reachedWarm = true;
+        }
+        return reachedWarm;
+    }
+
+
+    public boolean isStarted() {
+        return workers != null;
+    }
+
+
+    public int getPlannedWordCount() {
+        synchronized (planned) {
+            return planned.size();
+        }
+    }
+
+
+    public int getRound() { return rounds.get(); }
+    public int getRoundWordCount() { return roundTotal.get(); }
+    public int getAlreadyWarmCount() { return alreadyWarm.get(); }
+    public int getTranslatedCount() { return translated.get(); }
+    // Words whose lookup failed and that wait for a retry
+    public int getFailedCount() { return failed.get(); }
+    public int getRemainingCount() { return queue.size() + inFlight.get(); }
+    public long getRoundStartedMillis() { return roundStartedMillis; }
+
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+}
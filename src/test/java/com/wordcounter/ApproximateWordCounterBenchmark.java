@@ -0,0 +1,87 @@
+package com.wordcounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+
+/**
+ * Throughput and footprint comparison of the exact and approximate counters.
+ * Not part of the test suite; run the main method directly, e.g. from the IDE.
+ */
+public class ApproximateWordCounterBenchmark {
+
+    private static final Translator IDENTITY = new Translator() {
+        @Override
+        public String translate(String word) {
+            return word;
+        }
+
+        @Override
+        public boolean isTranslationAvailable(String word) {
+            return false;
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        int vocabulary = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int wordsPerThread = 2_000_000;
+
+        List<String> words = new ArrayList<>(vocabulary);
+        for (int i = 0; i < vocabulary; i++) {
+            words.add(ApproximateWordCounterTest.wordFor(i));
+        }
+
+        for (int round = 0; round < 3; round++) {
+            run("exact", () -> WordCounterImpl.builder().withTranslator(IDENTITY).build(),
+                    words, threads, wordsPerThread);
+            run("approximate", () -> WordCounterImpl.builder().withTranslator(IDENTITY).approximate().build(),
+                    words, threads, wordsPerThread);
+        }
+    }
+
+    private static void run(String name, Supplier<WordCounter> factory, List<String> words, int threads,
+                            int wordsPerThread) throws Exception {
+        System.gc();
+        long heapBefore = usedHeap();
+        WordCounter counter = factory.get();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            executor.submit(() -> {
+                Random random = new Random(seed);
+                try {
+                    for (int i = 0; i < wordsPerThread; i++) {
+                        counter.addWord(words.get(random.nextInt(words.size())));
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        System.gc();
+        long retained = usedHeap() - heapBefore;
+        double perSecond = (double) threads * wordsPerThread / (elapsed / 1e9);
+        System.out.printf("%-12s %,14.0f words/s  %,8d KB retained  %,d words%n",
+                name, perSecond, retained / 1024, counter.getTotalWords());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
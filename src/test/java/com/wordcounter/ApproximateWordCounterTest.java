@@ -0,0 +1,104 @@
+package com.wordcounter;
+
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ApproximateWordCounterTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private ApproximateWordCounter wordCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("flor")).thenReturn("flower");
+
+        wordCounter = WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .approximate()
+                .withErrorBounds(1e-4, 0.99)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should count translated words together and keep totals exact")
+    void testTranslatedWords() throws InvalidWordException {
+        wordCounter.addWords("flower", "flor", "flower");
+
+        assertEquals(3, wordCounter.getCount("flower"));
+        assertEquals(3, wordCounter.getCount("flor"));
+        assertEquals(3, wordCounter.getTotalWords());
+        assertEquals(1, wordCounter.getUniqueWordCount());
+    }
+
+    @Test
+    @DisplayName("Should validate words like the exact counter")
+    void testValidation() {
+        assertThrows(InvalidWordException.class, () -> wordCounter.addWord("hello123"));
+        assertEquals(0, wordCounter.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should stay within the documented error bounds")
+    void testErrorBounds() throws InvalidWordException {
+        Random random = new Random(42);
+        Map<String, Integer> exact = new HashMap<>();
+        int vocabulary = 20_000;
+        for (int i = 0; i < 200_000; i++) {
+            // Skewed distribution, like natural text
+            int rank = (int) Math.min(vocabulary - 1, Math.abs(random.nextGaussian()) * vocabulary / 4);
+            String word = wordFor(rank);
+            wordCounter.addWord(word);
+            exact.merge(word, 1, Integer::sum);
+        }
+
+        int violations = 0;
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            int estimate = wordCounter.getCount(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "Count-Min Sketch must never undercount");
+            if (estimate - entry.getValue() > wordCounter.getMaxOvercount()) {
+                violations++;
+            }
+        }
+        assertTrue(violations <= exact.size() * 0.01, "Too many estimates outside bounds: " + violations);
+
+        double uniqueError = Math.abs(wordCounter.getUniqueWordCount() - exact.size()) / (double) exact.size();
+        assertTrue(uniqueError < 4 * wordCounter.getUniqueWordRelativeError(), "Unique word error: " + uniqueError);
+        assertEquals(200_000, wordCounter.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should clear everything on reset")
+    void testReset() throws InvalidWordException {
+        wordCounter.addWords("cat", "dog");
+        wordCounter.reset();
+
+        assertEquals(0, wordCounter.getCount("cat"));
+        assertEquals(0, wordCounter.getUniqueWordCount());
+        assertTrue(wordCounter.isEmpty());
+    }
+
+    static String wordFor(int rank) {
+        StringBuilder word = new StringBuilder("w");
+        do {
+            word.append((char) ('a' + rank % 26));
+            rank /= 26;
+        } while (rank > 0);
+        return word.toString();
+    }
+}
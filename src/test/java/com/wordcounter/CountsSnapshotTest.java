@@ -0,0 +1,130 @@
+package com.wordcounter;
+
+import com.wordcounter.export.CountsExporter;
+import com.wordcounter.persistence.WordCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class CountsSnapshotTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordCounterImpl wordCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        wordCounter = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+    }
+
+    private static int sum(CountsSnapshot snapshot) {
+        int sum = 0;
+        for (int i = 0; i < snapshot.getUniqueWordCount(); i++) {
+            sum += snapshot.getCountAt(i);
+        }
+        return sum;
+    }
+
+    @Test
+    @DisplayName("Should not see increments made after the snapshot was taken")
+    void testPointInTime() throws Exception {
+        wordCounter.addWords("cat", "dog", "cat");
+
+        CountsSnapshot snapshot = wordCounter.snapshot();
+        wordCounter.addWords("cat", "bird");
+
+        assertEquals(2, snapshot.getCount("cat"));
+        assertEquals(0, snapshot.getCount("bird"));
+        assertEquals(3, snapshot.getTotalWords());
+        assertEquals(2, snapshot.getUniqueWordCount());
+        assertEquals("cat", snapshot.getWord(0));
+        assertEquals(3, wordCounter.getCount("cat"));
+    }
+
+    @Test
+    @DisplayName("Should keep counts and total consistent while writers and resets run concurrently")
+    void testConsistentUnderConcurrency() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            Thread writer = new Thread(() -> {
+                int i = seed;
+                while (running.get()) {
+                    wordCounter.addCanonicalWord("word" + (i++ % 50), 1);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+
+        try {
+            for (int round = 0; round < 200; round++) {
+                if (round % 50 == 49) {
+                    wordCounter.reset();
+                }
+                CountsSnapshot snapshot = wordCounter.snapshot();
+                assertEquals(snapshot.getTotalWords(), sum(snapshot));
+            }
+        } finally {
+            running.set(false);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+
+        CountsSnapshot quiescent = wordCounter.snapshot();
+        assertEquals(wordCounter.getTotalWords(), quiescent.getTotalWords());
+        assertEquals(wordCounter.getTotalWords(), sum(quiescent));
+    }
+
+    @Test
+    @DisplayName("Should export pages as CSV and binary")
+    void testExportFormats() throws Exception {
+        wordCounter.addWords("cat", "dog", "dog", "bird");
+        CountsSnapshot snapshot = wordCounter.snapshot();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        CountsExporter.write(snapshot, 1, 1, CountsExporter.Format.CSV, csv);
+        assertEquals("word,count\ncat,1\n", new String(csv.toByteArray(), StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        CountsExporter.write(snapshot, 0, 0, CountsExporter.Format.BINARY, binary);
+        assertBinaryEntries(binary.toByteArray(), snapshot);
+    }
+
+    private static void assertBinaryEntries(byte[] bytes, CountsSnapshot snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertEquals(0x57434558, in.readInt());
+        assertEquals(2, in.readInt());
+        assertEquals(snapshot.getSnapshotId(), in.readLong());
+        assertEquals(4, in.readInt());
+        assertEquals(0, in.readInt());
+        assertEquals(3, in.readInt());
+        assertEquals("bird", WordCodec.readWord(in));
+        assertEquals(1, in.readInt());
+        assertEquals("cat", WordCodec.readWord(in));
+        assertEquals(1, in.readInt());
+        assertEquals("dog", WordCodec.readWord(in));
+        assertEquals(2, in.readInt());
+        assertEquals(-1, in.read());
+    }
+}
@@ -0,0 +1,206 @@
+package com.wordcounter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DefaultTranslatorStatsTest {
+
+    private DefaultTranslator translator;
+
+    @BeforeEach
+    void setUp() {
+        translator = new DefaultTranslator();
+    }
+
+    @Test
+    @DisplayName("Should count cache hits and successful entries without calling the service")
+    void testCacheHitsAndEntries() {
+        translator.addCustomTranslation("perro", "dog");
+        translator.addCustomTranslation("gato", "cat");
+
+        assertEquals("dog", translator.translate("perro"));
+        assertEquals("dog", translator.translate("Perro"));
+        assertEquals("cat", translator.translate("gato"));
+
+        DefaultTranslator.TranslationStats stats = translator.getStats();
+        assertEquals(2, stats.getCacheSize());
+        assertEquals(2, stats.getSuccessfulTranslations());
+        assertEquals(0, stats.getUntranslatedEntries());
+        assertEquals(3, stats.getCacheHits());
+        assertEquals(0, stats.getCacheMisses());
+        assertEquals(0, stats.getRemoteCalls());
+    }
+
+    @Test
+    @DisplayName("Should keep entry counts exact when translations are replaced and evicted")
+    void testReplaceAndEvict() {
+        translator.addCustomTranslation("perro", "perro");
+        assertEquals(1, translator.getStats().getUntranslatedEntries());
+
+        translator.addCustomTranslation("perro", "dog");
+        DefaultTranslator.TranslationStats stats = translator.getStats();
+        assertEquals(1, stats.getSuccessfulTranslations());
+        assertEquals(0, stats.getUntranslatedEntries());
+
+        translator.clearCache();
+        stats = translator.getStats();
+        assertEquals(0, stats.getCacheSize());
+        assertEquals(0, stats.getSuccessfulTranslations());
+        assertEquals(1, stats.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Should agree with the cache contents after concurrent writes")
+    void testConcurrentWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    String word = ApproximateWordCounterTest.wordFor(i);
+                    // Half the threads mark words untranslated, the other half translate them
+                    translator.addCustomTranslation(word, thread % 2 == 0 ? word : word + "x");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        DefaultTranslator.TranslationStats stats = translator.getStats();
+        assertEquals(5_000, stats.getCacheSize());
+        assertEquals(stats.getCacheSize(), stats.getSuccessfulTranslations() + stats.getUntranslatedEntries());
+    }
+
+    @Test
+    @DisplayName("Should read stats in constant time on a large cache")
+    void testStatsOnLargeCache() {
+        for (int i = 0; i < 200_000; i++) {
+            translator.addCustomTranslation(ApproximateWordCounterTest.wordFor(i), "mot");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(200_000, translator.getStats().getSuccessfulTranslations());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 1_000, "1000 stats reads took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("Should run batched misses on the translator's own threads, not the common pool")
+    void testBatchAvoidsCommonPool() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        DefaultTranslator recording = new DefaultTranslator() {
+            @Override
+            public String translate(String word) {
+                threads.add(Thread.currentThread().getName());
+                return word.toUpperCase();
+            }
+        };
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            words.add("w" + (char) ('a' + i % 26) + (char) ('a' + i / 26));
+        }
+
+        Map<String, String> translations = recording.translateAll(words);
+
+        assertEquals(64, translations.size());
+        assertEquals("WAA", translations.get("waa"));
+        assertEquals(64, threads.size());
+        for (String thread : threads) {
+            assertTrue(thread.startsWith("word-counter-translation-"), thread);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not remember a word as untranslatable when the service fails")
+    void testServiceFailureIsNotCached() {
+        AtomicBoolean down = new AtomicBoolean(true);
+        AtomicLong now = new AtomicLong(1_000_000);
+        DefaultTranslator flaky = new DefaultTranslator() {
+            @Override
+            String callTranslationAPI(String text, String fromLang, String toLang) throws IOException {
+                if (down.get()) {
+                    throw new IOException("service down");
+                }
+                return text.equals("xperro") ? "dog" : null;
+            }
+
+            @Override
+            long currentTimeMillis() {
+                return now.get();
+            }
+        };
+
+        assertEquals("xperro", flaky.translate("xperro"));
+        assertFalse(flaky.isCached("xperro"));
+        assertEquals(1, flaky.getStats().getRemoteCalls(), "Stops probing at the first failure");
+
+        down.set(false);
+        now.addAndGet(60_000);
+        assertEquals("dog", flaky.translate("xperro"));
+        assertFalse(flaky.requiresRemoteLookup("xperro"));
+        assertEquals("xgato", flaky.translate("xgato"));
+        assertFalse(flaky.requiresRemoteLookup("xgato"), "A conclusive miss is cached");
+    }
+
+    @Test
+    @DisplayName("Should stop calling a failing service until its backoff passes")
+    void testServiceFailureBacksOff() {
+        AtomicBoolean down = new AtomicBoolean(true);
+        AtomicLong now = new AtomicLong(1_000_000);
+        DefaultTranslator flaky = new DefaultTranslator() {
+            @Override
+            String callTranslationAPI(String text, String fromLang, String toLang) throws IOException {
+                if (down.get()) {
+                    throw new IOException("service down");
+                }
+                return text.equals("xperro") ? "dog" : null;
+            }
+
+            @Override
+            long currentTimeMillis() {
+                return now.get();
+            }
+        };
+
+        assertEquals("xperro", flaky.translate("xperro"));
+        assertEquals("xgato", flaky.translate("xgato"));
+        assertEquals(1, flaky.getStats().getRemoteCalls(), "Backing off after the first failure");
+        assertEquals(1, flaky.getSkippedLookups());
+        assertFalse(flaky.requiresRemoteLookup("xgato"), "Answered from memory while backing off");
+        assertFalse(flaky.isCached("xgato"), "But not remembered");
+
+        now.addAndGet(5_000);
+        assertEquals("xperro", flaky.translate("xperro"));
+        assertEquals(2, flaky.getStats().getRemoteCalls(), "One caller tries again once the backoff passes");
+        now.addAndGet(5_000);
+        flaky.translate("xperro");
+        assertEquals(2, flaky.getStats().getRemoteCalls(), "The backoff doubles after another failure");
+
+        down.set(false);
+        now.addAndGet(5_000);
+        assertEquals("dog", flaky.translate("xperro"));
+        assertTrue(flaky.requiresRemoteLookup("xgato"), "The service is asked again after it answers");
+    }
+}
@@ -0,0 +1,181 @@
+package com.wordcounter;
+
+import com.wordcounter.persistence.DurabilityConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class DeferredTranslationTest {
+
+    private static final long TRANSLATION_DELAY_MILLIS = 50;
+
+    @Mock
+    private Translator mockTranslator;
+
+    private CountDownLatch translationGate;
+    private WordCounterImpl wordCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        translationGate = new CountDownLatch(0);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> {
+            translationGate.await();
+            Thread.sleep(TRANSLATION_DELAY_MILLIS);
+            String word = invocation.getArgument(0);
+            return word.equals("perro") || word.equals("hund") ? "dog" : word;
+        });
+        wordCounter = WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .withDeferredTranslation(2)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wordCounter.close();
+    }
+
+    @Test
+    @DisplayName("Should count words without waiting for their translation")
+    void testIngestionDoesNotWaitForTranslation() throws Exception {
+        translationGate = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            wordCounter.addWords("perro", "Hund", "dog");
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < TRANSLATION_DELAY_MILLIS, "Ingestion took " + elapsedMillis + "ms");
+        assertEquals(150, wordCounter.getTotalWords());
+        assertEquals(3, wordCounter.getPendingWordCount());
+
+        translationGate.countDown();
+        // Reading a pending word merges it first; aliases still being translated join later
+        assertTrue(wordCounter.getCount("perro") >= 50);
+
+        wordCounter.drainPending();
+        assertEquals(0, wordCounter.getPendingWordCount());
+        assertEquals(150, wordCounter.getCount("dog"));
+        assertEquals(150, wordCounter.getCount("perro"));
+    }
+
+    @Test
+    @DisplayName("Should merge pending counts into the canonical word in the background")
+    void testBackgroundMerge() throws Exception {
+        wordCounter.addWords("perro", "perro", "hund");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (wordCounter.getPendingWordCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, wordCounter.getPendingWordCount());
+        assertEquals(3, wordCounter.getCanonicalCount("dog"));
+        assertEquals(3, wordCounter.snapshot().getCount("dog"));
+
+        // Resolved forms are counted canonically straight away
+        wordCounter.addWord("perro");
+        assertEquals(0, wordCounter.getPendingWordCount());
+        assertEquals(4, wordCounter.getCanonicalCount("dog"));
+    }
+
+    @Test
+    @DisplayName("Should translate resolved forms again after the translator's version moves")
+    void testRetranslateAfterVersionChange() throws Exception {
+        AtomicLong version = new AtomicLong();
+        when(mockTranslator.getVersion()).thenAnswer(invocation -> version.get());
+        wordCounter.addWord("perro");
+        wordCounter.drainPending();
+        wordCounter.addWord("perro");
+        assertEquals(0, wordCounter.getPendingWordCount());
+        assertEquals(2, wordCounter.getCanonicalCount("dog"));
+
+        CountDownLatch gate = new CountDownLatch(1);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> {
+            gate.await();
+            return "hound";
+        });
+        version.incrementAndGet();
+        wordCounter.addWord("perro");
+        assertEquals(1, wordCounter.getPendingWordCount());
+
+        gate.countDown();
+        wordCounter.drainPending();
+        assertEquals(2, wordCounter.getCanonicalCount("dog"));
+        assertEquals(1, wordCounter.getCanonicalCount("hound"));
+    }
+
+    @Test
+    @DisplayName("Should neither lose nor double count increments racing with merges")
+    void testConcurrentIngestionAndMerges() throws Exception {
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    wordCounter.addWord(i % 3 == 0 ? "perro" : i % 3 == 1 ? "hund" : "cat");
+                    assertTrue(wordCounter.getTotalWords() <= threads * perThread);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, wordCounter.getTotalWords());
+        wordCounter.drainPending();
+        assertEquals(threads * perThread, wordCounter.getTotalWords());
+        assertEquals(threads * perThread, wordCounter.snapshot().getTotalWords());
+        assertEquals(wordCounter.getCount("cat") + wordCounter.getCount("dog"), threads * perThread);
+    }
+
+    @Test
+    @DisplayName("Should drop pending counts on reset")
+    void testResetDropsPending() throws Exception {
+        translationGate = new CountDownLatch(1);
+        wordCounter.addWords("perro", "hund");
+
+        wordCounter.reset();
+        translationGate.countDown();
+
+        assertEquals(0, wordCounter.getTotalWords());
+        assertEquals(0, wordCounter.getCount("dog"));
+        wordCounter.addWord("perro");
+        assertEquals(1, wordCounter.getCount("perro"));
+        assertEquals(1, wordCounter.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should refuse deferred translation together with durability")
+    void testRejectsDurability(@TempDir Path directory) {
+        assertThrows(IllegalArgumentException.class, () -> WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .withDeferredTranslation(1)
+                .withDurability(DurabilityConfig.builder().withDirectory(directory).build())
+                .build());
+    }
+}
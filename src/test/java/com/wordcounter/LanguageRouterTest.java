@@ -0,0 +1,135 @@
+package com.wordcounter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LanguageRouterTest {
+
+    private static final List<String> LANGUAGES = Arrays.asList("es", "de", "fr", "it", "pt", "nl", "ru", "zh", "ja", "ko");
+
+    private LanguageRouter router;
+
+    @Mock
+    private Translator mockTranslator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        router = new LanguageRouter(LANGUAGES, 3);
+    }
+
+    @Test
+    @DisplayName("Should probe every language in configured order before learning anything")
+    void testInitialOrder() {
+        assertEquals(LANGUAGES, router.probeOrder(TranslationHint.NONE));
+        assertEquals("fr", router.probeOrder(TranslationHint.language("FR")).get(0));
+        assertEquals(LANGUAGES, router.probeOrder(TranslationHint.language("xx")));
+    }
+
+    @Test
+    @DisplayName("Should learn a source's language and probe far fewer languages per miss")
+    void testLearnsSingleLanguageTraffic() {
+        TranslationHint german = TranslationHint.of("client-a", null);
+        int calls = simulate(german, "de", 2_000);
+        int callsAfterTraining = simulate(german, "de", 1_000);
+
+        assertEquals("de", router.probeOrder(german).get(0));
+        // Every word is German, so once trained the first probe almost always answers
+        assertTrue(callsAfterTraining < 1_300, "Probes for 1000 words: " + callsAfterTraining);
+        assertTrue(calls < 2_000 * 2, "Probes while learning: " + calls);
+
+        // Other sources keep their own statistics
+        assertEquals("es", router.probeOrder(TranslationHint.of("client-b", null)).get(0));
+    }
+
+    @Test
+    @DisplayName("Should limit probes once trained and still explore occasionally")
+    void testLimitsProbes() {
+        TranslationHint source = TranslationHint.of("client-a", null);
+        simulate(source, "it", 200);
+
+        int full = 0;
+        for (int i = 0; i < 64; i++) {
+            List<String> order = router.probeOrder(source);
+            assertEquals("it", order.get(0));
+            if (order.size() == LANGUAGES.size()) {
+                full++;
+            } else {
+                assertEquals(3, order.size());
+            }
+        }
+        assertEquals(4, full);
+
+        List<String> hinted = router.probeOrder(TranslationHint.of("client-a", "ja"));
+        assertEquals("ja", hinted.get(0));
+        assertEquals("it", hinted.get(1));
+    }
+
+    @Test
+    @DisplayName("Should leave every other language for after a limited probe fails")
+    void testRemainingLanguages() {
+        TranslationHint source = TranslationHint.of("client-a", null);
+        simulate(source, "it", 200);
+
+        List<String> order = router.probeOrder(source);
+        assertEquals(3, order.size());
+        List<String> remaining = router.remainingLanguages(source, order);
+        assertEquals(LANGUAGES.size() - 3, remaining.size());
+        assertTrue(remaining.contains("ja"));
+        for (String language : order) {
+            assertFalse(remaining.contains(language));
+        }
+        assertTrue(router.remainingLanguages(TranslationHint.NONE, LANGUAGES).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should relearn when a source switches language")
+    void testAdaptsToLanguageChange() {
+        TranslationHint source = TranslationHint.of("client-a", null);
+        simulate(source, "es", 1_000);
+        simulate(source, "ru", 2_000);
+
+        assertEquals("ru", router.probeOrder(source).get(0));
+    }
+
+    @Test
+    @DisplayName("Should pass hints from the counter to the translator")
+    void testCounterPassesHint() throws Exception {
+        TranslationHint hint = TranslationHint.of("client-a", "es");
+        when(mockTranslator.translate("perro", hint)).thenReturn("dog");
+        when(mockTranslator.translate("dog")).thenReturn("dog");
+        WordCounter counter = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+
+        counter.addWord("perro", hint);
+        counter.addWords(Arrays.asList("Perro"), hint);
+
+        assertEquals(2, counter.getCount("dog"));
+        verify(mockTranslator, times(2)).translate("perro", hint);
+        verify(mockTranslator, never()).translate("perro");
+    }
+
+    // Feeds misses whose words are all in one language and returns the number of probes spent
+    private int simulate(TranslationHint hint, String language, int words) {
+        int probes = 0;
+        for (int i = 0; i < words; i++) {
+            for (String candidate : router.probeOrder(hint)) {
+                probes++;
+                boolean translated = candidate.equals(language);
+                router.record(hint, candidate, translated, 1_000_000);
+                if (translated) {
+                    break;
+                }
+            }
+        }
+        return probes;
+    }
+}
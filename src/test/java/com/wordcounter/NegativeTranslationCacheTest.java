@@ -0,0 +1,84 @@
+package com.wordcounter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NegativeTranslationCacheTest {
+
+    @Test
+    @DisplayName("Should never forget a recent word and keep false positives near the target")
+    void testFalsePositiveRate() {
+        NegativeTranslationCache cache = NegativeTranslationCache.builder()
+                .withExpectedInsertions(100_000)
+                .withFalsePositiveRate(0.01)
+                .build();
+        for (int i = 0; i < 100_000; i++) {
+            cache.add(ApproximateWordCounterTest.wordFor(i));
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(cache.mightContain(ApproximateWordCounterTest.wordFor(i)));
+        }
+        int falsePositives = 0;
+        for (int i = 100_000; i < 200_000; i++) {
+            if (cache.mightContain(ApproximateWordCounterTest.wordFor(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 1_500, "False positives: " + falsePositives);
+        assertTrue(cache.getCurrentFalsePositiveRate() < 0.015, "Reported rate: " + cache.getCurrentFalsePositiveRate());
+    }
+
+    @Test
+    @DisplayName("Should rotate generations so memory stays bounded as words keep arriving")
+    void testRotation() {
+        NegativeTranslationCache cache = NegativeTranslationCache.builder()
+                .withExpectedInsertions(10_000)
+                .build();
+        long memoryAfterFirstGeneration = 0;
+        for (int i = 0; i < 100_000; i++) {
+            cache.add(ApproximateWordCounterTest.wordFor(i));
+            if (i == 10_000) {
+                memoryAfterFirstGeneration = cache.getMemoryBytes();
+            }
+        }
+
+        assertEquals(memoryAfterFirstGeneration, cache.getMemoryBytes());
+        assertTrue(cache.getApproximateSize() <= 20_000);
+        assertTrue(cache.mightContain(ApproximateWordCounterTest.wordFor(99_999)));
+        assertTrue(cache.getCurrentFalsePositiveRate() <= cache.getTargetFalsePositiveRate());
+    }
+
+    @Test
+    @DisplayName("Should forget words once they are older than the maximum age")
+    void testAging() throws InterruptedException {
+        NegativeTranslationCache cache = NegativeTranslationCache.builder()
+                .withMaxAgeMillis(100)
+                .build();
+        cache.add("xyzzy");
+        assertTrue(cache.mightContain("xyzzy"));
+
+        Thread.sleep(150);
+
+        assertFalse(cache.mightContain("xyzzy"));
+    }
+
+    @Test
+    @DisplayName("Should answer untranslatable words from the filter instead of the cache")
+    void testTranslatorUsesFilter() {
+        NegativeTranslationCache cache = NegativeTranslationCache.builder().build();
+        cache.add("xyzzy");
+        DefaultTranslator translator = new DefaultTranslator(TranslationDictionary.builtIn(), cache);
+
+        assertEquals("xyzzy", translator.translate("Xyzzy"));
+        assertFalse(translator.isTranslationAvailable("xyzzy"));
+        assertEquals(0, translator.getCacheSize());
+        assertEquals(1, translator.getNegativeCacheHits());
+        assertEquals(1, translator.getStats().getUntranslatedEntries());
+
+        translator.clearCache();
+        assertFalse(cache.mightContain("xyzzy"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.wordcounter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class StringPoolTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Should return one instance per distinct string")
+    void testIntern() {
+        StringPool pool = new StringPool(4);
+        String first = new String("flower");
+        String second = new String("flower");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertNotSame(first, pool.intern(new String("flowers")));
+        assertNull(pool.intern(null));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    @DisplayName("Should not keep otherwise unreachable strings alive")
+    void testWeakEntries() throws InterruptedException {
+        StringPool pool = new StringPool(4);
+        WeakReference<String> reference = new WeakReference<>(pool.intern(new String("ephemeral")));
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(reference.get());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    @DisplayName("Should store count keys as pooled instances")
+    void testCounterKeysArePooled() throws Exception {
+        WordCounterImpl wordCounter = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+        String pooled = StringPool.shared().intern(new String("pooledword"));
+
+        wordCounter.addWords("PooledWord", "pooledword");
+
+        assertSame(pooled, wordCounter.snapshot().getWord(0));
+        assertEquals(2, wordCounter.getCount("pooledword"));
+    }
+}
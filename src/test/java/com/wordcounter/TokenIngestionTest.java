@@ -0,0 +1,132 @@
+package com.wordcounter;
+
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class TokenIngestionTest {
+
+    private VersionedTranslator translator;
+    private WordCounterImpl wordCounter;
+
+    // A real translator, since mock invocations allocate and would hide what the counter itself allocates
+    private static final class VersionedTranslator implements Translator {
+        private final Map<String, String> translations = new HashMap<>();
+        private volatile long version;
+        private int calls;
+
+        @Override
+        public String translate(String word) {
+            calls++;
+            return translations.getOrDefault(word, word);
+        }
+
+        @Override
+        public boolean isTranslationAvailable(String word) {
+            return translations.containsKey(word);
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        translator = new VersionedTranslator();
+        translator.translations.put("flor", "flower");
+        wordCounter = WordCounterImpl.builder().withTranslator(translator).build();
+    }
+
+    @Test
+    @DisplayName("Should count characters, slices and UTF-8 bytes like the same word as a String")
+    void testOverloadsMatchStrings() throws InvalidWordException {
+        wordCounter.addWord(new StringBuilder("Flor"));
+        wordCounter.addWord("xxflowerxx".toCharArray(), 2, 6);
+        byte[] text = "un café".getBytes(StandardCharsets.UTF_8);
+        wordCounter.addUtf8Word(text, 3, text.length - 3);
+        wordCounter.addUtf8Word(ByteBuffer.wrap("𝒜𝒷".getBytes(StandardCharsets.UTF_8)));
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        direct.put("Café".getBytes(StandardCharsets.UTF_8)).flip();
+        wordCounter.addUtf8Word(direct);
+
+        assertEquals(2, wordCounter.getCount("flower"));
+        assertEquals(2, wordCounter.getCount("café"));
+        assertEquals(1, wordCounter.getCount("𝒜𝒷"));
+        assertEquals(0, direct.position(), "The buffer's position is left alone");
+        assertEquals(5, wordCounter.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid tokens and malformed UTF-8 through every overload")
+    void testInvalidTokens() {
+        assertThrows(InvalidWordException.class, () -> wordCounter.addWord(new StringBuilder("two words")));
+        assertThrows(InvalidWordException.class, () -> wordCounter.addWord("abc1".toCharArray(), 0, 4));
+        assertThrows(InvalidWordException.class, () -> wordCounter.addWord(new char[4], 0, 0));
+        assertThrows(InvalidWordException.class,
+                () -> wordCounter.addUtf8Word(new byte[] {'c', 'a', (byte) 0xC3}, 0, 3));
+        assertThrows(InvalidWordException.class,
+                () -> wordCounter.addUtf8Word(new byte[] {(byte) 0xC0, (byte) 0x80}, 0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> wordCounter.addWord(new char[4], 2, 3));
+        assertEquals(0, wordCounter.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should translate a repeated token once, and again after the translator's version moves")
+    void testTranslatorVersionInvalidates() throws InvalidWordException {
+        char[] token = "flor".toCharArray();
+        wordCounter.addWord(token, 0, token.length);
+        int callsAfterFirst = translator.calls;
+        wordCounter.addWord(token, 0, token.length);
+        wordCounter.addWord(token, 0, token.length);
+        assertEquals(callsAfterFirst, translator.calls, "Known tokens skip translation");
+        assertEquals(3, wordCounter.getCount("flower"));
+
+        translator.translations.put("flor", "blossom");
+        translator.version++;
+        wordCounter.addWord(token, 0, token.length);
+        assertEquals(1, wordCounter.getCount("blossom"));
+        assertEquals(3, wordCounter.getCount("flower"));
+    }
+
+    @Test
+    @DisplayName("Should count known UTF-8 tokens without allocating")
+    void testKnownTokensDoNotAllocate() throws InvalidWordException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        byte[] text = "the quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+        int[] starts = {0, 4, 10, 16, 20, 26, 31, 35, 40};
+        int[] lengths = {3, 5, 5, 3, 5, 4, 3, 4, 3};
+        for (int round = 0; round < 20_000; round++) {
+            for (int i = 0; i < starts.length; i++) {
+                wordCounter.addUtf8Word(text, starts[i], lengths[i]);
+            }
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < 20_000; round++) {
+            for (int i = 0; i < starts.length; i++) {
+                wordCounter.addUtf8Word(text, starts[i], lengths[i]);
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(40_000, wordCounter.getCount("fox"));
+        // 180,000 tokens; a String per token alone would be several megabytes
+        assertTrue(allocated < 64 * 1024, "Allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,102 @@
+package com.wordcounter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationDictionaryTest {
+
+    @TempDir
+    Path directory;
+
+    private void write(Path file, String content, long modifiedMillis) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+    }
+
+    @Test
+    @DisplayName("Should ship the built-in dictionary without duplicate keys")
+    void testBuiltIn() {
+        TranslationDictionary dictionary = TranslationDictionary.builtIn();
+
+        assertEquals("house", dictionary.get("casa"));
+        assertEquals("car", dictionary.get("voiture"));
+        assertEquals(37, dictionary.size());
+    }
+
+    @Test
+    @DisplayName("Should swap in a changed file and keep the old entries when a reload fails")
+    void testReload() throws IOException {
+        Path file = directory.resolve("translations.tsv");
+        write(file, "# comment\nperro\tdog\nGATO\tCat\n", 1_000_000);
+        try (TranslationDictionary dictionary = TranslationDictionary.builder()
+                .withFile(file).withReloadIntervalMillis(0).build()) {
+            assertEquals("cat", dictionary.get("gato"));
+            assertFalse(dictionary.reloadIfChanged());
+
+            write(file, "perro\tdog\nchien\tdog\nkatze\tcat\n", 2_000_000);
+            assertTrue(dictionary.reloadIfChanged());
+            assertEquals("dog", dictionary.get("chien"));
+            assertNull(dictionary.get("gato"));
+            assertSame(dictionary.get("perro"), dictionary.get("chien"));
+
+            write(file, "perro dog\n", 3_000_000);
+            assertThrows(IOException.class, dictionary::reloadIfChanged);
+            assertEquals(3, dictionary.size());
+            assertFalse(dictionary.reloadIfChanged(), "A broken file is not read again until it changes");
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop only the changed words from a translator's caches on reload")
+    void testReloadKeepsUnchangedTranslations() throws IOException {
+        Path file = directory.resolve("translations.tsv");
+        write(file, "perro\tdog\ngato\tcat\n", 1_000_000);
+        NegativeTranslationCache negativeCache = NegativeTranslationCache.builder().build();
+        negativeCache.add("chien");
+        negativeCache.add("katze");
+        try (TranslationDictionary dictionary = TranslationDictionary.builder()
+                .withFile(file).withReloadIntervalMillis(0).build()) {
+            DefaultTranslator translator = new DefaultTranslator(dictionary, negativeCache);
+            translator.addCustomTranslation("gato", "cat");
+            long version = translator.getVersion();
+
+            write(file, "perro\tdog\ngato\tcat\nkatze\tcat\n", 2_000_000);
+            assertTrue(dictionary.reloadIfChanged());
+
+            assertTrue(translator.getVersion() > version);
+            assertEquals("cat", translator.translate("katze"), "A word added to the dictionary is picked up");
+            assertEquals("chien", translator.translate("chien"), "Unchanged negative entries stay");
+            assertEquals("cat", translator.translate("gato"));
+            assertTrue(negativeCache.mightContain("chien"));
+            assertEquals(0, translator.getStats().getRemoteCalls());
+        }
+    }
+
+    @Test
+    @DisplayName("Should load a large dictionary quickly")
+    void testLargeDictionary() throws IOException {
+        Path file = directory.resolve("large.tsv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 300_000; i++) {
+            content.append(ApproximateWordCounterTest.wordFor(i)).append('\t').append("word").append(i % 1000).append('\n');
+        }
+        write(file, content.toString(), 1_000_000);
+
+        long start = System.nanoTime();
+        try (TranslationDictionary dictionary = TranslationDictionary.builder()
+                .withFile(file).withReloadIntervalMillis(0).build()) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(300_000, dictionary.size());
+            assertTrue(elapsedMillis < 5000, "Loading took " + elapsedMillis + " ms");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.wordcounter;
+
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class VersionWatcherTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordCounterImpl wordCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        wordCounter = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+    }
+
+    @Test
+    @DisplayName("Should move the version on every write and reset, and only then")
+    void testVersionTracksChanges() throws InvalidWordException {
+        long initial = wordCounter.getVersion();
+        wordCounter.getCount("flower");
+        assertEquals(initial, wordCounter.getVersion(), "Reads leave the version alone");
+
+        wordCounter.addWords("flower", "tree");
+        long afterWrites = wordCounter.getVersion();
+        assertTrue(afterWrites > initial);
+
+        wordCounter.reset();
+        assertTrue(wordCounter.getVersion() > afterWrites, "Reset moves the version forward, never back");
+    }
+
+    @Test
+    @DisplayName("Should keep versions monotonic under concurrent writers")
+    void testMonotonicUnderConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    wordCounter.addWord("word");
+                }
+                return null;
+            });
+        }
+        executor.shutdown();
+
+        long previous = wordCounter.getVersion();
+        while (!executor.isTerminated()) {
+            long current = wordCounter.getVersion();
+            assertTrue(current >= previous);
+            previous = current;
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(80_000, wordCounter.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should complete waiters only once the version passes theirs")
+    void testAwaitVersion() throws Exception {
+        VersionWatcher watcher = VersionWatcher.builder()
+                .withVersion(wordCounter::getVersion)
+                .withPollMillis(0)
+                .withMaxWaiters(2)
+                .build();
+        long version = watcher.getVersion();
+
+        assertTrue(watcher.awaitVersionAfter(version - 1).isDone(), "Already past: answered at once");
+        CompletableFuture<Long> waiting = watcher.awaitVersionAfter(version);
+        CompletableFuture<Long> abandoned = watcher.awaitVersionAfter(version);
+        assertThrows(IllegalStateException.class, () -> watcher.awaitVersionAfter(version));
+
+        abandoned.cancel(false);
+        assertEquals(1, watcher.getWaitingCount());
+        watcher.poll();
+        assertFalse(waiting.isDone());
+
+        wordCounter.addWord("flower");
+        watcher.poll();
+        assertTrue(waiting.isDone());
+        assertTrue(waiting.get() > version);
+        assertEquals(0, watcher.getWaitingCount());
+        watcher.close();
+    }
+}
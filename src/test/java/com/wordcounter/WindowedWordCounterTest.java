@@ -0,0 +1,138 @@
+package com.wordcounter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WindowedWordCounterTest {
+
+    private AtomicLong now;
+    private WindowedWordCounter windowed;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000);
+        windowed = WindowedWordCounter.builder()
+                .withBucketMillis(1000)
+                .withBucketCount(60)
+                .withClock(now::get)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should count only occurrences inside the sliding window")
+    void testSlidingWindow() {
+        windowed.onIncrement("flower", 1);
+        now.addAndGet(10_000);
+        windowed.onIncrement("flower", 2);
+
+        assertEquals(2, windowed.getCount("flower", 5_000));
+        assertEquals(3, windowed.getCount("flower", 30_000));
+
+        now.addAndGet(55_000);
+        assertEquals(0, windowed.getCount("flower", 30_000));
+        assertEquals(2, windowed.getCount("flower", 60_000));
+        assertEquals(2, windowed.getTotal(60_000));
+    }
+
+    @Test
+    @DisplayName("Should report tumbling windows aligned to the window length")
+    void testTumblingWindow() {
+        now.set(120_000);
+        windowed.onIncrement("dog", 1);
+        now.set(125_000);
+        windowed.onIncrement("dog", 1);
+        now.set(131_000);
+        windowed.onIncrement("dog", 1);
+
+        assertEquals(1, windowed.getTumblingCount("dog", 10_000, 0));
+        assertEquals(2, windowed.getTumblingCount("dog", 10_000, 1));
+    }
+
+    @Test
+    @DisplayName("Should reuse ring slots once buckets expire")
+    void testRingWrapAround() {
+        windowed.onIncrement("cat", 5);
+        now.addAndGet(60_000);
+        windowed.onIncrement("cat", 1);
+
+        assertEquals(1, windowed.getCount("cat", 60_000));
+    }
+
+    @Test
+    @DisplayName("Should return windowed top words in order and purge expired ones")
+    void testTopWords() {
+        windowed.onIncrement("old", 100);
+        now.addAndGet(61_000);
+        windowed.onIncrement("cat", 3);
+        windowed.onIncrement("dog", 5);
+        windowed.onIncrement("bird", 1);
+
+        List<WordCount> top = windowed.getTopWords(2, 60_000);
+        assertEquals(2, top.size());
+        assertEquals("dog", top.get(0).getWord());
+        assertEquals("cat", top.get(1).getWord());
+        assertEquals(0, windowed.getCount("old", 60_000));
+        assertEquals(3, windowed.getTrackedWordCount() - 1);
+    }
+
+    @Test
+    @DisplayName("Should purge expired words on its own when a purge interval is set")
+    void testScheduledPurge() throws InterruptedException {
+        WindowedWordCounter purging = WindowedWordCounter.builder()
+                .withBucketMillis(1000)
+                .withBucketCount(60)
+                .withClock(now::get)
+                .withPurgeIntervalMillis(10)
+                .build();
+        try {
+            purging.onIncrement("old", 1);
+            now.addAndGet(61_000);
+            purging.onIncrement("new", 1);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (purging.getTrackedWordCount() > 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, purging.getTrackedWordCount(), "Only the new word and the total are left");
+        } finally {
+            purging.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject windows longer than the retention")
+    void testWindowTooLong() {
+        assertThrows(IllegalArgumentException.class, () -> windowed.getCount("cat", 61_000));
+    }
+
+    @Test
+    @DisplayName("Should receive increments from a word counter")
+    void testListenerWiring() throws Exception {
+        WordCounterImpl counter = WordCounterImpl.builder()
+                .withTranslator(new Translator() {
+                    @Override
+                    public String translate(String word) {
+                        return "flor".equals(word) ? "flower" : word;
+                    }
+
+                    @Override
+                    public boolean isTranslationAvailable(String word) {
+                        return "flor".equals(word);
+                    }
+                })
+                .withListener(windowed)
+                .build();
+
+        counter.addWords("flower", "flor");
+        assertEquals(2, windowed.getCount("flower", 1_000));
+
+        counter.reset();
+        assertEquals(0, windowed.getCount("flower", 1_000));
+    }
+}
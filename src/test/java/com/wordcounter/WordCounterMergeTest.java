@@ -0,0 +1,108 @@
+package com.wordcounter;
+
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class WordCounterMergeTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordCounterImpl wordCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("flor")).thenReturn("flower");
+        wordCounter = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+    }
+
+    @Test
+    @DisplayName("Should add another counter's counts to this one")
+    void testMergeCounter() throws InvalidWordException {
+        WordCounterImpl other = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+        wordCounter.addWords("flower", "tree");
+        other.addWords("flor", "flower", "grass");
+
+        wordCounter.merge(other);
+
+        assertEquals(3, wordCounter.getCount("flower"));
+        assertEquals(1, wordCounter.getCount("tree"));
+        assertEquals(1, wordCounter.getCount("grass"));
+        assertEquals(5, wordCounter.getTotalWords());
+        assertEquals(3, other.getTotalWords(), "The merged counter is left as it was");
+        assertThrows(IllegalArgumentException.class, () -> wordCounter.merge(wordCounter));
+    }
+
+    @Test
+    @DisplayName("Should merge sorted snapshots in one pass")
+    void testMergeSnapshots() {
+        Map<String, Integer> left = new HashMap<>();
+        left.put("apple", 2);
+        left.put("cherry", 1);
+        left.put("ignored", 0);
+        Map<String, Integer> right = new HashMap<>();
+        right.put("banana", 4);
+        right.put("cherry", 3);
+
+        CountsSnapshot merged = CountsSnapshot.of(left).merge(CountsSnapshot.of(right));
+
+        assertEquals(3, merged.getUniqueWordCount());
+        assertEquals("apple", merged.getWord(0));
+        assertEquals("banana", merged.getWord(1));
+        assertEquals("cherry", merged.getWord(2));
+        assertEquals(4, merged.getCount("cherry"));
+        assertEquals(10, merged.getTotalWords());
+
+        wordCounter.merge(merged);
+        assertEquals(4, wordCounter.getCount("banana"));
+        assertEquals(10, wordCounter.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should count a parallel stream exactly, skipping invalid words")
+    void testParallelCollector() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            // More distinct words than one flush holds
+            int id = i % 10_000;
+            words.add("word" + (char) ('a' + id % 26) + (char) ('a' + id / 26 % 26) + (char) ('a' + id / 676));
+        }
+        words.add("flor");
+        words.add("flower");
+        words.add("not valid!");
+
+        WordCounterImpl result = words.parallelStream().collect(wordCounter.collector());
+
+        assertSame(wordCounter, result);
+        assertEquals(200_002, wordCounter.getTotalWords());
+        assertEquals(2, wordCounter.getCount("flower"));
+        Map<String, Integer> expected = new HashMap<>();
+        words.subList(0, 200_000).forEach(word -> expected.merge(word, 1, Integer::sum));
+        expected.forEach((word, count) -> assertEquals(count.intValue(), wordCounter.getCount(word), word));
+    }
+
+    @Test
+    @DisplayName("Should give the same counts from a sequential stream")
+    void testSequentialCollector() {
+        IntStream.range(0, 10_000).mapToObj(i -> i % 2 == 0 ? "even" : "odd").collect(wordCounter.collector());
+
+        assertEquals(5_000, wordCounter.getCount("even"));
+        assertEquals(5_000, wordCounter.getCount("odd"));
+    }
+}
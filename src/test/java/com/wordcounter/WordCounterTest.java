@@ -7,8 +7,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -285,4 +287,27 @@ public class WordCounterTest {
         assertEquals(1, wordCounter.getCount("valid"));
         assertEquals("invalid123", exception.getInvalidWord());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should count many words with one translation per distinct word")
+    void testGetCounts() throws InvalidWordException {
+        when(mockTranslator.translateAll(anyCollection())).thenCallRealMethod();
+        when(mockTranslator.translate("hello")).thenReturn("hello");
+        when(mockTranslator.translate("hola")).thenReturn("hello");
+        when(mockTranslator.translate("world")).thenReturn("world");
+        when(mockTranslator.translate("missing")).thenReturn("missing");
+        wordCounter.addWords("hello", "hola", "world");
+        clearInvocations(mockTranslator);
+
+        Map<String, Integer> counts = wordCounter.getCounts(Arrays.asList("Hello", "hola", "hello", "hola", "missing", null));
+
+        assertEquals(Arrays.asList("Hello", "hola", "hello", "missing"), new ArrayList<>(counts.keySet()));
+        assertEquals(2, counts.get("Hello"));
+        assertEquals(2, counts.get("hola"));
+        assertEquals(2, counts.get("hello"));
+        assertEquals(0, counts.get("missing"));
+        verify(mockTranslator, times(1)).translate("hello");
+        verify(mockTranslator, times(1)).translate("hola");
+        assertTrue(wordCounter.getCounts(null).isEmpty());
+    }
+}
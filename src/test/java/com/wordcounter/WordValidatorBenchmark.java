@@ -0,0 +1,63 @@
+package com.wordcounter;
+
+import com.wordcounter.exception.InvalidWordException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+
+/**
+ * Validation plus normalization throughput of the current validator against the original ASCII-only regex,
+ * on ASCII words (which must not regress) and on mixed-script words.
+ * Not part of the test suite; run the main method directly, e.g. from the IDE.
+ */
+public class WordValidatorBenchmark {
+
+    private static final Pattern LEGACY_PATTERN = Pattern.compile("^[a-zA-Z]+$");
+    private static final String[] UNICODE_WORDS = {"größe", "niño", "café", "привет", "ありがとう", "한국어"};
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+
+        List<String> asciiWords = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            String word = ApproximateWordCounterTest.wordFor(i);
+            asciiWords.add(i % 4 == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        List<String> mixedWords = new ArrayList<>(asciiWords);
+        for (int i = 0; i < mixedWords.size(); i += 8) {
+            mixedWords.set(i, UNICODE_WORDS[(i / 8) % UNICODE_WORDS.length]);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            run("legacy ascii", asciiWords, iterations, true);
+            run("current ascii", asciiWords, iterations, false);
+            run("current mixed", mixedWords, iterations, false);
+        }
+    }
+
+    private static void run(String name, List<String> words, int iterations, boolean legacy)
+            throws InvalidWordException {
+        int mask = words.size() - 1;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            String word = words.get(i & mask);
+            String normalized;
+            if (legacy) {
+                if (!LEGACY_PATTERN.matcher(word.trim()).matches()) {
+                    throw new InvalidWordException("Word contains non-alphabetic characters: " + word, word);
+                }
+                normalized = word.trim().toLowerCase();
+            } else {
+                WordValidator.validateWord(word);
+                normalized = WordValidator.normalizeWord(word);
+            }
+            checksum += normalized.length();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-14s %,14.0f words/s  (checksum %d)%n", name, iterations / (elapsed / 1e9), checksum);
+    }
+}
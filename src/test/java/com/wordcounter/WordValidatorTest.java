@@ -4,6 +4,9 @@ import com.wordcounter.exception.InvalidWordException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.util.Arrays;
+import java.util.Locale;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -22,6 +25,20 @@ public class WordValidatorTest {
         assertDoesNotThrow(() -> WordValidator.validateWord("A"));
     }
 
+    @Test
+    @DisplayName("Should reject words longer than the length cap")
+    void testRejectOverlongWords() {
+        char[] letters = new char[WordValidator.MAX_WORD_LENGTH + 1];
+        Arrays.fill(letters, 'a');
+        assertDoesNotThrow(() -> WordValidator.validateWord(new String(letters, 0, WordValidator.MAX_WORD_LENGTH)));
+
+        InvalidWordException exception = assertThrows(
+                InvalidWordException.class,
+                () -> WordValidator.validateWord(new String(letters))
+        );
+        assertTrue(exception.getMessage().contains("longer than"));
+    }
+
     @Test
     @DisplayName("Should reject words with numbers")
     void testRejectWordsWithNumbers() {
@@ -164,4 +181,46 @@ public class WordValidatorTest {
             assertEquals(invalidWord, exception.getInvalidWord());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should accept letters from any script")
+    void testValidUnicodeWords() {
+        String[] validWords = {"größe", "niño", "café", "cafe\u0301", "привет", "水", "ありがとう", "한국어", "हिन्दी"};
+
+        for (String validWord : validWords) {
+            assertDoesNotThrow(() -> WordValidator.validateWord(validWord), validWord);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject non-letters outside ASCII")
+    void testRejectUnicodeNonLetters() {
+        String[] invalidWords = {"niño٣", "größe€", "\u0301cafe", "水。", "hello\u00a0world"};
+
+        for (String invalidWord : invalidWords) {
+            InvalidWordException exception = assertThrows(
+                    InvalidWordException.class,
+                    () -> WordValidator.validateWord(invalidWord),
+                    "Should reject word: " + invalidWord
+            );
+            assertTrue(exception.getMessage().contains("non-alphabetic"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should normalize to NFC with locale-independent case folding")
+    void testNormalizeUnicodeWord() {
+        assertEquals("café", WordValidator.normalizeWord("CAFE\u0301"));
+        assertEquals("café", WordValidator.normalizeWord("Café"));
+        assertEquals("grösse", WordValidator.normalizeWord("GRÖßE"));
+        assertEquals("σοφία", WordValidator.normalizeWord("ΣΟΦΊΑ"));
+
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals("title", WordValidator.normalizeWord("TITLE"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.wordcounter.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientRateLimiterTest {
+
+    private AtomicLong nanos;
+    private ClientRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        nanos = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+        limiter = ClientRateLimiter.builder()
+                .withTokensPerSecond(100)
+                .withBurstTokens(1000)
+                .withMaxClients(3)
+                .withNanoClock(nanos::get)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should admit a burst, then refill at the configured rate")
+    void testBurstAndRefill() {
+        assertEquals(0, limiter.tryAcquire("noisy", 600));
+        assertEquals(0, limiter.tryAcquire("noisy", 400));
+        long wait = limiter.tryAcquire("noisy", 100);
+        assertTrue(wait > 0);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait, TimeUnit.MILLISECONDS.toNanos(1));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.tryAcquire("noisy", 100));
+        assertTrue(limiter.tryAcquire("noisy", 1) > 0);
+    }
+
+    @Test
+    @DisplayName("Should report a client's wait without charging or tracking it")
+    void testPeek() {
+        assertEquals(0, limiter.peek("unknown", 1000));
+        assertEquals(0, limiter.getTrackedClientCount());
+
+        assertEquals(0, limiter.tryAcquire("noisy", 1000));
+        long wait = limiter.peek("noisy", 100);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait, TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(wait, limiter.peek("noisy", 100));
+        assertEquals(wait, limiter.tryAcquire("noisy", 100));
+    }
+
+    @Test
+    @DisplayName("Should keep clients independent")
+    void testClientsAreIsolated() {
+        assertEquals(0, limiter.tryAcquire("noisy", 1000));
+        assertTrue(limiter.tryAcquire("noisy", 1) > 0);
+        assertEquals(0, limiter.tryAcquire("quiet", 1));
+    }
+
+    @Test
+    @DisplayName("Should admit an oversized request on a full bucket and make the client wait off the debt")
+    void testOversizedRequestBecomesDebt() {
+        assertEquals(0, limiter.tryAcquire("bulk", 5000));
+        long wait = limiter.tryAcquire("bulk", 1);
+        assertEquals(TimeUnit.SECONDS.toNanos(40), wait, TimeUnit.MILLISECONDS.toNanos(20));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(50));
+        assertEquals(0, limiter.tryAcquire("bulk", 1));
+    }
+
+    @Test
+    @DisplayName("Should give refunded tokens back")
+    void testRefund() {
+        assertEquals(0, limiter.tryAcquire("client", 1000));
+        assertTrue(limiter.tryAcquire("client", 500) > 0);
+        limiter.refund("client", 600);
+        assertEquals(0, limiter.tryAcquire("client", 500));
+    }
+
+    @Test
+    @DisplayName("Should evict refilled clients and share an overflow bucket when full")
+    void testBoundedClients() {
+        assertEquals(0, limiter.tryAcquire("a", 1000));
+        assertEquals(0, limiter.tryAcquire("b", 1000));
+        assertEquals(0, limiter.tryAcquire("c", 1000));
+        assertEquals(3, limiter.getTrackedClientCount());
+
+        assertEquals(0, limiter.tryAcquire("d", 1000));
+        assertTrue(limiter.tryAcquire("e", 1) > 0, "New clients share the overflow bucket while the table is full");
+        assertEquals(4, limiter.getTrackedClientCount());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        assertEquals(0, limiter.tryAcquire("e", 1));
+        assertTrue(limiter.getTrackedClientCount() <= 3);
+    }
+
+    @Test
+    @DisplayName("Should never admit more than the burst under concurrent callers")
+    void testConcurrentAdmission() throws InterruptedException {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared", 1) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1000, admitted.get());
+    }
+}
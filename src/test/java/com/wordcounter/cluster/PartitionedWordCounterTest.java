@@ -0,0 +1,239 @@
+package com.wordcounter.cluster;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class PartitionedWordCounterTest {
+
+    private static final List<String> NODES = Arrays.asList(
+            "http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+
+    @Mock
+    private Translator mockTranslator;
+
+    private Map<String, WordCounterImpl> partitions;
+    private Map<String, PartitionedWordCounter> cluster;
+    private AtomicInteger remoteAddCalls;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("flor")).thenReturn("flower");
+        when(mockTranslator.translate("blume")).thenReturn("flower");
+
+        partitions = new LinkedHashMap<>();
+        cluster = new LinkedHashMap<>();
+        remoteAddCalls = new AtomicInteger();
+        NodeClient client = new InProcessNodeClient();
+
+        for (String node : NODES) {
+            partitions.put(node, WordCounterImpl.builder().withTranslator(mockTranslator).build());
+        }
+        for (String node : NODES) {
+            cluster.put(node, PartitionedWordCounter.builder()
+                    .withLocalCounter(partitions.get(node))
+                    .withSelf(node)
+                    .withNodes(NODES)
+                    .withNodeClient(client)
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the same count from every node")
+    void testCountsAgreeAcrossNodes() throws InvalidWordException {
+        cluster.get(NODES.get(0)).addWords("flower", "dog", "cat");
+        cluster.get(NODES.get(1)).addWords("flor", "dog");
+        cluster.get(NODES.get(2)).addWord("blume");
+
+        for (PartitionedWordCounter node : cluster.values()) {
+            assertEquals(3, node.getCount("flower"));
+            assertEquals(3, node.getCount("flor"));
+            assertEquals(2, node.getCount("dog"));
+            assertEquals(1, node.getCount("cat"));
+            assertEquals(6, node.getTotalWords());
+        }
+    }
+
+    @Test
+    @DisplayName("Should store each canonical word only on its owner")
+    void testWordsLiveOnOwner() throws InvalidWordException {
+        PartitionedWordCounter entry = cluster.get(NODES.get(0));
+        entry.addWords("flower", "flor", "house", "dog", "cat", "tree");
+
+        for (String word : Arrays.asList("flower", "house", "dog", "cat", "tree")) {
+            String owner = entry.ownerOf(word);
+            for (Map.Entry<String, WordCounterImpl> partition : partitions.entrySet()) {
+                int expected = partition.getKey().equals(owner) ? entry.getCount(word) : 0;
+                assertEquals(expected, partition.getValue().getCanonicalCount(word));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should send at most one request per remote owner for a batch")
+    void testBatchForwarding() throws InvalidWordException {
+        String[] words = new String[200];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = "word" + (char) ('a' + i % 26) + (char) ('a' + i / 26);
+        }
+
+        cluster.get(NODES.get(0)).addWords(words);
+
+        assertTrue(remoteAddCalls.get() <= NODES.size() - 1);
+        assertEquals(words.length, cluster.get(NODES.get(2)).getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch when one word is invalid")
+    void testInvalidBatchForwardsNothing() {
+        assertThrows(InvalidWordException.class,
+                () -> cluster.get(NODES.get(0)).addWords("dog", "invalid123", "cat"));
+        assertEquals(0, cluster.get(NODES.get(1)).getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should reset every partition")
+    void testResetClearsCluster() throws InvalidWordException {
+        cluster.get(NODES.get(0)).addWords("flower", "dog", "cat", "house");
+        cluster.get(NODES.get(1)).reset();
+
+        for (WordCounterImpl partition : partitions.values()) {
+            assertEquals(0, partition.getTotalWords());
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer bulk count queries with one request per owner")
+    void testBulkCounts() throws InvalidWordException {
+        cluster.get(NODES.get(0)).addWords("flower", "flor", "blume", "dog", "cat");
+        AtomicInteger remoteGetCalls = new AtomicInteger();
+        PartitionedWordCounter entry = PartitionedWordCounter.builder()
+                .withLocalCounter(partitions.get(NODES.get(0)))
+                .withSelf(NODES.get(0))
+                .withNodes(NODES)
+                .withNodeClient(new InProcessNodeClient() {
+                    @Override
+                    public Map<String, Integer> getCounts(String node, Collection<String> canonicalWords) {
+                        remoteGetCalls.incrementAndGet();
+                        return super.getCounts(node, canonicalWords);
+                    }
+                })
+                .build();
+
+        List<String> words = Arrays.asList("flor", "dog", "cat", "blume", "tree", "dog");
+        Map<String, Integer> counts = entry.getCounts(words);
+
+        assertEquals(5, counts.size());
+        assertEquals(3, counts.get("flor"));
+        assertEquals(3, counts.get("blume"));
+        assertEquals(1, counts.get("dog"));
+        assertEquals(1, counts.get("cat"));
+        assertEquals(0, counts.get("tree"));
+        assertTrue(remoteGetCalls.get() <= NODES.size() - 1);
+        entry.close();
+    }
+
+    @Test
+    @DisplayName("Should buffer forwarded single adds and send them per owner in one request")
+    void testBufferedSingleAdds() throws InvalidWordException {
+        PartitionedWordCounter entry = PartitionedWordCounter.builder()
+                .withLocalCounter(partitions.get(NODES.get(0)))
+                .withSelf(NODES.get(0))
+                .withNodes(NODES)
+                .withNodeClient(new InProcessNodeClient())
+                .withForwardFlushMillis(3_600_000)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            entry.addWord("word" + (char) ('a' + i % 26) + (char) ('a' + i / 26));
+        }
+
+        assertEquals(0, remoteAddCalls.get());
+        assertEquals(100, entry.getTotalWords(), "Reads on the entry node include what it still holds");
+        String remote = null;
+        for (int i = 0; remote == null; i++) {
+            String word = "word" + (char) ('a' + i % 26) + (char) ('a' + i / 26);
+            if (!entry.ownerOf(word).equals(NODES.get(0))) {
+                remote = word;
+            }
+        }
+        assertEquals(1, entry.getCount(remote));
+
+        entry.flush();
+        assertTrue(remoteAddCalls.get() <= NODES.size() - 1);
+        assertEquals(100, cluster.get(NODES.get(1)).getTotalWords());
+        assertEquals(1, cluster.get(NODES.get(1)).getCount(remote));
+        entry.close();
+    }
+
+    @Test
+    @DisplayName("Should spread keys across nodes and move few keys when a node joins")
+    void testRingBalanceAndStability() {
+        ConsistentHashRing three = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing four = new ConsistentHashRing(
+                Arrays.asList(NODES.get(0), NODES.get(1), NODES.get(2), "http://localhost:8084"), 128);
+
+        Map<String, Integer> perNode = new HashMap<>();
+        int moved = 0;
+        int keys = 30_000;
+        for (int i = 0; i < keys; i++) {
+            String key = "key" + i;
+            perNode.merge(three.ownerOf(key), 1, Integer::sum);
+            if (!three.ownerOf(key).equals(four.ownerOf(key))) {
+                moved++;
+            }
+        }
+
+        for (int count : perNode.values()) {
+            assertTrue(count > keys / 3 * 0.8 && count < keys / 3 * 1.2, "Unbalanced partition: " + count);
+        }
+        assertTrue(moved < keys * 0.35, "Too many keys moved: " + moved);
+    }
+
+    private class InProcessNodeClient implements NodeClient {
+
+        @Override
+        public void addCounts(String node, Map<String, Integer> deltas) {
+            remoteAddCalls.incrementAndGet();
+            deltas.forEach(partitions.get(node)::addCanonicalWord);
+        }
+
+        @Override
+        public Map<String, Integer> getCounts(String node, Collection<String> canonicalWords) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (String word : canonicalWords) {
+                counts.put(word, partitions.get(node).getCanonicalCount(word));
+            }
+            return counts;
+        }
+
+        @Override
+        public int getTotalWords(String node) {
+            return partitions.get(node).getTotalWords();
+        }
+
+        @Override
+        public void reset(String node) {
+            partitions.get(node).reset();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.wordcounter.cluster;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import com.wordcounter.persistence.DurabilityConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ReplicatedWordCounterTest {
+
+    private static final List<String> NODES = Arrays.asList(
+            "http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+
+    @Mock
+    private Translator mockTranslator;
+
+    @TempDir
+    Path tempDir;
+
+    private Map<String, ReplicatedWordCounter> replicas;
+    private Set<String> unreachable;
+    private GossipTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("flor")).thenReturn("flower");
+
+        replicas = new LinkedHashMap<>();
+        unreachable = new HashSet<>();
+        transport = (peer, delta) -> {
+            if (unreachable.contains(peer)) {
+                throw new IllegalStateException("Node " + peer + " unreachable");
+            }
+            return replicas.get(peer).merge(delta);
+        };
+
+        for (String node : NODES) {
+            replicas.put(node, replica(node, WordCounterImpl.builder().withTranslator(mockTranslator).build(), null));
+        }
+    }
+
+    private ReplicatedWordCounter replica(String node, WordCounterImpl local, Path stateFile) {
+        return ReplicatedWordCounter.builder()
+                .withLocalCounter(local)
+                .withSelf(node)
+                .withPeers(NODES)
+                .withTransport(transport)
+                .withGossipIntervalMillis(0)
+                .withStateFile(stateFile)
+                .build();
+    }
+
+    private void gossipAll() {
+        for (ReplicatedWordCounter replica : replicas.values()) {
+            replica.gossipNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer locally before gossip and converge after it")
+    void testConvergence() throws InvalidWordException {
+        replicas.get(NODES.get(0)).addWords("flower", "dog");
+        replicas.get(NODES.get(1)).addWords("flor", "flower");
+        replicas.get(NODES.get(2)).addWord("dog");
+
+        assertEquals(1, replicas.get(NODES.get(0)).getCount("flower"));
+
+        gossipAll();
+
+        for (ReplicatedWordCounter replica : replicas.values()) {
+            assertEquals(3, replica.getCount("flower"));
+            assertEquals(2, replica.getCount("dog"));
+            assertEquals(5, replica.getTotalWords());
+        }
+    }
+
+    @Test
+    @DisplayName("Should tolerate duplicated and reordered deltas")
+    void testIdempotentMerge() throws InvalidWordException {
+        ReplicatedWordCounter target = replicas.get(NODES.get(1));
+        GossipDelta older = new GossipDelta(NODES.get(0), 0, 2, Collections.singletonMap("cat", 2));
+        GossipDelta newer = new GossipDelta(NODES.get(0), 0, 5, Collections.singletonMap("cat", 5));
+
+        target.merge(newer);
+        target.merge(older);
+        target.merge(newer);
+
+        assertEquals(5, target.getCount("cat"));
+        assertEquals(5, target.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should retry deltas for a peer that was unreachable")
+    void testRetryAfterPartition() throws InvalidWordException {
+        unreachable.add(NODES.get(2));
+        replicas.get(NODES.get(0)).addWords("cat", "cat");
+        gossipAll();
+        assertEquals(0, replicas.get(NODES.get(2)).getCount("cat"));
+
+        unreachable.clear();
+        gossipAll();
+        assertEquals(2, replicas.get(NODES.get(2)).getCount("cat"));
+    }
+
+    @Test
+    @DisplayName("Should propagate reset as a new epoch")
+    void testResetEpoch() throws InvalidWordException {
+        replicas.get(NODES.get(0)).addWords("cat", "dog");
+        replicas.get(NODES.get(1)).addWord("cat");
+        gossipAll();
+
+        replicas.get(NODES.get(2)).reset();
+        gossipAll();
+
+        for (ReplicatedWordCounter replica : replicas.values()) {
+            assertEquals(1, replica.getEpoch());
+            assertEquals(0, replica.getCount("cat"));
+            assertEquals(0, replica.getTotalWords());
+        }
+
+        replicas.get(NODES.get(0)).addWord("cat");
+        gossipAll();
+        assertEquals(1, replicas.get(NODES.get(1)).getCount("cat"));
+    }
+
+    @Test
+    @DisplayName("Should count a restarted node's new increments on top of its old slot on every replica")
+    void testRestartWithEmptyCounts() throws InvalidWordException {
+        replicas.get(NODES.get(2)).reset();
+        gossipAll();
+        replicas.get(NODES.get(0)).addWords("cat", "cat");
+        gossipAll();
+        assertEquals(2, replicas.get(NODES.get(1)).getCount("cat"));
+
+        // Restarts at epoch 0 with nothing recovered
+        ReplicatedWordCounter restarted = replica(NODES.get(0),
+                WordCounterImpl.builder().withTranslator(mockTranslator).build(), null);
+        replicas.put(NODES.get(0), restarted);
+        restarted.addWord("cat");
+        gossipAll();
+        gossipAll();
+
+        assertEquals(1, restarted.getEpoch(), "Learns the cluster's epoch from the peers' answers");
+        for (ReplicatedWordCounter replica : replicas.values()) {
+            assertEquals(3, replica.getCount("cat"), "The old slot comes back to the restarted node");
+            assertEquals(3, replica.getTotalWords());
+        }
+
+        // The old incarnation's slot is folded into the new one and retired everywhere
+        gossipAll();
+        for (ReplicatedWordCounter replica : replicas.values()) {
+            assertEquals(3, replica.getCount("cat"));
+            assertEquals(3, replica.getTotalWords());
+        }
+        assertEquals(2, replicas.get(NODES.get(1)).getReplicaSlotCount());
+        assertEquals(2, replicas.get(NODES.get(2)).getReplicaSlotCount());
+        assertEquals(2, restarted.getReplicaSlotCount());
+    }
+
+    @Test
+    @DisplayName("Should carry increments no peer has seen into an epoch learned from a peer")
+    void testCarryUndeliveredIntoNewEpoch() throws InvalidWordException {
+        replicas.get(NODES.get(0)).addWord("cat");
+        gossipAll();
+        unreachable.add(NODES.get(2));
+        replicas.get(NODES.get(0)).addWords("cat", "dog");
+        replicas.get(NODES.get(0)).gossipNow();
+        unreachable.clear();
+
+        replicas.get(NODES.get(2)).reset();
+        replicas.get(NODES.get(2)).gossipNow();
+        gossipAll();
+
+        for (ReplicatedWordCounter replica : replicas.values()) {
+            assertEquals(1, replica.getEpoch());
+            assertEquals(1, replica.getCount("cat"), "Only the increment node 2 never saw survives");
+            assertEquals(1, replica.getCount("dog"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the epoch across restarts, and the incarnation only with durable counts")
+    void testStateFile() throws InvalidWordException {
+        Path stateFile = tempDir.resolve("replication.properties");
+        DurabilityConfig durability = DurabilityConfig.builder().withDirectory(tempDir.resolve("data")).build();
+        WordCounterImpl durable = WordCounterImpl.builder().withTranslator(mockTranslator)
+                .withDurability(durability).build();
+        ReplicatedWordCounter first = replica(NODES.get(0), durable, stateFile);
+        first.reset();
+        first.reset();
+        first.addWord("cat");
+        durable.close();
+
+        WordCounterImpl recovered = WordCounterImpl.builder().withTranslator(mockTranslator)
+                .withDurability(durability).build();
+        ReplicatedWordCounter second = replica(NODES.get(0), recovered, stateFile);
+        assertEquals(2, second.getEpoch());
+        assertEquals(first.getIncarnation(), second.getIncarnation());
+        assertEquals(1, second.getCount("cat"));
+        recovered.close();
+
+        ReplicatedWordCounter third = replica(NODES.get(0),
+                WordCounterImpl.builder().withTranslator(mockTranslator).build(), stateFile);
+        assertEquals(2, third.getEpoch());
+        assertNotEquals(first.getIncarnation(), third.getIncarnation());
+    }
+}
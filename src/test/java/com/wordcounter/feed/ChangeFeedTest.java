@@ -0,0 +1,222 @@
+package com.wordcounter.feed;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCount;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class ChangeFeedTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordCounterImpl wordCounter;
+    private AtomicLong now;
+    private List<Runnable> queuedSends;
+    private ChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("perro")).thenReturn("dog");
+        wordCounter = WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .withChangeTracking()
+                .build();
+        now = new AtomicLong(1_000_000);
+        queuedSends = null;
+        feed = ChangeFeed.builder()
+                .withCounter(wordCounter)
+                .withIntervalMillis(0)
+                .withHeartbeatMillis(0)
+                .withMaxLagMillis(5_000)
+                .withMaxSubscribers(2)
+                .withMaxWatchedWords(3)
+                .withMaxTopWords(10)
+                .withClock(now::get)
+                .withSendExecutor(task -> {
+                    if (queuedSends != null) {
+                        queuedSends.add(task);
+                    } else {
+                        task.run();
+                    }
+                })
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    @DisplayName("Should send a snapshot, then one coalesced event per tick for changed watched words only")
+    void testCoalescedDeltas() throws InvalidWordException {
+        wordCounter.addWords("dog", "cat");
+        RecordingSink sink = new RecordingSink();
+        ChangeFeed.Subscription subscription = feed.subscribe(Arrays.asList("Perro", "cat"), 0, sink);
+        assertEquals(2, subscription.getWatchedWords().size());
+        assertTrue(subscription.getWatchedWords().contains("dog"));
+
+        feed.tick();
+        assertEquals(1, sink.events.size());
+        FeedEvent snapshot = sink.events.get(0);
+        assertTrue(snapshot.isSnapshot());
+        assertEquals(1, snapshot.getCounts().get("dog"));
+        assertEquals(1, snapshot.getCounts().get("cat"));
+
+        wordCounter.addWords("perro", "perro", "perro", "bird");
+        feed.tick();
+        assertEquals(2, sink.events.size());
+        FeedEvent event = sink.events.get(1);
+        assertFalse(event.isSnapshot());
+        assertEquals(4, event.getCounts().get("dog"));
+        assertEquals(3, event.getDeltas().get("dog"));
+        assertFalse(event.getCounts().containsKey("cat"));
+        assertFalse(event.getCounts().containsKey("bird"));
+        assertEquals(6, event.getTotalWords());
+
+        feed.tick();
+        assertEquals(2, sink.events.size(), "Nothing changed, so nothing is sent");
+    }
+
+    @Test
+    @DisplayName("Should send the top words only when the ranking changes")
+    void testTopWords() throws InvalidWordException {
+        wordCounter.addWords("apple", "apple", "apple", "pear", "pear", "plum");
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(Collections.<String>emptyList(), 2, sink);
+
+        feed.tick();
+        assertEquals(Arrays.asList("apple=3", "pear=2"), ranking(sink.events.get(0).getTop()));
+
+        wordCounter.addWords("plum", "plum", "plum");
+        feed.tick();
+        assertEquals(Arrays.asList("plum=4", "apple=3"), ranking(sink.events.get(1).getTop()));
+
+        // A word below the top two changes the total but not the ranking
+        wordCounter.addWord("pear");
+        feed.tick();
+        assertEquals(3, sink.events.size());
+        assertNull(sink.events.get(2).getTop());
+        assertEquals(10, sink.events.get(2).getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should merge events for a slow subscriber and drop it once a send is stuck too long")
+    void testSlowSubscriber() throws InvalidWordException {
+        queuedSends = new ArrayList<>();
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(Collections.singletonList("dog"), 0, sink);
+
+        feed.tick();
+        assertEquals(1, queuedSends.size(), "Snapshot send started");
+        for (int i = 0; i < 5; i++) {
+            wordCounter.addWord("dog");
+            feed.tick();
+        }
+        assertEquals(1, queuedSends.size(), "No second send while the first is running");
+        assertEquals(5, feed.getConflatedEvents());
+
+        queuedSends.remove(0).run();
+        assertEquals(1, sink.events.size(), "Everything pending went out as one event");
+        FeedEvent merged = sink.events.get(0);
+        assertTrue(merged.isSnapshot());
+        assertEquals(5, merged.getCounts().get("dog"));
+        assertEquals(5, merged.getConflatedEvents());
+
+        wordCounter.addWord("dog");
+        feed.tick();
+        assertEquals(1, queuedSends.size());
+        now.addAndGet(6_000);
+        feed.tick();
+        assertTrue(sink.closed);
+        assertEquals(0, feed.getSubscriberCount());
+        assertEquals(1, feed.getDroppedSubscribers());
+    }
+
+    @Test
+    @DisplayName("Should tell subscribers about resets")
+    void testReset() throws InvalidWordException {
+        wordCounter.addWords("dog", "dog");
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(Collections.singletonList("dog"), 1, sink);
+        feed.tick();
+
+        wordCounter.reset();
+        wordCounter.addWord("cat");
+        feed.tick();
+        FeedEvent event = sink.events.get(1);
+        assertTrue(event.isReset());
+        assertEquals(0, event.getCounts().get("dog"));
+        assertEquals(-2, event.getDeltas().get("dog"));
+        assertEquals(Collections.singletonList("cat=1"), ranking(event.getTop()));
+    }
+
+    @Test
+    @DisplayName("Should enforce subscription limits and require change tracking")
+    void testLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> feed.subscribe(Arrays.asList("a", "b", "c", "d"), 0, new RecordingSink()));
+        assertThrows(IllegalArgumentException.class,
+                () -> feed.subscribe(Collections.<String>emptyList(), 11, new RecordingSink()));
+        assertThrows(IllegalArgumentException.class,
+                () -> feed.subscribe(Collections.singletonList("not a word"), 0, new RecordingSink()));
+
+        feed.subscribe(Collections.singletonList("dog"), 0, new RecordingSink());
+        ChangeFeed.Subscription second = feed.subscribe(Collections.singletonList("cat"), 0, new RecordingSink());
+        assertThrows(IllegalStateException.class,
+                () -> feed.subscribe(Collections.singletonList("bird"), 0, new RecordingSink()));
+        second.close();
+        assertEquals(1, feed.getSubscriberCount());
+
+        WordCounterImpl untracked = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+        assertThrows(IllegalArgumentException.class, () -> ChangeFeed.builder().withCounter(untracked).build());
+    }
+
+
+    private static List<String> ranking(List<WordCount> top) {
+        List<String> ranking = new ArrayList<>();
+        for (WordCount wordCount : top) {
+            ranking.add(wordCount.toString());
+        }
+        return ranking;
+    }
+
+
+    private static final class RecordingSink implements FeedSink {
+        private final List<FeedEvent> events = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void send(FeedEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.wordcounter.index;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCount;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class WordIndexTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordIndex wordIndex;
+    private WordCounterImpl wordCounter;
+
+    @BeforeEach
+    void setUp() throws InvalidWordException {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        wordIndex = WordIndex.builder().withMinRefreshMillis(0).build();
+        wordCounter = WordCounterImpl.builder().withTranslator(mockTranslator).withListener(wordIndex).build();
+        wordCounter.addWords("run", "run", "runner", "running", "rune", "ran", "rung", "sun", "fun", "runs");
+        wordIndex.refreshIfStale(wordCounter::snapshot);
+    }
+
+    private static List<String> words(List<WordCount> wordCounts) {
+        List<String> words = new ArrayList<>();
+        for (WordCount wordCount : wordCounts) {
+            words.add(wordCount.getWord());
+        }
+        return words;
+    }
+
+    @Test
+    @DisplayName("Should sum counts of every word with a prefix")
+    void testPrefixCount() {
+        assertEquals(7, wordIndex.getPrefixCount("run"));
+        assertEquals(6, wordIndex.getPrefixMatchCount("run"));
+        assertEquals(2, wordIndex.getPrefixCount("runn"));
+        assertEquals(8, wordIndex.getPrefixCount("r"));
+        assertEquals(0, wordIndex.getPrefixCount("x"));
+        assertEquals(0, wordIndex.getPrefixCount("runners"));
+        assertEquals(10, wordIndex.getPrefixCount(""));
+        assertEquals(Arrays.asList("run", "rune"), words(wordIndex.getPrefixMatches("run", 2)));
+    }
+
+    @Test
+    @DisplayName("Should find words within one edit, most frequent first")
+    void testFuzzyMatches() {
+        List<String> matches = words(wordIndex.getFuzzyMatches("run", 1, 10));
+
+        assertEquals("run", matches.get(0));
+        assertTrue(matches.containsAll(Arrays.asList("ran", "rune", "rung", "runs", "sun", "fun")));
+        assertFalse(matches.contains("runner"));
+        assertEquals(Collections.singletonList("running"), words(wordIndex.getFuzzyMatches("runing", 1, 10)));
+        assertThrows(IllegalArgumentException.class, () -> wordIndex.getFuzzyMatches("run", 3, 10));
+    }
+
+    @Test
+    @DisplayName("Should pick up new counts and resets on the next refresh")
+    void testRefresh() throws InvalidWordException {
+        wordCounter.addWord("runway");
+        assertEquals(7, wordIndex.getPrefixCount("run"));
+
+        wordIndex.refreshIfStale(wordCounter::snapshot);
+        assertEquals(8, wordIndex.getPrefixCount("run"));
+
+        wordCounter.reset();
+        wordIndex.refreshIfStale(wordCounter::snapshot);
+        assertEquals(0, wordIndex.getIndexedWordCount());
+    }
+}
@@ -0,0 +1,149 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.Translator;
+import com.wordcounter.admission.ClientRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdmissionControlFilterTest {
+
+    private static final int MISS_COST = 10;
+
+    @Mock
+    private Translator mockTranslator;
+
+    @Mock
+    private FilterChain chain;
+
+    private AtomicLong nanos;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.requiresRemoteLookup(anyString())).thenReturn(false);
+        when(mockTranslator.requiresRemoteLookup("perro")).thenReturn(true);
+        nanos = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+        ClientRateLimiter limiter = ClientRateLimiter.builder()
+                .withTokensPerSecond(1)
+                .withBurstTokens(20)
+                .withNanoClock(nanos::get)
+                .build();
+        filter = new AdmissionControlFilter(limiter, mockTranslator, MISS_COST, 4, 1024);
+    }
+
+    @Test
+    @DisplayName("Should price a body by its words and distinct remote lookups")
+    void testPriceBody() {
+        AdmissionControlFilter.Price batch = filter.priceBody(bytes("{\"words\":[\"perro\",\"dog\",\"Perro\"]}"));
+        assertEquals(3, batch.getWords());
+        assertEquals(1, batch.getMisses());
+        assertEquals(3 + MISS_COST, batch.tokens(MISS_COST));
+
+        AdmissionControlFilter.Price single = filter.priceBody(bytes("{\"word\":\"dog\",\"other\":[\"perro\"]}"));
+        assertEquals(1, single.getWords());
+        assertEquals(0, single.getMisses());
+
+        // Priced by what was parsed before the error
+        AdmissionControlFilter.Price malformed = filter.priceBody(bytes("{\"words\":[\"dog\",\"cat\","));
+        assertEquals(2, malformed.getWords());
+        assertEquals(1, filter.priceBody(bytes("not json")).tokens(MISS_COST));
+    }
+
+    @Test
+    @DisplayName("Should price a word count lookup by its word and anything else at one token")
+    void testPricePath() {
+        AdmissionControlFilter.Price lookup = filter.pricePath("/api/wordcounter/words/perro/count");
+        assertEquals(1, lookup.getWords());
+        assertEquals(1, lookup.getMisses());
+        assertEquals(0, filter.pricePath("/api/wordcounter/words/dog/count").getMisses());
+        assertEquals(1, filter.pricePath("/api/wordcounter/words/%50erro/count").getMisses());
+
+        assertEquals(0, filter.pricePath("/api/wordcounter/words//count").getMisses());
+        assertEquals(1, filter.pricePath("/api/wordcounter/stats").tokens(MISS_COST));
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a client's bucket is spent")
+    void testRateLimited() throws Exception {
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(post("bulk", "{\"words\":[\"perro\",\"dog\"]}"), admitted, chain);
+        assertEquals(200, admitted.getStatus());
+        verify(chain, times(1)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(post("bulk", words(10)), rejected, chain);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("3", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("retryAfterSeconds"));
+        verify(chain, times(1)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        assertEquals(1, filter.getRateLimitedRequests());
+
+        // Other clients are unaffected
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(post("quiet", "{\"word\":\"dog\"}"), other, chain);
+        assertEquals(200, other.getStatus());
+        assertEquals(2, filter.getAdmittedRequests());
+    }
+
+    @Test
+    @DisplayName("Should turn away a client in debt without reading its body")
+    void testRejectInDebtBeforeReadingBody() throws Exception {
+        filter.doFilter(post("bulk", "{\"words\":[\"perro\",\"perro\"]}"), new MockHttpServletResponse(), chain);
+        // Fits the burst, leaving the client a full burst in debt
+        filter.doFilter(post("bulk", words(8)), new MockHttpServletResponse(), chain);
+
+        HttpServletRequest inDebt = mock(HttpServletRequest.class);
+        when(inDebt.getMethod()).thenReturn("POST");
+        when(inDebt.getHeader("X-Client-Id")).thenReturn("bulk");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(inDebt, response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        verify(inDebt, never()).getInputStream();
+        verify(chain, times(2)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    private static MockHttpServletRequest post(String clientId, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/wordcounter/words/batch");
+        request.addHeader("X-Client-Id", clientId);
+        request.setContentType("application/json");
+        request.setContent(bytes(body));
+        return request;
+    }
+
+    private static String words(int count) {
+        StringBuilder body = new StringBuilder("{\"words\":[");
+        for (int i = 0; i < count; i++) {
+            body.append(i > 0 ? "," : "").append("\"w").append((char) ('a' + i)).append('"');
+        }
+        return body.append("]}").toString();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
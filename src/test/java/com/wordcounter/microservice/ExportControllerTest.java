@@ -0,0 +1,92 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCounterImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportControllerTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordCounterImpl wordCounter;
+    private ExportController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        wordCounter = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+        controller = new ExportController(wordCounter);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wordCounter.close();
+    }
+
+    @Test
+    @DisplayName("Should not retain a snapshot exported in one piece")
+    void testUnpagedExportRetainsNothing() throws Exception {
+        wordCounter.addWords("cat", "dog", "dog");
+
+        MvcResult result = mockMvc.perform(get("/api/wordcounter/export").param("format", "csv")).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("word,count\ncat,1\ndog,2\n"));
+
+        assertEquals(0, controller.getRetainedSnapshotCount());
+    }
+
+    @Test
+    @DisplayName("Should retain a paged snapshot until its last page is streamed")
+    void testPagedSnapshotReleasedAfterLastPage() throws Exception {
+        wordCounter.addWords("bird", "cat", "dog");
+
+        MvcResult first = mockMvc.perform(get("/api/wordcounter/export")
+                        .param("format", "csv")
+                        .param("limit", "2"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Offset", "2"));
+        assertEquals(1, controller.getRetainedSnapshotCount());
+
+        String snapshotId = first.getResponse().getHeader("X-Snapshot-Id");
+        MvcResult last = mockMvc.perform(get("/api/wordcounter/export")
+                        .param("format", "csv")
+                        .param("offset", "2")
+                        .param("limit", "2")
+                        .param("snapshotId", snapshotId))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(last))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Offset"))
+                .andExpect(content().string("word,count\ndog,1\n"));
+        assertEquals(0, controller.getRetainedSnapshotCount());
+
+        mockMvc.perform(get("/api/wordcounter/export")
+                        .param("offset", "2")
+                        .param("snapshotId", snapshotId))
+                .andExpect(status().isGone());
+    }
+}
@@ -0,0 +1,217 @@
+package com.wordcounter.microservice;
+
+import com.wordcounter.Translator;
+import com.wordcounter.VersionWatcher;
+import com.wordcounter.WordCounter;
+import com.wordcounter.WordCounterImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class WordCounterControllerTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    @Mock
+    private WordCounter unversionedCounter;
+
+    private WordCounterImpl wordCounter;
+    private VersionWatcher watcher;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(unversionedCounter.getVersion()).thenReturn(-1L);
+        wordCounter = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+        // Polled by the tests, so a waiter wakes exactly when a test says so
+        watcher = VersionWatcher.builder()
+                .withVersion(wordCounter::getVersion)
+                .withPollMillis(0)
+                .build();
+        mockMvc = MockMvcBuilders.standaloneSetup(new WordCounterController(wordCounter, watcher)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.close();
+        wordCounter.close();
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match on a word count with 304 and no body")
+    void testWordCountNotModified() throws Exception {
+        wordCounter.addWords("flower", "flower");
+
+        String etag = mockMvc.perform(get("/api/wordcounter/words/flower/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/wordcounter/words/flower/count").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Other words changing leaves this word's ETag as it was
+        wordCounter.addWord("tree");
+        mockMvc.perform(get("/api/wordcounter/words/flower/count").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        wordCounter.addWord("flower");
+        mockMvc.perform(get("/api/wordcounter/words/flower/count").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3));
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match on the stats with 304 and no body")
+    void testStatsNotModified() throws Exception {
+        wordCounter.addWord("flower");
+
+        String etag = mockMvc.perform(get("/api/wordcounter/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalWords").value(1))
+                .andExpect(jsonPath("$.version").value(wordCounter.getVersion()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/wordcounter/stats").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        wordCounter.addWord("tree");
+        mockMvc.perform(get("/api/wordcounter/stats").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalWords").value(2));
+    }
+
+    @Test
+    @DisplayName("Should wake a stats waiter when the version moves")
+    void testAwaitStatsWakes() throws Exception {
+        long version = wordCounter.getVersion();
+        MvcResult waiting = mockMvc.perform(get("/api/wordcounter/stats")
+                        .param("waitForVersion", Long.toString(version)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        watcher.poll();
+        assertEquals(1, watcher.getWaitingCount());
+
+        wordCounter.addWord("flower");
+        watcher.poll();
+        mockMvc.perform(asyncDispatch(waiting))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v" + wordCounter.getVersion() + "\""))
+                .andExpect(jsonPath("$.totalWords").value(1));
+    }
+
+    @Test
+    @DisplayName("Should wake a word count waiter only when that word's count changes")
+    void testAwaitWordCountWakes() throws Exception {
+        wordCounter.addWord("flower");
+        long version = wordCounter.getVersion();
+        MvcResult waiting = mockMvc.perform(get("/api/wordcounter/words/flower/count")
+                        .param("waitForVersion", Long.toString(version))
+                        .header("If-None-Match", "\"c1\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        wordCounter.addWord("tree");
+        watcher.poll();
+        assertEquals(1, watcher.getWaitingCount(), "Another word changed; still waiting");
+
+        wordCounter.addWord("flower");
+        watcher.poll();
+        mockMvc.perform(asyncDispatch(waiting))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"c2\""))
+                .andExpect(header().string("X-Counts-Version", Long.toString(wordCounter.getVersion())))
+                .andExpect(jsonPath("$.count").value(2));
+    }
+
+    @Test
+    @DisplayName("Should answer waiters with 304 when nothing changes before the timeout")
+    void testAwaitTimesOut() throws Exception {
+        wordCounter.addWord("flower");
+        long version = wordCounter.getVersion();
+
+        MvcResult stats = mockMvc.perform(get("/api/wordcounter/stats")
+                        .param("waitForVersion", Long.toString(version))
+                        .param("timeoutMs", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        expire(stats);
+        mockMvc.perform(asyncDispatch(stats))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v" + version + "\""))
+                .andExpect(content().string(""));
+
+        MvcResult count = mockMvc.perform(get("/api/wordcounter/words/flower/count")
+                        .param("waitForVersion", Long.toString(version))
+                        .param("timeoutMs", "10")
+                        .header("If-None-Match", "\"c1\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        expire(count);
+        mockMvc.perform(asyncDispatch(count))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"c1\""))
+                .andExpect(content().string(""));
+
+        assertEquals(0, watcher.getWaitingCount());
+    }
+
+    @Test
+    @DisplayName("Should answer 501 to waiters when the counter does not track a version")
+    void testAwaitWithoutVersion() throws Exception {
+        MockMvc unversioned = MockMvcBuilders
+                .standaloneSetup(new WordCounterController(unversionedCounter, watcher))
+                .build();
+
+        MvcResult stats = unversioned.perform(get("/api/wordcounter/stats").param("waitForVersion", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        unversioned.perform(asyncDispatch(stats))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.success").value(false));
+
+        MvcResult count = unversioned.perform(get("/api/wordcounter/words/flower/count")
+                        .param("waitForVersion", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        unversioned.perform(asyncDispatch(count))
+                .andExpect(status().isNotImplemented());
+        assertEquals(0, watcher.getWaitingCount());
+    }
+
+    // MockMvc runs no timers, so a timeout is delivered the way the container would deliver it
+    private static void expire(MvcResult result) throws Exception {
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.wordcounter.namespace;
+
+import com.wordcounter.Translator;
+import com.wordcounter.exception.InvalidWordException;
+import com.wordcounter.exception.WordLimitExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class NamespaceRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private Translator mockTranslator;
+
+    private NamespaceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("flor")).thenReturn("flower");
+
+        registry = NamespaceRegistry.builder()
+                .withTranslator(mockTranslator)
+                .withSpillDirectory(directory)
+                .withMaxUniqueWordsPerNamespace(3)
+                .withIdleEvictionMillis(0)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Should keep namespaces isolated")
+    void testIsolation() throws InvalidWordException {
+        registry.execute("news", counter -> {
+            counter.addWords("flower", "flor");
+            return null;
+        });
+        registry.execute("blogs", counter -> {
+            counter.addWord("flower");
+            return null;
+        });
+
+        assertEquals(2, (int) registry.execute("news", counter -> counter.getCount("flower")));
+        assertEquals(1, (int) registry.execute("blogs", counter -> counter.getCount("flor")));
+        assertEquals(0, (int) registry.execute("empty", counter -> counter.getTotalWords()));
+    }
+
+    @Test
+    @DisplayName("Should spill idle namespaces and load them back on access")
+    void testEvictAndReload() throws InvalidWordException {
+        registry.execute("news", counter -> {
+            counter.addWords("flower", "dog", "dog");
+            return null;
+        });
+
+        assertEquals(1, registry.evictIdle(0));
+        assertEquals(0, registry.getResidentCount());
+
+        assertEquals(2, (int) registry.execute("news", counter -> counter.getCount("dog")));
+        assertEquals(3, (int) registry.execute("news", counter -> counter.getTotalWords()));
+        assertEquals(1, registry.getResidentCount());
+    }
+
+    @Test
+    @DisplayName("Should keep the spill after loading, so a crash before the next spill loses nothing")
+    void testSpillSurvivesCrashAfterReload() throws InvalidWordException {
+        registry.execute("news", counter -> {
+            counter.addWords("dog", "dog");
+            return null;
+        });
+        registry.evictIdle(0);
+        assertEquals(2, (int) registry.execute("news", counter -> counter.getCount("dog")));
+
+        // A second registry over the same directory stands in for the restarted process
+        NamespaceRegistry restarted = NamespaceRegistry.builder()
+                .withTranslator(mockTranslator)
+                .withSpillDirectory(directory)
+                .withIdleEvictionMillis(0)
+                .build();
+        assertEquals(2, (int) restarted.execute("news", counter -> counter.getCount("dog")));
+    }
+
+    @Test
+    @DisplayName("Should not bring back the spill of a namespace reset since it was loaded")
+    void testResetNamespaceDropsSpill() throws InvalidWordException {
+        registry.execute("news", counter -> {
+            counter.addWords("dog", "dog");
+            return null;
+        });
+        registry.evictIdle(0);
+        registry.execute("news", counter -> {
+            counter.reset();
+            return null;
+        });
+        registry.evictIdle(0);
+
+        assertEquals(0, (int) registry.execute("news", counter -> counter.getTotalWords()));
+    }
+
+    @Test
+    @DisplayName("Should enforce the per-namespace word limit")
+    void testWordLimit() throws InvalidWordException {
+        registry.execute("small", counter -> {
+            counter.addWords("cat", "dog", "bird", "cat");
+            return null;
+        });
+
+        assertThrows(WordLimitExceededException.class, () -> registry.execute("small", counter -> {
+            counter.addWord("fish");
+            return null;
+        }));
+        assertEquals(4, (int) registry.execute("small", counter -> counter.getTotalWords()));
+    }
+
+    @Test
+    @DisplayName("Should reject namespace names that are not safe path segments")
+    void testInvalidNamespace() {
+        assertThrows(IllegalArgumentException.class, () -> registry.execute("../etc", counter -> null));
+        assertThrows(IllegalArgumentException.class, () -> registry.execute("", counter -> null));
+    }
+}
@@ -0,0 +1,165 @@
+package com.wordcounter.persistence;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class DurableWordCounterTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private Translator mockTranslator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("flor")).thenReturn("flower");
+    }
+
+    private WordCounterImpl open() {
+        return WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .withDurability(DurabilityConfig.builder()
+                        .withDirectory(directory)
+                        .withSnapshotIntervalMillis(3_600_000)
+                        .build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should restore counts after a clean close")
+    void testRecoverAfterClose() throws InvalidWordException {
+        WordCounterImpl counter = open();
+        counter.addWords("flower", "flor", "dog");
+        counter.close();
+
+        WordCounterImpl reopened = open();
+        assertEquals(2, reopened.getCount("flower"));
+        assertEquals(1, reopened.getCount("dog"));
+        assertEquals(3, reopened.getTotalWords());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should replay log written after the last snapshot")
+    void testReplayLogAfterSnapshot() throws Exception {
+        WordCounterImpl counter = open();
+        counter.addWords("cat", "cat");
+        counter.checkpoint();
+        counter.addWords("cat", "dog");
+        counter.flush();
+
+        // Simulate a crash: reopen without closing
+        WordCounterImpl recovered = open();
+        assertEquals(3, recovered.getCount("cat"));
+        assertEquals(1, recovered.getCount("dog"));
+        assertEquals(4, recovered.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should snapshot and recover a canonical word over 64 KiB")
+    void testSnapshotLongWord() throws Exception {
+        char[] letters = new char[70_000];
+        Arrays.fill(letters, 'x');
+        String longWord = new String(letters);
+        when(mockTranslator.translate("long")).thenReturn(longWord);
+
+        WordCounterImpl counter = open();
+        counter.addWords("long", "cat");
+        counter.checkpoint();
+        counter.close();
+
+        Map<String, Integer> snapshot = new HashMap<>();
+        CountSnapshot.read(directory, new WriteAheadLog.RecordHandler() {
+            @Override
+            public void onIncrement(String word, int delta) {
+                snapshot.merge(word, delta, Integer::sum);
+            }
+
+            @Override
+            public void onReset() {
+                snapshot.clear();
+            }
+        });
+        assertEquals(Integer.valueOf(1), snapshot.get(longWord));
+        assertEquals(Integer.valueOf(1), snapshot.get("cat"));
+
+        WordCounterImpl reopened = open();
+        assertEquals(1, reopened.getCount("long"));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should replay resets")
+    void testReplayReset() throws Exception {
+        WordCounterImpl counter = open();
+        counter.addWords("cat", "dog");
+        counter.reset();
+        counter.addWord("bird");
+        counter.flush();
+
+        WordCounterImpl recovered = open();
+        assertEquals(0, recovered.getCount("cat"));
+        assertEquals(1, recovered.getCount("bird"));
+        assertEquals(1, recovered.getTotalWords());
+    }
+
+    @Test
+    @DisplayName("Should ignore a torn record at the end of the log")
+    void testIgnoreTornTail() throws Exception {
+        WordCounterImpl counter = open();
+        counter.addWords("cat", "dog");
+        counter.flush();
+
+        List<Long> segments = WriteAheadLog.listSegmentIds(directory);
+        try (RandomAccessFile file = new RandomAccessFile(
+                WriteAheadLog.segmentPath(directory, segments.get(segments.size() - 1)).toFile(), "rw")) {
+            file.setLength(file.length() - 2);
+        }
+
+        WordCounterImpl recovered = open();
+        assertEquals(1, recovered.getCount("cat"));
+        assertEquals(0, recovered.getCount("dog"));
+    }
+
+    @Test
+    @DisplayName("Should treat an impossible record length as a torn tail instead of allocating it")
+    void testIgnoreGarbageLength() throws Exception {
+        WordCounterImpl counter = open();
+        counter.addWords("cat", "dog");
+        counter.flush();
+
+        List<Long> segments = WriteAheadLog.listSegmentIds(directory);
+        try (RandomAccessFile file = new RandomAccessFile(
+                WriteAheadLog.segmentPath(directory, segments.get(segments.size() - 1)).toFile(), "rw")) {
+            file.seek(file.length());
+            file.writeInt(Integer.MAX_VALUE);
+            file.writeInt(0);
+            file.write(new byte[16]);
+        }
+
+        WordCounterImpl recovered = open();
+        assertEquals(1, recovered.getCount("cat"));
+        assertEquals(1, recovered.getCount("dog"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.wordcounter.phrase;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCount;
+import com.wordcounter.WordCounter;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class PhraseCounterTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordCounterImpl wordCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("flor")).thenReturn("flower");
+        when(mockTranslator.translate("roja")).thenReturn("red");
+        wordCounter = WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .withPhraseCounting(3)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should count bigrams and trigrams within a batch under canonical words")
+    void testCountsPhrases() throws InvalidWordException {
+        wordCounter.addWords("machine", "learning", "is", "machine", "learning");
+        wordCounter.addWords("red", "flower");
+        wordCounter.addWords("Flor", "roja", "flower");
+
+        assertEquals(2, wordCounter.getPhraseCount(Arrays.asList("machine", "learning")));
+        assertEquals(1, wordCounter.getPhraseCount(Arrays.asList("learning", "is", "machine")));
+        assertEquals(2, wordCounter.getPhraseCount(Arrays.asList("red", "flower")));
+        assertEquals(1, wordCounter.getPhraseCount(Arrays.asList("flor", "roja")));
+        // Batches are separate streams, so no phrase spans two of them
+        assertEquals(0, wordCounter.getPhraseCount(Arrays.asList("learning", "red")));
+        assertEquals(0, wordCounter.getPhraseCount(Arrays.asList("unknown", "words")));
+        assertEquals(2, wordCounter.getCount("machine"));
+
+        List<WordCount> top = wordCounter.getTopPhrases(2, 1);
+        assertEquals("machine learning", top.get(0).getWord());
+        assertEquals(2, top.get(0).getCount());
+        assertThrows(IllegalArgumentException.class, () -> wordCounter.getPhraseCount(Arrays.asList("machine")));
+
+        wordCounter.reset();
+        assertEquals(0, wordCounter.getPhraseCount(Arrays.asList("machine", "learning")));
+    }
+
+    @Test
+    @DisplayName("Should reject phrase queries when phrase counting is disabled")
+    void testDisabled() {
+        WordCounter plain = WordCounterImpl.builder().withTranslator(mockTranslator).build();
+
+        assertFalse(plain.supportsPhrases());
+        assertTrue(wordCounter.supportsPhrases());
+
+        assertThrows(UnsupportedOperationException.class, () -> plain.getPhraseCount(Arrays.asList("a", "b")));
+        assertThrows(UnsupportedOperationException.class, () -> plain.getTopPhrases(2, 10));
+        assertThrows(IllegalArgumentException.class, () -> new PhraseCounter(4));
+    }
+
+    @Test
+    @DisplayName("Should count exactly under concurrent batches")
+    void testConcurrentBatches() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    wordCounter.addWords("big", "data", "big", "data", wordFor(i));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(16_000, wordCounter.getPhraseCount(Arrays.asList("big", "data")));
+        assertEquals(8_000, wordCounter.getPhraseCount(Arrays.asList("data", "big", "data")));
+        assertEquals(8, wordCounter.getPhraseCount(Arrays.asList("big", "data", wordFor(7))));
+    }
+
+    @Test
+    @DisplayName("Should forget word ids on reset")
+    void testResetForgetsWordIds() {
+        PhraseCounter phrases = new PhraseCounter(3);
+        for (int i = 0; i < 1_000; i++) {
+            phrases.addSequence(Arrays.asList(wordFor(i), wordFor(i + 1), wordFor(i + 2)));
+        }
+        long bytesBefore = phrases.getMemoryBytes();
+
+        phrases.reset();
+        assertTrue(phrases.getMemoryBytes() < bytesBefore);
+        assertEquals(0, phrases.getPhraseCount(2));
+        assertEquals(0, phrases.getCount(Arrays.asList(wordFor(0), wordFor(1))));
+
+        phrases.addSequence(Arrays.asList(wordFor(5), wordFor(0), wordFor(1)));
+        assertEquals(1, phrases.getCount(Arrays.asList(wordFor(0), wordFor(1))));
+        assertEquals(wordFor(5) + " " + wordFor(0) + " " + wordFor(1), phrases.getTopPhrases(3, 1).get(0).getWord());
+    }
+
+    @Test
+    @DisplayName("Should keep a phrase in far less memory than a String-keyed map entry")
+    void testMemory() {
+        PhraseCounter phrases = new PhraseCounter(2);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            words.add(wordFor(i));
+        }
+        for (int repeat = 0; repeat < 2; repeat++) {
+            for (int i = 0; i < 1_000; i++) {
+                for (int j = 0; j < 200; j++) {
+                    phrases.addSequence(Arrays.asList(words.get(i), words.get(j)));
+                }
+            }
+        }
+
+        assertEquals(200_000, phrases.getPhraseCount(2));
+        assertEquals(2, phrases.getCount(Arrays.asList(words.get(10), words.get(11))));
+        // Word ids included; a HashMap<String, Integer> entry for a two-word phrase alone is over 100 bytes
+        long bytesPerPhrase = phrases.getMemoryBytes() / 200_000;
+        assertTrue(bytesPerPhrase < 40, "Bytes per phrase: " + bytesPerPhrase);
+    }
+
+    // Distinct letters-only words, so they pass validation
+    private static String wordFor(int rank) {
+        StringBuilder word = new StringBuilder("p");
+        do {
+            word.append((char) ('a' + rank % 26));
+            rank /= 26;
+        } while (rank > 0);
+        return word.toString();
+    }
+}
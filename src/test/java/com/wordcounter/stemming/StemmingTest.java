@@ -0,0 +1,85 @@
+package com.wordcounter.stemming;
+
+import com.wordcounter.Translator;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class StemmingTest {
+
+    @Mock
+    private Translator mockTranslator;
+
+    private PorterStemmer porterStemmer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockTranslator.translate("casa")).thenReturn("house");
+        when(mockTranslator.isTranslationAvailable("casa")).thenReturn(true);
+        porterStemmer = new PorterStemmer();
+    }
+
+    @Test
+    @DisplayName("Should match the reference Porter stemmer output")
+    void testPorterVocabulary() {
+        String[][] cases = {
+                {"caresses", "caress"}, {"ponies", "poni"}, {"cats", "cat"}, {"feed", "feed"},
+                {"agreed", "agre"}, {"plastered", "plaster"}, {"motoring", "motor"}, {"sing", "sing"},
+                {"conflated", "conflat"}, {"hopping", "hop"}, {"falling", "fall"}, {"filing", "file"},
+                {"happy", "happi"}, {"relational", "relat"}, {"generalization", "gener"},
+                {"hopeful", "hope"}, {"goodness", "good"}, {"adjustment", "adjust"}, {"controll", "control"},
+                {"flowers", "flower"}, {"flowering", "flower"}, {"running", "run"}, {"is", "is"}
+        };
+        for (String[] c : cases) {
+            assertEquals(c[1], porterStemmer.stem(c[0]), c[0]);
+        }
+        assertEquals("café", porterStemmer.stem("café"));
+    }
+
+    @Test
+    @DisplayName("Should stem each surface form once and stay within the cache bound")
+    void testCachingStemmer() {
+        AtomicInteger calls = new AtomicInteger();
+        CachingStemmer stemmer = new CachingStemmer(word -> {
+            calls.incrementAndGet();
+            return porterStemmer.stem(word);
+        }, 10);
+
+        assertEquals("flower", stemmer.stem("flowers"));
+        assertEquals("flower", stemmer.stem("flowers"));
+        assertEquals(1, calls.get());
+
+        for (int i = 0; i < 100; i++) {
+            stemmer.stem("word" + i);
+        }
+        assertTrue(stemmer.getCacheSize() <= 10);
+    }
+
+    @Test
+    @DisplayName("Should count inflected and translated forms under one key")
+    void testCounterWithStemmer() throws InvalidWordException {
+        WordCounterImpl wordCounter = WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .withStemmer(porterStemmer)
+                .build();
+
+        wordCounter.addWords("flowers", "flowering", "flower", "houses", "casa");
+
+        assertEquals(3, wordCounter.getCount("flower"));
+        assertEquals(2, wordCounter.getCount("house"));
+        assertEquals(2, wordCounter.getUniqueWordCount());
+        verify(mockTranslator, never()).translate("flowers");
+    }
+}
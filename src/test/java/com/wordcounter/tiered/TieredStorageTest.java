@@ -0,0 +1,222 @@
+package com.wordcounter.tiered;
+
+import com.wordcounter.CountsSnapshot;
+import com.wordcounter.Translator;
+import com.wordcounter.WordCounterImpl;
+import com.wordcounter.exception.InvalidWordException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class TieredStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private Translator mockTranslator;
+
+    private WordCounterImpl wordCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        wordCounter = WordCounterImpl.builder()
+                .withTranslator(mockTranslator)
+                .withTieredStorage(TieredStorageConfig.builder()
+                        .withDirectory(tempDir)
+                        .withMemoryBudgetBytes(64 * 1024)
+                        .withSpillIntervalMillis(0)
+                        .withMaxRuns(3)
+                        .withSpillBatchWords(100)
+                        .build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wordCounter.close();
+    }
+
+    private static String word(int i) {
+        StringBuilder word = new StringBuilder("w");
+        do {
+            word.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return word.toString();
+    }
+
+    @Test
+    @DisplayName("Should spill untouched words to disk and keep every count exact")
+    void testSpillKeepsCounts() throws InvalidWordException {
+        for (int i = 0; i < 2000; i++) {
+            wordCounter.addWord(word(i));
+        }
+        wordCounter.addWords("hot", "hot");
+        assertTrue(wordCounter.getHotMemoryBytes() > 64 * 1024);
+        long version = wordCounter.getVersion();
+
+        int spilled = wordCounter.spillColdWords();
+        assertTrue(spilled > 0);
+        assertTrue(wordCounter.getVersion() > version, "Tier sizes in the stats changed");
+        assertTrue(wordCounter.getHotMemoryBytes() <= 48 * 1024);
+        assertTrue(wordCounter.getColdStore().getUniqueWordCount() > 0);
+
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(1, wordCounter.getCount(word(i)), word(i));
+        }
+        assertEquals(2, wordCounter.getCount("hot"));
+        assertEquals(2002, wordCounter.getTotalWords());
+        assertEquals(2001, wordCounter.getUniqueWordCount());
+    }
+
+    @Test
+    @DisplayName("Should add new counts of a spilled word to its cold count")
+    void testSpilledWordCountedAgain() throws InvalidWordException {
+        for (int i = 0; i < 2000; i++) {
+            wordCounter.addWord(word(i));
+        }
+        wordCounter.spillColdWords();
+        wordCounter.addWords(word(0), word(1), word(1));
+        for (int i = 2000; i < 4000; i++) {
+            wordCounter.addWord(word(i));
+        }
+        wordCounter.spillColdWords();
+
+        assertEquals(2, wordCounter.getCount(word(0)));
+        assertEquals(3, wordCounter.getCount(word(1)));
+        assertEquals(4000, wordCounter.getUniqueWordCount());
+
+        CountsSnapshot snapshot = wordCounter.snapshot();
+        assertEquals(4000, snapshot.getUniqueWordCount());
+        assertEquals(4003, snapshot.getTotalWords());
+        assertEquals(3, snapshot.getCount(word(1)));
+        for (int i = 1; i < snapshot.getUniqueWordCount(); i++) {
+            assertTrue(snapshot.getWord(i - 1).compareTo(snapshot.getWord(i)) < 0, "Snapshot words stay sorted");
+        }
+        Map<String, Integer> copy = wordCounter.copyCounts();
+        assertEquals(4000, copy.size());
+        assertEquals(2, copy.get(word(0)).intValue());
+    }
+
+    @Test
+    @DisplayName("Should compact runs past the limit and clear them on reset")
+    void testCompactionAndReset() throws InvalidWordException, IOException {
+        for (int round = 0; round < 6; round++) {
+            for (int i = 0; i < 1000; i++) {
+                wordCounter.addWord(word(i));
+            }
+            wordCounter.spillColdWords();
+            wordCounter.spillColdWords();
+        }
+        ColdStore coldStore = wordCounter.getColdStore();
+        assertTrue(coldStore.getCompactions() > 0);
+        assertTrue(coldStore.getRunCount() <= 3);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(6, wordCounter.getCount(word(i)), word(i));
+        }
+        assertEquals(1000, wordCounter.getUniqueWordCount());
+
+        wordCounter.reset();
+        assertEquals(0, wordCounter.getCount(word(0)));
+        assertEquals(0, coldStore.getRunCount());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not lose increments that race with spills")
+    void testConcurrentWritesDuringSpills() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean spilling = new AtomicBoolean(true);
+        Thread spiller = new Thread(() -> {
+            while (spilling.get()) {
+                wordCounter.spillColdWords();
+            }
+        });
+        spiller.start();
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    wordCounter.addWord(word(i % 3000));
+                }
+                return null;
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        spilling.set(false);
+        spiller.join();
+
+        assertTrue(wordCounter.getColdStore().getSpilledWords() > 0);
+        assertEquals(80_000, wordCounter.getTotalWords());
+        long sum = 0;
+        for (int i = 0; i < 3000; i++) {
+            sum += wordCounter.getCount(word(i));
+        }
+        assertEquals(80_000, sum);
+    }
+
+    @Test
+    @DisplayName("Should merge runs of similar size and leave a much larger run alone")
+    void testSizeTieredCompaction() throws IOException {
+        Path directory = tempDir.resolve("tiers");
+        try (ColdStore store = ColdStore.open(directory, 3)) {
+            spill(store, 0, 1000);
+            Path large;
+            try (Stream<Path> files = Files.list(directory)) {
+                large = files.findFirst().orElseThrow(AssertionError::new);
+            }
+
+            for (int batch = 0; batch < 6; batch++) {
+                spill(store, 2000 + batch * 10, 10);
+            }
+            assertEquals(2, store.getCompactions());
+            assertTrue(store.getRunCount() <= 3);
+            assertTrue(Files.exists(large), "The large run was never rewritten");
+            assertEquals(1, store.get(word(5)));
+            assertEquals(1, store.get(word(2055)));
+            assertEquals(1060, store.getUniqueWordCount());
+
+            store.compact();
+            assertEquals(1, store.getRunCount());
+            assertFalse(Files.exists(large));
+            assertEquals(1060, store.getUniqueWordCount());
+        }
+    }
+
+    private static void spill(ColdStore store, int from, int count) throws IOException {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = word(from + i);
+        }
+        Arrays.sort(words);
+        int[] counts = new int[count];
+        Arrays.fill(counts, 1);
+        ColdStore.Batch batch = store.prepare(words, counts, count);
+        store.publish(batch);
+        store.persist(batch);
+    }
+}
@@ -0,0 +1,185 @@
+package com.wordcounter.warmup;
+
+import com.wordcounter.CountsSnapshot;
+import com.wordcounter.Translator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TranslationWarmupTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private Translator mockTranslator;
+
+    private final List<String> translatedWords = new CopyOnWriteArrayList<>();
+    // Words the mock translator has cached; the others need a remote lookup
+    private final Set<String> cachedWords = ConcurrentHashMap.newKeySet();
+    private TranslationWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockTranslator.isCached(anyString()))
+                .thenAnswer(invocation -> cachedWords.contains(invocation.<String>getArgument(0)));
+        when(mockTranslator.translate(anyString())).thenAnswer(invocation -> {
+            translatedWords.add(invocation.getArgument(0));
+            cachedWords.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (warmup != null) {
+            warmup.close();
+        }
+    }
+
+    private TranslationWarmup.Builder builder() {
+        return TranslationWarmup.builder()
+                .withTranslator(mockTranslator)
+                .withWordsPerSecond(10_000)
+                .withConcurrency(1);
+    }
+
+    private void awaitWarm() throws InterruptedException {
+        for (int i = 0; i < 500 && warmup.getRemainingCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, warmup.getRemainingCount());
+    }
+
+    @Test
+    @DisplayName("Should warm unweighted vocabulary words in file order before weighted and top words")
+    void testPriorityOrder() throws Exception {
+        Path vocabulary = tempDir.resolve("vocabulary.txt");
+        Files.write(vocabulary, Arrays.asList("# common words", "Hola", "gracias", "", "perro\t5", "gato,50",
+                "not a word", "bad\tweight"), StandardCharsets.UTF_8);
+        Map<String, Integer> counts = new HashMap<>();
+        counts.put("house", 40);
+        counts.put("tree", 7);
+        counts.put("rare", 1);
+        counts.put("hola", 99);
+
+        warmup = builder().build();
+        assertEquals(4, warmup.addVocabulary(vocabulary));
+        assertEquals(2, warmup.addTopWords(CountsSnapshot.of(counts), 3), "hola is already planned");
+        assertEquals(6, warmup.getPlannedWordCount());
+        warmup.start();
+        awaitWarm();
+
+        assertEquals(Arrays.asList("hola", "gracias", "gato", "house", "tree", "perro"), translatedWords);
+        assertEquals(6, warmup.getTranslatedCount());
+        assertEquals(1.0, warmup.getWarmFraction());
+        assertTrue(warmup.isWarm(0.9));
+    }
+
+    @Test
+    @DisplayName("Should skip words the translator already has and not count failed lookups as warm")
+    void testAlreadyWarmAndFailures() throws Exception {
+        cachedWords.add("cached");
+        doThrow(new IllegalStateException("service down")).when(mockTranslator).translate("broken");
+        // Answered with the word itself but left uncached, as DefaultTranslator does when the service fails
+        doReturn("unreachable").when(mockTranslator).translate("unreachable");
+
+        warmup = builder().withRetryMillis(60_000).build();
+        warmup.add("cached", 1);
+        warmup.add("broken", 1);
+        warmup.add("unreachable", 1);
+        warmup.add("fresh", 1);
+        assertFalse(warmup.isWarm(0.5));
+        warmup.start();
+        awaitWarm();
+
+        assertEquals(1, warmup.getAlreadyWarmCount());
+        assertEquals(2, warmup.getFailedCount());
+        assertEquals(1, warmup.getTranslatedCount());
+        verify(mockTranslator, never()).translate("cached");
+        assertEquals(0.5, warmup.getWarmFraction());
+        assertFalse(warmup.isWarm(0.75));
+    }
+
+    @Test
+    @DisplayName("Should retry failed lookups once the queue is idle")
+    void testRetryFailedLookups() throws Exception {
+        doReturn("flaky").when(mockTranslator).translate("flaky");
+
+        warmup = builder().withRetryMillis(50).build();
+        warmup.add("flaky", 1);
+        warmup.start();
+        for (int i = 0; i < 500 && warmup.getFailedCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, warmup.getTranslatedCount());
+        assertFalse(warmup.isWarm(1.0));
+
+        // The service recovers
+        cachedWords.add("flaky");
+        for (int i = 0; i < 500 && !warmup.isWarm(1.0); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(warmup.isWarm(1.0));
+        assertEquals(0, warmup.getFailedCount());
+        assertEquals(1, warmup.getAlreadyWarmCount());
+    }
+
+    @Test
+    @DisplayName("Should warm again when the translator's version moves, without flapping readiness")
+    void testRewarmOnVersionChange() throws Exception {
+        warmup = builder().withMinRewarmMillis(1).build();
+        warmup.add("flor", 1);
+        warmup.start();
+        awaitWarm();
+        assertTrue(warmup.isWarm(1.0));
+        assertEquals(Collections.singletonList("flor"), translatedWords);
+
+        // A cache clear: the word needs a remote lookup again
+        cachedWords.clear();
+        when(mockTranslator.getVersion()).thenReturn(1L);
+        for (int i = 0; i < 500 && translatedWords.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Arrays.asList("flor", "flor"), translatedWords);
+        assertEquals(2, warmup.getRound());
+        assertTrue(warmup.isWarm(1.0), "Readiness stays once reached");
+    }
+
+    @Test
+    @DisplayName("Should hold remote lookups to the configured rate")
+    void testRateLimit() throws Exception {
+        warmup = builder().withWordsPerSecond(20).withConcurrency(4).build();
+        for (int i = 0; i < 60; i++) {
+            warmup.add("w" + (char) ('a' + i % 26) + (char) ('a' + i / 26), 1);
+        }
+        warmup.start();
+        Thread.sleep(1000);
+
+        // The 20 word burst plus about a second at 20 words per second
+        assertTrue(warmup.getTranslatedCount() <= 45, "Translated " + warmup.getTranslatedCount());
+        assertTrue(warmup.getRemainingCount() > 0);
+        assertTrue(warmup.getWarmFraction() < 1.0);
+    }
+}